@@ -22,6 +22,7 @@ CREATE TABLE IF NOT EXISTS task_execution (
     INDEX idx_trace_id (trace_id),
     INDEX idx_status (status),
     INDEX idx_user_id (user_id),
+    INDEX idx_user_started_at (user_id, started_at),
     INDEX idx_started_at (started_at),
     INDEX idx_task_type (task_type),
     INDEX idx_domain (domain)
@@ -56,3 +57,21 @@ CREATE TABLE IF NOT EXISTS tool_config (
     INDEX idx_enabled (enabled),
     INDEX idx_category (category)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Tool 配置表';
+
+-- Agent 延迟直方图快照表
+CREATE TABLE IF NOT EXISTS agent_latency_snapshot (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    agent_name VARCHAR(100) NOT NULL COMMENT 'Agent 名称',
+    stage VARCHAR(50) NOT NULL COMMENT '阶段: execute, persist',
+    window_start DATETIME NOT NULL,
+    window_end DATETIME NOT NULL,
+    sample_count BIGINT NOT NULL,
+    p50_ms BIGINT,
+    p95_ms BIGINT,
+    p99_ms BIGINT,
+    max_ms BIGINT,
+    histogram BLOB NOT NULL COMMENT 'HdrHistogram 压缩编码',
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_agent_stage_window (agent_name, stage, window_end),
+    INDEX idx_window_end (window_end)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Agent 延迟直方图快照表';
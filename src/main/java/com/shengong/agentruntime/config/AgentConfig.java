@@ -10,6 +10,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -22,6 +23,8 @@ import org.springframework.context.annotation.Configuration;
 @Slf4j
 @Configuration
 @RequiredArgsConstructor
+@EnableConfigurationProperties({ToolInvocationProperties.class, SyntheticDataProperties.class, StreamingAnomalyProperties.class,
+        AnomalyRuleProperties.class, LiveSeriesProperties.class})
 public class AgentConfig {
 
     private final AgentRegistry agentRegistry;
@@ -0,0 +1,54 @@
+package com.shengong.agentruntime.config;
+
+import com.shengong.agentruntime.core.analytics.rule.AnomalyRuleDefinition;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AnomalyDetectionAgent 异常规则配置
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@ConfigurationProperties(prefix = "agent-runtime.analytics.rules")
+public class AnomalyRuleProperties {
+
+    /**
+     * 是否从 agent_config 表读取规则; 表中对应行存在且 config.rules 非空时覆盖下面的 definitions
+     */
+    private boolean databaseEnabled = true;
+
+    /**
+     * agent_config 表中的行名
+     */
+    private String configName = "AnomalyDetectionAgent";
+
+    /**
+     * 定期重新加载规则的间隔
+     */
+    private long refreshIntervalMs = 60_000;
+
+    /**
+     * 维度规则每条最多输出的分组数 (按偏离程度排序)
+     */
+    private int maxMatchesPerRule = 20;
+
+    /**
+     * 默认规则, 与原先内置的三条阈值一致
+     */
+    private List<AnomalyRuleDefinition> definitions = new ArrayList<>(List.of(
+            AnomalyRuleDefinition.builder()
+                    .type("HIGH_REFUND_RATE").metric("refundRate").operator(">").threshold(0.15).severity("high")
+                    .description("退货率异常高: {value%}，正常范围应低于{threshold%}").build(),
+            AnomalyRuleDefinition.builder()
+                    .type("HIGH_DELAY_RATE").metric("delayRate").operator(">").threshold(0.10).severity("medium")
+                    .description("发货延迟率过高: {value%}，影响了 {delayedShipments} 个订单").build(),
+            AnomalyRuleDefinition.builder()
+                    .type("SLOW_PROCESSING").metric("avgProcessingTimeHours").operator(">").threshold(48).severity("medium")
+                    .description("平均处理时间过长: {value} 小时，正常应在 {threshold} 小时内").build()
+    ));
+}
@@ -0,0 +1,148 @@
+package com.shengong.agentruntime.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 读写分离数据源配置
+ * {@code @Transactional(readOnly = true)} 的方法路由到只读连接池, 其余走主库连接池,
+ * 两个连接池独立配置大小, 避免统计查询占满写入路径的连接.
+ * 默认关闭; 未配置 replica url 时只读连接池也连接主库, 单库环境 (本地开发、测试) 可以直接开启
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "agent-runtime.datasource.read-write-split", name = "enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    /**
+     * 主库连接池, 使用 spring.datasource 配置
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryPool(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary-pool");
+        return dataSource;
+    }
+
+    /**
+     * 只读连接池, 未配置 replica url 时连接主库 (单库环境下仍保持独立的连接池)
+     */
+    @Bean
+    @ConfigurationProperties("agent-runtime.datasource.replica.hikari")
+    public HikariDataSource replicaPool(
+            DataSourceProperties properties,
+            @Value("${agent-runtime.datasource.replica.url:}") String url,
+            @Value("${agent-runtime.datasource.replica.username:}") String username,
+            @Value("${agent-runtime.datasource.replica.password:}") String password) {
+
+        boolean useReplica = StringUtils.isNotBlank(url);
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica-pool");
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(useReplica ? url : properties.determineUrl());
+        dataSource.setUsername(useReplica && StringUtils.isNotBlank(username) ? username : properties.determineUsername());
+        dataSource.setPassword(useReplica && StringUtils.isNotBlank(password) ? password : properties.determinePassword());
+        dataSource.setReadOnly(true);
+
+        log.info("Read-only pool configured: target={}", useReplica ? "replica" : "primary");
+        return dataSource;
+    }
+
+    /**
+     * 路由数据源
+     * 延迟获取物理连接, 直到事务的只读标记已设置后再选择连接池
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryPool") HikariDataSource primaryPool,
+                                 @Qualifier("replicaPool") HikariDataSource replicaPool,
+                                 @Value("${agent-runtime.datasource.replica.failure-cooldown:30s}") Duration cooldown) {
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primaryPool);
+        routing.setReadOnlyDataSource(new FallbackDataSource(replicaPool, primaryPool, cooldown, System::nanoTime));
+        return routing;
+    }
+
+    /**
+     * 只读连接池不可用时回退到主库
+     * 一次获取失败后在冷却期内直接走主库, 不再让每个只读请求都等满只读连接池的 connection-timeout;
+     * 冷却期过后的下一次请求重新尝试只读连接池
+     */
+    static class FallbackDataSource extends DelegatingDataSource {
+
+        private final DataSource fallback;
+        private final long cooldownNanos;
+        private final LongSupplier nanoClock;
+
+        /**
+         * 冷却期结束的时间点 (nanoTime), 0 表示只读连接池可用
+         */
+        private volatile long retryAt;
+
+        FallbackDataSource(DataSource target, DataSource fallback, Duration cooldown, LongSupplier nanoClock) {
+            super(target);
+            this.fallback = fallback;
+            this.cooldownNanos = cooldown.toNanos();
+            this.nanoClock = nanoClock;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return connect(DataSource::getConnection);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return connect(dataSource -> dataSource.getConnection(username, password));
+        }
+
+        private Connection connect(ConnectionSource source) throws SQLException {
+            long until = retryAt;
+            if (until == 0 || nanoClock.getAsLong() - until >= 0) {
+                try {
+                    Connection connection = source.get(obtainTargetDataSource());
+                    if (until != 0) {
+                        retryAt = 0;
+                        log.info("Read-only pool recovered");
+                    }
+                    return connection;
+                } catch (SQLException e) {
+                    retryAt = nanoClock.getAsLong() + cooldownNanos;
+                    log.warn("Read-only pool unavailable, routing reads to primary for {} ms: {}",
+                            TimeUnit.NANOSECONDS.toMillis(cooldownNanos), e.getMessage());
+                }
+            }
+            Connection connection = source.get(fallback);
+            connection.setReadOnly(true);
+            return connection;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+}
@@ -0,0 +1,84 @@
+package com.shengong.agentruntime.config;
+
+import com.shengong.agentruntime.core.analytics.timeseries.Downsampler;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 直播时间序列分析配置 (LiveDataPrepAgent) 与直播链路各环节的时间线下采样
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@ConfigurationProperties(prefix = "agent-runtime.analytics.live")
+public class LiveSeriesProperties {
+
+    /**
+     * 输出序列的默认分辨率, 原始粒度更粗时保持原始粒度
+     */
+    private Duration resolution = Duration.ofMinutes(10);
+
+    /**
+     * 滚动窗口长度 (窗口 GMV、窗口转化率等)
+     */
+    private Duration rollingWindow = Duration.ofMinutes(15);
+
+    /**
+     * 峰值检测前先重采样到该分辨率, 平滑秒级噪声
+     */
+    private Duration peakResolution = Duration.ofMinutes(1);
+
+    /**
+     * 峰值检测的尾随基线窗口
+     */
+    private Duration peakWindow = Duration.ofMinutes(30);
+
+    /**
+     * 峰值需超过基线的标准差倍数
+     */
+    private double peakThreshold = 3.0;
+
+    /**
+     * 峰值还需相对基线至少上升该比例
+     */
+    private double peakMinRise = 0.2;
+
+    /**
+     * 每个指标最多输出的峰值数
+     */
+    private int maxPeaks = 10;
+
+    /**
+     * 时间线下采样, 各消费方的点数预算 (0 表示不下采样), 调用参数 maxPoints 优先
+     */
+    private Downsampling downsampling = new Downsampling();
+
+    @Data
+    public static class Downsampling {
+
+        private Downsampler.Method method = Downsampler.Method.LTTB;
+
+        /**
+         * LiveDataTool 返回的 timeline
+         */
+        private int toolPoints = 1000;
+
+        /**
+         * LiveDataPrepAgent 输出的 timeSeries.slots
+         */
+        private int prepPoints = 500;
+
+        /**
+         * LiveAnalysisAgent 发给 LLM 的时间序列
+         */
+        private int analysisPoints = 60;
+
+        /**
+         * LiveReportAgent 报告中的趋势数据
+         */
+        private int reportPoints = 240;
+    }
+}
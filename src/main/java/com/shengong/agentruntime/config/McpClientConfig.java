@@ -0,0 +1,31 @@
+package com.shengong.agentruntime.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.core.mcp.McpClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * 内置 MCP 客户端配置
+ * streamable HTTP 传输复用 Tool 共享的 WebClient 连接池
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(McpProperties.class)
+public class McpClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public McpClient mcpClient(McpProperties properties,
+                               ObjectMapper objectMapper,
+                               @Qualifier("toolWebClient") WebClient toolWebClient) {
+        log.info("MCP client configured: servers={}", properties.getServers().keySet());
+        return new McpClient(properties, objectMapper, toolWebClient);
+    }
+}
@@ -0,0 +1,72 @@
+package com.shengong.agentruntime.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MCP 客户端配置
+ * servers 中配置的服务由内置客户端直连 (stdio / streamable HTTP), 其余仍走 MCP 代理
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@ConfigurationProperties(prefix = "agent-runtime.mcp")
+public class McpProperties {
+
+    /**
+     * 单个 JSON-RPC 请求的超时时间
+     */
+    private Duration requestTimeout = Duration.ofSeconds(30);
+
+    /**
+     * tools/list 结果的缓存时间, 服务端发出 list_changed 通知时提前失效
+     */
+    private Duration toolsCacheTtl = Duration.ofMinutes(10);
+
+    /**
+     * 服务名 -> 连接配置
+     */
+    private Map<String, Server> servers = new LinkedHashMap<>();
+
+    public enum Transport {
+        STDIO, HTTP
+    }
+
+    @Data
+    public static class Server {
+
+        private Transport transport = Transport.STDIO;
+
+        /**
+         * stdio: 启动服务进程的命令及参数
+         */
+        private List<String> command = new ArrayList<>();
+
+        /**
+         * stdio: 额外的环境变量
+         */
+        private Map<String, String> env = new LinkedHashMap<>();
+
+        /**
+         * stdio: 工作目录
+         */
+        private String workingDirectory;
+
+        /**
+         * http: MCP 端点地址
+         */
+        private String url;
+
+        /**
+         * http: 附加请求头 (如认证信息)
+         */
+        private Map<String, String> headers = new LinkedHashMap<>();
+    }
+}
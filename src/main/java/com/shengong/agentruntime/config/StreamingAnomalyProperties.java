@@ -0,0 +1,117 @@
+package com.shengong.agentruntime.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 流式订单异常检测配置
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@ConfigurationProperties(prefix = "agent-runtime.analytics.stream")
+public class StreamingAnomalyProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 事件队列容量, 队列满时丢弃新事件 (计入 dropped 指标), 保证内存有界
+     */
+    private int queueCapacity = 100_000;
+
+    /**
+     * 时间桶长度, 每个桶结束时评估一次, 决定告警延迟
+     */
+    private Duration bucketInterval = Duration.ofSeconds(10);
+
+    /**
+     * 滑动窗口包含的桶数, 退款率等比率指标按窗口累计计算
+     */
+    private int windowBuckets = 30;
+
+    /**
+     * 事件时间最多可超前墙钟多少, 超出的事件拒绝 (计入 rejected 指标), 不推进事件时钟; 未配置时为一个桶长度
+     */
+    private Duration maxClockSkew;
+
+    /**
+     * 基线的 EWMA 平滑系数 (每个桶更新一次)
+     */
+    private double ewmaAlpha = 0.02;
+
+    /**
+     * 基线至少更新多少次后才开始告警
+     */
+    private int warmupBuckets = 30;
+
+    /**
+     * 告警的 z-score 阈值, 达到两倍时为 high
+     */
+    private double scoreThreshold = 4.0;
+
+    /**
+     * 告警还要求相对基线的变化不小于该比例, 避免大单量下统计显著但业务上无意义的偏移
+     */
+    private double minRelativeChange = 0.2;
+
+    /**
+     * 窗口内订单少于该值时不评估比率指标
+     */
+    private int minSamples = 30;
+
+    /**
+     * 同一维度、同一指标两次告警的最小间隔
+     */
+    private Duration alertCooldown = Duration.ofMinutes(5);
+
+    /**
+     * 单量基线按一天内的时段区分 (季节性), 每天的时段数; 每个时段各自预热
+     */
+    private int seasonalSlotsPerDay = 24;
+
+    /**
+     * 参与检测的维度 (OrderEvent 字段), 全局指标总是检测
+     */
+    private List<String> dimensions = new ArrayList<>(List.of("shopId", "region", "channel"));
+
+    /**
+     * 同时跟踪的维度取值上限, 超出时淘汰最久未出现的取值
+     */
+    private int maxKeys = 10_000;
+
+    /**
+     * 内存中保留的最近告警条数
+     */
+    private int recentAlerts = 200;
+
+    private RootCause rootCause = new RootCause();
+
+    @Data
+    public static class RootCause {
+
+        /**
+         * 告警后自动提交 RootCauseAgent 分析
+         */
+        private boolean enabled = true;
+
+        /**
+         * 首个告警后等待该时长, 把同一时段的告警合并为一次分析
+         */
+        private Duration batchDelay = Duration.ofSeconds(5);
+
+        /**
+         * 两次分析的最小间隔, 期间的告警合并到下一次
+         */
+        private Duration minInterval = Duration.ofMinutes(1);
+
+        /**
+         * 单次分析携带的告警上限 (按 z-score 取前 N 个)
+         */
+        private int maxAnomalies = 20;
+    }
+}
@@ -0,0 +1,94 @@
+package com.shengong.agentruntime.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 模拟数据生成配置 (OrderDataTool / LiveDataTool 的默认值)
+ * Tool 参数中的同名字段优先于这里的配置
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@ConfigurationProperties(prefix = "agent-runtime.tool.synthetic")
+public class SyntheticDataProperties {
+
+    /**
+     * 记录数达到该值时分块并行生成
+     */
+    private int parallelThreshold = 50_000;
+
+    /**
+     * 并行生成与 NDJSON 流式输出的分块大小
+     */
+    private int chunkSize = 65_536;
+
+    private Orders orders = new Orders();
+
+    private Live live = new Live();
+
+    @Data
+    public static class Orders {
+
+        private int defaultCount = 100;
+
+        /**
+         * 单次在内存中生成的最大订单数, 更大的数据量请使用 NDJSON 流式接口
+         */
+        private int maxCount = 10_000_000;
+
+        private int shops = 200;
+
+        private int skus = 5_000;
+
+        private int regions = 31;
+
+        private int buyers = 50_000;
+
+        private double skew = 2.0;
+
+        private double refundRate = 0.13;
+
+        private double cancelRate = 0.03;
+
+        private double delayRate = 0.08;
+
+        private double amountMedian = 150.0;
+
+        private double amountSigma = 0.8;
+
+        private double processingMedianHours = 24.0;
+
+        /**
+         * 未指定 anomalies 时是否注入默认异常 (退款激增 + 发货延迟激增)
+         */
+        private boolean injectAnomalies = true;
+    }
+
+    @Data
+    public static class Live {
+
+        /**
+         * 默认时间片长度; Tool 参数 granularitySeconds 可细到秒级
+         */
+        private int granularityMinutes = 120;
+
+        private int maxSlots = 1_000_000;
+
+        private int baseViewers = 500;
+
+        private double conversionRate = 0.00015;
+
+        private double avgOrderValue = 160.0;
+
+        private int peaks = 3;
+
+        private double avgWatchMinutes = 12.0;
+
+        /**
+         * 未指定 anomalies 时是否注入默认异常 (转化率下跌)
+         */
+        private boolean injectAnomalies = true;
+    }
+}
@@ -0,0 +1,82 @@
+package com.shengong.agentruntime.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tool 共享 HTTP 连接池配置
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@ConfigurationProperties(prefix = "agent-runtime.http-client")
+public class ToolHttpClientProperties {
+
+    /**
+     * 每个目标主机的最大连接数
+     */
+    private int maxConnections = 100;
+
+    /**
+     * 每个目标主机等待获取连接的最大请求数
+     */
+    private int pendingAcquireMaxCount = 500;
+
+    /**
+     * 等待获取连接的超时时间
+     */
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+
+    /**
+     * 空闲连接保留时间, 应小于服务端的 keep-alive 超时
+     */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    /**
+     * 连接最长存活时间, 便于服务端扩缩容后重新均衡
+     */
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+
+    /**
+     * 后台清理过期连接的间隔
+     */
+    private Duration evictInterval = Duration.ofSeconds(30);
+
+    private Duration connectTimeout = Duration.ofSeconds(3);
+
+    private Duration responseTimeout = Duration.ofSeconds(30);
+
+    /**
+     * 是否启用 HTTP/2 (仅 HTTPS, 通过 ALPN 协商, 不支持时回退 HTTP/1.1)
+     */
+    private boolean http2Enabled = true;
+
+    /**
+     * 响应体在内存中聚合的最大大小
+     */
+    private DataSize maxResponseSize = DataSize.ofMegabytes(10);
+
+    /**
+     * 启动时预热事件循环、DNS 解析器与 TLS 上下文
+     */
+    private boolean warmup = true;
+
+    /**
+     * 按主机覆盖连接池配置, key 为 host:port
+     */
+    private Map<String, HostPool> hosts = new LinkedHashMap<>();
+
+    @Data
+    public static class HostPool {
+
+        private Integer maxConnections;
+
+        private Integer pendingAcquireMaxCount;
+    }
+}
@@ -0,0 +1,66 @@
+package com.shengong.agentruntime.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tool 调用链配置
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@ConfigurationProperties(prefix = "agent-runtime.tool.invocation")
+public class ToolInvocationProperties {
+
+    /**
+     * 结果缓存的最大条数 (所有 Tool 共享, LRU 淘汰)
+     */
+    private int cacheMaxEntries = 1000;
+
+    /**
+     * 达到并发上限时等待空闲名额的最长时间
+     */
+    private Duration concurrencyWaitTimeout = Duration.ofSeconds(5);
+
+    /**
+     * 退避时间上限
+     */
+    private Duration maxRetryBackoff = Duration.ofSeconds(10);
+
+    /**
+     * 是否从 tool_config 表读取策略; 表中已启用行的 config.policy 优先于下面的 policies
+     */
+    private boolean databaseEnabled = true;
+
+    /**
+     * 定期重新加载 tool_config 的间隔
+     */
+    private long refreshIntervalMs = 60_000;
+
+    /**
+     * 按 Tool 名覆盖 @ToolDefinition 中的调用策略, 未设置的字段沿用注解;
+     * 运行期注册的 Tool (如 MCP 工具) 没有注解, 在这里或 tool_config 表中配置
+     */
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    @Data
+    public static class Policy {
+
+        private Boolean idempotent;
+
+        private Integer maxRetries;
+
+        private Duration retryBackoff;
+
+        private Duration timeout;
+
+        private Integer maxConcurrency;
+
+        private Duration cacheTtl;
+    }
+}
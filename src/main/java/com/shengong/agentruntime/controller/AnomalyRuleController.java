@@ -0,0 +1,52 @@
+package com.shengong.agentruntime.controller;
+
+import com.shengong.agentruntime.core.analytics.rule.AnomalyRuleEngine;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 异常规则控制器
+ * 查看 AnomalyDetectionAgent 当前生效的规则, 修改 agent_config 表后可立即重新加载
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/analytics/rules")
+@RequiredArgsConstructor
+@Tag(name = "Anomaly Rule API", description = "异常检测规则接口")
+public class AnomalyRuleController {
+
+    private final AnomalyRuleEngine ruleEngine;
+
+    /**
+     * 当前规则
+     */
+    @GetMapping
+    @Operation(summary = "当前规则", description = "查询当前生效的异常规则及其来源")
+    public ResponseEntity<Map<String, Object>> rules() {
+        return ResponseEntity.ok(ruleEngine.describe());
+    }
+
+    /**
+     * 重新加载规则
+     */
+    @PostMapping("/reload")
+    @Operation(summary = "重新加载规则", description = "立即从 agent_config 表或配置重新加载规则, 规则无效时返回 400 并保留原有规则")
+    public ResponseEntity<Map<String, Object>> reload() {
+        try {
+            ruleEngine.reload();
+            return ResponseEntity.ok(ruleEngine.describe());
+        } catch (IllegalArgumentException e) {
+            log.warn("Reload anomaly rules failed: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.shengong.agentruntime.controller;
+
+import com.shengong.agentruntime.core.analytics.stream.OrderEvent;
+import com.shengong.agentruntime.core.analytics.stream.StreamingAlert;
+import com.shengong.agentruntime.core.analytics.stream.StreamingAnomalyDetector;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 流式异常检测控制器
+ * 接收订单事件并查询实时告警
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/analytics/stream")
+@RequiredArgsConstructor
+@Tag(name = "Streaming Anomaly API", description = "流式订单异常检测接口")
+public class StreamingAnomalyController {
+
+    private final StreamingAnomalyDetector detector;
+
+    /**
+     * 提交订单事件
+     */
+    @PostMapping("/events")
+    @Operation(summary = "提交订单事件", description = "批量提交订单事件, 字段同 orderList 中的订单; 队列满时多余事件被丢弃")
+    public ResponseEntity<Map<String, Object>> publish(@RequestBody List<Map<String, Object>> events) {
+        int accepted = detector.publishAll(events.stream().map(OrderEvent::fromMap).toList());
+        if (accepted < events.size()) {
+            log.warn("Streaming anomaly queue rejected {} of {} events", events.size() - accepted, events.size());
+        }
+        return ResponseEntity.ok(Map.of(
+                "received", events.size(),
+                "accepted", accepted
+        ));
+    }
+
+    /**
+     * 最近的告警
+     */
+    @GetMapping("/alerts")
+    @Operation(summary = "最近告警", description = "查询流式检测最近产生的告警, 新的在前")
+    public ResponseEntity<List<Map<String, Object>>> alerts(
+            @Parameter(description = "返回条数") @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(detector.recentAlerts(limit).stream().map(StreamingAlert::toMap).toList());
+    }
+
+    /**
+     * 检测状态
+     */
+    @GetMapping("/status")
+    @Operation(summary = "检测状态", description = "队列长度、跟踪的维度取值数与事件计数")
+    public ResponseEntity<Map<String, Object>> status() {
+        return ResponseEntity.ok(detector.status());
+    }
+}
@@ -0,0 +1,101 @@
+package com.shengong.agentruntime.controller;
+
+import com.shengong.agentruntime.core.tool.synthetic.LiveSpec;
+import com.shengong.agentruntime.core.tool.synthetic.OrderSpec;
+import com.shengong.agentruntime.core.tool.synthetic.SyntheticDataGenerator;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 模拟数据控制器
+ * 以 NDJSON 流式输出 OrderDataTool / LiveDataTool 使用的同一份可复现数据, 用作压测与基准测试的数据集
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/synthetic")
+@RequiredArgsConstructor
+@Tag(name = "Synthetic Data API", description = "模拟数据生成接口")
+public class SyntheticDataController {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final SyntheticDataGenerator generator;
+
+    /**
+     * 流式生成订单
+     */
+    @PostMapping("/orders")
+    @Operation(summary = "生成订单数据", description = "按 order_data_tool 的参数流式生成 NDJSON 订单, 数据量不受内存上限限制")
+    public ResponseEntity<StreamingResponseBody> orders(
+            @RequestBody(required = false) Map<String, Object> arguments,
+            @Parameter(description = "是否 gzip 压缩") @RequestParam(defaultValue = "false") boolean gzip) {
+
+        OrderSpec spec;
+        try {
+            spec = generator.orderSpec(arguments != null ? arguments : Map.of());
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid synthetic order arguments: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Generate synthetic orders: count={}, seed={}, gzip={}", spec.getCount(), spec.getSeed(), gzip);
+
+        return stream("orders_" + spec.getSeed(), gzip, out -> generator.writeOrders(spec, out));
+    }
+
+    /**
+     * 生成直播时间线
+     */
+    @PostMapping("/live")
+    @Operation(summary = "生成直播时间线", description = "按 live_data_tool 的参数生成 NDJSON 时间线, 每行一个时间片")
+    public ResponseEntity<StreamingResponseBody> live(
+            @RequestBody(required = false) Map<String, Object> arguments,
+            @Parameter(description = "是否 gzip 压缩") @RequestParam(defaultValue = "false") boolean gzip) {
+
+        LiveSpec spec;
+        try {
+            spec = generator.liveSpec(arguments != null ? arguments : Map.of());
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid synthetic live arguments: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Generate synthetic live timeline: slots={}, seed={}, gzip={}", spec.slots(), spec.getSeed(), gzip);
+
+        return stream("live_" + spec.getSeed(), gzip, out -> generator.writeLive(spec, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(String name, boolean gzip, StreamingResponseBody writer) {
+        if (!gzip) {
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + ".ndjson\"")
+                    .contentType(NDJSON)
+                    .body(writer);
+        }
+
+        StreamingResponseBody body = out -> {
+            try (OutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER_SIZE)) {
+                writer.writeTo(compressed);
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + ".ndjson.gz\"")
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .body(body);
+    }
+}
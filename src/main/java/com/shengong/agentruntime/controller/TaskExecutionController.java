@@ -1,23 +1,34 @@
 package com.shengong.agentruntime.controller;
 
-import com.shengong.agentruntime.entity.TaskExecutionEntity;
+import com.shengong.agentruntime.model.KeysetPage;
+import com.shengong.agentruntime.model.LatencyPercentiles;
+import com.shengong.agentruntime.model.TaskExecutionCursor;
+import com.shengong.agentruntime.model.TaskExecutionSummary;
+import com.shengong.agentruntime.model.TaskSearchQuery;
+import com.shengong.agentruntime.model.TaskSearchResult;
+import com.shengong.agentruntime.service.LatencyStatsService;
 import com.shengong.agentruntime.service.TaskExecutionService;
+import com.shengong.agentruntime.service.TaskSearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * 任务执行记录控制器
@@ -33,57 +44,175 @@ import java.util.Map;
 @Tag(name = "Task Execution API", description = "任务执行记录查询接口")
 public class TaskExecutionController {
 
+    private static final DateTimeFormatter EXPORT_FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private static final int EXPORT_GZIP_BUFFER_SIZE = 64 * 1024;
+
     private final TaskExecutionService taskExecutionService;
+    private final LatencyStatsService latencyStatsService;
+    private final TaskSearchService taskSearchService;
 
     /**
      * 查询最近的任务记录
      */
     @GetMapping("/recent")
-    @Operation(summary = "最近任务", description = "查询最近10条任务执行记录")
-    public ResponseEntity<List<TaskExecutionEntity>> getRecentTasks() {
-        log.info("Query recent tasks");
+    @Operation(summary = "最近任务", description = "查询最近的任务执行记录, 默认返回摘要")
+    public ResponseEntity<List<?>> getRecentTasks(
+            @Parameter(description = "记录数") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "是否返回完整记录 (包含 payload / result)") @RequestParam(defaultValue = "false") boolean full) {
+        log.info("Query recent tasks: size={}, full={}", size, full);
 
-        List<TaskExecutionEntity> tasks = taskExecutionService.findRecentTasks();
+        List<TaskExecutionSummary> summaries = taskExecutionService.findRecentSummaries(size);
 
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(full ? taskExecutionService.loadFullRecords(summaries) : summaries);
     }
 
     /**
      * 根据用户ID分页查询
      */
     @GetMapping("/user/{userId}")
-    @Operation(summary = "用户任务历史", description = "分页查询用户的任务执行记录")
-    public ResponseEntity<Page<TaskExecutionEntity>> getUserTasks(
+    @Operation(summary = "用户任务历史", description = "按 (startedAt, id) 倒序 Keyset 分页查询用户的任务执行记录")
+    public ResponseEntity<KeysetPage<?>> getUserTasks(
             @PathVariable String userId,
-            @Parameter(description = "页码(从0开始)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "上一页返回的 nextCursor, 为空时查询第一页") @RequestParam(required = false) String cursor,
             @Parameter(description = "每页记录数") @RequestParam(defaultValue = "20") int size,
-            @Parameter(description = "排序字段") @RequestParam(defaultValue = "startedAt") String sortBy,
-            @Parameter(description = "排序方向") @RequestParam(defaultValue = "DESC") Sort.Direction direction) {
+            @Parameter(description = "是否返回完整记录 (包含 payload / result)") @RequestParam(defaultValue = "false") boolean full) {
 
-        log.info("Query tasks for user: userId={}, page={}, size={}", userId, page, size);
+        log.info("Query tasks for user: userId={}, cursor={}, size={}, full={}", userId, cursor, size, full);
+
+        TaskExecutionCursor position;
+        try {
+            position = TaskExecutionCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid cursor: {}", cursor);
+            return ResponseEntity.badRequest().build();
+        }
 
-        PageRequest pageRequest = PageRequest.of(page, size, Sort.by(direction, sortBy));
-        Page<TaskExecutionEntity> tasks = taskExecutionService.findByUserId(userId, pageRequest);
+        KeysetPage<TaskExecutionSummary> page = taskExecutionService.findSummariesByUserId(userId, position, size);
 
-        return ResponseEntity.ok(tasks);
+        return ResponseEntity.ok(full ? page.map(taskExecutionService::loadFullRecords) : page);
     }
 
     /**
      * 根据时间范围查询
      */
     @GetMapping("/range")
-    @Operation(summary = "时间范围查询", description = "查询指定时间范围内的任务记录")
-    public ResponseEntity<List<TaskExecutionEntity>> getTasksByTimeRange(
+    @Operation(summary = "时间范围查询", description = "按 (startedAt, id) 倒序 Keyset 分页查询指定时间范围内的任务记录")
+    public ResponseEntity<KeysetPage<?>> getTasksByTimeRange(
             @Parameter(description = "开始时间 (格式: yyyy-MM-dd'T'HH:mm:ss)")
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
             @Parameter(description = "结束时间 (格式: yyyy-MM-dd'T'HH:mm:ss)")
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @Parameter(description = "上一页返回的 nextCursor, 为空时查询第一页") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页记录数") @RequestParam(defaultValue = "50") int size,
+            @Parameter(description = "是否返回完整记录 (包含 payload / result)") @RequestParam(defaultValue = "false") boolean full) {
+
+        log.info("Query tasks by time range: {} to {}, cursor={}, size={}, full={}", startTime, endTime, cursor, size, full);
+
+        TaskExecutionCursor position;
+        try {
+            position = TaskExecutionCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid cursor: {}", cursor);
+            return ResponseEntity.badRequest().build();
+        }
+
+        KeysetPage<TaskExecutionSummary> page =
+                taskExecutionService.findSummariesByTimeRange(startTime, endTime, position, size);
+
+        return ResponseEntity.ok(full ? page.map(taskExecutionService::loadFullRecords) : page);
+    }
 
-        log.info("Query tasks by time range: {} to {}", startTime, endTime);
+    /**
+     * 全文检索执行记录
+     */
+    @GetMapping("/search")
+    @Operation(summary = "检索执行记录", description = "按摘要、错误信息与结果文本全文检索执行记录, 返回 agentName / status / domain 分面计数")
+    public ResponseEntity<TaskSearchResult> searchTasks(
+            @Parameter(description = "检索语句, 支持 \"短语\"、-排除、| 或") @RequestParam(required = false) String q,
+            @Parameter(description = "Agent 名称 (可选)") @RequestParam(required = false) String agentName,
+            @Parameter(description = "执行状态 (可选)") @RequestParam(required = false) String status,
+            @Parameter(description = "领域 (可选)") @RequestParam(required = false) String domain,
+            @Parameter(description = "用户ID (可选)") @RequestParam(required = false) String userId,
+            @Parameter(description = "开始时间 (可选)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @Parameter(description = "结束时间 (可选)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @Parameter(description = "排序: relevance 或 time") @RequestParam(defaultValue = "relevance") String sort,
+            @Parameter(description = "起始偏移") @RequestParam(defaultValue = "0") int from,
+            @Parameter(description = "每页记录数") @RequestParam(defaultValue = "20") int size) throws IOException {
+
+        log.info("Search tasks: q={}, agentName={}, status={}, domain={}, userId={}, sort={}, from={}, size={}",
+                q, agentName, status, domain, userId, sort, from, size);
+
+        TaskSearchQuery query = TaskSearchQuery.builder()
+                .q(q)
+                .agentName(agentName)
+                .status(status)
+                .domain(domain)
+                .userId(userId)
+                .startTime(startTime)
+                .endTime(endTime)
+                .sort(sort)
+                .from(from)
+                .size(size)
+                .build();
+
+        try {
+            return ResponseEntity.ok(taskSearchService.search(query));
+        } catch (IllegalStateException e) {
+            log.warn("Task search unavailable: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
 
-        List<TaskExecutionEntity> tasks = taskExecutionService.findByTimeRange(startTime, endTime);
+    /**
+     * 重建检索索引
+     */
+    @PostMapping("/search/rebuild")
+    @Operation(summary = "重建检索索引", description = "从执行记录全量重建全文检索索引")
+    public ResponseEntity<Map<String, Object>> rebuildSearchIndex() throws IOException {
+        log.info("Rebuild task search index");
+
+        try {
+            long indexed = taskSearchService.rebuild();
+            return ResponseEntity.ok(Map.of("indexedCount", indexed));
+        } catch (IllegalStateException e) {
+            log.warn("Task search unavailable: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
 
-        return ResponseEntity.ok(tasks);
+    /**
+     * 流式导出执行记录
+     */
+    @GetMapping("/export")
+    @Operation(summary = "导出执行记录", description = "以 gzip 压缩的 NDJSON 流式导出指定时间范围内的完整执行记录, 中途失败时最后一行为 {\"error\": ...}")
+    public ResponseEntity<StreamingResponseBody> exportTasks(
+            @Parameter(description = "开始时间 (格式: yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @Parameter(description = "结束时间 (格式: yyyy-MM-dd'T'HH:mm:ss)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @Parameter(description = "Agent 名称 (可选)") @RequestParam(required = false) String agentName,
+            @Parameter(description = "执行状态 (可选)") @RequestParam(required = false) String status,
+            @Parameter(description = "用户ID (可选)") @RequestParam(required = false) String userId) {
+
+        log.info("Export tasks: {} to {}, agentName={}, status={}, userId={}",
+                startTime, endTime, agentName, status, userId);
+
+        String fileName = String.format("task_execution_%s_%s.ndjson.gz",
+                startTime.format(EXPORT_FILE_TIME_FORMAT), endTime.format(EXPORT_FILE_TIME_FORMAT));
+
+        StreamingResponseBody body = out -> {
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out, EXPORT_GZIP_BUFFER_SIZE)) {
+                taskExecutionService.exportNdjson(startTime, endTime, agentName, status, userId, gzip);
+            }
+        };
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .body(body);
     }
 
     /**
@@ -130,6 +259,21 @@ public class TaskExecutionController {
         return ResponseEntity.ok(statistics);
     }
 
+    /**
+     * 获取 Agent 延迟分位数
+     */
+    @GetMapping("/statistics/latency")
+    @Operation(summary = "Agent延迟分位数", description = "获取各Agent及各阶段在指定时间窗口内的 p50/p95/p99 延迟")
+    public ResponseEntity<List<LatencyPercentiles>> getLatencyPercentiles(
+            @Parameter(description = "Agent 名称 (可选)") @RequestParam(required = false) String agentName,
+            @Parameter(description = "时间窗口 (分钟)") @RequestParam(defaultValue = "15") int windowMinutes) {
+        log.info("Query latency percentiles: agentName={}, windowMinutes={}", agentName, windowMinutes);
+
+        List<LatencyPercentiles> percentiles = latencyStatsService.getPercentiles(agentName, windowMinutes);
+
+        return ResponseEntity.ok(percentiles);
+    }
+
     /**
      * 删除指定任务记录
      */
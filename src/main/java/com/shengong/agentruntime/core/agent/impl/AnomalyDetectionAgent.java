@@ -2,6 +2,12 @@ package com.shengong.agentruntime.core.agent.impl;
 
 import com.shengong.agentruntime.core.agent.AbstractAgent;
 import com.shengong.agentruntime.core.agent.annotation.AgentDefinition;
+import com.shengong.agentruntime.core.analytics.DrillDownEngine;
+import com.shengong.agentruntime.core.analytics.OrderBatch;
+import com.shengong.agentruntime.core.analytics.OrderStatistics;
+import com.shengong.agentruntime.core.analytics.OrderStatisticsEngine;
+import com.shengong.agentruntime.core.analytics.rule.AnomalyRuleEngine;
+import com.shengong.agentruntime.core.analytics.rule.RuleSet;
 import com.shengong.agentruntime.core.param.AgentParam;
 import com.shengong.agentruntime.model.AgentResult;
 import com.shengong.agentruntime.model.AgentTask;
@@ -10,9 +16,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 异常检测 Agent
@@ -31,8 +39,16 @@ import java.util.Map;
 )
 public class AnomalyDetectionAgent extends AbstractAgent<AnomalyDetectionAgent.AnomalyDetectionParams> {
 
-    public AnomalyDetectionAgent() {
+    private final OrderStatisticsEngine statisticsEngine;
+    private final AnomalyRuleEngine ruleEngine;
+    private final DrillDownEngine drillDownEngine;
+
+    public AnomalyDetectionAgent(OrderStatisticsEngine statisticsEngine, AnomalyRuleEngine ruleEngine,
+                                 DrillDownEngine drillDownEngine) {
         super(AnomalyDetectionParams.class);
+        this.statisticsEngine = statisticsEngine;
+        this.ruleEngine = ruleEngine;
+        this.drillDownEngine = drillDownEngine;
     }
 
     @Data
@@ -47,18 +63,23 @@ public class AnomalyDetectionAgent extends AbstractAgent<AnomalyDetectionAgent.A
 
         try {
             Map<String, Object> orders = params.getOrders();
+            OrderBatch batch = toBatch(orders);
 
             // 计算统计指标
-            Map<String, Object> statistics = calculateStatistics(orders);
+            Map<String, Object> statistics = statisticsEngine.compute(batch).toMap();
+
+            // 按当前规则检测异常, 一次检测内使用同一份规则
+            List<Map<String, Object>> anomalies = detectAnomalies(batch, statistics, ruleEngine.current());
 
-            // 使用规则 + LLM 检测异常
-            List<Map<String, Object>> anomalies = detectAnomalies(statistics);
+            // 对异常涉及的指标下钻, 定位集中出现的维度组合
+            Map<String, List<Map<String, Object>>> drillDown = drillDown(batch, anomalies);
 
             String summary = String.format("检测到 %d 个异常模式", anomalies.size());
 
             return AgentResult.ok(summary, Map.of(
                     "anomalies", anomalies,
-                    "statistics", statistics
+                    "statistics", statistics,
+                    "drillDown", drillDown
             ));
 
         } catch (Exception e) {
@@ -68,89 +89,42 @@ public class AnomalyDetectionAgent extends AbstractAgent<AnomalyDetectionAgent.A
     }
 
     /**
-     * 计算订单统计指标
+     * orderList 转换为列式批次, 由统计引擎一次遍历完成聚合
      */
     @SuppressWarnings("unchecked")
-    private Map<String, Object> calculateStatistics(Map<String, Object> ordersData) {
-        Map<String, Object> stats = new HashMap<>();
-
+    private OrderBatch toBatch(Map<String, Object> ordersData) {
         List<Map<String, Object>> orders = (List<Map<String, Object>>)
                 ordersData.getOrDefault("orderList", List.of());
-
-        // 基础统计
-        stats.put("totalOrders", orders.size());
-
-        // 退货率
-        long refundCount = orders.stream()
-                .filter(o -> "REFUNDED".equals(o.get("status")))
-                .count();
-        double refundRate = orders.isEmpty() ? 0 : (double) refundCount / orders.size();
-        stats.put("refundRate", refundRate);
-        stats.put("refundCount", refundCount);
-
-        // 延迟发货数
-        long delayedShipments = orders.stream()
-                .filter(o -> Boolean.TRUE.equals(o.get("delayedShipment")))
-                .count();
-        stats.put("delayedShipments", delayedShipments);
-
-        // 平均处理时间
-        double avgProcessingTime = orders.stream()
-                .mapToDouble(o -> ((Number) o.getOrDefault("processingTimeHours", 24)).doubleValue())
-                .average()
-                .orElse(0);
-        stats.put("avgProcessingTimeHours", avgProcessingTime);
-
-        return stats;
+        return OrderBatch.from(orders);
     }
 
     /**
      * 检测异常
+     * 整体规则用整体统计评估; 作用于维度的规则只为其涉及的维度计算分组统计
      */
-    private List<Map<String, Object>> detectAnomalies(Map<String, Object> statistics) {
-        List<Map<String, Object>> anomalies = new ArrayList<>();
-
-        // 规则1: 退货率过高
-        double refundRate = ((Number) statistics.get("refundRate")).doubleValue();
-        if (refundRate > 0.15) { // 15%
-            anomalies.add(Map.of(
-                    "type", "HIGH_REFUND_RATE",
-                    "severity", "high",
-                    "metric", "refundRate",
-                    "value", refundRate,
-                    "threshold", 0.15,
-                    "description", String.format("退货率异常高: %.1f%%，正常范围应低于15%%", refundRate * 100)
-            ));
-        }
-
-        // 规则2: 延迟发货过多
-        long delayedShipments = ((Number) statistics.get("delayedShipments")).longValue();
-        long totalOrders = ((Number) statistics.get("totalOrders")).longValue();
-        double delayRate = totalOrders > 0 ? (double) delayedShipments / totalOrders : 0;
-        if (delayRate > 0.10) { // 10%
-            anomalies.add(Map.of(
-                    "type", "HIGH_DELAY_RATE",
-                    "severity", "medium",
-                    "metric", "delayedShipments",
-                    "value", delayedShipments,
-                    "rate", delayRate,
-                    "description", String.format("发货延迟率过高: %.1f%%，影响了 %d 个订单", delayRate * 100, delayedShipments)
-            ));
+    private List<Map<String, Object>> detectAnomalies(OrderBatch batch, Map<String, Object> statistics, RuleSet rules) {
+        List<Map<String, Object>> anomalies = new ArrayList<>(rules.evaluate(statistics));
+
+        for (String dimension : rules.dimensions()) {
+            Map<String, Map<String, Object>> slices = new LinkedHashMap<>();
+            for (Map.Entry<String, OrderStatistics> group : statisticsEngine.computeBy(batch, dimension).entrySet()) {
+                slices.put(group.getKey(), group.getValue().toMap());
+            }
+            anomalies.addAll(rules.evaluate(dimension, slices, ruleEngine.maxMatchesPerRule()));
         }
+        return anomalies;
+    }
 
-        // 规则3: 处理时间过长
-        double avgProcessingTime = ((Number) statistics.get("avgProcessingTimeHours")).doubleValue();
-        if (avgProcessingTime > 48) { // 48小时
-            anomalies.add(Map.of(
-                    "type", "SLOW_PROCESSING",
-                    "severity", "medium",
-                    "metric", "avgProcessingTimeHours",
-                    "value", avgProcessingTime,
-                    "threshold", 48,
-                    "description", String.format("平均处理时间过长: %.1f 小时，正常应在 48 小时内", avgProcessingTime)
-            ));
+    /**
+     * 多维下钻, 只针对触发了规则的指标
+     */
+    private Map<String, List<Map<String, Object>>> drillDown(OrderBatch batch, List<Map<String, Object>> anomalies) {
+        Set<String> metrics = new LinkedHashSet<>();
+        for (Map<String, Object> anomaly : anomalies) {
+            if (anomaly.get("metric") instanceof String metric) {
+                metrics.add(metric);
+            }
         }
-
-        return anomalies;
+        return drillDownEngine.localize(batch, drillDownEngine.supported(metrics));
     }
 }
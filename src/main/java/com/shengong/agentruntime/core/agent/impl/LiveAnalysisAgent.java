@@ -3,6 +3,7 @@ package com.shengong.agentruntime.core.agent.impl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.shengong.agentruntime.core.agent.AbstractAgent;
 import com.shengong.agentruntime.core.agent.annotation.AgentDefinition;
+import com.shengong.agentruntime.core.analytics.timeseries.LiveMetricsEngine;
 import com.shengong.agentruntime.core.param.AgentParam;
 import com.shengong.agentruntime.llm.LlmClient;
 import com.shengong.agentruntime.model.AgentResult;
@@ -32,17 +33,22 @@ import java.util.Map;
 public class LiveAnalysisAgent extends AbstractAgent<LiveAnalysisAgent.LiveAnalysisParams> {
 
     private final LlmClient llmClient;
+    private final LiveMetricsEngine metricsEngine;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    public LiveAnalysisAgent(LlmClient llmClient) {
+    public LiveAnalysisAgent(LlmClient llmClient, LiveMetricsEngine metricsEngine) {
         super(LiveAnalysisParams.class);
         this.llmClient = llmClient;
+        this.metricsEngine = metricsEngine;
     }
 
     @Data
     public static class LiveAnalysisParams {
         @AgentParam(required = true, description = "直播指标数据，通常来自 LiveDataPrepAgent 的输出")
         private Map<String, Object> metrics;
+
+        @AgentParam(required = false, description = "发给 LLM 的时间序列最大点数，超出时下采样，默认取配置值")
+        private Integer maxPoints;
     }
 
     @Override
@@ -65,7 +71,11 @@ public class LiveAnalysisAgent extends AbstractAgent<LiveAnalysisAgent.LiveAnaly
                 请以 JSON 格式输出,包含 findings、rootCauses、suggestions 三个数组字段。
                 """;
 
-            String metricsJson = objectMapper.writeValueAsString(metrics);
+            // 时间序列按预算下采样后再放入提示词
+            int maxPoints = params.getMaxPoints() != null
+                    ? params.getMaxPoints()
+                    : metricsEngine.downsampling().getAnalysisPoints();
+            String metricsJson = objectMapper.writeValueAsString(metricsEngine.downsample(metrics, maxPoints));
             String userPrompt = "直播数据指标如下:\n" + metricsJson + "\n\n请进行分析。";
 
             log.debug("Calling LLM for analysis...");
@@ -12,6 +12,7 @@ import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -45,6 +46,12 @@ public class LiveDataFetchAgent extends AbstractAgent<LiveDataFetchAgent.LiveDat
 
         @AgentParam(required = false, description = "过滤条件，如直播间ID、主播ID等，格式如: {\"liveRoomId\": \"12345\"}")
         private Map<String, Object> filters;
+
+        @AgentParam(required = false, description = "时间线粒度(秒)，如 60 为分钟级、1 为秒级，默认取配置值")
+        private Integer granularitySeconds;
+
+        @AgentParam(required = false, description = "返回时间线的最大点数，超出时下采样，0 表示不限，默认取配置值")
+        private Integer maxPoints;
     }
 
     @Override
@@ -64,10 +71,16 @@ public class LiveDataFetchAgent extends AbstractAgent<LiveDataFetchAgent.LiveDat
                 return AgentResult.error("Live data tool not available");
             }
 
-            ToolResult toolResult = liveTool.invoke(Map.of(
-                    "timeRange", timeRange,
-                    "filters", filters != null ? filters : Map.of()
-            ));
+            Map<String, Object> arguments = new HashMap<>();
+            arguments.put("timeRange", timeRange);
+            arguments.put("filters", filters != null ? filters : Map.of());
+            if (params.getGranularitySeconds() != null) {
+                arguments.put("granularitySeconds", params.getGranularitySeconds());
+            }
+            if (params.getMaxPoints() != null) {
+                arguments.put("maxPoints", params.getMaxPoints());
+            }
+            ToolResult toolResult = liveTool.invoke(arguments);
 
             if (!toolResult.isSuccess()) {
                 return AgentResult.error("Failed to fetch live data: " + toolResult.getError());
@@ -2,6 +2,8 @@ package com.shengong.agentruntime.core.agent.impl;
 
 import com.shengong.agentruntime.core.agent.AbstractAgent;
 import com.shengong.agentruntime.core.agent.annotation.AgentDefinition;
+import com.shengong.agentruntime.core.analytics.timeseries.LiveMetricsEngine;
+import com.shengong.agentruntime.core.analytics.timeseries.LiveSeries;
 import com.shengong.agentruntime.core.param.AgentParam;
 import com.shengong.agentruntime.model.AgentResult;
 import com.shengong.agentruntime.model.AgentTask;
@@ -10,11 +12,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * 直播数据预处理 Agent
- * 计算直播关键指标 (GMV、在线人数、转化率等)
+ * 计算直播关键指标 (GMV、在线人数、转化率等); 原始数据带 timeline 时另由 {@link LiveMetricsEngine}
+ * 计算滚动窗口、逐时间片转化率、观众小时 GMV 与峰值
  *
  * @author 神工团队
  * @since 1.0.0
@@ -29,14 +33,23 @@ import java.util.Map;
 )
 public class LiveDataPrepAgent extends AbstractAgent<LiveDataPrepAgent.LiveDataPrepParams> {
 
-    public LiveDataPrepAgent() {
+    private final LiveMetricsEngine metricsEngine;
+
+    public LiveDataPrepAgent(LiveMetricsEngine metricsEngine) {
         super(LiveDataPrepParams.class);
+        this.metricsEngine = metricsEngine;
     }
 
     @Data
     public static class LiveDataPrepParams {
         @AgentParam(required = true, description = "原始直播数据，通常来自 LiveDataFetchAgent 的输出")
         private Map<String, Object> rawData;
+
+        @AgentParam(required = false, description = "时间序列输出分辨率(秒)，默认取配置值，如 60 表示按分钟输出")
+        private Integer resolutionSeconds;
+
+        @AgentParam(required = false, description = "时间序列输出的最大点数，超出时下采样，0 表示不限，默认取配置值")
+        private Integer maxPoints;
     }
 
     @Override
@@ -50,6 +63,19 @@ public class LiveDataPrepAgent extends AbstractAgent<LiveDataPrepAgent.LiveDataP
             // 模拟计算指标
             Map<String, Object> metrics = calculateMetrics(rawData);
 
+            // 时间线指标
+            LiveSeries series = rawData.get("timeline") instanceof List<?> timeline ? LiveSeries.of(timeline) : null;
+            if (series != null) {
+                Integer resolution = params.getResolutionSeconds();
+                long resolutionMillis = resolution != null && resolution > 0
+                        ? resolution * 1000L
+                        : metricsEngine.defaultResolutionMillis();
+                int maxPoints = params.getMaxPoints() != null
+                        ? params.getMaxPoints()
+                        : metricsEngine.downsampling().getPrepPoints();
+                metrics.put("timeSeries", metricsEngine.analyze(series, resolutionMillis, maxPoints));
+            }
+
             return AgentResult.ok("Metrics calculated successfully", Map.of(
                     "metrics", metrics,
                     "rawDataSummary", Map.of(
@@ -2,6 +2,7 @@ package com.shengong.agentruntime.core.agent.impl;
 
 import com.shengong.agentruntime.core.agent.AbstractAgent;
 import com.shengong.agentruntime.core.agent.annotation.AgentDefinition;
+import com.shengong.agentruntime.core.analytics.timeseries.LiveMetricsEngine;
 import com.shengong.agentruntime.core.param.AgentParam;
 import com.shengong.agentruntime.model.AgentResult;
 import com.shengong.agentruntime.model.AgentTask;
@@ -30,8 +31,11 @@ import java.util.Map;
 )
 public class LiveReportAgent extends AbstractAgent<LiveReportAgent.LiveReportParams> {
 
-    public LiveReportAgent() {
+    private final LiveMetricsEngine metricsEngine;
+
+    public LiveReportAgent(LiveMetricsEngine metricsEngine) {
         super(LiveReportParams.class);
+        this.metricsEngine = metricsEngine;
     }
 
     @Data
@@ -41,6 +45,9 @@ public class LiveReportAgent extends AbstractAgent<LiveReportAgent.LiveReportPar
 
         @AgentParam(required = true, description = "直播指标数据")
         private Map<String, Object> metrics;
+
+        @AgentParam(required = false, description = "报告中趋势数据的最大点数，超出时下采样，默认取配置值")
+        private Integer maxPoints;
     }
 
     @Override
@@ -53,7 +60,10 @@ public class LiveReportAgent extends AbstractAgent<LiveReportAgent.LiveReportPar
             Map<String, Object> metrics = params.getMetrics();
 
             // 生成报告
-            Map<String, Object> report = generateReport(analysis, metrics, task);
+            int maxPoints = params.getMaxPoints() != null
+                    ? params.getMaxPoints()
+                    : metricsEngine.downsampling().getReportPoints();
+            Map<String, Object> report = generateReport(analysis, metricsEngine.downsample(metrics, maxPoints), task);
 
             // 生成摘要
             String summary = generateSummary(metrics);
@@ -12,6 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -32,6 +33,14 @@ import java.util.Map;
 )
 public class RootCauseAgent extends AbstractAgent<RootCauseAgent.RootCauseParams> {
 
+    /**
+     * 有下钻结果时提示词中保留的统计字段
+     */
+    private static final List<String> KEY_STATISTICS = List.of(
+            "totalOrders", "refundRate", "delayRate", "avgProcessingTimeHours", "p99ProcessingTimeHours", "topRefundReasons");
+
+    private static final int FALLBACK_SLICES = 3;
+
     private final LlmClient llmClient;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -47,6 +56,9 @@ public class RootCauseAgent extends AbstractAgent<RootCauseAgent.RootCauseParams
 
         @AgentParam(required = false, description = "统计数据，包含各类指标")
         private Map<String, Object> statistics;
+
+        @AgentParam(required = false, description = "多维下钻结果，指标 -> 按解释力排序的维度组合，来自 AnomalyDetectionAgent 的输出")
+        private Map<String, List<Map<String, Object>>> drillDown;
     }
 
     @Override
@@ -59,6 +71,10 @@ public class RootCauseAgent extends AbstractAgent<RootCauseAgent.RootCauseParams
             if (statistics == null) {
                 statistics = Map.of();
             }
+            Map<String, List<Map<String, Object>>> drillDown = params.getDrillDown();
+            if (drillDown == null) {
+                drillDown = Map.of();
+            }
 
             if (anomalies == null || anomalies.isEmpty()) {
                 return AgentResult.ok("No anomalies found, no root cause analysis needed", Map.of(
@@ -68,7 +84,7 @@ public class RootCauseAgent extends AbstractAgent<RootCauseAgent.RootCauseParams
             }
 
             // 使用 LLM 分析根因
-            Map<String, Object> analysis = analyzeRootCauses(anomalies, statistics);
+            Map<String, Object> analysis = analyzeRootCauses(anomalies, statistics, drillDown);
 
             String summary = String.format("识别了 %d 个可能的根本原因",
                     ((List<?>) analysis.get("rootCauses")).size());
@@ -88,7 +104,8 @@ public class RootCauseAgent extends AbstractAgent<RootCauseAgent.RootCauseParams
      * 分析根本原因
      */
     private Map<String, Object> analyzeRootCauses(List<Map<String, Object>> anomalies,
-                                                   Map<String, Object> statistics) {
+                                                   Map<String, Object> statistics,
+                                                   Map<String, List<Map<String, Object>>> drillDown) {
         try {
             String systemPrompt = """
                 你是一个订单异常诊断专家。请分析以下订单异常情况,找出根本原因并提供解决方案。
@@ -104,12 +121,12 @@ public class RootCauseAgent extends AbstractAgent<RootCauseAgent.RootCauseParams
                 }
                 """;
 
-            String anomaliesJson = objectMapper.writeValueAsString(Map.of(
-                    "anomalies", anomalies,
-                    "statistics", statistics
-            ));
-
-            String userPrompt = "订单异常数据如下:\n" + anomaliesJson + "\n\n请进行根因分析。";
+            String userPrompt = hasEvidence(drillDown)
+                    ? evidencePrompt(anomalies, statistics, drillDown)
+                    : "订单异常数据如下:\n" + objectMapper.writeValueAsString(Map.of(
+                            "anomalies", anomalies,
+                            "statistics", statistics
+                    )) + "\n\n请进行根因分析。";
 
             log.debug("Calling LLM for root cause analysis...");
             String llmResponse = llmClient.chat(systemPrompt, userPrompt);
@@ -119,8 +136,62 @@ public class RootCauseAgent extends AbstractAgent<RootCauseAgent.RootCauseParams
 
         } catch (Exception e) {
             log.error("LLM analysis failed, using fallback: {}", e.getMessage());
-            return getFallbackAnalysis(anomalies);
+            return getFallbackAnalysis(anomalies, drillDown);
+        }
+    }
+
+    private static boolean hasEvidence(Map<String, List<Map<String, Object>>> drillDown) {
+        return drillDown.values().stream().anyMatch(slices -> slices != null && !slices.isEmpty());
+    }
+
+    /**
+     * 有下钻结果时的精简提示词: 只带关键统计, 下钻分组逐行列出, 替代完整的 statistics JSON
+     */
+    private String evidencePrompt(List<Map<String, Object>> anomalies, Map<String, Object> statistics,
+                                  Map<String, List<Map<String, Object>>> drillDown) throws Exception {
+        Map<String, Object> keyStatistics = new LinkedHashMap<>();
+        for (String key : KEY_STATISTICS) {
+            if (statistics.containsKey(key)) {
+                keyStatistics.put(key, statistics.get(key));
+            }
+        }
+
+        StringBuilder prompt = new StringBuilder("订单异常:\n");
+        for (Map<String, Object> anomaly : anomalies) {
+            prompt.append("- ").append(anomaly.get("type")).append(": ").append(anomaly.get("description")).append('\n');
         }
+        prompt.append("\n关键统计: ").append(objectMapper.writeValueAsString(keyStatistics)).append('\n');
+        prompt.append("\n多维下钻 (按解释力排序; 基线为其余订单的水平, 解释力为该分组若与其余订单一致时指标可回落的比例):\n");
+        drillDown.forEach((metric, slices) -> {
+            for (Map<String, Object> slice : slices) {
+                prompt.append("- ").append(metric).append(" | ").append(describeSlice(slice)).append('\n');
+            }
+        });
+        prompt.append("\n请以下钻分组作为证据进行根因分析, evidence 中引用具体的维度取值。");
+        return prompt.toString();
+    }
+
+    /**
+     * 下钻分组的单行描述, 如 "shopId=SHOP0005, skuId=SKU00012 | 订单 812 | 值 0.452, 基线 0.049 (9.2 倍) | 超出 327 | 解释力 61.0%"
+     */
+    @SuppressWarnings("unchecked")
+    private static String describeSlice(Map<String, Object> slice) {
+        StringBuilder text = new StringBuilder();
+        Object dimensions = slice.get("dimensions");
+        if (dimensions instanceof Map<?, ?> values) {
+            ((Map<String, Object>) values).forEach((dimension, value) ->
+                    text.append(text.isEmpty() ? "" : ", ").append(dimension).append('=').append(value));
+        }
+        text.append(" | 订单 ").append(slice.get("orders"))
+                .append(" | 值 ").append(slice.get("value")).append(", 基线 ").append(slice.get("baseline"));
+        if (slice.get("lift") != null) {
+            text.append(" (").append(slice.get("lift")).append(" 倍)");
+        }
+        text.append(" | 超出 ").append(slice.get("excess"));
+        if (slice.get("explanatoryPower") instanceof Number power) {
+            text.append(" | 解释力 ").append(String.format("%.1f%%", power.doubleValue() * 100));
+        }
+        return text.toString();
     }
 
     /**
@@ -154,7 +225,8 @@ public class RootCauseAgent extends AbstractAgent<RootCauseAgent.RootCauseParams
     /**
      * 获取兜底分析结果
      */
-    private Map<String, Object> getFallbackAnalysis(List<Map<String, Object>> anomalies) {
+    private Map<String, Object> getFallbackAnalysis(List<Map<String, Object>> anomalies,
+                                                    Map<String, List<Map<String, Object>>> drillDown) {
         List<Map<String, Object>> rootCauses = new ArrayList<>();
         List<Map<String, Object>> solutions = new ArrayList<>();
 
@@ -166,7 +238,7 @@ public class RootCauseAgent extends AbstractAgent<RootCauseAgent.RootCauseParams
                     rootCauses.add(Map.of(
                             "cause", "商品质量问题或描述不符",
                             "confidence", "high",
-                            "evidence", "退货率异常高"
+                            "evidence", withSlices("退货率异常高", drillDown.get("refundRate"))
                     ));
                     solutions.add(Map.of(
                             "solution", "加强商品质检和描述准确性",
@@ -178,7 +250,7 @@ public class RootCauseAgent extends AbstractAgent<RootCauseAgent.RootCauseParams
                     rootCauses.add(Map.of(
                             "cause", "仓储物流处理能力不足",
                             "confidence", "medium",
-                            "evidence", "发货延迟率过高"
+                            "evidence", withSlices("发货延迟率过高", drillDown.get("delayRate"))
                     ));
                     solutions.add(Map.of(
                             "solution", "优化仓储流程或增加人力",
@@ -190,7 +262,7 @@ public class RootCauseAgent extends AbstractAgent<RootCauseAgent.RootCauseParams
                     rootCauses.add(Map.of(
                             "cause", "订单处理流程存在瓶颈",
                             "confidence", "medium",
-                            "evidence", "平均处理时间过长"
+                            "evidence", withSlices("平均处理时间过长", drillDown.get("avgProcessingTimeHours"))
                     ));
                     solutions.add(Map.of(
                             "solution", "自动化订单处理流程",
@@ -206,4 +278,18 @@ public class RootCauseAgent extends AbstractAgent<RootCauseAgent.RootCauseParams
                 "solutions", solutions
         );
     }
+
+    /**
+     * 兜底分析的证据补充下钻结果中最主要的分组
+     */
+    private static String withSlices(String evidence, List<Map<String, Object>> slices) {
+        if (slices == null || slices.isEmpty()) {
+            return evidence;
+        }
+        StringBuilder text = new StringBuilder(evidence).append(", 主要集中在: ");
+        for (int i = 0; i < Math.min(FALLBACK_SLICES, slices.size()); i++) {
+            text.append(i == 0 ? "" : "; ").append(describeSlice(slices.get(i)));
+        }
+        return text.toString();
+    }
 }
@@ -0,0 +1,304 @@
+package com.shengong.agentruntime.core.agent.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shengong.agentruntime.core.agent.AbstractAgent;
+import com.shengong.agentruntime.core.agent.annotation.AgentDefinition;
+import com.shengong.agentruntime.core.param.AgentParam;
+import com.shengong.agentruntime.core.tool.Tool;
+import com.shengong.agentruntime.core.tool.invocation.ToolPolicyResolver;
+import com.shengong.agentruntime.llm.LlmClient;
+import com.shengong.agentruntime.llm.ToolSchemaConverter;
+import com.shengong.agentruntime.model.AgentResult;
+import com.shengong.agentruntime.model.AgentTask;
+import com.shengong.agentruntime.model.ToolResult;
+import com.shengong.agentruntime.service.ToolRegistry;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 工具调用 Agent
+ * 把 ToolRegistry 中的 Tool 以 function declaration 的形式交给 LLM, 循环执行 "模型选择工具 -> 执行 -> 回填结果",
+ * 直到模型给出最终回答或用完步数预算.
+ * <p>
+ * 同一轮中模型请求的多个工具调用通过 {@link ToolRegistry#invokeAsync} 并发执行; 幂等 Tool
+ * (@ToolDefinition idempotent) 的结果在一次运行内按 "工具名 + 参数" 缓存, 重复请求直接复用,
+ * 失败的结果不缓存, 模型之后重试同样的调用会重新执行.
+ * <p>
+ * 请求未指定 tools / categories 时只向模型提供 default-tools 白名单中的 Tool,
+ * 可发起任意网络请求的 Tool (http_client_tool、MCP 工具等) 需由调用方显式指定
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Component
+@AgentDefinition(
+    name = "ToolCallingAgent",
+    domains = {"generic"},
+    taskType = "tool_calling",
+    description = "LLM agent that plans and executes registered tools via function calling"
+)
+public class ToolCallingAgent extends AbstractAgent<ToolCallingAgent.ToolCallingParams> {
+
+    private static final String SYSTEM_PROMPT = """
+            你是一个可以调用工具的助手. 需要外部数据时调用提供的工具, 互不依赖的调用请在同一轮中一并发出;
+            工具返回失败时根据错误信息调整参数或换用其他工具. 信息足够后直接给出最终回答, 不要编造工具未返回的数据.""";
+
+    private static final String BUDGET_EXHAUSTED_PROMPT = "工具调用预算已用完, 请根据已获得的信息直接给出最终回答.";
+
+    private final LlmClient llmClient;
+    private final ToolRegistry toolRegistry;
+    private final ToolSchemaConverter schemaConverter;
+    private final ToolPolicyResolver policyResolver;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper keyMapper;
+    private final int defaultMaxSteps;
+    private final int maxToolCalls;
+    private final int maxResultChars;
+    private final List<String> defaultTools;
+
+    public ToolCallingAgent(LlmClient llmClient,
+                            ToolRegistry toolRegistry,
+                            ToolSchemaConverter schemaConverter,
+                            ToolPolicyResolver policyResolver,
+                            ObjectMapper objectMapper,
+                            @Value("${agent-runtime.agent.tool-calling.max-steps:8}") int defaultMaxSteps,
+                            @Value("${agent-runtime.agent.tool-calling.max-tool-calls:32}") int maxToolCalls,
+                            @Value("${agent-runtime.agent.tool-calling.max-result-chars:20000}") int maxResultChars,
+                            @Value("${agent-runtime.agent.tool-calling.default-tools:order_data_tool,live_data_tool}") List<String> defaultTools) {
+        super(ToolCallingParams.class);
+        this.llmClient = llmClient;
+        this.toolRegistry = toolRegistry;
+        this.schemaConverter = schemaConverter;
+        this.policyResolver = policyResolver;
+        this.objectMapper = objectMapper;
+        this.keyMapper = objectMapper.copy().enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.defaultMaxSteps = defaultMaxSteps;
+        this.maxToolCalls = maxToolCalls;
+        this.maxResultChars = maxResultChars;
+        this.defaultTools = List.copyOf(defaultTools);
+    }
+
+    @Data
+    public static class ToolCallingParams {
+        @AgentParam(required = true, description = "需要完成的任务或问题")
+        private String prompt;
+
+        @AgentParam(required = false, description = "允许使用的 Tool 名称列表, 与 categories 都不填时使用默认白名单")
+        private List<String> tools;
+
+        @AgentParam(required = false, description = "允许使用的 Tool 类别列表, 如: data-source, http, mcp")
+        private List<String> categories;
+
+        @AgentParam(required = false, description = "最多的模型轮次 (步数预算)")
+        private Integer maxSteps;
+    }
+
+    @Override
+    protected AgentResult execute(AgentTask task, ToolCallingParams params) {
+        log.info("ToolCallingAgent handling task: {}", task.getTaskId());
+
+        Map<String, Tool> tools = availableTools(params);
+        List<ToolSpecification> specifications = tools.values().stream()
+                .map(schemaConverter::toSpecification)
+                .toList();
+        int maxSteps = params.getMaxSteps() != null && params.getMaxSteps() > 0 ? params.getMaxSteps() : defaultMaxSteps;
+
+        List<ChatMessage> messages = new ArrayList<>();
+        messages.add(SystemMessage.from(SYSTEM_PROMPT));
+        messages.add(UserMessage.from(params.getPrompt()));
+
+        Run run = new Run();
+        for (int step = 1; step <= maxSteps; step++) {
+            AiMessage reply = llmClient.chatWithTools(messages, specifications);
+            messages.add(reply);
+            if (!reply.hasToolExecutionRequests()) {
+                return finish(reply.text(), step, run, false);
+            }
+            log.info("Step {}: model requested {} tool call(s)", step, reply.toolExecutionRequests().size());
+            messages.addAll(executeAll(step, reply.toolExecutionRequests(), tools, run));
+        }
+
+        // 步数用完: 不再提供工具, 要求模型基于已有结果作答
+        messages.add(UserMessage.from(BUDGET_EXHAUSTED_PROMPT));
+        AiMessage reply = llmClient.chatWithTools(messages, List.of());
+        return finish(reply.text(), maxSteps, run, true);
+    }
+
+    private Map<String, Tool> availableTools(ToolCallingParams params) {
+        List<String> names = params.getTools() == null || params.getTools().isEmpty() ? null : params.getTools();
+        List<String> categories = params.getCategories() == null || params.getCategories().isEmpty()
+                ? null : params.getCategories();
+        if (names == null && categories == null) {
+            names = defaultTools;
+        }
+
+        Map<String, Tool> tools = new LinkedHashMap<>();
+        for (Tool tool : toolRegistry.getAllTools()) {
+            boolean nameAllowed = names == null || names.contains(tool.name());
+            boolean categoryAllowed = categories == null || categories.contains(tool.category());
+            if (nameAllowed && categoryAllowed) {
+                tools.put(tool.name(), tool);
+            }
+        }
+        return tools;
+    }
+
+    /**
+     * 并发执行一轮中的全部工具调用, 按请求顺序返回结果消息
+     */
+    private List<ChatMessage> executeAll(int step, List<ToolExecutionRequest> requests, Map<String, Tool> tools, Run run) {
+        List<CompletableFuture<ToolResult>> futures = new ArrayList<>(requests.size());
+        List<Map<String, Object>> records = new ArrayList<>(requests.size());
+        String[] memoKeys = new String[requests.size()];
+
+        for (int i = 0; i < requests.size(); i++) {
+            ToolExecutionRequest request = requests.get(i);
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("step", step);
+            record.put("tool", request.name());
+            records.add(record);
+
+            Tool tool = tools.get(request.name());
+            Map<String, Object> arguments;
+            try {
+                arguments = parseArguments(request.arguments());
+            } catch (Exception e) {
+                futures.add(CompletableFuture.completedFuture(ToolResult.failure("Invalid JSON arguments: " + e.getMessage())));
+                continue;
+            }
+            record.put("arguments", arguments);
+
+            if (tool == null) {
+                futures.add(CompletableFuture.completedFuture(ToolResult.failure("Unknown tool: " + request.name())));
+            } else if (run.toolCalls >= maxToolCalls) {
+                futures.add(CompletableFuture.completedFuture(ToolResult.failure("Tool call budget exhausted")));
+            } else {
+                if (policyResolver.resolve(tool).isIdempotent()) {
+                    memoKeys[i] = cacheKey(tool.name(), arguments);
+                }
+                futures.add(invoke(tool, arguments, memoKeys[i], run, record));
+            }
+        }
+
+        List<ChatMessage> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            ToolResult result = futures.get(i).join();
+            if (!result.isSuccess() && memoKeys[i] != null) {
+                // 失败可能是暂时的, 不让后续轮次复用
+                run.results.remove(memoKeys[i]);
+            }
+            Map<String, Object> record = records.get(i);
+            record.put("success", result.isSuccess());
+            record.put("latencyMs", result.getLatencyMs());
+            if (!result.isSuccess()) {
+                record.put("error", result.getError());
+            }
+            run.calls.add(record);
+            results.add(ToolExecutionResultMessage.from(requests.get(i), render(result)));
+        }
+        return results;
+    }
+
+    /**
+     * @param key 幂等 Tool 的记忆键, 非幂等 Tool 为 null
+     */
+    private CompletableFuture<ToolResult> invoke(Tool tool, Map<String, Object> arguments, String key, Run run,
+                                                 Map<String, Object> record) {
+        if (key == null) {
+            run.toolCalls++;
+            return toolRegistry.invokeAsync(tool.name(), arguments);
+        }
+
+        CompletableFuture<ToolResult> cached = run.results.get(key);
+        if (cached != null) {
+            record.put("cached", true);
+            run.cacheHits++;
+            return cached;
+        }
+        run.toolCalls++;
+        CompletableFuture<ToolResult> future = toolRegistry.invokeAsync(tool.name(), arguments);
+        run.results.put(key, future);
+        return future;
+    }
+
+    private Map<String, Object> parseArguments(String json) throws Exception {
+        if (json == null || json.isBlank()) {
+            return Map.of();
+        }
+        return objectMapper.readValue(json, new TypeReference<>() {
+        });
+    }
+
+    private String cacheKey(String toolName, Map<String, Object> arguments) {
+        try {
+            return toolName + "\n" + keyMapper.writeValueAsString(arguments);
+        } catch (Exception e) {
+            return toolName + "\n" + arguments;
+        }
+    }
+
+    /**
+     * 工具结果回填给模型的文本, 超长时截断
+     */
+    private String render(ToolResult result) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("success", result.isSuccess());
+        if (result.isSuccess()) {
+            payload.put("data", result.getData());
+        } else {
+            payload.put("error", result.getError());
+        }
+        String text;
+        try {
+            text = objectMapper.writeValueAsString(payload);
+        } catch (Exception e) {
+            text = String.valueOf(payload);
+        }
+        return text.length() > maxResultChars
+                ? text.substring(0, maxResultChars) + "...(truncated, " + text.length() + " chars)"
+                : text;
+    }
+
+    private AgentResult finish(String answer, int steps, Run run, boolean budgetExhausted) {
+        String text = answer != null ? answer : "";
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("answer", text);
+        data.put("steps", steps);
+        data.put("toolCalls", run.calls);
+        data.put("cacheHits", run.cacheHits);
+        data.put("budgetExhausted", budgetExhausted);
+        log.info("ToolCallingAgent finished: steps={}, toolCalls={}, cacheHits={}, budgetExhausted={}",
+                steps, run.toolCalls, run.cacheHits, budgetExhausted);
+        return AgentResult.ok(text, data);
+    }
+
+    /**
+     * 单次运行的状态, 只在执行线程上读写
+     */
+    private static final class Run {
+
+        private final Map<String, CompletableFuture<ToolResult>> results = new HashMap<>();
+        private final List<Map<String, Object>> calls = new ArrayList<>();
+        private int toolCalls;
+        private int cacheHits;
+    }
+}
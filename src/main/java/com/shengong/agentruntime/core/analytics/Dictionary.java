@@ -0,0 +1,55 @@
+package com.shengong.agentruntime.core.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 字典编码: 把字符串取值映射为从 0 开始的连续整数编码
+ * 列式数据只保存编码, 聚合时按编码计数, 输出时再还原为字符串. 非线程安全, 在构建批次时使用
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public class Dictionary {
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    public static Dictionary of(List<String> values) {
+        Dictionary dictionary = new Dictionary();
+        values.forEach(dictionary::encode);
+        return dictionary;
+    }
+
+    /**
+     * 取值的编码, 首次出现时分配新编码
+     */
+    public int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        int assigned = values.size();
+        codes.put(value, assigned);
+        values.add(value);
+        return assigned;
+    }
+
+    /**
+     * 已有取值的编码, 不存在时返回 -1
+     */
+    public int code(String value) {
+        Integer code = codes.get(value);
+        return code != null ? code : -1;
+    }
+
+    public String value(int code) {
+        return values.get(code);
+    }
+
+    public int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,137 @@
+package com.shengong.agentruntime.core.analytics;
+
+import com.shengong.agentruntime.core.analytics.sketch.Hashes;
+import com.shengong.agentruntime.core.tool.synthetic.OrderColumns;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * 订单批次中一个维度 (shopId, skuId, region, channel 等) 的字典编码列
+ * 每行保存取值的编码, 缺少该维度的行编码为 -1; 按维度分组时直接以编码作为数组下标.
+ * 每个取值的 64 位哈希 ({@link Hashes}) 随字典一起计算, 草图按行取用时不再重复哈希字符串
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public class DimensionColumn {
+
+    public static final int MISSING = -1;
+
+    private final String name;
+    private final int[] codes;
+    private final Dictionary values;
+    private final long[] hashes;
+
+    private DimensionColumn(String name, int[] codes, Dictionary values) {
+        this.name = name;
+        this.codes = codes;
+        this.values = values;
+        this.hashes = new long[values.size()];
+        for (int code = 0; code < hashes.length; code++) {
+            hashes[code] = Hashes.hash(values.value(code));
+        }
+    }
+
+    /**
+     * OrderDataTool 的列式数据: 维度已经是整数编号, 重新映射为连续编码, 只为出现过的取值生成字符串
+     */
+    static DimensionColumn fromColumns(OrderColumns columns, String name) {
+        IntUnaryOperator source;
+        IntFunction<String> label;
+        switch (name) {
+            case "shopId" -> {
+                source = columns::shop;
+                label = OrderColumns::shopId;
+            }
+            case "skuId" -> {
+                source = columns::sku;
+                label = OrderColumns::skuId;
+            }
+            case "region" -> {
+                source = columns::region;
+                label = OrderColumns::regionId;
+            }
+            case "channel" -> {
+                source = columns::channel;
+                label = OrderColumns::channelName;
+            }
+            case "buyerId" -> {
+                source = columns::buyer;
+                label = OrderColumns::buyerId;
+            }
+            case "refundReason" -> {
+                source = columns::refundReason;
+                label = OrderColumns::refundReasonName;
+            }
+            default -> {
+                return fromMaps(columns.rows(), name);
+            }
+        }
+
+        int size = columns.size();
+        int[] raw = new int[size];
+        int max = -1;
+        for (int i = 0; i < size; i++) {
+            raw[i] = source.applyAsInt(i);
+            max = Math.max(max, raw[i]);
+        }
+        int[] remap = new int[max + 1];
+        Arrays.fill(remap, MISSING);
+        Dictionary values = new Dictionary();
+        int[] codes = new int[size];
+        for (int i = 0; i < size; i++) {
+            if (raw[i] < 0) {
+                codes[i] = MISSING;
+                continue;
+            }
+            int code = remap[raw[i]];
+            if (code == MISSING) {
+                code = values.encode(label.apply(raw[i]));
+                remap[raw[i]] = code;
+            }
+            codes[i] = code;
+        }
+        return new DimensionColumn(name, codes, values);
+    }
+
+    static DimensionColumn fromMaps(List<Map<String, Object>> orders, String name) {
+        Dictionary values = new Dictionary();
+        int[] codes = new int[orders.size()];
+        int i = 0;
+        for (Map<String, Object> order : orders) {
+            Object value = order.get(name);
+            codes[i++] = value != null ? values.encode(value.toString()) : MISSING;
+        }
+        return new DimensionColumn(name, codes, values);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * 第 row 行的编码, 缺失时为 {@link #MISSING}
+     */
+    public int code(int row) {
+        return codes[row];
+    }
+
+    /**
+     * 第 row 行取值的哈希, 调用方需先确认该行不缺失
+     */
+    public long hash(int row) {
+        return hashes[codes[row]];
+    }
+
+    public Dictionary values() {
+        return values;
+    }
+
+    public int cardinality() {
+        return values.size();
+    }
+}
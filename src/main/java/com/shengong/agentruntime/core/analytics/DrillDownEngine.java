@@ -0,0 +1,437 @@
+package com.shengong.agentruntime.core.analytics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 多维下钻引擎, 定位异常集中在哪些维度组合上
+ * 一次遍历订单批次, 同时聚合所配置维度 (shopId, skuId, region, channel 等) 在 max-depth 以内的全部组合:
+ * 每个组合把各维度的字典编码按位打包成 long 键, 在 {@link LongIntHashMap} 中找到分组槽位后累计到并列的原始类型数组.
+ * <p>
+ * 分组按解释力排序: 以批次中其余订单的水平为基线, 超出量 = 分组指标总量 - 分组订单数 x 基线,
+ * 解释力 = 超出量 / 批次指标总量, 即该分组若与其余订单表现一致, 整体指标能回落的比例. 另外要求超出量相对基线波动
+ * 达到 min-score 个标准差, 过滤小样本噪声; 分组很多时按检验次数 n 提高到 sqrt(2 ln n) (n 个独立标准正态的最大值量级),
+ * 避免大批次下的偶然波动入选. 组合分组与其上级分组 (如 店铺 x 商品 与 店铺) 同时入选时,
+ * 组合分组能解释上级分组 specificity-ratio 以上的超出量则替换上级分组, 否则视为已被上级覆盖
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Component
+public class DrillDownEngine {
+
+    /**
+     * 支持下钻的指标, 名称与 {@link OrderStatistics#toMap()} 的字段一致
+     */
+    public enum Metric {
+        REFUND_RATE("refundRate", true),
+        DELAY_RATE("delayRate", true),
+        PROCESSING_TIME("avgProcessingTimeHours", false);
+
+        private final String key;
+        private final boolean binary;
+
+        Metric(String key, boolean binary) {
+            this.key = key;
+            this.binary = binary;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public static Metric of(String key) {
+            for (Metric metric : values()) {
+                if (metric.key.equals(key)) {
+                    return metric;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final int MAX_KEY_BITS = 63;
+
+    private final List<String> dimensions;
+    private final int maxDepth;
+    private final int minOrders;
+    private final double minScore;
+    private final double specificityRatio;
+    private final int topN;
+
+    public DrillDownEngine(@Value("${agent-runtime.analytics.drilldown.dimensions:shopId,skuId,region,channel}") List<String> dimensions,
+                           @Value("${agent-runtime.analytics.drilldown.max-depth:2}") int maxDepth,
+                           @Value("${agent-runtime.analytics.drilldown.min-orders:30}") int minOrders,
+                           @Value("${agent-runtime.analytics.drilldown.min-score:3.0}") double minScore,
+                           @Value("${agent-runtime.analytics.drilldown.specificity-ratio:0.8}") double specificityRatio,
+                           @Value("${agent-runtime.analytics.drilldown.top-n:5}") int topN) {
+        this.dimensions = List.copyOf(dimensions);
+        this.maxDepth = Math.max(1, Math.min(maxDepth, this.dimensions.size()));
+        this.minOrders = Math.max(1, minOrders);
+        this.minScore = minScore;
+        this.specificityRatio = specificityRatio;
+        this.topN = Math.max(1, topN);
+    }
+
+    /**
+     * 只保留支持下钻的指标
+     */
+    public Set<Metric> supported(Collection<String> metricKeys) {
+        Set<Metric> metrics = EnumSet.noneOf(Metric.class);
+        for (String key : metricKeys) {
+            Metric metric = Metric.of(key);
+            if (metric != null) {
+                metrics.add(metric);
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * 对给定指标下钻
+     *
+     * @return 指标名 -> 按解释力降序的分组, 每个分组含 dimensions (维度 -> 取值)、orders、value、baseline、lift、
+     *         excess、explanatoryPower、score
+     */
+    public Map<String, List<Map<String, Object>>> localize(OrderBatch batch, Set<Metric> metrics) {
+        Map<String, List<Map<String, Object>>> result = new LinkedHashMap<>();
+        if (metrics.isEmpty() || batch.size() == 0) {
+            return result;
+        }
+        long started = System.nanoTime();
+        Metric[] measured = metrics.toArray(new Metric[0]);
+        DimensionColumn[] columns = new DimensionColumn[dimensions.size()];
+        for (int d = 0; d < columns.length; d++) {
+            columns[d] = batch.dimension(dimensions.get(d));
+        }
+        List<Cube> cubes = cubes(columns);
+        Totals totals = aggregate(batch, columns, cubes, measured);
+
+        for (int m = 0; m < measured.length; m++) {
+            List<Slice> candidates = new ArrayList<>();
+            int tested = 0;
+            for (Cube cube : cubes) {
+                tested += collect(cube, m, measured[m], totals, candidates);
+            }
+            double threshold = Math.max(minScore, Math.sqrt(2 * Math.log(Math.max(1, tested))));
+            candidates.removeIf(slice -> slice.score < threshold);
+            candidates.sort(Comparator.comparingDouble((Slice slice) -> slice.excess).reversed());
+            List<Map<String, Object>> slices = new ArrayList<>();
+            for (Slice slice : select(candidates)) {
+                slices.add(slice.toMap(columns, totals.sums[m]));
+            }
+            result.put(measured[m].key(), slices);
+        }
+        log.debug("Drilled down {} orders over {} dimension combinations in {} ms",
+                batch.size(), cubes.size(), (System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * 枚举 max-depth 以内的维度组合; 打包后超过 63 位的组合 (高基数维度相乘) 跳过
+     */
+    private List<Cube> cubes(DimensionColumn[] columns) {
+        int[] bits = new int[columns.length];
+        for (int d = 0; d < columns.length; d++) {
+            bits[d] = Math.max(1, 32 - Integer.numberOfLeadingZeros(columns[d].cardinality()));
+        }
+        List<Cube> cubes = new ArrayList<>();
+        for (int mask = 1; mask < 1 << columns.length; mask++) {
+            int depth = Integer.bitCount(mask);
+            if (depth > maxDepth) {
+                continue;
+            }
+            int[] members = new int[depth];
+            int[] shifts = new int[depth];
+            int shift = 0;
+            boolean empty = false;
+            for (int d = 0, j = 0; d < columns.length; d++) {
+                if ((mask & 1 << d) != 0) {
+                    members[j] = d;
+                    shifts[j++] = shift;
+                    shift += bits[d];
+                    empty |= columns[d].cardinality() == 0;
+                }
+            }
+            if (empty) {
+                continue;
+            }
+            if (shift > MAX_KEY_BITS) {
+                log.debug("Skipping drill-down combination {} whose key needs {} bits", describe(columns, members), shift);
+                continue;
+            }
+            cubes.add(new Cube(members, shifts, bits));
+        }
+        return cubes;
+    }
+
+    private static String describe(DimensionColumn[] columns, int[] members) {
+        StringBuilder name = new StringBuilder();
+        for (int member : members) {
+            name.append(name.isEmpty() ? "" : " x ").append(columns[member].name());
+        }
+        return name.toString();
+    }
+
+    /**
+     * 单次遍历: 每行先取出各维度编码与指标值, 再分派到每个组合的分组
+     */
+    private static Totals aggregate(OrderBatch batch, DimensionColumn[] columns, List<Cube> cubes, Metric[] metrics) {
+        int refunded = batch.statuses().code("REFUNDED");
+        Totals totals = new Totals(batch.size(), metrics.length);
+        int[] codes = new int[columns.length];
+        double[] values = new double[metrics.length];
+        Cube[] all = cubes.toArray(new Cube[0]);
+
+        for (int row = 0; row < batch.size(); row++) {
+            for (int m = 0; m < metrics.length; m++) {
+                double value = switch (metrics[m]) {
+                    case REFUND_RATE -> batch.status[row] == refunded ? 1 : 0;
+                    case DELAY_RATE -> batch.delayed.get(row) ? 1 : 0;
+                    case PROCESSING_TIME -> batch.processingHours[row];
+                };
+                values[m] = value;
+                totals.sums[m] += value;
+                totals.squares[m] += value * value;
+            }
+            for (int d = 0; d < columns.length; d++) {
+                codes[d] = columns[d].code(row);
+            }
+            for (Cube cube : all) {
+                cube.add(codes, values);
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * 按超出量从大到小挑选分组, 组合分组与上级分组之间只保留更精确且足以解释的一个
+     */
+    private List<Slice> select(List<Slice> candidates) {
+        List<Slice> accepted = new ArrayList<>(topN);
+        for (Slice candidate : candidates) {
+            List<Slice> ancestors = new ArrayList<>(1);
+            boolean covered = false;
+            for (Slice slice : accepted) {
+                if (slice.contains(candidate)) {
+                    ancestors.add(slice);
+                } else if (candidate.contains(slice)) {
+                    covered = true;
+                    break;
+                }
+            }
+            if (covered) {
+                continue;
+            }
+            if (ancestors.isEmpty()) {
+                if (accepted.size() < topN) {
+                    accepted.add(candidate);
+                }
+                continue;
+            }
+            boolean sufficient = true;
+            for (Slice ancestor : ancestors) {
+                sufficient &= candidate.excess >= specificityRatio * ancestor.excess;
+            }
+            if (sufficient) {
+                accepted.set(accepted.indexOf(ancestors.get(0)), candidate);
+                for (int i = 1; i < ancestors.size(); i++) {
+                    accepted.remove(ancestors.get(i));
+                }
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * 收集超出量显著为正的分组; 基线取批次中不属于该分组的订单, 二值指标的基线比率做平滑避免方差为 0
+     *
+     * @return 满足订单数下限、参与检验的分组数
+     */
+    private int collect(Cube cube, int m, Metric metric, Totals totals, List<Slice> candidates) {
+        int tested = 0;
+        for (int slot = 0; slot < cube.size; slot++) {
+            int count = cube.counts[slot];
+            int rest = totals.count - count;
+            if (count < minOrders || rest < minOrders) {
+                continue;
+            }
+            tested++;
+            double sum = cube.sums[m][slot];
+            double restSum = totals.sums[m] - sum;
+            double baseline;
+            double variance;
+            if (metric.binary) {
+                baseline = (restSum + 0.5) / (rest + 1);
+                variance = baseline * (1 - baseline);
+            } else {
+                baseline = restSum / rest;
+                variance = Math.max((totals.squares[m] - cube.squares[m][slot]) / rest - baseline * baseline, 1e-9);
+            }
+            double excess = sum - count * baseline;
+            if (excess <= 0) {
+                continue;
+            }
+            double score = excess / Math.sqrt(count * variance);
+            if (score < minScore) {
+                continue;
+            }
+            candidates.add(new Slice(cube, cube.keys[slot], count, sum / count, baseline, excess, score));
+        }
+        return tested;
+    }
+
+    private static double round(double value, int digits) {
+        double scale = Math.pow(10, digits);
+        return Math.round(value * scale) / scale;
+    }
+
+    private static final class Totals {
+
+        private final int count;
+        private final double[] sums;
+        private final double[] squares;
+
+        private Totals(int count, int metrics) {
+            this.count = count;
+            this.sums = new double[metrics];
+            this.squares = new double[metrics];
+        }
+    }
+
+    /**
+     * 一个维度组合的全部分组, 槽位数组按需扩容
+     */
+    private static final class Cube {
+
+        private final int[] members;
+        private final int[] shifts;
+        private final long[] masks;
+        private final LongIntHashMap slots = new LongIntHashMap(1024);
+
+        private long[] keys = new long[1024];
+        private int[] counts = new int[1024];
+        private double[][] sums;
+        private double[][] squares;
+        private int size;
+
+        private Cube(int[] members, int[] shifts, int[] bits) {
+            this.members = members;
+            this.shifts = shifts;
+            this.masks = new long[members.length];
+            for (int j = 0; j < members.length; j++) {
+                masks[j] = (1L << bits[members[j]]) - 1;
+            }
+        }
+
+        private void add(int[] codes, double[] values) {
+            long key = 0;
+            for (int j = 0; j < members.length; j++) {
+                int code = codes[members[j]];
+                if (code == DimensionColumn.MISSING) {
+                    return;
+                }
+                key |= (long) code << shifts[j];
+            }
+            if (sums == null) {
+                sums = new double[values.length][keys.length];
+                squares = new double[values.length][keys.length];
+            }
+            int slot = slots.putIfAbsent(key, size);
+            if (slot == LongIntHashMap.ABSENT) {
+                slot = size++;
+                if (slot == keys.length) {
+                    grow();
+                }
+                keys[slot] = key;
+            }
+            counts[slot]++;
+            for (int m = 0; m < values.length; m++) {
+                double value = values[m];
+                sums[m][slot] += value;
+                squares[m][slot] += value * value;
+            }
+        }
+
+        private void grow() {
+            int capacity = keys.length << 1;
+            keys = Arrays.copyOf(keys, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            for (int m = 0; m < sums.length; m++) {
+                sums[m] = Arrays.copyOf(sums[m], capacity);
+                squares[m] = Arrays.copyOf(squares[m], capacity);
+            }
+        }
+
+        private int code(long key, int j) {
+            return (int) ((key >>> shifts[j]) & masks[j]);
+        }
+    }
+
+    private static final class Slice {
+
+        private final Cube cube;
+        private final long key;
+        private final int count;
+        private final double value;
+        private final double baseline;
+        private final double excess;
+        private final double score;
+
+        private Slice(Cube cube, long key, int count, double value, double baseline, double excess, double score) {
+            this.cube = cube;
+            this.key = key;
+            this.count = count;
+            this.value = value;
+            this.baseline = baseline;
+            this.excess = excess;
+            this.score = score;
+        }
+
+        /**
+         * other 是否为本分组的下级分组: 包含本分组的全部维度且取值相同
+         */
+        private boolean contains(Slice other) {
+            if (other.cube.members.length <= cube.members.length) {
+                return false;
+            }
+            for (int j = 0; j < cube.members.length; j++) {
+                int k = Arrays.binarySearch(other.cube.members, cube.members[j]);
+                if (k < 0 || other.cube.code(other.key, k) != cube.code(key, j)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private Map<String, Object> toMap(DimensionColumn[] columns, double total) {
+            Map<String, Object> dimensionValues = new LinkedHashMap<>();
+            for (int j = 0; j < cube.members.length; j++) {
+                DimensionColumn column = columns[cube.members[j]];
+                dimensionValues.put(column.name(), column.values().value(cube.code(key, j)));
+            }
+            Map<String, Object> slice = new LinkedHashMap<>();
+            slice.put("dimensions", dimensionValues);
+            slice.put("orders", count);
+            slice.put("value", round(value, 4));
+            slice.put("baseline", round(baseline, 4));
+            slice.put("lift", baseline > 0 ? round(value / baseline, 2) : null);
+            slice.put("excess", round(excess, 1));
+            slice.put("explanatoryPower", total > 0 ? round(excess / total, 3) : 0);
+            slice.put("score", round(score, 1));
+            return slice;
+        }
+    }
+}
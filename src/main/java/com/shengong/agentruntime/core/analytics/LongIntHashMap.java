@@ -0,0 +1,97 @@
+package com.shengong.agentruntime.core.analytics;
+
+import com.shengong.agentruntime.core.analytics.sketch.Hashes;
+
+import java.util.Arrays;
+
+/**
+ * long 键到 int 值的开放寻址哈希表 (线性探测), 键必须非负
+ * 多维下钻时以打包后的维度编码为键、分组槽位为值, 避免 Long/Integer 装箱与 Entry 对象
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+final class LongIntHashMap {
+
+    static final int ABSENT = -1;
+
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    LongIntHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    int get(long key) {
+        int index = index(key);
+        while (true) {
+            long existing = keys[index];
+            if (existing == key) {
+                return values[index];
+            }
+            if (existing == EMPTY) {
+                return ABSENT;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * 键不存在时写入 value 并返回 {@link #ABSENT}, 否则返回已有的值
+     */
+    int putIfAbsent(long key, int value) {
+        int index = index(key);
+        while (true) {
+            long existing = keys[index];
+            if (existing == key) {
+                return values[index];
+            }
+            if (existing == EMPTY) {
+                keys[index] = key;
+                values[index] = value;
+                // 装载因子不超过 0.5
+                if (++size > (mask + 1) >>> 1) {
+                    rehash();
+                }
+                return ABSENT;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int index(long key) {
+        return (int) Hashes.mix(key) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = index(oldKeys[i]);
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.shengong.agentruntime.core.analytics;
+
+import com.shengong.agentruntime.core.tool.synthetic.OrderColumns;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 订单批次的列式表示
+ * 状态按字典编码存为 byte, 金额与处理时长为 double 数组, 延迟发货为 BitSet, 聚合时不拆箱、不比较字符串.
+ * 通过 {@link #from(List)} 由 orderList 转换: OrderDataTool 返回的列式视图直接按列复制, 其余按 Map 逐行解析.
+ * 维度列 ({@link #dimension}) 在首次按维度分组时才编码
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public class OrderBatch {
+
+    /**
+     * 缺少 processingTimeHours 时的取值, 与原先按 Map 统计时的默认值一致
+     */
+    static final double DEFAULT_PROCESSING_HOURS = 24;
+
+    private final int size;
+    private final Dictionary statuses;
+
+    final byte[] status;
+    final double[] amount;
+    final double[] processingHours;
+    final BitSet delayed;
+
+    private final OrderColumns columns;
+    private final List<Map<String, Object>> orders;
+    private final Map<String, DimensionColumn> dimensions = new HashMap<>();
+
+    private OrderBatch(int size, Dictionary statuses, OrderColumns columns, List<Map<String, Object>> orders) {
+        this.size = size;
+        this.statuses = statuses;
+        this.columns = columns;
+        this.orders = orders;
+        this.status = new byte[size];
+        this.amount = new double[size];
+        this.processingHours = new double[size];
+        this.delayed = new BitSet(size);
+    }
+
+    public static OrderBatch from(List<Map<String, Object>> orders) {
+        OrderColumns columns = OrderColumns.of(orders);
+        return columns != null ? fromColumns(columns) : fromMaps(orders);
+    }
+
+    static OrderBatch fromColumns(OrderColumns columns) {
+        OrderBatch batch = new OrderBatch(columns.size(), Dictionary.of(OrderColumns.statusNames()), columns, null);
+        for (int i = 0; i < batch.size; i++) {
+            batch.status[i] = columns.statusCode(i);
+            batch.amount[i] = columns.amount(i);
+            batch.processingHours[i] = columns.processingTimeHours(i);
+            if (columns.delayedShipment(i)) {
+                batch.delayed.set(i);
+            }
+        }
+        return batch;
+    }
+
+    static OrderBatch fromMaps(List<Map<String, Object>> orders) {
+        OrderBatch batch = new OrderBatch(orders.size(), new Dictionary(), null, orders);
+        int i = 0;
+        for (Map<String, Object> order : orders) {
+            Object status = order.get("status");
+            int code = batch.statuses.encode(status != null ? status.toString() : "UNKNOWN");
+            if (code > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Too many distinct order statuses: " + batch.statuses.size());
+            }
+            batch.status[i] = (byte) code;
+            batch.amount[i] = number(order.get("amount"), 0);
+            batch.processingHours[i] = number(order.get("processingTimeHours"), DEFAULT_PROCESSING_HOURS);
+            if (Boolean.TRUE.equals(order.get("delayedShipment"))) {
+                batch.delayed.set(i);
+            }
+            i++;
+        }
+        return batch;
+    }
+
+    private static double number(Object value, double defaultValue) {
+        return value instanceof Number number ? number.doubleValue() : defaultValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Dictionary statuses() {
+        return statuses;
+    }
+
+    public String status(int row) {
+        return statuses.value(status[row]);
+    }
+
+    public double amount(int row) {
+        return amount[row];
+    }
+
+    public double processingTimeHours(int row) {
+        return processingHours[row];
+    }
+
+    public boolean delayedShipment(int row) {
+        return delayed.get(row);
+    }
+
+    /**
+     * 维度列, 按名称缓存. 非线程安全, 与批次的构建在同一线程使用
+     */
+    public DimensionColumn dimension(String name) {
+        return dimensions.computeIfAbsent(name, key -> columns != null
+                ? DimensionColumn.fromColumns(columns, key)
+                : DimensionColumn.fromMaps(orders, key));
+    }
+}
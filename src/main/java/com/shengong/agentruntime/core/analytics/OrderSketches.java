@@ -0,0 +1,92 @@
+package com.shengong.agentruntime.core.analytics;
+
+import com.shengong.agentruntime.core.analytics.sketch.HyperLogLog;
+import com.shengong.agentruntime.core.analytics.sketch.TDigest;
+import com.shengong.agentruntime.core.analytics.sketch.TopK;
+
+import java.util.Map;
+
+/**
+ * 订单统计中的近似草图
+ * t-digest 估计处理时长分位数, HyperLogLog 估计去重买家数与商品数, Count-Min + Top-K 找出高频退款原因
+ * 与问题商品 (退款或延迟发货最多的 SKU). 全部草图大小固定且可合并, 分段或分时间桶计算后 {@link #merge} 即可
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class OrderSketches {
+
+    static final String BUYER = "buyerId";
+    static final String SKU = "skuId";
+    static final String REFUND_REASON = "refundReason";
+
+    private static final int TOP_K = 10;
+
+    final TDigest processing = new TDigest();
+    final HyperLogLog buyers = new HyperLogLog();
+    final HyperLogLog skus = new HyperLogLog();
+    final TopK refundReasons = new TopK(TOP_K);
+    final TopK problemSkus = new TopK(TOP_K);
+
+    /**
+     * 预先编码草图用到的维度列, 之后各分段只读访问, 可以并行
+     */
+    static void prepare(OrderBatch batch) {
+        batch.dimension(BUYER);
+        batch.dimension(SKU);
+        batch.dimension(REFUND_REASON);
+    }
+
+    /**
+     * 累计 [from, to) 行, 调用前需先 {@link #prepare}
+     */
+    void accumulate(OrderBatch batch, int from, int to) {
+        DimensionColumn buyer = batch.dimension(BUYER);
+        DimensionColumn sku = batch.dimension(SKU);
+        DimensionColumn reason = batch.dimension(REFUND_REASON);
+        int refunded = batch.statuses().code("REFUNDED");
+
+        for (int i = from; i < to; i++) {
+            processing.add(batch.processingHours[i]);
+            if (buyer.code(i) != DimensionColumn.MISSING) {
+                buyers.add(buyer.hash(i));
+            }
+            boolean refund = batch.status[i] == refunded;
+            int skuCode = sku.code(i);
+            if (skuCode != DimensionColumn.MISSING) {
+                skus.add(sku.hash(i));
+                if (refund || batch.delayed.get(i)) {
+                    problemSkus.add(sku.values().value(skuCode), sku.hash(i));
+                }
+            }
+            int reasonCode = reason.code(i);
+            if (refund && reasonCode != DimensionColumn.MISSING) {
+                refundReasons.add(reason.values().value(reasonCode), reason.hash(i));
+            }
+        }
+    }
+
+    OrderSketches merge(OrderSketches other) {
+        processing.merge(other.processing);
+        buyers.merge(other.buyers);
+        skus.merge(other.skus);
+        refundReasons.merge(other.refundReasons);
+        problemSkus.merge(other.problemSkus);
+        return this;
+    }
+
+    void putInto(Map<String, Object> stats) {
+        stats.put("p50ProcessingTimeHours", quantile(0.5));
+        stats.put("p90ProcessingTimeHours", quantile(0.9));
+        stats.put("p99ProcessingTimeHours", quantile(0.99));
+        stats.put("distinctBuyers", buyers.estimate());
+        stats.put("distinctSkus", skus.estimate());
+        stats.put("topRefundReasons", refundReasons.top());
+        stats.put("problemSkus", problemSkus.top());
+    }
+
+    private double quantile(double q) {
+        double value = processing.quantile(q);
+        return Double.isNaN(value) ? 0 : Math.round(value * 100) / 100.0;
+    }
+}
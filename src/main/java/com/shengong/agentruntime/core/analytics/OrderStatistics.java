@@ -0,0 +1,162 @@
+package com.shengong.agentruntime.core.analytics;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 订单统计的累加器
+ * 一次遍历同时累计状态计数、延迟发货、金额与处理时长; 分段计算的结果可以 {@link #merge} 合并.
+ * 带草图时另外维护处理时长分位数、去重数与高频项 ({@link OrderSketches}), 按维度分组统计时不带草图
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public class OrderStatistics {
+
+    private final Dictionary statuses;
+
+    long count;
+    final long[] statusCounts;
+    long delayedCount;
+    double amountSum;
+    double processingSum;
+    double processingMax;
+
+    private final OrderSketches sketches;
+
+    OrderStatistics(Dictionary statuses) {
+        this(statuses, false);
+    }
+
+    OrderStatistics(Dictionary statuses, boolean withSketches) {
+        this.statuses = statuses;
+        this.statusCounts = new long[Math.max(1, statuses.size())];
+        this.sketches = withSketches ? new OrderSketches() : null;
+    }
+
+    /**
+     * 累计 [from, to) 行
+     */
+    void accumulate(OrderBatch batch, int from, int to) {
+        byte[] status = batch.status;
+        double[] amount = batch.amount;
+        double[] processing = batch.processingHours;
+        long[] counts = statusCounts;
+        double amounts = 0;
+        double processingTotal = 0;
+        double max = processingMax;
+        for (int i = from; i < to; i++) {
+            counts[status[i]]++;
+            amounts += amount[i];
+            double hours = processing[i];
+            processingTotal += hours;
+            if (hours > max) {
+                max = hours;
+            }
+        }
+        count += to - from;
+        amountSum += amounts;
+        processingSum += processingTotal;
+        processingMax = max;
+        delayedCount += cardinality(batch, from, to);
+        if (sketches != null) {
+            sketches.accumulate(batch, from, to);
+        }
+    }
+
+    /**
+     * 累计单行, 用于按维度分组时逐行分派
+     */
+    void add(OrderBatch batch, int row) {
+        statusCounts[batch.status[row]]++;
+        amountSum += batch.amount[row];
+        double hours = batch.processingHours[row];
+        processingSum += hours;
+        if (hours > processingMax) {
+            processingMax = hours;
+        }
+        if (batch.delayed.get(row)) {
+            delayedCount++;
+        }
+        count++;
+    }
+
+    private static long cardinality(OrderBatch batch, int from, int to) {
+        long delayed = 0;
+        for (int i = batch.delayed.nextSetBit(from); i >= 0 && i < to; i = batch.delayed.nextSetBit(i + 1)) {
+            delayed++;
+        }
+        return delayed;
+    }
+
+    OrderStatistics merge(OrderStatistics other) {
+        count += other.count;
+        for (int i = 0; i < statusCounts.length; i++) {
+            statusCounts[i] += other.statusCounts[i];
+        }
+        delayedCount += other.delayedCount;
+        amountSum += other.amountSum;
+        processingSum += other.processingSum;
+        processingMax = Math.max(processingMax, other.processingMax);
+        if (sketches != null && other.sketches != null) {
+            sketches.merge(other.sketches);
+        }
+        return this;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long statusCount(String status) {
+        int code = statuses.code(status);
+        return code >= 0 ? statusCounts[code] : 0;
+    }
+
+    public long delayedCount() {
+        return delayedCount;
+    }
+
+    public double refundRate() {
+        return rate(statusCount("REFUNDED"));
+    }
+
+    public double delayRate() {
+        return rate(delayedCount);
+    }
+
+    public double avgProcessingTimeHours() {
+        return count > 0 ? processingSum / count : 0;
+    }
+
+    private double rate(long value) {
+        return count > 0 ? (double) value / count : 0;
+    }
+
+    /**
+     * AnomalyDetectionAgent 输出的 statistics, 保留原有字段并补充状态分布、金额统计与草图结果
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalOrders", count);
+        stats.put("refundRate", refundRate());
+        stats.put("refundCount", statusCount("REFUNDED"));
+        stats.put("delayedShipments", delayedCount);
+        stats.put("delayRate", delayRate());
+        stats.put("avgProcessingTimeHours", avgProcessingTimeHours());
+        stats.put("maxProcessingTimeHours", processingMax);
+        stats.put("totalAmount", amountSum);
+        stats.put("avgAmount", count > 0 ? amountSum / count : 0);
+
+        Map<String, Object> byStatus = new LinkedHashMap<>();
+        for (int code = 0; code < statuses.size(); code++) {
+            byStatus.put(statuses.value(code), statusCounts[code]);
+        }
+        stats.put("statusCounts", byStatus);
+        if (sketches != null) {
+            sketches.putInto(stats);
+        }
+        return stats;
+    }
+}
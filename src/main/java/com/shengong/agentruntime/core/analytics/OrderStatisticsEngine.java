@@ -0,0 +1,111 @@
+package com.shengong.agentruntime.core.analytics;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.Serial;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 订单统计引擎
+ * 对 {@link OrderBatch} 做单次遍历聚合; 批次达到 parallel-threshold 时用 Fork/Join 按 leaf-size
+ * 拆分为子区间并行累计, 再逐级合并 (草图同样逐级合并). {@link #computeBy} 按单个维度分组, 以维度编码为下标逐行分派
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Component
+public class OrderStatisticsEngine {
+
+    private final int parallelThreshold;
+    private final int leafSize;
+
+    public OrderStatisticsEngine(@Value("${agent-runtime.analytics.order.parallel-threshold:100000}") int parallelThreshold,
+                                 @Value("${agent-runtime.analytics.order.leaf-size:16384}") int leafSize) {
+        this.parallelThreshold = parallelThreshold;
+        this.leafSize = Math.max(1024, leafSize);
+    }
+
+    public OrderStatistics compute(OrderBatch batch) {
+        OrderSketches.prepare(batch);
+        if (batch.size() < parallelThreshold) {
+            OrderStatistics statistics = new OrderStatistics(batch.statuses(), true);
+            statistics.accumulate(batch, 0, batch.size());
+            return statistics;
+        }
+        long started = System.nanoTime();
+        OrderStatistics statistics = ForkJoinPool.commonPool().invoke(new AggregateTask(batch, 0, batch.size(), leafSize));
+        log.debug("Aggregated {} orders in parallel in {} ms", batch.size(), (System.nanoTime() - started) / 1_000_000);
+        return statistics;
+    }
+
+    /**
+     * 按维度取值分组统计, 缺少该维度的订单不计入任何分组
+     *
+     * @return 维度取值 -> 统计, 按取值首次出现的顺序
+     */
+    public Map<String, OrderStatistics> computeBy(OrderBatch batch, String dimension) {
+        DimensionColumn column = batch.dimension(dimension);
+        OrderStatistics[] groups = new OrderStatistics[column.cardinality()];
+        for (int row = 0; row < batch.size(); row++) {
+            int code = column.code(row);
+            if (code == DimensionColumn.MISSING) {
+                continue;
+            }
+            OrderStatistics group = groups[code];
+            if (group == null) {
+                group = new OrderStatistics(batch.statuses());
+                groups[code] = group;
+            }
+            group.add(batch, row);
+        }
+
+        Map<String, OrderStatistics> result = new LinkedHashMap<>(groups.length * 2);
+        for (int code = 0; code < groups.length; code++) {
+            if (groups[code] != null) {
+                result.put(column.values().value(code), groups[code]);
+            }
+        }
+        return result;
+    }
+
+    private static final class AggregateTask extends RecursiveTask<OrderStatistics> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 任务只在 Fork/Join 池内使用, 从不序列化
+         */
+        private final transient OrderBatch batch;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        private AggregateTask(OrderBatch batch, int from, int to, int leafSize) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected OrderStatistics compute() {
+            if (to - from <= leafSize) {
+                OrderStatistics statistics = new OrderStatistics(batch.statuses(), true);
+                statistics.accumulate(batch, from, to);
+                return statistics;
+            }
+            int middle = (from + to) >>> 1;
+            AggregateTask left = new AggregateTask(batch, from, middle, leafSize);
+            left.fork();
+            OrderStatistics right = new AggregateTask(batch, middle, to, leafSize).compute();
+            return left.join().merge(right);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.shengong.agentruntime.core.analytics.rule;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 异常规则定义
+ * 来自 agent-runtime.analytics.rules.definitions 或 agent_config 表中 AnomalyDetectionAgent 行的 config.rules,
+ * 由 {@link RuleSet#compile} 编译后使用
+ * <p>
+ * 示例: {"type": "HIGH_REFUND_RATE", "metric": "refundRate", "operator": ">", "threshold": 0.15,
+ * "severity": "high", "description": "退货率异常高: {value%}, 正常范围应低于 {threshold%}"}
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnomalyRuleDefinition {
+
+    /**
+     * 异常类型, 如 HIGH_REFUND_RATE
+     */
+    private String type;
+
+    /**
+     * statistics 中的数值指标, 如 refundRate, delayRate, avgProcessingTimeHours
+     */
+    private String metric;
+
+    /**
+     * 比较运算符: &gt;, &gt;=, &lt;, &lt;=, ==, != (也可写作 gt, ge, lt, le, eq, ne)
+     */
+    @Builder.Default
+    private String operator = ">";
+
+    private double threshold;
+
+    @Builder.Default
+    private String severity = "medium";
+
+    /**
+     * 描述模板, 占位符 {value}, {threshold}, {dimension}, {dimensionValue} 及任意 statistics 指标;
+     * 加 % 后缀按百分比输出, 如 {value%}
+     */
+    private String description;
+
+    /**
+     * 作用的维度 (shopId, skuId, region, channel), 为空时作用于整体统计
+     */
+    private String dimension;
+
+    /**
+     * 只检查这些维度取值, 为空时检查全部取值
+     */
+    private List<String> values;
+
+    /**
+     * 维度分组的最少订单数, 样本过少的分组不检查
+     */
+    private long minOrders;
+
+    @Builder.Default
+    private boolean enabled = true;
+}
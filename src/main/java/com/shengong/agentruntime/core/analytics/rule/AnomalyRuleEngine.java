@@ -0,0 +1,145 @@
+package com.shengong.agentruntime.core.analytics.rule;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.config.AnomalyRuleProperties;
+import com.shengong.agentruntime.entity.AgentConfigEntity;
+import com.shengong.agentruntime.repository.AgentConfigRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 异常规则引擎
+ * 持有当前生效的 {@link RuleSet}: 规则来自 agent_config 表 (优先) 或配置文件, 编译后整体替换 volatile 引用,
+ * 评估线程读取引用后始终使用同一份完整规则, 不加锁. 规则无效或读取失败时保留上一份规则;
+ * 未配置数据库 (edge profile) 时只使用配置文件中的规则
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnomalyRuleEngine {
+
+    private final AnomalyRuleProperties properties;
+    private final ObjectProvider<AgentConfigRepository> agentConfigRepository;
+    private final ObjectMapper objectMapper;
+
+    private volatile RuleSet rules = RuleSet.EMPTY;
+    private volatile String source = "none";
+
+    @PostConstruct
+    public void init() {
+        try {
+            reload();
+        } catch (IllegalArgumentException e) {
+            // 表中规则无效时以配置文件中的规则启动
+            rules = RuleSet.compile(properties.getDefinitions());
+            source = "config";
+        }
+    }
+
+    /**
+     * 当前规则, 在一次检测中只读取一次
+     */
+    public RuleSet current() {
+        return rules;
+    }
+
+    public String source() {
+        return source;
+    }
+
+    /**
+     * 维度规则每条最多输出的分组数
+     */
+    public int maxMatchesPerRule() {
+        return properties.getMaxMatchesPerRule();
+    }
+
+    /**
+     * 定期重新加载, 规则定义未变化时不重新编译
+     */
+    @Scheduled(fixedDelayString = "${agent-runtime.analytics.rules.refresh-interval-ms:60000}",
+            initialDelayString = "${agent-runtime.analytics.rules.refresh-interval-ms:60000}")
+    public void refresh() {
+        try {
+            reload();
+        } catch (IllegalArgumentException e) {
+            // 已记录日志, 等待下次刷新
+        }
+    }
+
+    /**
+     * 重新加载并编译规则
+     *
+     * @return 生效的规则
+     * @throws IllegalArgumentException 规则无效, 原有规则保持不变
+     */
+    public synchronized RuleSet reload() {
+        String loadedFrom = "config";
+        List<AnomalyRuleDefinition> definitions = properties.getDefinitions();
+        RuleSet compiled;
+        try {
+            Optional<List<AnomalyRuleDefinition>> stored = loadFromDatabase();
+            if (stored.isPresent()) {
+                definitions = stored.get();
+                loadedFrom = "agent_config:" + properties.getConfigName();
+            }
+            if (definitions.equals(rules.definitions()) && loadedFrom.equals(source)) {
+                return rules;
+            }
+            compiled = RuleSet.compile(definitions);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid anomaly rules, keeping previous rules from {}: {}", source, e.getMessage());
+            throw e;
+        }
+        rules = compiled;
+        source = loadedFrom;
+        log.info("Loaded anomaly rules from {}: {}", loadedFrom, compiled);
+        return compiled;
+    }
+
+    private Optional<List<AnomalyRuleDefinition>> loadFromDatabase() {
+        AgentConfigRepository repository = agentConfigRepository.getIfAvailable();
+        if (!properties.isDatabaseEnabled() || repository == null) {
+            return Optional.empty();
+        }
+        try {
+            return repository.findByNameAndEnabledTrue(properties.getConfigName())
+                    .map(AgentConfigEntity::getConfig)
+                    .map(config -> config.get("rules"))
+                    .map(value -> Arrays.asList(objectMapper.convertValue(value, AnomalyRuleDefinition[].class)))
+                    .filter(list -> !list.isEmpty());
+        } catch (IllegalArgumentException e) {
+            // 规则 JSON 无法转换
+            throw e;
+        } catch (Exception e) {
+            // 数据库不可用时沿用当前来源的规则
+            log.warn("Failed to load anomaly rules from agent_config: {}", e.getMessage());
+            return source.startsWith("agent_config") ? Optional.of(rules.definitions()) : Optional.empty();
+        }
+    }
+
+    /**
+     * 规则概况, 用于管理接口
+     */
+    public Map<String, Object> describe() {
+        RuleSet current = rules;
+        return Map.of(
+                "source", source,
+                "enabledRules", current.size(),
+                "dimensions", current.dimensions(),
+                "definitions", current.definitions()
+        );
+    }
+}
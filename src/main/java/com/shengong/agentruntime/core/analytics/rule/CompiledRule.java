@@ -0,0 +1,57 @@
+package com.shengong.agentruntime.core.analytics.rule;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.DoublePredicate;
+
+/**
+ * 编译后的规则: 指标已解析为 {@link RuleSet} 中的指标下标, 比较已绑定阈值, 描述模板已拆分
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+final class CompiledRule {
+
+    final AnomalyRuleDefinition definition;
+    final int metricSlot;
+    final RuleOperator operator;
+    final DoublePredicate condition;
+    final DescriptionTemplate template;
+
+    /**
+     * 维度取值白名单, 为 null 时检查全部取值
+     */
+    final Set<String> values;
+
+    CompiledRule(AnomalyRuleDefinition definition, int metricSlot, RuleOperator operator, Set<String> values) {
+        this.definition = definition;
+        this.metricSlot = metricSlot;
+        this.operator = operator;
+        this.condition = operator.bind(definition.getThreshold());
+        this.template = DescriptionTemplate.compile(definition.getDescription());
+        this.values = values;
+    }
+
+    boolean appliesTo(String dimensionValue) {
+        return values == null || values.contains(dimensionValue);
+    }
+
+    Map<String, Object> toAnomaly(double value, String dimensionValue, Map<String, Object> statistics) {
+        Map<String, Object> anomaly = new LinkedHashMap<>();
+        anomaly.put("type", definition.getType());
+        anomaly.put("severity", definition.getSeverity());
+        anomaly.put("metric", definition.getMetric());
+        anomaly.put("value", value);
+        anomaly.put("operator", operator.symbol());
+        anomaly.put("threshold", definition.getThreshold());
+        if (definition.getDimension() != null) {
+            anomaly.put("dimension", definition.getDimension());
+            anomaly.put("dimensionValue", dimensionValue);
+            anomaly.put("sampleSize", statistics.get("totalOrders"));
+        }
+        anomaly.put("description", template.render(new DescriptionTemplate.Match(
+                value, definition.getThreshold(), definition.getDimension(), dimensionValue, statistics)));
+        return anomaly;
+    }
+}
@@ -0,0 +1,94 @@
+package com.shengong.agentruntime.core.analytics.rule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 编译后的描述模板
+ * 加载规则时把模板拆成文本段与占位符段, 生成描述时只做拼接, 不再解析字符串
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+final class DescriptionTemplate {
+
+    private final Segment[] segments;
+
+    private DescriptionTemplate(Segment[] segments) {
+        this.segments = segments;
+    }
+
+    static DescriptionTemplate compile(String template) {
+        List<Segment> segments = new ArrayList<>();
+        String text = template != null ? template : "";
+        int position = 0;
+        while (position < text.length()) {
+            int open = text.indexOf('{', position);
+            int close = open >= 0 ? text.indexOf('}', open) : -1;
+            if (open < 0 || close < 0) {
+                segments.add(literal(text.substring(position)));
+                break;
+            }
+            if (open > position) {
+                segments.add(literal(text.substring(position, open)));
+            }
+            segments.add(placeholder(text.substring(open + 1, close).trim()));
+            position = close + 1;
+        }
+        return new DescriptionTemplate(segments.toArray(Segment[]::new));
+    }
+
+    String render(Match match) {
+        StringBuilder out = new StringBuilder(64);
+        for (Segment segment : segments) {
+            segment.append(out, match);
+        }
+        return out.toString();
+    }
+
+    private static Segment literal(String text) {
+        return (out, match) -> out.append(text);
+    }
+
+    private static Segment placeholder(String expression) {
+        boolean percent = expression.endsWith("%");
+        String name = percent ? expression.substring(0, expression.length() - 1).trim() : expression;
+        return switch (name) {
+            case "value" -> (out, match) -> number(out, match.value(), percent);
+            case "threshold" -> (out, match) -> number(out, match.threshold(), percent);
+            case "dimension" -> (out, match) -> out.append(match.dimension() != null ? match.dimension() : "");
+            case "dimensionValue" -> (out, match) -> out.append(match.dimensionValue() != null ? match.dimensionValue() : "");
+            default -> (out, match) -> {
+                Object value = match.statistics().get(name);
+                if (value instanceof Number number) {
+                    number(out, number.doubleValue(), percent);
+                } else {
+                    out.append(value != null ? value : "{" + expression + "}");
+                }
+            };
+        };
+    }
+
+    private static void number(StringBuilder out, double value, boolean percent) {
+        if (percent) {
+            out.append(String.format(Locale.ROOT, "%.1f%%", value * 100));
+        } else if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(String.format(Locale.ROOT, "%.2f", value));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Segment {
+        void append(StringBuilder out, Match match);
+    }
+
+    /**
+     * 一次规则命中的上下文
+     */
+    record Match(double value, double threshold, String dimension, String dimensionValue, Map<String, Object> statistics) {
+    }
+}
@@ -0,0 +1,63 @@
+package com.shengong.agentruntime.core.analytics.rule;
+
+import java.util.function.DoublePredicate;
+
+/**
+ * 规则比较运算符
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public enum RuleOperator {
+
+    GT(">"),
+    GE(">="),
+    LT("<"),
+    LE("<="),
+    EQ("=="),
+    NE("!=");
+
+    private final String symbol;
+
+    RuleOperator(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String symbol() {
+        return symbol;
+    }
+
+    /**
+     * 按符号或名称 (不区分大小写) 解析
+     */
+    public static RuleOperator parse(String value) {
+        String text = value != null ? value.trim() : "";
+        for (RuleOperator operator : values()) {
+            if (operator.symbol.equals(text) || operator.name().equalsIgnoreCase(text)) {
+                return operator;
+            }
+        }
+        throw new IllegalArgumentException("Unknown rule operator: " + value);
+    }
+
+    /**
+     * 绑定阈值, 得到只做一次比较的判定函数
+     */
+    DoublePredicate bind(double threshold) {
+        return switch (this) {
+            case GT -> value -> value > threshold;
+            case GE -> value -> value >= threshold;
+            case LT -> value -> value < threshold;
+            case LE -> value -> value <= threshold;
+            case EQ -> value -> value == threshold;
+            case NE -> value -> value != threshold;
+        };
+    }
+
+    /**
+     * 越界越严重的方向: 大于类运算符取值越大越严重
+     */
+    boolean higherIsWorse() {
+        return this != LT && this != LE;
+    }
+}
@@ -0,0 +1,176 @@
+package com.shengong.agentruntime.core.analytics.rule;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 编译后的一组异常规则, 不可变, 可在线程间共享
+ * <p>
+ * 编译时把全部规则引用的指标去重为下标; 评估时每份 statistics 只读取一次各指标,
+ * 再依次执行各规则已绑定阈值的判定函数, 不再解析规则或查找字符串.
+ * 作用于维度的规则按维度分组, 对该维度的每个分组统计各评估一次
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public final class RuleSet {
+
+    public static final RuleSet EMPTY = compile(List.of());
+
+    private final List<AnomalyRuleDefinition> definitions;
+    private final String[] metrics;
+    private final CompiledRule[] globalRules;
+    private final Map<String, CompiledRule[]> scopedRules;
+
+    private RuleSet(List<AnomalyRuleDefinition> definitions, String[] metrics,
+                    CompiledRule[] globalRules, Map<String, CompiledRule[]> scopedRules) {
+        this.definitions = definitions;
+        this.metrics = metrics;
+        this.globalRules = globalRules;
+        this.scopedRules = scopedRules;
+    }
+
+    /**
+     * 编译规则, 跳过未启用的规则; 任一规则无效时整体失败, 由调用方保留原有规则
+     *
+     * @throws IllegalArgumentException 规则缺少类型或指标, 或运算符无法识别
+     */
+    public static RuleSet compile(List<AnomalyRuleDefinition> definitions) {
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        List<CompiledRule> global = new ArrayList<>();
+        Map<String, List<CompiledRule>> scoped = new LinkedHashMap<>();
+
+        for (AnomalyRuleDefinition definition : definitions) {
+            if (!definition.isEnabled()) {
+                continue;
+            }
+            if (isBlank(definition.getType()) || isBlank(definition.getMetric())) {
+                throw new IllegalArgumentException("Anomaly rule requires type and metric: " + definition);
+            }
+            RuleOperator operator = RuleOperator.parse(definition.getOperator());
+            int slot = slots.computeIfAbsent(definition.getMetric(), key -> slots.size());
+            Set<String> values = definition.getValues() == null || definition.getValues().isEmpty()
+                    ? null : Set.copyOf(definition.getValues());
+            CompiledRule rule = new CompiledRule(definition, slot, operator, values);
+
+            if (isBlank(definition.getDimension())) {
+                global.add(rule);
+            } else {
+                scoped.computeIfAbsent(definition.getDimension(), key -> new ArrayList<>()).add(rule);
+            }
+        }
+
+        Map<String, CompiledRule[]> scopedRules = new LinkedHashMap<>();
+        scoped.forEach((dimension, rules) -> scopedRules.put(dimension, rules.toArray(CompiledRule[]::new)));
+        return new RuleSet(List.copyOf(definitions), slots.keySet().toArray(String[]::new),
+                global.toArray(CompiledRule[]::new), scopedRules);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * 编译前的规则定义 (含未启用的规则)
+     */
+    public List<AnomalyRuleDefinition> definitions() {
+        return definitions;
+    }
+
+    /**
+     * 已启用的规则数
+     */
+    public int size() {
+        int size = globalRules.length;
+        for (CompiledRule[] rules : scopedRules.values()) {
+            size += rules.length;
+        }
+        return size;
+    }
+
+    /**
+     * 维度规则涉及的维度, 调用方据此计算分组统计
+     */
+    public Set<String> dimensions() {
+        return scopedRules.keySet();
+    }
+
+    /**
+     * 用整体统计评估不带维度的规则
+     */
+    public List<Map<String, Object>> evaluate(Map<String, Object> statistics) {
+        List<Map<String, Object>> anomalies = new ArrayList<>();
+        double[] values = read(statistics, new double[metrics.length]);
+        for (CompiledRule rule : globalRules) {
+            double value = values[rule.metricSlot];
+            if (!Double.isNaN(value) && rule.condition.test(value)) {
+                anomalies.add(rule.toAnomaly(value, null, statistics));
+            }
+        }
+        return anomalies;
+    }
+
+    /**
+     * 用一个维度的分组统计评估该维度的规则, 每条规则最多保留偏离最大的 limit 个分组
+     *
+     * @param slices 维度取值 -> 该分组的 statistics
+     */
+    public List<Map<String, Object>> evaluate(String dimension, Map<String, Map<String, Object>> slices, int limit) {
+        CompiledRule[] rules = scopedRules.get(dimension);
+        if (rules == null || slices.isEmpty()) {
+            return List.of();
+        }
+
+        List<List<Hit>> hits = new ArrayList<>(rules.length);
+        for (int i = 0; i < rules.length; i++) {
+            hits.add(new ArrayList<>());
+        }
+        double[] values = new double[metrics.length];
+        for (Map.Entry<String, Map<String, Object>> slice : slices.entrySet()) {
+            Map<String, Object> statistics = slice.getValue();
+            long orders = statistics.get("totalOrders") instanceof Number number ? number.longValue() : 0;
+            read(statistics, values);
+            for (int i = 0; i < rules.length; i++) {
+                CompiledRule rule = rules[i];
+                double value = values[rule.metricSlot];
+                if (orders >= rule.definition.getMinOrders() && rule.appliesTo(slice.getKey())
+                        && !Double.isNaN(value) && rule.condition.test(value)) {
+                    hits.get(i).add(new Hit(slice.getKey(), value, statistics));
+                }
+            }
+        }
+
+        List<Map<String, Object>> anomalies = new ArrayList<>();
+        for (int i = 0; i < rules.length; i++) {
+            CompiledRule rule = rules[i];
+            Comparator<Hit> order = Comparator.comparingDouble(Hit::value);
+            hits.get(i).stream()
+                    .sorted(rule.operator.higherIsWorse() ? order.reversed() : order)
+                    .limit(Math.max(0, limit))
+                    .forEach(hit -> anomalies.add(rule.toAnomaly(hit.value(), hit.dimensionValue(), hit.statistics())));
+        }
+        return anomalies;
+    }
+
+    /**
+     * 按指标下标读取数值, 缺失或非数值的指标为 NaN, 相应规则不命中
+     */
+    private double[] read(Map<String, Object> statistics, double[] values) {
+        for (int slot = 0; slot < metrics.length; slot++) {
+            values[slot] = statistics.get(metrics[slot]) instanceof Number number ? number.doubleValue() : Double.NaN;
+        }
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "RuleSet{rules=" + size() + ", metrics=" + List.of(metrics) + ", dimensions=" + scopedRules.keySet() + "}";
+    }
+
+    private record Hit(String dimensionValue, double value, Map<String, Object> statistics) {
+    }
+}
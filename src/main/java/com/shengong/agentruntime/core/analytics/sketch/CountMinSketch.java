@@ -0,0 +1,72 @@
+package com.shengong.agentruntime.core.analytics.sketch;
+
+/**
+ * Count-Min 频次草图
+ * depth 行、每行 width 个计数器, 估计值只会高估不会低估, 误差上界约为 总数 * e / width.
+ * 采用保守更新: 只抬高不足新估计值的计数器, 大幅减少哈希冲突带来的高估; 相同尺寸的草图合并即计数器相加
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int width;
+    private final long[] counters;
+    private long total;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("Count-Min depth and width must be positive");
+        }
+        this.depth = depth;
+        this.width = width;
+        this.counters = new long[depth * width];
+    }
+
+    /**
+     * 累加已哈希取值的计数, 并返回累加后的估计值
+     */
+    public long add(long hash, long count) {
+        total += count;
+        long estimate = estimate(hash) + count;
+        for (int row = 0; row < depth; row++) {
+            int index = row * width + bucket(hash, row);
+            if (counters[index] < estimate) {
+                counters[index] = estimate;
+            }
+        }
+        return estimate;
+    }
+
+    public long estimate(long hash) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row * width + bucket(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * 由一个 64 位哈希派生各行的下标 (Kirsch-Mitzenmacher 双哈希)
+     */
+    private int bucket(long hash, int row) {
+        int combined = (int) hash + row * (int) (hash >>> 32);
+        return (combined & Integer.MAX_VALUE) % width;
+    }
+
+    public CountMinSketch merge(CountMinSketch other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Cannot merge Count-Min sketches of different dimensions");
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        total += other.total;
+        return this;
+    }
+
+    public long total() {
+        return total;
+    }
+}
@@ -0,0 +1,38 @@
+package com.shengong.agentruntime.core.analytics.sketch;
+
+/**
+ * 草图使用的 64 位哈希
+ * 同一取值在任何分区、任何批次得到相同的哈希, 草图因此可以跨分区合并
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public final class Hashes {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Hashes() {
+    }
+
+    /**
+     * 字符串哈希: FNV-1a 累积后用 MurmurHash3 的 fmix64 打散, 高位与低位都足够均匀
+     */
+    public static long hash(String value) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    public static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
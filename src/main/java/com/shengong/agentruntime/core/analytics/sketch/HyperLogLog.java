@@ -0,0 +1,75 @@
+package com.shengong.agentruntime.core.analytics.sketch;
+
+/**
+ * HyperLogLog 基数估计
+ * 2^precision 个 6 位寄存器 (按 byte 存储), precision 为 14 时占 16KB, 标准误差约 0.8%;
+ * 合并即逐个寄存器取最大值, 与数据量无关
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public final class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 14;
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("HyperLogLog precision must be within [4, 18]: " + precision);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * 加入一个已哈希的取值, 见 {@link Hashes}
+     */
+    public void add(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // 低位补 1 保证 rank 不超过 64 - precision + 1
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public HyperLogLog merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge HyperLogLog of precision " + other.precision + " into " + precision);
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += Double.longBitsToDouble((1023L - register) << 52);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        // 小基数时改用线性计数. 按线性计数的结果判断: 原始估计在 2.5m 到 3m 之间偏高约 3%, 不能用它判断
+        if (zeros > 0) {
+            double linear = m * Math.log((double) m / zeros);
+            if (linear <= 3.0 * m) {
+                return Math.round(linear);
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        return Math.round(alpha * m * m / sum);
+    }
+}
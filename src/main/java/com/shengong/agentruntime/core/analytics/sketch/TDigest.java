@@ -0,0 +1,214 @@
+package com.shengong.agentruntime.core.analytics.sketch;
+
+import java.util.Arrays;
+
+/**
+ * t-digest 分位数草图 (合并式实现)
+ * 新值先进入缓冲区, 缓冲区满时排序并与已有质心按 k1 尺度函数合并: 两端的质心很小, 中间的质心较大,
+ * 因此 p99 等尾部分位数的误差远小于中位数附近. 质心数约为 compression 量级, 与数据量无关;
+ * 两个草图合并即把质心一起重新压缩
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public final class TDigest {
+
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+
+    private double[] means;
+    private double[] weights;
+    private int centroids;
+
+    private final double[] buffer;
+    private int buffered;
+
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public TDigest(double compression) {
+        this.compression = Math.max(20, compression);
+        int capacity = (int) Math.ceil(this.compression * Math.PI / 2) + 10;
+        this.means = new double[capacity];
+        this.weights = new double[capacity];
+        this.buffer = new double[(int) (this.compression * 5)];
+    }
+
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        buffer[buffered++] = value;
+        if (buffered == buffer.length) {
+            flush();
+        }
+    }
+
+    public TDigest merge(TDigest other) {
+        other.flush();
+        flush();
+        if (other.centroids == 0) {
+            return this;
+        }
+        double[] mergedMeans = new double[centroids + other.centroids];
+        double[] mergedWeights = new double[mergedMeans.length];
+        // 两边的质心各自有序, 归并后按序压缩
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < centroids || j < other.centroids) {
+            if (j >= other.centroids || (i < centroids && means[i] <= other.means[j])) {
+                mergedMeans[n] = means[i];
+                mergedWeights[n++] = weights[i++];
+            } else {
+                mergedMeans[n] = other.means[j];
+                mergedWeights[n++] = other.weights[j++];
+            }
+        }
+        totalWeight += other.totalWeight;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        compress(mergedMeans, mergedWeights, n);
+        return this;
+    }
+
+    public long count() {
+        return (long) (totalWeight + buffered);
+    }
+
+    public double min() {
+        flush();
+        return totalWeight > 0 ? min : Double.NaN;
+    }
+
+    public double max() {
+        flush();
+        return totalWeight > 0 ? max : Double.NaN;
+    }
+
+    /**
+     * 分位数估计, q 取 [0, 1]; 没有数据时返回 NaN
+     */
+    public double quantile(double q) {
+        flush();
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (q <= 0) {
+            return min;
+        }
+        if (q >= 1) {
+            return max;
+        }
+        if (centroids == 1) {
+            return means[0];
+        }
+
+        // 质心 i 的权重视为均匀分布在其中心两侧, 相邻中心之间线性插值
+        double index = q * totalWeight;
+        if (index < weights[0] / 2) {
+            return min + (means[0] - min) * index / (weights[0] / 2);
+        }
+        double cumulative = weights[0] / 2;
+        for (int i = 0; i < centroids - 1; i++) {
+            double step = (weights[i] + weights[i + 1]) / 2;
+            if (index < cumulative + step) {
+                double fraction = (index - cumulative) / step;
+                return means[i] + (means[i + 1] - means[i]) * fraction;
+            }
+            cumulative += step;
+        }
+        double tail = weights[centroids - 1] / 2;
+        double fraction = Math.min(1, (index - cumulative) / tail);
+        return means[centroids - 1] + (max - means[centroids - 1]) * fraction;
+    }
+
+    /**
+     * 把缓冲区排序后与现有质心归并压缩
+     */
+    private void flush() {
+        if (buffered == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, buffered);
+        min = Math.min(min, buffer[0]);
+        max = Math.max(max, buffer[buffered - 1]);
+
+        double[] mergedMeans = new double[centroids + buffered];
+        double[] mergedWeights = new double[mergedMeans.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < centroids || j < buffered) {
+            if (j >= buffered || (i < centroids && means[i] <= buffer[j])) {
+                mergedMeans[n] = means[i];
+                mergedWeights[n++] = weights[i++];
+            } else {
+                mergedMeans[n] = buffer[j++];
+                mergedWeights[n++] = 1;
+            }
+        }
+        totalWeight += buffered;
+        buffered = 0;
+        compress(mergedMeans, mergedWeights, n);
+    }
+
+    /**
+     * 按 k1 尺度函数压缩有序质心: 相邻质心的合并不得跨过 k 值的一个单位
+     */
+    private void compress(double[] sortedMeans, double[] sortedWeights, int n) {
+        double[] outMeans = new double[Math.max(means.length, 16)];
+        double[] outWeights = new double[outMeans.length];
+        int out = 0;
+
+        double mean = sortedMeans[0];
+        double weight = sortedWeights[0];
+        double weightSoFar = 0;
+        double limit = totalWeight * qLimit(0);
+        for (int i = 1; i < n; i++) {
+            double proposed = weight + sortedWeights[i];
+            if (weightSoFar + proposed <= limit) {
+                weight = proposed;
+                mean += (sortedMeans[i] - mean) * sortedWeights[i] / weight;
+            } else {
+                if (out == outMeans.length) {
+                    outMeans = Arrays.copyOf(outMeans, out * 2);
+                    outWeights = Arrays.copyOf(outWeights, out * 2);
+                }
+                outMeans[out] = mean;
+                outWeights[out++] = weight;
+                weightSoFar += weight;
+                limit = totalWeight * qLimit(weightSoFar / totalWeight);
+                mean = sortedMeans[i];
+                weight = sortedWeights[i];
+            }
+        }
+        if (out == outMeans.length) {
+            outMeans = Arrays.copyOf(outMeans, out + 1);
+            outWeights = Arrays.copyOf(outWeights, out + 1);
+        }
+        outMeans[out] = mean;
+        outWeights[out++] = weight;
+
+        means = outMeans;
+        weights = outWeights;
+        centroids = out;
+    }
+
+    /**
+     * 从分位 q 出发, k 值增加 1 所能到达的分位: k(q) = compression / (2π) * asin(2q - 1)
+     */
+    private double qLimit(double q) {
+        double k = compression / (2 * Math.PI) * Math.asin(2 * q - 1) + 1;
+        if (k >= compression / 4) {
+            return 1;
+        }
+        return (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+    }
+}
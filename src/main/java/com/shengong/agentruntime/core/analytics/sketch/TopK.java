@@ -0,0 +1,126 @@
+package com.shengong.agentruntime.core.analytics.sketch;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于 Count-Min 的 Top-K 高频项
+ * 频次由 {@link CountMinSketch} 估计, 另外只保留固定数量的候选项; 新项的估计值超过候选中的最小值时替换之.
+ * 合并时先合并草图, 再用合并后的草图重新估计两边候选的并集
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public final class TopK {
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 1024;
+
+    /**
+     * 候选数量为 k 的倍数, 减少高频项在早期被挤出的概率
+     */
+    private static final int CANDIDATE_FACTOR = 4;
+
+    private final int k;
+    private final int capacity;
+    private final CountMinSketch sketch;
+    private final Map<String, Candidate> candidates;
+    private long minimum;
+
+    public TopK(int k) {
+        this.k = Math.max(1, k);
+        this.capacity = this.k * CANDIDATE_FACTOR;
+        this.sketch = new CountMinSketch(DEPTH, WIDTH);
+        this.candidates = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * 计入一次出现
+     *
+     * @param hash 取值的哈希, 见 {@link Hashes#hash(String)}
+     */
+    public void add(String value, long hash) {
+        long estimate = sketch.add(hash, 1);
+        Candidate candidate = candidates.get(value);
+        if (candidate != null) {
+            candidate.estimate = estimate;
+            return;
+        }
+        if (candidates.size() < capacity) {
+            candidates.put(value, new Candidate(hash, estimate));
+            minimum = candidates.size() == capacity ? minimumEstimate() : 0;
+            return;
+        }
+        // minimum 只会因候选计数增长而偏低, 超过时重新计算再比较
+        if (estimate > minimum && estimate > (minimum = minimumEstimate())) {
+            evictMinimum();
+            candidates.put(value, new Candidate(hash, estimate));
+            minimum = minimumEstimate();
+        }
+    }
+
+    public TopK merge(TopK other) {
+        sketch.merge(other.sketch);
+        other.candidates.forEach((value, candidate) -> candidates.putIfAbsent(value, new Candidate(candidate.hash, 0)));
+        for (Candidate candidate : candidates.values()) {
+            candidate.estimate = sketch.estimate(candidate.hash);
+        }
+        while (candidates.size() > capacity) {
+            evictMinimum();
+        }
+        minimum = candidates.size() == capacity ? minimumEstimate() : 0;
+        return this;
+    }
+
+    /**
+     * 估计频次最高的 k 项, 按频次降序
+     */
+    public Map<String, Long> top() {
+        List<Map.Entry<String, Candidate>> entries = new ArrayList<>(candidates.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, Candidate> entry) -> entry.getValue().estimate).reversed());
+        Map<String, Long> top = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(k, entries.size()); i++) {
+            top.put(entries.get(i).getKey(), entries.get(i).getValue().estimate);
+        }
+        return top;
+    }
+
+    public long total() {
+        return sketch.total();
+    }
+
+    private void evictMinimum() {
+        String victim = null;
+        long lowest = Long.MAX_VALUE;
+        for (Map.Entry<String, Candidate> entry : candidates.entrySet()) {
+            if (entry.getValue().estimate < lowest) {
+                lowest = entry.getValue().estimate;
+                victim = entry.getKey();
+            }
+        }
+        candidates.remove(victim);
+    }
+
+    private long minimumEstimate() {
+        long lowest = Long.MAX_VALUE;
+        for (Candidate candidate : candidates.values()) {
+            lowest = Math.min(lowest, candidate.estimate);
+        }
+        return lowest;
+    }
+
+    private static final class Candidate {
+
+        private final long hash;
+        private long estimate;
+
+        private Candidate(long hash, long estimate) {
+            this.hash = hash;
+            this.estimate = estimate;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.shengong.agentruntime.core.analytics.stream;
+
+/**
+ * 指数加权移动平均, 常数内存的在线基线
+ * 做了初始偏差修正, 样本较少时不会被第一个值或初值 0 主导
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+final class Ewma {
+
+    private double sum;
+    private double weight;
+    private long updates;
+
+    void update(double value, double alpha) {
+        sum = (1 - alpha) * sum + alpha * value;
+        weight = (1 - alpha) * weight + alpha;
+        updates++;
+    }
+
+    double mean() {
+        return weight > 0 ? sum / weight : 0;
+    }
+
+    /**
+     * 等效样本数: 稳态时为 (2 - alpha) / alpha, 样本较少时不超过实际更新次数
+     */
+    double effectiveUpdates(double alpha) {
+        return Math.min(updates, (2 - alpha) / alpha);
+    }
+
+    long updates() {
+        return updates;
+    }
+}
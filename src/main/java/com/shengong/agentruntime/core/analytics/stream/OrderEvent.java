@@ -0,0 +1,62 @@
+package com.shengong.agentruntime.core.analytics.stream;
+
+import java.util.Map;
+
+/**
+ * 流式检测消费的订单事件, 字段与 orderList 中的订单一致
+ *
+ * @param timestamp 事件时间 (epoch 毫秒), 不大于 0 时取接收时间
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public record OrderEvent(String orderId,
+                         long timestamp,
+                         String status,
+                         double amount,
+                         boolean delayedShipment,
+                         double processingTimeHours,
+                         String shopId,
+                         String skuId,
+                         String region,
+                         String channel) {
+
+    public static OrderEvent fromMap(Map<String, Object> order) {
+        return new OrderEvent(
+                string(order.get("orderId")),
+                number(order.getOrDefault("timestamp", order.get("createdAt")), 0).longValue(),
+                string(order.get("status")),
+                number(order.get("amount"), 0).doubleValue(),
+                Boolean.TRUE.equals(order.get("delayedShipment")),
+                number(order.get("processingTimeHours"), 24).doubleValue(),
+                string(order.get("shopId")),
+                string(order.get("skuId")),
+                string(order.get("region")),
+                string(order.get("channel")));
+    }
+
+    public boolean refunded() {
+        return "REFUNDED".equals(status);
+    }
+
+    /**
+     * 维度取值, 未知维度或缺失时返回 null
+     */
+    public String dimension(String name) {
+        return switch (name) {
+            case "shopId" -> shopId;
+            case "skuId" -> skuId;
+            case "region" -> region;
+            case "channel" -> channel;
+            case "status" -> status;
+            default -> null;
+        };
+    }
+
+    private static String string(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static Number number(Object value, double defaultValue) {
+        return value instanceof Number number ? number : defaultValue;
+    }
+}
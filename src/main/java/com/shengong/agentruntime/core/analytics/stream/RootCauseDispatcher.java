@@ -0,0 +1,123 @@
+package com.shengong.agentruntime.core.analytics.stream;
+
+import com.shengong.agentruntime.config.StreamingAnomalyProperties;
+import com.shengong.agentruntime.core.agent.Agent;
+import com.shengong.agentruntime.model.AgentResult;
+import com.shengong.agentruntime.model.AgentTask;
+import com.shengong.agentruntime.service.AgentRegistry;
+import com.shengong.agentruntime.service.RouterAgentService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 把流式检测的告警自动交给 RootCauseAgent
+ * 告警先合并 batch-delay, 且两次分析至少间隔 min-interval, 避免告警风暴时逐条调用 LLM
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Component
+public class RootCauseDispatcher {
+
+    static final String ROOT_CAUSE_AGENT = "RootCauseAgent";
+
+    private final StreamingAnomalyDetector detector;
+    private final AgentRegistry agentRegistry;
+    private final RouterAgentService routerAgentService;
+    private final StreamingAnomalyProperties properties;
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("root-cause-dispatch").factory());
+
+    private final List<StreamingAlert> pending = new ArrayList<>();
+    private boolean scheduled;
+    private long lastDispatch;
+
+    public RootCauseDispatcher(StreamingAnomalyDetector detector,
+                               AgentRegistry agentRegistry,
+                               RouterAgentService routerAgentService,
+                               StreamingAnomalyProperties properties) {
+        this.detector = detector;
+        this.agentRegistry = agentRegistry;
+        this.routerAgentService = routerAgentService;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void register() {
+        if (properties.isEnabled() && properties.getRootCause().isEnabled()) {
+            detector.addListener(this::onAlerts);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private synchronized void onAlerts(List<StreamingAlert> alerts) {
+        pending.addAll(alerts);
+        if (scheduled) {
+            return;
+        }
+        scheduled = true;
+        StreamingAnomalyProperties.RootCause config = properties.getRootCause();
+        long delay = Math.max(config.getBatchDelay().toMillis(),
+                lastDispatch + config.getMinInterval().toMillis() - System.currentTimeMillis());
+        scheduler.schedule(this::dispatch, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void dispatch() {
+        List<StreamingAlert> batch;
+        synchronized (this) {
+            batch = new ArrayList<>(pending);
+            pending.clear();
+            scheduled = false;
+            lastDispatch = System.currentTimeMillis();
+        }
+
+        Agent agent = agentRegistry.getAgent(ROOT_CAUSE_AGENT).orElse(null);
+        if (agent == null) {
+            log.warn("{} not registered, dropping {} streaming alert(s)", ROOT_CAUSE_AGENT, batch.size());
+            return;
+        }
+
+        List<Map<String, Object>> anomalies = batch.stream()
+                .sorted(Comparator.comparingDouble((StreamingAlert alert) -> Math.abs(alert.zScore())).reversed())
+                .limit(properties.getRootCause().getMaxAnomalies())
+                .map(StreamingAlert::toMap)
+                .toList();
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("source", "streaming");
+        statistics.put("alertCount", batch.size());
+        statistics.put("windowSeconds", properties.getBucketInterval().multipliedBy(properties.getWindowBuckets()).toSeconds());
+        statistics.put("scoreThreshold", properties.getScoreThreshold());
+
+        AgentTask task = new AgentTask();
+        task.setTaskType("anomaly_detection");
+        task.setDomain("order");
+        task.getPayload().put("anomalies", anomalies);
+        task.getPayload().put("statistics", statistics);
+        task.getContext().put("trigger", "streaming-anomaly");
+
+        try {
+            AgentResult result = routerAgentService.execute(agent, task);
+            log.info("Root cause analysis for {} streaming alert(s) finished: taskId={}, status={}",
+                    batch.size(), task.getTaskId(), result.getStatus());
+        } catch (Exception e) {
+            log.error("Root cause analysis for streaming alerts failed: {}", e.getMessage(), e);
+        }
+    }
+}
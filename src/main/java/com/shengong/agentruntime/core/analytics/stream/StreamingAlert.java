@@ -0,0 +1,60 @@
+package com.shengong.agentruntime.core.analytics.stream;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 流式检测产生的告警
+ * {@link #toMap()} 的字段与 AnomalyDetectionAgent 的 anomalies 一致 (type / severity / metric / value / description),
+ * 另外带上维度、基线与 z-score, 可直接作为 RootCauseAgent 的输入
+ *
+ * @param dimension      维度名, 全局指标为 "global"
+ * @param dimensionValue 维度取值, 全局指标为 null
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public record StreamingAlert(String type,
+                             String severity,
+                             String metric,
+                             String dimension,
+                             String dimensionValue,
+                             double value,
+                             double baseline,
+                             double zScore,
+                             long sampleSize,
+                             long windowStart,
+                             long windowEnd,
+                             long detectedAt) {
+
+    public static final String GLOBAL = "global";
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> alert = new LinkedHashMap<>();
+        alert.put("type", type);
+        alert.put("severity", severity);
+        alert.put("metric", metric);
+        alert.put("value", value);
+        alert.put("baseline", baseline);
+        alert.put("zScore", zScore);
+        alert.put("dimension", dimension);
+        if (dimensionValue != null) {
+            alert.put("dimensionValue", dimensionValue);
+        }
+        alert.put("sampleSize", sampleSize);
+        alert.put("windowStart", windowStart);
+        alert.put("windowEnd", windowEnd);
+        alert.put("detectedAt", detectedAt);
+        alert.put("description", description());
+        return alert;
+    }
+
+    public String description() {
+        String scope = dimensionValue == null ? "全局" : dimension + "=" + dimensionValue;
+        return switch (metric) {
+            case "refundRate" -> String.format("%s 退货率升至 %.1f%%, 基线 %.1f%% (z=%.1f)", scope, value * 100, baseline * 100, zScore);
+            case "delayRate" -> String.format("%s 发货延迟率升至 %.1f%%, 基线 %.1f%% (z=%.1f)", scope, value * 100, baseline * 100, zScore);
+            case "avgProcessingTimeHours" -> String.format("%s 平均处理时间升至 %.1f 小时, 基线 %.1f 小时 (z=%.1f)", scope, value, baseline, zScore);
+            default -> String.format("%s 单量 %.0f, 同时段基线 %.1f (z=%.1f)", scope, value, baseline, zScore);
+        };
+    }
+}
@@ -0,0 +1,299 @@
+package com.shengong.agentruntime.core.analytics.stream;
+
+import com.shengong.agentruntime.config.StreamingAnomalyProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 流式订单异常检测
+ * <p>
+ * 订单事件进入有界队列, 由单个检测线程按事件时间分桶累计: 每个桶结束时对全局和各维度取值
+ * (shopId / region / channel ...) 评估滑动窗口的退货率、延迟率、处理时长以及桶单量,
+ * 与 EWMA 基线 (单量按日内时段区分) 比较得到 z-score, 超过阈值即告警.
+ * 没有新事件时按墙钟推进事件时间, 因此告警延迟不超过一个桶长.
+ * 队列容量、跟踪的维度取值数与窗口长度都有上限, 内存占用有界
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Component
+public class StreamingAnomalyDetector {
+
+    private static final int DRAIN_BATCH = 4096;
+
+    private final StreamingAnomalyProperties properties;
+    private final StreamingSettings settings;
+    private final long maxSkewMillis;
+    private final MeterRegistry meterRegistry;
+    private final BlockingQueue<OrderEvent> queue;
+    private final List<Consumer<List<StreamingAlert>>> listeners = new CopyOnWriteArrayList<>();
+    private final Deque<StreamingAlert> recentAlerts = new ArrayDeque<>();
+
+    private final Counter accepted;
+    private final Counter dropped;
+    private final Counter late;
+    private final Counter rejected;
+    private final Counter evicted;
+
+    // --- 以下状态只在检测线程上读写 ---
+
+    private final WindowState global;
+    private final LinkedHashMap<String, WindowState> states;
+    private long currentBucket = Long.MIN_VALUE;
+    private long eventClockOffset;
+
+    private volatile int trackedKeys;
+    private volatile boolean running;
+    private Thread worker;
+
+    public StreamingAnomalyDetector(StreamingAnomalyProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.settings = StreamingSettings.of(properties);
+        this.maxSkewMillis = properties.getMaxClockSkew() != null
+                ? Math.max(0, properties.getMaxClockSkew().toMillis()) : settings.bucketMillis();
+        this.meterRegistry = meterRegistry;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity()));
+        this.global = new WindowState(StreamingAlert.GLOBAL, null, settings);
+
+        int maxKeys = properties.getMaxKeys();
+        this.states = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, WindowState> eldest) {
+                if (size() > maxKeys) {
+                    evicted.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        this.accepted = meterRegistry.counter("analytics.stream.events", "result", "accepted");
+        this.dropped = meterRegistry.counter("analytics.stream.events", "result", "dropped");
+        this.late = meterRegistry.counter("analytics.stream.events", "result", "late");
+        this.rejected = meterRegistry.counter("analytics.stream.events", "result", "rejected");
+        this.evicted = meterRegistry.counter("analytics.stream.keys.evicted");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        worker = Thread.ofVirtual().name("order-anomaly-stream").start(this::run);
+        log.info("Streaming anomaly detection started: bucket={}ms, window={} buckets, dimensions={}",
+                settings.bucketMillis(), settings.windowBuckets(), properties.getDimensions());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    /**
+     * 提交一个事件, 检测未启用或队列已满时返回 false
+     */
+    public boolean publish(OrderEvent event) {
+        if (!running) {
+            return false;
+        }
+        if (queue.offer(event)) {
+            accepted.increment();
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * 批量提交, 返回被接收的事件数
+     */
+    public int publishAll(Collection<OrderEvent> events) {
+        int count = 0;
+        for (OrderEvent event : events) {
+            if (publish(event)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 注册告警监听, 每个桶结束时以该桶产生的全部告警回调一次, 回调在检测线程上执行, 不能阻塞
+     */
+    public void addListener(Consumer<List<StreamingAlert>> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 最近的告警, 新的在前
+     */
+    public List<StreamingAlert> recentAlerts(int limit) {
+        synchronized (recentAlerts) {
+            return recentAlerts.stream().limit(Math.max(0, limit)).toList();
+        }
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running);
+        status.put("queued", queue.size());
+        status.put("queueCapacity", properties.getQueueCapacity());
+        status.put("trackedKeys", trackedKeys);
+        status.put("accepted", (long) accepted.count());
+        status.put("dropped", (long) dropped.count());
+        status.put("late", (long) late.count());
+        status.put("rejected", (long) rejected.count());
+        status.put("bucketIntervalMs", settings.bucketMillis());
+        status.put("windowBuckets", settings.windowBuckets());
+        return status;
+    }
+
+    private void run() {
+        List<OrderEvent> batch = new ArrayList<>(DRAIN_BATCH);
+        long tickMillis = Math.max(10, settings.bucketMillis() / 4);
+        while (running) {
+            try {
+                OrderEvent first = queue.poll(tickMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    advanceIdle(System.currentTimeMillis());
+                    continue;
+                }
+                process(first, System.currentTimeMillis());
+                queue.drainTo(batch, DRAIN_BATCH);
+                for (OrderEvent event : batch) {
+                    process(event, System.currentTimeMillis());
+                }
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Streaming anomaly detection failed: {}", e.getMessage(), e);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 处理一个事件, 只在检测线程上调用
+     *
+     * @param now 当前墙钟时间
+     */
+    void process(OrderEvent event, long now) {
+        long timestamp = event.timestamp() > 0 ? event.timestamp() : now;
+        if (timestamp - now > maxSkewMillis) {
+            // 时间超前过多 (时钟偏差或单位错误, 如微秒) 的事件会一次关闭全部窗口并让后续事件都成为迟到事件
+            rejected.increment();
+            return;
+        }
+        long bucket = Math.floorDiv(timestamp, settings.bucketMillis());
+        if (currentBucket == Long.MIN_VALUE) {
+            currentBucket = bucket;
+        } else if (bucket > currentBucket) {
+            advanceTo(bucket);
+        }
+        if (bucket < currentBucket) {
+            // 迟到事件计入当前桶, 不用它校准事件时钟, 否则空闲推进会倒退
+            late.increment();
+        } else {
+            eventClockOffset = timestamp - now;
+        }
+
+        global.add(event);
+        for (String dimension : properties.getDimensions()) {
+            String value = event.dimension(dimension);
+            if (value != null) {
+                states.computeIfAbsent(dimension + "=" + value,
+                        key -> new WindowState(dimension, value, settings)).add(event);
+            }
+        }
+    }
+
+    /**
+     * 没有新事件时按墙钟推进事件时间 (回放历史事件时保持回放时的时间差)
+     */
+    void advanceIdle(long now) {
+        if (currentBucket == Long.MIN_VALUE) {
+            return;
+        }
+        long bucket = Math.floorDiv(now + eventClockOffset, settings.bucketMillis());
+        if (bucket > currentBucket) {
+            advanceTo(bucket);
+        }
+    }
+
+    void advanceTo(long bucket) {
+        List<StreamingAlert> alerts = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        // 间隔超过窗口时, 关闭 windowBuckets 个桶后窗口已清空, 其余空桶直接跳过
+        long closes = Math.min(bucket - currentBucket, settings.windowBuckets());
+        for (long i = 0; i < closes; i++) {
+            long closing = currentBucket + i;
+            long start = closing * settings.bucketMillis();
+            global.close(closing, start, now, alerts);
+            for (WindowState state : states.values()) {
+                state.close(closing, start, now, alerts);
+            }
+        }
+        currentBucket = bucket;
+        trackedKeys = states.size();
+
+        if (!alerts.isEmpty()) {
+            publishAlerts(alerts);
+        }
+    }
+
+    /**
+     * 当前 (尚未关闭的) 桶序号, 还没有事件时为 Long.MIN_VALUE
+     */
+    long currentBucket() {
+        return currentBucket;
+    }
+
+    private void publishAlerts(List<StreamingAlert> alerts) {
+        synchronized (recentAlerts) {
+            for (StreamingAlert alert : alerts) {
+                recentAlerts.addFirst(alert);
+            }
+            while (recentAlerts.size() > properties.getRecentAlerts()) {
+                recentAlerts.removeLast();
+            }
+        }
+        for (StreamingAlert alert : alerts) {
+            meterRegistry.counter("analytics.stream.alerts", "type", alert.type(), "dimension", alert.dimension()).increment();
+            log.warn("Streaming anomaly: {}", alert.description());
+        }
+
+        List<StreamingAlert> snapshot = List.copyOf(alerts);
+        for (Consumer<List<StreamingAlert>> listener : listeners) {
+            try {
+                listener.accept(snapshot);
+            } catch (Exception e) {
+                log.warn("Streaming anomaly listener failed: {}", e.getMessage());
+            }
+        }
+    }
+}
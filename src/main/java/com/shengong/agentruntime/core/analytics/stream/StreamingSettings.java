@@ -0,0 +1,48 @@
+package com.shengong.agentruntime.core.analytics.stream;
+
+import com.shengong.agentruntime.config.StreamingAnomalyProperties;
+
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * 检测过程中使用的配置快照, 时长换算为桶数
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+record StreamingSettings(long bucketMillis,
+                         int windowBuckets,
+                         double alpha,
+                         int warmupBuckets,
+                         double threshold,
+                         double minRelativeChange,
+                         int minSamples,
+                         long cooldownBuckets,
+                         int seasonalSlots,
+                         long zoneOffsetMillis) {
+
+    private static final long DAY_MILLIS = 24 * 3_600_000L;
+
+    static StreamingSettings of(StreamingAnomalyProperties properties) {
+        long bucketMillis = Math.max(1, properties.getBucketInterval().toMillis());
+        return new StreamingSettings(
+                bucketMillis,
+                Math.max(1, properties.getWindowBuckets()),
+                properties.getEwmaAlpha(),
+                Math.max(1, properties.getWarmupBuckets()),
+                properties.getScoreThreshold(),
+                properties.getMinRelativeChange(),
+                Math.max(1, properties.getMinSamples()),
+                Math.max(1, properties.getAlertCooldown().toMillis() / bucketMillis),
+                Math.max(1, properties.getSeasonalSlotsPerDay()),
+                ZoneId.systemDefault().getRules().getOffset(Instant.now()).getTotalSeconds() * 1000L);
+    }
+
+    /**
+     * 时间所在的日内时段 (本地时区)
+     */
+    int seasonalSlot(long epochMillis) {
+        return (int) (Math.floorMod(epochMillis + zoneOffsetMillis, DAY_MILLIS) * seasonalSlots / DAY_MILLIS);
+    }
+}
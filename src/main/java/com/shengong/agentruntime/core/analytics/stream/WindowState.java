@@ -0,0 +1,179 @@
+package com.shengong.agentruntime.core.analytics.stream;
+
+import java.util.List;
+
+/**
+ * 单个维度取值的滑动窗口与基线
+ * <p>
+ * 窗口是 windowBuckets 个时间桶的环形数组, 维护窗口累计值, 关闭一个桶只需减去移出的桶.
+ * 基线是移出窗口的桶的订单数、退款数、延迟数、处理时长及其平方和的 EWMA, 比率基线取两者之比, 不受单量波动影响;
+ * 单量基线按日内时段分别维护 (季节性). 评估时窗口值与基线比较:
+ * 比率按二项分布、处理时长按均值的标准误、单量按泊松分布计算 z-score, 方差包含基线自身的抽样误差.
+ * 只在检测线程上访问
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+final class WindowState {
+
+    private static final int REFUND = 0;
+    private static final int DELAY = 1;
+    private static final int PROCESSING = 2;
+    private static final int VOLUME = 3;
+
+    private final String dimension;
+    private final String value;
+    private final StreamingSettings settings;
+
+    private final long[] orders;
+    private final long[] refunds;
+    private final long[] delayed;
+    private final double[] processing;
+    private final double[] processingSquares;
+    private int head;
+
+    private long windowOrders;
+    private long windowRefunds;
+    private long windowDelayed;
+    private double windowProcessing;
+
+    private final Ewma baseOrders = new Ewma();
+    private final Ewma baseRefunds = new Ewma();
+    private final Ewma baseDelayed = new Ewma();
+    private final Ewma baseProcessing = new Ewma();
+    private final Ewma baseProcessingSquares = new Ewma();
+    private final Ewma[] seasonalOrders;
+
+    /**
+     * 已关闭的桶数, 环形数组填满之前移出的是空槽, 不用于更新基线
+     */
+    private long closed;
+
+    private final long[] lastAlertBucket = {Long.MIN_VALUE / 2, Long.MIN_VALUE / 2, Long.MIN_VALUE / 2, Long.MIN_VALUE / 2};
+
+    WindowState(String dimension, String value, StreamingSettings settings) {
+        this.dimension = dimension;
+        this.value = value;
+        this.settings = settings;
+        int buckets = settings.windowBuckets();
+        this.orders = new long[buckets];
+        this.refunds = new long[buckets];
+        this.delayed = new long[buckets];
+        this.processing = new double[buckets];
+        this.processingSquares = new double[buckets];
+        this.seasonalOrders = new Ewma[settings.seasonalSlots()];
+        for (int i = 0; i < seasonalOrders.length; i++) {
+            seasonalOrders[i] = new Ewma();
+        }
+    }
+
+    void add(OrderEvent event) {
+        double hours = event.processingTimeHours();
+        orders[head]++;
+        windowOrders++;
+        if (event.refunded()) {
+            refunds[head]++;
+            windowRefunds++;
+        }
+        if (event.delayedShipment()) {
+            delayed[head]++;
+            windowDelayed++;
+        }
+        processing[head] += hours;
+        processingSquares[head] += hours * hours;
+        windowProcessing += hours;
+    }
+
+    /**
+     * 关闭当前桶: 评估窗口指标, 然后把环形数组前移一格, 用移出窗口的桶更新基线
+     *
+     * @param bucket      被关闭的桶序号
+     * @param bucketStart 被关闭的桶的起始时间
+     */
+    void close(long bucket, long bucketStart, long now, List<StreamingAlert> alerts) {
+        long windowStart = bucketStart - (settings.windowBuckets() - 1) * settings.bucketMillis();
+        long windowEnd = bucketStart + settings.bucketMillis();
+        double n = windowOrders;
+
+        // 方差同时计入窗口与基线两侧的抽样误差, 稀疏维度的基线本身波动较大
+        double baseSamples = baseOrders.mean() * baseOrders.effectiveUpdates(settings.alpha());
+        if (baseOrders.updates() >= settings.warmupBuckets() && n >= settings.minSamples() && baseSamples > 0) {
+            double scale = 1 / n + 1 / baseSamples;
+            double refundRate = baseRefunds.mean() / baseOrders.mean();
+            evaluate(REFUND, windowRefunds / n, refundRate,
+                    Math.max(refundRate * (1 - refundRate), 1 / n) * scale, bucket, windowStart, windowEnd, now, alerts);
+
+            double delayRate = baseDelayed.mean() / baseOrders.mean();
+            evaluate(DELAY, windowDelayed / n, delayRate,
+                    Math.max(delayRate * (1 - delayRate), 1 / n) * scale, bucket, windowStart, windowEnd, now, alerts);
+
+            double mean = baseProcessing.mean() / baseOrders.mean();
+            double variance = baseProcessingSquares.mean() / baseOrders.mean() - mean * mean;
+            evaluate(PROCESSING, windowProcessing / n, mean,
+                    Math.max(variance, 1e-6) * scale, bucket, windowStart, windowEnd, now, alerts);
+        }
+
+        Ewma seasonal = seasonalOrders[settings.seasonalSlot(bucketStart)];
+        double expected = seasonal.mean() * settings.windowBuckets();
+        if (seasonal.updates() >= settings.warmupBuckets() && expected >= settings.minSamples()) {
+            double variance = expected * (1 + settings.windowBuckets() / seasonal.effectiveUpdates(settings.alpha()));
+            evaluate(VOLUME, n, expected, variance, bucket, windowStart, windowEnd, now, alerts);
+        }
+
+        // 前移一格, 新的 head 是移出窗口的最旧桶: 基线只用窗口之前的数据更新, 异常开始后要整整一个窗口
+        // 才会进入基线, 在此之前已经告警; 持续的水平变化随后逐渐成为新基线.
+        // 不在告警期间冻结基线: 按窗口是否越界筛选样本会使基线系统性偏低, 在稀疏维度上形成误报的正反馈
+        head = head + 1 == orders.length ? 0 : head + 1;
+        if (++closed >= orders.length) {
+            double alpha = settings.alpha();
+            baseOrders.update(orders[head], alpha);
+            baseRefunds.update(refunds[head], alpha);
+            baseDelayed.update(delayed[head], alpha);
+            baseProcessing.update(processing[head], alpha);
+            baseProcessingSquares.update(processingSquares[head], alpha);
+            seasonalOrders[settings.seasonalSlot(windowStart)].update(orders[head], alpha);
+        }
+
+        windowOrders -= orders[head];
+        windowRefunds -= refunds[head];
+        windowDelayed -= delayed[head];
+        windowProcessing -= processing[head];
+        orders[head] = 0;
+        refunds[head] = 0;
+        delayed[head] = 0;
+        processing[head] = 0;
+        processingSquares[head] = 0;
+    }
+
+    private void evaluate(int metric, double current, double baseline, double variance,
+                          long bucket, long windowStart, long windowEnd, long now, List<StreamingAlert> alerts) {
+        double score = (current - baseline) / Math.sqrt(variance);
+        double change = Math.abs(current - baseline);
+        // 比率与处理时长只关心升高, 单量升降都告警; 同时要求相对变化足够大, 避免大单量下的微小偏移触发告警
+        boolean breach = (metric == VOLUME ? Math.abs(score) : score) >= settings.threshold()
+                && change >= baseline * settings.minRelativeChange();
+        if (breach && bucket - lastAlertBucket[metric] >= settings.cooldownBuckets()) {
+            lastAlertBucket[metric] = bucket;
+            alerts.add(alert(metric, current, baseline, score, windowStart, windowEnd, now));
+        }
+    }
+
+    private StreamingAlert alert(int metric, double current, double baseline, double score,
+                                 long windowStart, long windowEnd, long now) {
+        String type = switch (metric) {
+            case REFUND -> "HIGH_REFUND_RATE";
+            case DELAY -> "HIGH_DELAY_RATE";
+            case PROCESSING -> "SLOW_PROCESSING";
+            default -> score > 0 ? "ORDER_VOLUME_SPIKE" : "ORDER_VOLUME_DROP";
+        };
+        String metricName = switch (metric) {
+            case REFUND -> "refundRate";
+            case DELAY -> "delayRate";
+            case PROCESSING -> "avgProcessingTimeHours";
+            default -> "orderVolume";
+        };
+        String severity = Math.abs(score) >= 2 * settings.threshold() ? "high" : "medium";
+        return new StreamingAlert(type, severity, metricName, dimension, value, current, baseline, score,
+                windowOrders, windowStart, windowEnd, now);
+    }
+}
@@ -0,0 +1,195 @@
+package com.shengong.agentruntime.core.analytics.timeseries;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 时间序列下采样, 在给定点数预算内保留形状与极值
+ * <ul>
+ *     <li>LTTB (Largest-Triangle-Three-Buckets): 按点数均分为预算个桶, 每个桶选出与上一个已选点、下一个桶均值
+ *     构成三角形面积最大的点, 保留拐点与峰谷, 适合折线图与给 LLM 的趋势</li>
+ *     <li>MIN_MAX: 每个桶保留最小值与最大值两个点, 不会漏掉任何桶内的极值, 适合关注尖峰与跌落的场景</li>
+ * </ul>
+ * 结果以选中点的下标返回, 多列共用同一组下标投影; 多列时预算平分给各列再取并集
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public final class Downsampler {
+
+    public enum Method {
+        LTTB, MIN_MAX
+    }
+
+    private Downsampler() {
+    }
+
+    /**
+     * 按各列选点后取并集, 结果升序, 预算不小于每列 3 点时不超过 budget 个; 点数未超预算或预算不大于 0 时返回全部下标
+     */
+    public static int[] select(Method method, int budget, TimeSeries... columns) {
+        int size = columns.length > 0 ? columns[0].size() : 0;
+        if (budget <= 0 || size <= budget) {
+            return all(size);
+        }
+        int perColumn = Math.max(3, budget / columns.length);
+        boolean[] selected = new boolean[size];
+        for (TimeSeries column : columns) {
+            int[] indices = method == Method.MIN_MAX ? minMax(column, perColumn) : lttb(column, perColumn);
+            for (int index : indices) {
+                selected[index] = true;
+            }
+        }
+        int count = 0;
+        for (boolean chosen : selected) {
+            count += chosen ? 1 : 0;
+        }
+        int[] indices = new int[count];
+        for (int i = 0, n = 0; i < size; i++) {
+            if (selected[i]) {
+                indices[n++] = i;
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * LTTB 选点, 首尾两点总是保留
+     */
+    public static int[] lttb(TimeSeries series, int budget) {
+        int size = series.size();
+        if (budget >= size || budget < 3) {
+            return budget < 3 && size > budget ? endpoints(size, budget) : all(size);
+        }
+        long origin = series.timestamp(0);
+        int[] sampled = new int[budget];
+        int count = 0;
+        sampled[count++] = 0;
+
+        // 首尾之外的点均分为 budget - 2 个桶
+        double every = (double) (size - 2) / (budget - 2);
+        int previous = 0;
+        for (int bucket = 0; bucket < budget - 2; bucket++) {
+            // 下一个桶的均值点 (最后一个桶以末点代替)
+            int nextFrom = (int) Math.floor((bucket + 1) * every) + 1;
+            int nextTo = Math.min((int) Math.floor((bucket + 2) * every) + 1, size);
+            double averageX = 0;
+            double averageY = 0;
+            if (nextFrom >= nextTo) {
+                nextFrom = size - 1;
+                nextTo = size;
+            }
+            for (int i = nextFrom; i < nextTo; i++) {
+                averageX += series.timestamp(i) - origin;
+                averageY += series.value(i);
+            }
+            averageX /= nextTo - nextFrom;
+            averageY /= nextTo - nextFrom;
+
+            int from = (int) Math.floor(bucket * every) + 1;
+            int to = Math.min((int) Math.floor((bucket + 1) * every) + 1, size - 1);
+            double previousX = series.timestamp(previous) - origin;
+            double previousY = series.value(previous);
+            double largest = -1;
+            int chosen = from;
+            for (int i = from; i < to; i++) {
+                double area = Math.abs((previousX - averageX) * (series.value(i) - previousY)
+                        - (previousX - (series.timestamp(i) - origin)) * (averageY - previousY));
+                if (area > largest) {
+                    largest = area;
+                    chosen = i;
+                }
+            }
+            sampled[count++] = chosen;
+            previous = chosen;
+        }
+        sampled[count++] = size - 1;
+        return sampled;
+    }
+
+    /**
+     * 每个桶保留最小值与最大值, 按时间先后输出; 首尾两点总是保留, 其余点均分为 (budget - 2) / 2 个桶
+     */
+    public static int[] minMax(TimeSeries series, int budget) {
+        int size = series.size();
+        if (budget >= size || budget < 4) {
+            return budget < 4 && size > budget ? endpoints(size, budget) : all(size);
+        }
+        int buckets = (budget - 2) / 2;
+        int interior = size - 2;
+        int[] sampled = new int[buckets * 2 + 2];
+        int count = 0;
+        sampled[count++] = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int from = 1 + (int) ((long) bucket * interior / buckets);
+            int to = 1 + (int) ((long) (bucket + 1) * interior / buckets);
+            if (from >= to) {
+                continue;
+            }
+            int min = from;
+            int max = from;
+            for (int i = from + 1; i < to; i++) {
+                if (series.value(i) < series.value(min)) {
+                    min = i;
+                }
+                if (series.value(i) > series.value(max)) {
+                    max = i;
+                }
+            }
+            sampled[count++] = Math.min(min, max);
+            if (min != max) {
+                sampled[count++] = Math.max(min, max);
+            }
+        }
+        sampled[count++] = size - 1;
+        return Arrays.copyOf(sampled, count);
+    }
+
+    /**
+     * 对已经是 Map 的行下采样, 行中需有 startTime; valueKeys 为参与选点的数值字段
+     *
+     * @return 未超预算时返回原列表
+     */
+    public static <T extends Map<String, Object>> List<T> rows(List<T> rows, Method method, int budget, String... valueKeys) {
+        int size = rows.size();
+        if (budget <= 0 || size <= budget || valueKeys.length == 0) {
+            return rows;
+        }
+        long[] timestamps = new long[size];
+        double[][] values = new double[valueKeys.length][size];
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> row = rows.get(i);
+            timestamps[i] = row.get("startTime") instanceof Number start ? start.longValue() : i;
+            for (int k = 0; k < valueKeys.length; k++) {
+                values[k][i] = row.get(valueKeys[k]) instanceof Number value ? value.doubleValue() : 0;
+            }
+        }
+        TimeSeries[] columns = new TimeSeries[valueKeys.length];
+        for (int k = 0; k < valueKeys.length; k++) {
+            columns[k] = new TimeSeries(timestamps, values[k], size);
+        }
+        int[] indices = select(method, budget, columns);
+        List<T> sampled = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            sampled.add(rows.get(index));
+        }
+        return sampled;
+    }
+
+    private static int[] all(int size) {
+        int[] indices = new int[size];
+        for (int i = 0; i < size; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    private static int[] endpoints(int size, int budget) {
+        if (budget <= 0) {
+            return new int[0];
+        }
+        return budget == 1 ? new int[]{0} : new int[]{0, size - 1};
+    }
+}
@@ -0,0 +1,207 @@
+package com.shengong.agentruntime.core.analytics.timeseries;
+
+import com.shengong.agentruntime.config.LiveSeriesProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 直播时间序列指标引擎
+ * 在原始粒度上计算滚动窗口指标 (窗口 GMV 最高、窗口转化率最低、窗口在线最高), 在 peak-resolution 上检测在线人数
+ * 与窗口 GMV 的峰值 (单个时间片的订单稀疏, GMV 按滚动窗口累计后再检测), 再重采样到输出分辨率给出逐时间片的转化率与观众小时 GMV,
+ * 超出点数预算时按在线人数与 GMV 用 {@link Downsampler} 选点. 全部计算基于 {@link TimeSeries} 的原始类型数组,
+ * 只有最终输出的 Map 是对象; {@link #downsample} 供下游 Agent 按各自预算进一步压缩已输出的 slots
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LiveMetricsEngine {
+
+    private static final DateTimeFormatter MINUTE_FORMAT = DateTimeFormatter.ofPattern("HH:mm")
+            .withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter SECOND_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+
+    private final LiveSeriesProperties properties;
+
+    public long defaultResolutionMillis() {
+        return properties.getResolution().toMillis();
+    }
+
+    public LiveSeriesProperties.Downsampling downsampling() {
+        return properties.getDownsampling();
+    }
+
+    /**
+     * @param resolutionMillis 输出序列的分辨率, 不大于原始粒度时按原始粒度输出
+     * @param maxPoints        slots 的点数上限, 0 表示不限
+     */
+    public Map<String, Object> analyze(LiveSeries series, long resolutionMillis, int maxPoints) {
+        long started = System.nanoTime();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("points", series.size());
+        result.put("granularitySeconds", series.stepMillis() / 1000.0);
+        if (series.size() == 0) {
+            return result;
+        }
+        result.put("startTime", series.timestamp(0));
+        result.put("endTime", series.timestamp(series.size() - 1) + series.stepMillis());
+
+        TimeSeries viewerMinutes = series.viewerMinutes();
+        double totalViewerMinutes = viewerMinutes.sum();
+        double totalGmv = series.gmv().sum();
+        result.put("conversionRate", totalViewerMinutes > 0 ? round(series.orders().sum() / totalViewerMinutes, 8) : 0);
+        result.put("gmvPerViewerHour", totalViewerMinutes > 0 ? round(totalGmv / (totalViewerMinutes / 60), 4) : 0);
+        result.put("rolling", rolling(series, viewerMinutes));
+        result.put("peaks", peaks(series));
+
+        LiveSeries resampled = series.resample(resolutionMillis);
+        result.put("resolutionSeconds", resampled.stepMillis() / 1000.0);
+        int[] selected = Downsampler.select(downsampling().getMethod(), maxPoints, resampled.viewers(), resampled.gmv());
+        if (selected.length < resampled.size()) {
+            result.put("slotCount", resampled.size());
+            result.put("downsampling", downsampling().getMethod().name());
+        }
+        result.put("slots", slots(resampled, selected));
+
+        log.debug("Analyzed {} live points in {} ms", series.size(), (System.nanoTime() - started) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * 滚动窗口指标; 转化率最低的窗口只在窗口填满后统计, 避免开播时少量数据的噪声
+     */
+    private Map<String, Object> rolling(LiveSeries series, TimeSeries viewerMinutes) {
+        long window = Math.max(properties.getRollingWindow().toMillis(), series.stepMillis());
+        Map<String, Object> rolling = new LinkedHashMap<>();
+        rolling.put("windowMinutes", window / 60_000.0);
+
+        TimeSeries windowGmv = series.gmv().rollingSum(window);
+        int best = windowGmv.argMax();
+        rolling.put("maxGmv", point(windowGmv.value(best), windowGmv.timestamp(best) + series.stepMillis(), 2));
+
+        TimeSeries windowViewers = series.viewers().rollingMean(window);
+        best = windowViewers.argMax();
+        rolling.put("maxAvgViewers", point(windowViewers.value(best), windowViewers.timestamp(best) + series.stepMillis(), 1));
+
+        TimeSeries windowOrders = series.orders().rollingSum(window);
+        TimeSeries windowViewerMinutes = viewerMinutes.rollingSum(window);
+        long filled = series.timestamp(0) + window - series.stepMillis();
+        int worst = -1;
+        double lowest = Double.MAX_VALUE;
+        for (int i = 0; i < series.size(); i++) {
+            double exposure = windowViewerMinutes.value(i);
+            if (series.timestamp(i) < filled || exposure <= 0) {
+                continue;
+            }
+            double conversion = windowOrders.value(i) / exposure;
+            if (conversion < lowest) {
+                lowest = conversion;
+                worst = i;
+            }
+        }
+        if (worst >= 0) {
+            rolling.put("minConversionRate", point(lowest, series.timestamp(worst) + series.stepMillis(), 8));
+        }
+        return rolling;
+    }
+
+    private Map<String, Object> peaks(LiveSeries series) {
+        LiveSeries smoothed = series.resample(properties.getPeakResolution().toMillis());
+        PeakDetector detector = new PeakDetector(properties.getPeakWindow().toMillis(),
+                properties.getPeakThreshold(), properties.getPeakMinRise());
+        Map<String, Object> peaks = new LinkedHashMap<>();
+        peaks.put("viewers", describe(detector.detect(smoothed.viewers(), properties.getMaxPeaks()), smoothed.stepMillis()));
+        long window = Math.max(properties.getRollingWindow().toMillis(), smoothed.stepMillis());
+        peaks.put("windowGmv", describe(detector.detect(smoothed.gmv().rollingSum(window), properties.getMaxPeaks()),
+                smoothed.stepMillis()));
+        return peaks;
+    }
+
+    private static List<Map<String, Object>> describe(List<PeakDetector.Peak> peaks, long stepMillis) {
+        List<Map<String, Object>> described = new ArrayList<>(peaks.size());
+        for (PeakDetector.Peak peak : peaks) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("startTime", peak.start());
+            item.put("endTime", peak.end() + stepMillis);
+            item.put("peakTime", peak.peakTime());
+            item.put("time", format(peak.peakTime(), stepMillis));
+            item.put("value", round(peak.value(), 2));
+            item.put("baseline", round(peak.baseline(), 2));
+            item.put("lift", round(peak.lift(), 2));
+            described.add(item);
+        }
+        return described;
+    }
+
+    /**
+     * 已输出的 metrics 按点数预算压缩 timeSeries.slots, 返回副本, 不修改入参
+     *
+     * @param maxPoints 点数上限, 0 表示不限
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> downsample(Map<String, Object> metrics, int maxPoints) {
+        if (!(metrics.get("timeSeries") instanceof Map<?, ?> timeSeries)
+                || !(timeSeries.get("slots") instanceof List<?> slots)
+                || maxPoints <= 0 || slots.size() <= maxPoints) {
+            return metrics;
+        }
+        List<Map<String, Object>> sampled = Downsampler.rows((List<Map<String, Object>>) slots,
+                downsampling().getMethod(), maxPoints, "viewers", "gmv");
+        Map<String, Object> compacted = new LinkedHashMap<>((Map<String, Object>) timeSeries);
+        compacted.putIfAbsent("slotCount", slots.size());
+        compacted.put("downsampling", downsampling().getMethod().name());
+        compacted.put("slots", sampled);
+        Map<String, Object> result = new LinkedHashMap<>(metrics);
+        result.put("timeSeries", compacted);
+        return result;
+    }
+
+    /**
+     * 按输出分辨率列出选中的时间片
+     */
+    private static List<Map<String, Object>> slots(LiveSeries series, int[] selected) {
+        TimeSeries conversion = series.conversionRate();
+        TimeSeries gmvPerViewerHour = series.gmvPerViewerHour();
+        List<Map<String, Object>> slots = new ArrayList<>(selected.length);
+        for (int i : selected) {
+            Map<String, Object> slot = new LinkedHashMap<>();
+            slot.put("time", format(series.timestamp(i), series.stepMillis()));
+            slot.put("startTime", series.timestamp(i));
+            slot.put("viewers", round(series.viewers().value(i), 1));
+            slot.put("gmv", round(series.gmv().value(i), 2));
+            slot.put("orders", (long) series.orders().value(i));
+            slot.put("conversionRate", round(conversion.value(i), 8));
+            slot.put("gmvPerViewerHour", round(gmvPerViewerHour.value(i), 4));
+            slots.add(slot);
+        }
+        return slots;
+    }
+
+    private static Map<String, Object> point(double value, long endTime, int digits) {
+        Map<String, Object> point = new LinkedHashMap<>();
+        point.put("value", round(value, digits));
+        point.put("endTime", endTime);
+        return point;
+    }
+
+    static String format(long epochMillis, long stepMillis) {
+        return (stepMillis % 60_000 == 0 ? MINUTE_FORMAT : SECOND_FORMAT).format(Instant.ofEpochMilli(epochMillis));
+    }
+
+    private static double round(double value, int digits) {
+        double scale = Math.pow(10, digits);
+        return Math.round(value * scale) / scale;
+    }
+}
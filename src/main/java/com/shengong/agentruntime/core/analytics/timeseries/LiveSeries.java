@@ -0,0 +1,183 @@
+package com.shengong.agentruntime.core.analytics.timeseries;
+
+import com.shengong.agentruntime.core.tool.synthetic.LiveTimeline;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 直播时间线的列式视图, 各列共享同一时间轴
+ * 在线人数为时间片内的平均同时在线, GMV、订单、评论、点赞、礼物为时间片内的累计量; 重采样时前者取均值, 后者求和,
+ * 转化率等比率指标由累计量重新计算, 不对比率求平均
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public final class LiveSeries {
+
+    private final long stepMillis;
+    private final TimeSeries viewers;
+    private final TimeSeries gmv;
+    private final TimeSeries orders;
+    private final TimeSeries comments;
+    private final TimeSeries likes;
+    private final TimeSeries gifts;
+
+    private LiveSeries(long stepMillis, TimeSeries viewers, TimeSeries gmv, TimeSeries orders,
+                       TimeSeries comments, TimeSeries likes, TimeSeries gifts) {
+        this.stepMillis = stepMillis;
+        this.viewers = viewers;
+        this.gmv = gmv;
+        this.orders = orders;
+        this.comments = comments;
+        this.likes = likes;
+        this.gifts = gifts;
+    }
+
+    /**
+     * LiveDataTool 返回的 timeline: 列式视图直接读取原始数组, 其他 List 逐行读取 startTime 等字段
+     *
+     * @return 无法识别 (缺少 startTime) 时返回 null
+     */
+    public static LiveSeries of(List<?> timeline) {
+        LiveTimeline columns = LiveTimeline.of(timeline);
+        return columns != null ? from(columns) : fromRows(timeline);
+    }
+
+    public static LiveSeries from(LiveTimeline timeline) {
+        int size = timeline.size();
+        long[] timestamps = new long[size];
+        double[][] columns = new double[6][size];
+        for (int slot = 0; slot < size; slot++) {
+            timestamps[slot] = timeline.slotStart(slot);
+            columns[0][slot] = timeline.viewers(slot);
+            columns[1][slot] = timeline.gmv(slot);
+            columns[2][slot] = timeline.orders(slot);
+            columns[3][slot] = timeline.comments(slot);
+            columns[4][slot] = timeline.likes(slot);
+            columns[5][slot] = timeline.gifts(slot);
+        }
+        return create(timeline.granularityMillis(), timestamps, columns, size);
+    }
+
+    static LiveSeries fromRows(List<?> rows) {
+        int size = rows.size();
+        long[] timestamps = new long[size];
+        double[][] columns = new double[6][size];
+        int slot = 0;
+        for (Object element : rows) {
+            if (!(element instanceof Map<?, ?> row) || !(row.get("startTime") instanceof Number start)) {
+                return null;
+            }
+            timestamps[slot] = start.longValue();
+            columns[0][slot] = number(row.get("viewers"));
+            columns[1][slot] = number(row.get("gmv"));
+            columns[2][slot] = number(row.get("orders"));
+            columns[3][slot] = number(row.get("comments"));
+            columns[4][slot] = number(row.get("likes"));
+            columns[5][slot] = number(row.get("gifts"));
+            slot++;
+        }
+        LiveSeries series = create(0, timestamps, columns, size);
+        return new LiveSeries(Math.max(1, series.viewers.stepMillis()), series.viewers, series.gmv, series.orders,
+                series.comments, series.likes, series.gifts);
+    }
+
+    private static double number(Object value) {
+        return value instanceof Number number ? number.doubleValue() : 0;
+    }
+
+    private static LiveSeries create(long stepMillis, long[] timestamps, double[][] columns, int size) {
+        return new LiveSeries(stepMillis,
+                new TimeSeries(timestamps, columns[0], size),
+                new TimeSeries(timestamps, columns[1], size),
+                new TimeSeries(timestamps, columns[2], size),
+                new TimeSeries(timestamps, columns[3], size),
+                new TimeSeries(timestamps, columns[4], size),
+                new TimeSeries(timestamps, columns[5], size));
+    }
+
+    /**
+     * 重采样到 stepMillis; 不比当前粒度更粗时原样返回
+     */
+    public LiveSeries resample(long stepMillis) {
+        if (stepMillis <= this.stepMillis) {
+            return this;
+        }
+        TimeSeries resampledViewers = viewers.resample(stepMillis, TimeSeries.Aggregation.MEAN);
+        long[] timestamps = resampledViewers.timestampArray();
+        int size = resampledViewers.size();
+        return new LiveSeries(stepMillis, resampledViewers,
+                sum(gmv, stepMillis, timestamps, size),
+                sum(orders, stepMillis, timestamps, size),
+                sum(comments, stepMillis, timestamps, size),
+                sum(likes, stepMillis, timestamps, size),
+                sum(gifts, stepMillis, timestamps, size));
+    }
+
+    private static TimeSeries sum(TimeSeries column, long stepMillis, long[] timestamps, int size) {
+        return new TimeSeries(timestamps, column.resample(stepMillis, TimeSeries.Aggregation.SUM).valueArray(), size);
+    }
+
+    public int size() {
+        return viewers.size();
+    }
+
+    public long stepMillis() {
+        return stepMillis;
+    }
+
+    public long timestamp(int index) {
+        return viewers.timestamp(index);
+    }
+
+    public TimeSeries viewers() {
+        return viewers;
+    }
+
+    public TimeSeries gmv() {
+        return gmv;
+    }
+
+    public TimeSeries orders() {
+        return orders;
+    }
+
+    public TimeSeries comments() {
+        return comments;
+    }
+
+    public TimeSeries likes() {
+        return likes;
+    }
+
+    public TimeSeries gifts() {
+        return gifts;
+    }
+
+    /**
+     * 每个时间片的观看人次分钟数 (平均在线 x 时间片分钟数)
+     */
+    public TimeSeries viewerMinutes() {
+        double minutes = stepMillis / 60_000.0;
+        double[] values = new double[size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = viewers.value(i) * minutes;
+        }
+        return new TimeSeries(viewers.timestampArray(), values, values.length);
+    }
+
+    /**
+     * 每个时间片的转化率: 订单数 / 观看人次分钟数, 即每分钟每位观众的下单概率, 与粒度无关
+     */
+    public TimeSeries conversionRate() {
+        return orders.divide(viewers, stepMillis / 60_000.0);
+    }
+
+    /**
+     * 每个时间片的观众小时 GMV: GMV / (平均在线 x 时间片小时数), 与粒度无关
+     */
+    public TimeSeries gmvPerViewerHour() {
+        return gmv.divide(viewers, stepMillis / 3_600_000.0);
+    }
+}
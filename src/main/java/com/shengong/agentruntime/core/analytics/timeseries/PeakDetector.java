@@ -0,0 +1,123 @@
+package com.shengong.agentruntime.core.analytics.timeseries;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 峰值检测
+ * 以尾随窗口的均值和标准差为基线, 超过 均值 + threshold x 标准差 且相对均值至少上升 minRise 的点视为峰值点,
+ * 后者排除平台期慢波动带来的统计显著但幅度很小的起伏. 峰值点只以偏离基线的一半计入后续窗口, 既不让持续的峰值
+ * 迅速抬高自身的基线, 又能在水平整体抬升 (如开播爬坡) 后逐渐跟上, 不会把之后的所有点都判为峰值; 序列开头不足一个
+ * 完整窗口时不判定. 相邻的峰值点合并为一个峰值区间, 以区间内的最大点为峰顶
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public final class PeakDetector {
+
+    /**
+     * 峰值区间
+     *
+     * @param start    区间第一个点的时间
+     * @param end      区间最后一个点的时间
+     * @param peakTime 峰顶时间
+     * @param value    峰顶取值
+     * @param baseline 峰顶处的基线均值
+     * @param score    峰顶偏离基线的标准差倍数
+     */
+    public record Peak(long start, long end, long peakTime, double value, double baseline, double score) {
+
+        public double lift() {
+            return baseline > 0 ? value / baseline : 0;
+        }
+    }
+
+    /**
+     * 基线窗口内至少需要的点数
+     */
+    private static final int MIN_BASELINE_POINTS = 3;
+
+    /**
+     * 峰值点计入基线窗口时保留的偏离比例
+     */
+    private static final double INFLUENCE = 0.5;
+
+    private final long windowMillis;
+    private final double threshold;
+    private final double minRise;
+
+    public PeakDetector(long windowMillis, double threshold, double minRise) {
+        this.windowMillis = windowMillis;
+        this.threshold = threshold;
+        this.minRise = minRise;
+    }
+
+    /**
+     * 检测峰值, 按时间顺序返回, 最多 limit 个 (按 score 保留最显著的)
+     */
+    public List<Peak> detect(TimeSeries series, int limit) {
+        int size = series.size();
+        double[] effective = new double[size];
+        double sum = 0;
+        double squares = 0;
+        int from = 0;
+
+        List<Peak> peaks = new ArrayList<>();
+        int runStart = -1;
+        int runTop = -1;
+        double topBaseline = 0;
+        double topScore = 0;
+        for (int i = 0; i < size; i++) {
+            long time = series.timestamp(i);
+            while (from < i && series.timestamp(from) <= time - windowMillis) {
+                sum -= effective[from];
+                squares -= effective[from] * effective[from];
+                from++;
+            }
+            int points = i - from;
+            double value = series.value(i);
+            double mean = points > 0 ? sum / points : value;
+            double std = points > 0 ? Math.sqrt(Math.max(0, squares / points - mean * mean)) : 0;
+            // 基线几乎没有波动时以均值的 1% 为下限, 避免微小起伏也被当作峰值
+            double deviation = Math.max(std, Math.abs(mean) * 0.01);
+            boolean peak = points >= MIN_BASELINE_POINTS && time - series.timestamp(0) >= windowMillis && deviation > 0
+                    && value > mean + threshold * deviation && value >= mean * (1 + minRise);
+
+            if (peak) {
+                double score = (value - mean) / deviation;
+                if (runStart < 0) {
+                    runStart = i;
+                    runTop = i;
+                    topBaseline = mean;
+                    topScore = score;
+                } else if (value > series.value(runTop)) {
+                    runTop = i;
+                    topBaseline = mean;
+                    topScore = score;
+                }
+                effective[i] = mean + INFLUENCE * (value - mean);
+            } else {
+                if (runStart >= 0) {
+                    peaks.add(new Peak(series.timestamp(runStart), series.timestamp(i - 1), series.timestamp(runTop),
+                            series.value(runTop), topBaseline, topScore));
+                    runStart = -1;
+                }
+                effective[i] = value;
+            }
+            sum += effective[i];
+            squares += effective[i] * effective[i];
+        }
+        if (runStart >= 0) {
+            peaks.add(new Peak(series.timestamp(runStart), series.timestamp(size - 1), series.timestamp(runTop),
+                    series.value(runTop), topBaseline, topScore));
+        }
+
+        if (peaks.size() > limit) {
+            List<Peak> strongest = new ArrayList<>(peaks);
+            strongest.sort((a, b) -> Double.compare(b.score(), a.score()));
+            List<Peak> kept = strongest.subList(0, limit);
+            peaks.removeIf(peak -> !kept.contains(peak));
+        }
+        return peaks;
+    }
+}
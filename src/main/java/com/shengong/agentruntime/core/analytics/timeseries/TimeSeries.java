@@ -0,0 +1,251 @@
+package com.shengong.agentruntime.core.analytics.timeseries;
+
+import java.util.Arrays;
+
+/**
+ * 原始类型数组存储的时间序列
+ * 时间戳 (毫秒) 升序, 可以不等间隔; 滚动窗口按时间而非点数划分, 为尾随窗口 (t - window, t].
+ * 所有运算返回新序列且只做线性扫描, 秒级粒度的数小时直播 (十万级点) 也不产生装箱对象
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public final class TimeSeries {
+
+    /**
+     * 重采样时桶内的聚合方式
+     */
+    public enum Aggregation {
+        SUM, MEAN, MIN, MAX, LAST
+    }
+
+    private final long[] timestamps;
+    private final double[] values;
+    private final int size;
+
+    /**
+     * 直接引用传入的数组, 调用方之后不应再修改
+     */
+    public TimeSeries(long[] timestamps, double[] values, int size) {
+        if (size > timestamps.length || size > values.length) {
+            throw new IllegalArgumentException("size " + size + " exceeds the backing arrays");
+        }
+        this.timestamps = timestamps;
+        this.values = values;
+        this.size = size;
+    }
+
+    public static TimeSeries of(long[] timestamps, double[] values) {
+        if (timestamps.length != values.length) {
+            throw new IllegalArgumentException("timestamps and values differ in length");
+        }
+        return new TimeSeries(timestamps, values, timestamps.length);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long timestamp(int index) {
+        return timestamps[index];
+    }
+
+    public double value(int index) {
+        return values[index];
+    }
+
+    /**
+     * 共享时间戳数组, 同一时间轴上的序列 (如 {@link LiveSeries} 的各列) 不重复存储
+     */
+    long[] timestampArray() {
+        return timestamps;
+    }
+
+    double[] valueArray() {
+        return values;
+    }
+
+    public double sum() {
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    public double mean() {
+        return size > 0 ? sum() / size : 0;
+    }
+
+    /**
+     * 最大值的下标, 空序列返回 -1
+     */
+    public int argMax() {
+        int best = -1;
+        for (int i = 0; i < size; i++) {
+            if (best < 0 || values[i] > values[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 最小值的下标, 空序列返回 -1
+     */
+    public int argMin() {
+        int best = -1;
+        for (int i = 0; i < size; i++) {
+            if (best < 0 || values[i] < values[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 逐点相除, 两个序列须在同一时间轴上; 分母为 0 时结果为 0
+     */
+    public TimeSeries divide(TimeSeries denominator, double scale) {
+        requireAligned(denominator);
+        double[] result = new double[size];
+        for (int i = 0; i < size; i++) {
+            double d = denominator.values[i] * scale;
+            result[i] = d != 0 ? values[i] / d : 0;
+        }
+        return new TimeSeries(timestamps, result, size);
+    }
+
+    /**
+     * 尾随窗口求和, 双指针 O(n)
+     */
+    public TimeSeries rollingSum(long windowMillis) {
+        double[] result = new double[size];
+        double sum = 0;
+        int from = 0;
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+            while (timestamps[from] <= timestamps[i] - windowMillis) {
+                sum -= values[from++];
+            }
+            result[i] = sum;
+        }
+        return new TimeSeries(timestamps, result, size);
+    }
+
+    /**
+     * 尾随窗口均值
+     */
+    public TimeSeries rollingMean(long windowMillis) {
+        double[] result = new double[size];
+        double sum = 0;
+        int from = 0;
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+            while (timestamps[from] <= timestamps[i] - windowMillis) {
+                sum -= values[from++];
+            }
+            result[i] = sum / (i - from + 1);
+        }
+        return new TimeSeries(timestamps, result, size);
+    }
+
+    /**
+     * 尾随窗口最大值, 单调递减的下标队列, 每个点最多入队出队一次
+     */
+    public TimeSeries rollingMax(long windowMillis) {
+        double[] result = new double[size];
+        int[] deque = new int[Math.max(1, size)];
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < size; i++) {
+            while (tail > head && values[deque[tail - 1]] <= values[i]) {
+                tail--;
+            }
+            deque[tail++] = i;
+            while (timestamps[deque[head]] <= timestamps[i] - windowMillis) {
+                head++;
+            }
+            result[i] = values[deque[head]];
+        }
+        return new TimeSeries(timestamps, result, size);
+    }
+
+    /**
+     * 按固定步长重采样, 桶边界对齐到 epoch 的整数倍步长, 没有数据的桶不输出
+     */
+    public TimeSeries resample(long stepMillis, Aggregation aggregation) {
+        if (stepMillis <= 0) {
+            throw new IllegalArgumentException("step must be positive: " + stepMillis);
+        }
+        long[] bucketStarts = new long[Math.max(1, bucketCount(stepMillis))];
+        double[] result = new double[bucketStarts.length];
+        int buckets = 0;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            long bucket = Math.floorDiv(timestamps[i], stepMillis) * stepMillis;
+            if (buckets == 0 || bucketStarts[buckets - 1] != bucket) {
+                if (buckets > 0) {
+                    result[buckets - 1] = finish(result[buckets - 1], count, aggregation);
+                }
+                bucketStarts[buckets] = bucket;
+                result[buckets++] = values[i];
+                count = 1;
+                continue;
+            }
+            double current = result[buckets - 1];
+            result[buckets - 1] = switch (aggregation) {
+                case SUM, MEAN -> current + values[i];
+                case MIN -> Math.min(current, values[i]);
+                case MAX -> Math.max(current, values[i]);
+                case LAST -> values[i];
+            };
+            count++;
+        }
+        if (buckets > 0) {
+            result[buckets - 1] = finish(result[buckets - 1], count, aggregation);
+        }
+        return new TimeSeries(bucketStarts, result, buckets);
+    }
+
+    /**
+     * 重采样后的桶数上限 (非空桶数), 用于预分配
+     */
+    int bucketCount(long stepMillis) {
+        if (size == 0) {
+            return 0;
+        }
+        long span = Math.floorDiv(timestamps[size - 1], stepMillis) - Math.floorDiv(timestamps[0], stepMillis) + 1;
+        return (int) Math.min(size, span);
+    }
+
+    private static double finish(double value, int count, Aggregation aggregation) {
+        return aggregation == Aggregation.MEAN ? value / count : value;
+    }
+
+    /**
+     * 相邻点时间间隔的中位数, 即序列的粒度; 少于两个点时返回 0
+     */
+    public long stepMillis() {
+        if (size < 2) {
+            return 0;
+        }
+        long[] gaps = new long[size - 1];
+        for (int i = 1; i < size; i++) {
+            gaps[i - 1] = timestamps[i] - timestamps[i - 1];
+        }
+        Arrays.sort(gaps);
+        return gaps[gaps.length / 2];
+    }
+
+    private void requireAligned(TimeSeries other) {
+        if (other.size != size || (other.timestamps != timestamps
+                && !Arrays.equals(other.timestamps, 0, size, timestamps, 0, size))) {
+            throw new IllegalArgumentException("time series are not on the same time axis");
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.shengong.agentruntime.core.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.shengong.agentruntime.config.McpProperties;
+import com.shengong.agentruntime.core.tool.ToolFutures;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 内置 MCP 客户端
+ * <p>
+ * 每个配置的服务维护一个长连接会话, 首次使用时建立, 断开后下次调用自动重建.
+ * tools/list 结果按 tools-cache-ttl 缓存 (服务端 list_changed 通知会使其失效),
+ * {@link #callTools} 把多次工具调用合并为一个 JSON-RPC 批量请求.
+ * 每个服务缓存一个会话 Future, 需要 (重新) 建连时在虚拟线程上握手, 并发调用方共享同一次握手而不加锁等待
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+public class McpClient implements AutoCloseable {
+
+    private final McpProperties properties;
+    private final ObjectMapper objectMapper;
+    private final WebClient webClient;
+
+    private final Map<String, CompletableFuture<McpSession>> sessions = new ConcurrentHashMap<>();
+    private final Map<String, CachedTools> toolsCache = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> toolsChangedListeners = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    public McpClient(McpProperties properties, ObjectMapper objectMapper, WebClient webClient) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.webClient = webClient;
+    }
+
+    /**
+     * 已配置直连的服务名
+     */
+    public Set<String> servers() {
+        return Collections.unmodifiableSet(properties.getServers().keySet());
+    }
+
+    public boolean hasServer(String server) {
+        return server != null && properties.getServers().containsKey(server);
+    }
+
+    /**
+     * 注册工具列表变化监听, 参数为服务名
+     * 回调在传输层线程上执行, 不能在其中同步调用该服务
+     */
+    public void addToolsChangedListener(Consumer<String> listener) {
+        toolsChangedListeners.add(listener);
+    }
+
+    /**
+     * 获取服务的工具列表 (含 inputSchema), 自动处理分页
+     */
+    public List<JsonNode> listTools(String server) {
+        CachedTools cached = toolsCache.get(server);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt() < properties.getToolsCacheTtl().toMillis()) {
+            return cached.tools();
+        }
+
+        List<JsonNode> tools = new ArrayList<>();
+        String cursor = null;
+        do {
+            ObjectNode params = objectMapper.createObjectNode();
+            if (cursor != null) {
+                params.put("cursor", cursor);
+            }
+            JsonNode result = await(session(server).request("tools/list", params));
+            result.path("tools").forEach(tools::add);
+            cursor = result.hasNonNull("nextCursor") ? result.get("nextCursor").asText() : null;
+        } while (cursor != null);
+
+        List<JsonNode> loaded = List.copyOf(tools);
+        toolsCache.put(server, new CachedTools(loaded, System.currentTimeMillis()));
+        log.info("Loaded {} tool(s) from MCP server {}", loaded.size(), server);
+        return loaded;
+    }
+
+    /**
+     * 调用单个工具, 返回 tools/call 的 result (content / structuredContent / isError)
+     */
+    public JsonNode callTool(String server, String tool, Map<String, Object> arguments) {
+        return await(callToolAsync(server, tool, arguments));
+    }
+
+    /**
+     * 异步调用单个工具, 失败时以 {@link McpException} 异常完成
+     */
+    public CompletableFuture<JsonNode> callToolAsync(String server, String tool, Map<String, Object> arguments) {
+        return sessionAsync(server).thenCompose(session -> session.request("tools/call", callParams(tool, arguments)));
+    }
+
+    /**
+     * 以一个批量请求调用多个工具, 各调用独立成功或失败, 结果顺序与 calls 一致
+     */
+    public List<CallResult> callTools(String server, List<ToolCall> calls) {
+        return await(callToolsAsync(server, calls));
+    }
+
+    /**
+     * 异步批量调用, 所有调用完成 (成功或失败) 后完成
+     */
+    public CompletableFuture<List<CallResult>> callToolsAsync(String server, List<ToolCall> calls) {
+        return sessionAsync(server).thenCompose(session -> {
+            List<McpSession.Call> batch = calls.stream()
+                    .map(call -> new McpSession.Call("tools/call", callParams(call.tool(), call.arguments())))
+                    .toList();
+            List<CompletableFuture<JsonNode>> futures = session.batch(batch);
+
+            List<CompletableFuture<CallResult>> results = new ArrayList<>(calls.size());
+            for (int i = 0; i < calls.size(); i++) {
+                String tool = calls.get(i).tool();
+                results.add(futures.get(i).handle((result, error) -> error == null
+                        ? new CallResult(tool, result, null)
+                        : new CallResult(tool, null, ToolFutures.unwrap(error).getMessage())));
+            }
+            return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                    .thenApply(ignored -> results.stream().map(CompletableFuture::join).toList());
+        });
+    }
+
+    private ObjectNode callParams(String tool, Map<String, Object> arguments) {
+        ObjectNode params = objectMapper.createObjectNode();
+        params.put("name", tool);
+        params.set("arguments", objectMapper.valueToTree(arguments != null ? arguments : Map.of()));
+        return params;
+    }
+
+    private McpSession session(String server) {
+        return await(sessionAsync(server));
+    }
+
+    /**
+     * 取服务的会话; 握手进行中时返回同一个 Future, 会话已断开或上次握手失败时重新建连
+     */
+    private CompletableFuture<McpSession> sessionAsync(String server) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new McpException("MCP client is closed"));
+        }
+        McpProperties.Server config = properties.getServers().get(server);
+        if (config == null) {
+            return CompletableFuture.failedFuture(new McpException("MCP server not configured: " + server));
+        }
+        return sessions.compute(server, (name, current) -> {
+            if (current != null && (!current.isDone() || isOpen(current))) {
+                return current;
+            }
+            if (current != null && !current.isCompletedExceptionally()) {
+                log.info("Reconnecting MCP session: server={}", name);
+                current.join().close();
+            }
+            return ToolFutures.supplyAsync(() -> connect(name, config));
+        });
+    }
+
+    private McpSession connect(String server, McpProperties.Server config) {
+        // 关闭前已排队的建连不再启动进程或连接
+        if (closed) {
+            throw new McpException("MCP client is closed");
+        }
+        McpTransport transport = switch (config.getTransport()) {
+            case STDIO -> new StdioMcpTransport(server, config, objectMapper);
+            case HTTP -> new StreamableHttpMcpTransport(server, config, webClient, objectMapper);
+        };
+        McpSession created = new McpSession(server, transport, objectMapper,
+                properties.getRequestTimeout(), () -> onToolsChanged(server));
+        try {
+            created.open();
+        } catch (IOException e) {
+            throw new McpException("Failed to connect to MCP server " + server + ": " + e.getMessage(), e);
+        }
+        if (closed) {
+            created.close();
+            throw new McpException("MCP client is closed");
+        }
+        toolsCache.remove(server);
+        return created;
+    }
+
+    private static boolean isOpen(CompletableFuture<McpSession> session) {
+        return session.isDone() && !session.isCompletedExceptionally() && session.join().isOpen();
+    }
+
+    private void onToolsChanged(String server) {
+        toolsCache.remove(server);
+        for (Consumer<String> listener : toolsChangedListeners) {
+            try {
+                listener.accept(server);
+            } catch (Exception e) {
+                log.warn("MCP tools changed listener failed for {}: {}", server, e.getMessage());
+            }
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof McpException mcpException) {
+                throw mcpException;
+            }
+            throw new McpException("MCP request failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        sessions.values().forEach(session -> session.thenAccept(McpSession::close));
+        sessions.clear();
+    }
+
+    /**
+     * 批量调用中的单个工具调用
+     */
+    public record ToolCall(String tool, Map<String, Object> arguments) {
+    }
+
+    /**
+     * 批量调用的单个结果, 成功时 error 为 null
+     */
+    public record CallResult(String tool, JsonNode result, String error) {
+    }
+
+    private record CachedTools(List<JsonNode> tools, long loadedAt) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.shengong.agentruntime.core.mcp;
+
+import lombok.Getter;
+
+/**
+ * MCP 调用异常
+ * 服务端返回 JSON-RPC error 时 code 为错误码, 传输层失败时为 null
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Getter
+public class McpException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Integer code;
+
+    public McpException(String message) {
+        super(message);
+        this.code = null;
+    }
+
+    public McpException(String message, Throwable cause) {
+        super(message, cause);
+        this.code = null;
+    }
+
+    public McpException(int code, String message) {
+        super(message);
+        this.code = code;
+    }
+}
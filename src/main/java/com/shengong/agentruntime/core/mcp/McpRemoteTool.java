@@ -0,0 +1,129 @@
+package com.shengong.agentruntime.core.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.core.tool.Tool;
+import com.shengong.agentruntime.core.tool.ToolFutures;
+import com.shengong.agentruntime.model.ToolResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * MCP 服务上发现的工具
+ * 以一等 Tool 的形式注册到 ToolRegistry, 参数 Schema 取自服务端 tools/list 的 inputSchema,
+ * 调用时通过 {@link McpClient} 的长连接会话转发, 原生异步
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+public class McpRemoteTool implements Tool {
+
+    public static final String CATEGORY = "mcp";
+
+    /**
+     * LLM function name 的长度上限
+     */
+    static final int MAX_NAME_LENGTH = 64;
+
+    private final McpClient mcpClient;
+    private final ObjectMapper objectMapper;
+    private final String server;
+    private final String remoteName;
+    private final String name;
+    private final String description;
+    private final JsonNode inputSchema;
+
+    public McpRemoteTool(McpClient mcpClient, ObjectMapper objectMapper, String server, JsonNode definition) {
+        this.mcpClient = mcpClient;
+        this.objectMapper = objectMapper;
+        this.server = server;
+        this.remoteName = definition.path("name").asText();
+        this.name = toolName(server, remoteName);
+        this.description = definition.path("description").asText("");
+        this.inputSchema = definition.path("inputSchema");
+    }
+
+    /**
+     * 注册名: mcp_{server}_{tool}, 非法字符替换为下划线, 满足 LLM function name 的字符要求;
+     * 超过 64 个字符时截断并追加完整名称的摘要, 保证唯一且每次启动一致
+     */
+    public static String toolName(String server, String remoteName) {
+        String name = ("mcp_" + server + "_" + remoteName).replaceAll("[^A-Za-z0-9_-]", "_");
+        if (name.length() <= MAX_NAME_LENGTH) {
+            return name;
+        }
+        String digest = DigestUtils.md5DigestAsHex(name.getBytes(StandardCharsets.UTF_8)).substring(0, 8);
+        return name.substring(0, MAX_NAME_LENGTH - digest.length() - 1) + "_" + digest;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public String description() {
+        return description;
+    }
+
+    @Override
+    public String parametersSchema() {
+        return inputSchema.isMissingNode() ? "{}" : inputSchema.toString();
+    }
+
+    @Override
+    public String category() {
+        return CATEGORY;
+    }
+
+    public String server() {
+        return server;
+    }
+
+    public String remoteName() {
+        return remoteName;
+    }
+
+    /**
+     * 定义是否与服务端最新返回的一致, 用于增量刷新
+     */
+    boolean sameDefinition(JsonNode definition) {
+        return Objects.equals(description, definition.path("description").asText(""))
+                && Objects.equals(inputSchema, definition.path("inputSchema"));
+    }
+
+    @Override
+    public ToolResult invoke(Map<String, Object> arguments) {
+        return invokeAsync(arguments).join();
+    }
+
+    @Override
+    public boolean isAsync() {
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<ToolResult> invokeAsync(Map<String, Object> arguments) {
+        return ToolFutures.call(() -> mcpClient.callToolAsync(server, remoteName, arguments))
+                .handle((result, error) -> {
+                    if (error != null) {
+                        Throwable cause = ToolFutures.unwrap(error);
+                        log.error("MCP tool {} on {} failed: {}", remoteName, server, cause.getMessage());
+                        return ToolResult.failure("MCP tool failed: " + cause.getMessage());
+                    }
+                    if (result.path("isError").asBoolean(false)) {
+                        return ToolResult.failure("MCP tool failed: " + result.path("content"));
+                    }
+                    Map<String, Object> data = new LinkedHashMap<>(objectMapper.convertValue(result, Map.class));
+                    return ToolResult.success(data);
+                });
+    }
+}
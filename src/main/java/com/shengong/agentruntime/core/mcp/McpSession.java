@@ -0,0 +1,274 @@
+package com.shengong.agentruntime.core.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个 MCP 服务的长连接会话 (JSON-RPC 2.0)
+ * <p>
+ * 请求按自增 ID 登记待完成的 Future, 响应到达时按 ID 匹配, 因此多个线程的并发请求可以
+ * 复用同一条连接. {@link #batch} 把多个请求放进一个 JSON-RPC 批量数组一次发送.
+ * 服务端发来的 ping 请求直接应答, tools/list_changed 通知转给监听者
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+public class McpSession implements McpTransport.Handler, AutoCloseable {
+
+    /**
+     * 支持 JSON-RPC 批量请求的协议版本
+     */
+    static final String PROTOCOL_VERSION = "2025-03-26";
+
+    private static final int METHOD_NOT_FOUND = -32601;
+
+    private final String serverName;
+    private final McpTransport transport;
+    private final ObjectMapper objectMapper;
+    private final Duration requestTimeout;
+    private final Runnable toolsChangedListener;
+
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final Map<Long, CompletableFuture<JsonNode>> pending = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+    private JsonNode serverInfo;
+
+    public McpSession(String serverName, McpTransport transport, ObjectMapper objectMapper,
+                      Duration requestTimeout, Runnable toolsChangedListener) {
+        this.serverName = serverName;
+        this.transport = transport;
+        this.objectMapper = objectMapper;
+        this.requestTimeout = requestTimeout;
+        this.toolsChangedListener = toolsChangedListener;
+    }
+
+    /**
+     * 建立连接并完成 initialize 握手
+     */
+    public void open() throws IOException {
+        transport.start(this);
+
+        ObjectNode params = objectMapper.createObjectNode();
+        params.put("protocolVersion", PROTOCOL_VERSION);
+        params.putObject("capabilities");
+        params.putObject("clientInfo").put("name", "agent-runtime").put("version", "1.2.0");
+
+        try {
+            serverInfo = request("initialize", params).get(requestTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            close();
+            // 请求自身的 orTimeout 先到期时, 原因是没有消息的 TimeoutException
+            if (e.getCause() instanceof TimeoutException timeout) {
+                throw new IOException("MCP initialize timed out for " + serverName + " after "
+                        + requestTimeout.toMillis() + "ms", timeout);
+            }
+            throw new IOException("MCP initialize failed for " + serverName + ": " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            close();
+            throw new IOException("MCP initialize timed out for " + serverName + " after "
+                    + requestTimeout.toMillis() + "ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            close();
+            throw new IOException("Interrupted while initializing MCP server " + serverName, e);
+        }
+        notify("notifications/initialized", null);
+        log.info("MCP session opened: server={}, serverInfo={}", serverName, serverInfo.path("serverInfo"));
+    }
+
+    /**
+     * 发送单个请求
+     */
+    public CompletableFuture<JsonNode> request(String method, JsonNode params) {
+        ObjectNode message = requestMessage(method, params);
+        CompletableFuture<JsonNode> future = register(message);
+        try {
+            transport.send(message);
+        } catch (IOException e) {
+            fail(message, e);
+        }
+        return future;
+    }
+
+    /**
+     * 以 JSON-RPC 批量数组一次发送多个请求, 返回的 Future 与 calls 顺序一致
+     */
+    public List<CompletableFuture<JsonNode>> batch(List<Call> calls) {
+        if (calls.size() == 1) {
+            return List.of(request(calls.get(0).method(), calls.get(0).params()));
+        }
+        ArrayNode batch = objectMapper.createArrayNode();
+        List<CompletableFuture<JsonNode>> futures = new ArrayList<>(calls.size());
+        for (Call call : calls) {
+            ObjectNode message = requestMessage(call.method(), call.params());
+            futures.add(register(message));
+            batch.add(message);
+        }
+        try {
+            transport.send(batch);
+        } catch (IOException e) {
+            fail(batch, e);
+        }
+        return futures;
+    }
+
+    /**
+     * 发送通知 (无响应)
+     */
+    public void notify(String method, JsonNode params) {
+        ObjectNode message = objectMapper.createObjectNode();
+        message.put("jsonrpc", "2.0");
+        message.put("method", method);
+        if (params != null) {
+            message.set("params", params);
+        }
+        try {
+            transport.send(message);
+        } catch (IOException e) {
+            log.warn("Failed to send MCP notification {} to {}: {}", method, serverName, e.getMessage());
+        }
+    }
+
+    public boolean isOpen() {
+        return !closed && transport.isOpen();
+    }
+
+    public JsonNode serverInfo() {
+        return serverInfo;
+    }
+
+    private ObjectNode requestMessage(String method, JsonNode params) {
+        ObjectNode message = objectMapper.createObjectNode();
+        message.put("jsonrpc", "2.0");
+        message.put("id", nextId.getAndIncrement());
+        message.put("method", method);
+        if (params != null) {
+            message.set("params", params);
+        }
+        return message;
+    }
+
+    private CompletableFuture<JsonNode> register(ObjectNode message) {
+        long id = message.get("id").asLong();
+        CompletableFuture<JsonNode> future = new CompletableFuture<>();
+        pending.put(id, future);
+        future.orTimeout(requestTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((result, error) -> pending.remove(id));
+        return future;
+    }
+
+    // --- Transport.Handler ---
+
+    @Override
+    public void onMessage(JsonNode message) {
+        if (message.isArray()) {
+            message.forEach(this::onMessage);
+            return;
+        }
+
+        JsonNode id = message.get("id");
+        if (message.has("method")) {
+            handleServerMessage(message, id);
+            return;
+        }
+        if (id == null || !id.canConvertToLong()) {
+            log.debug("Ignoring MCP message without usable id from {}: {}", serverName, message);
+            return;
+        }
+
+        CompletableFuture<JsonNode> future = pending.get(id.asLong());
+        if (future == null) {
+            return;
+        }
+        JsonNode error = message.get("error");
+        if (error != null && !error.isNull()) {
+            future.completeExceptionally(new McpException(error.path("code").asInt(), error.path("message").asText()));
+        } else {
+            future.complete(message.path("result"));
+        }
+    }
+
+    private void handleServerMessage(JsonNode message, JsonNode id) {
+        String method = message.get("method").asText();
+        if ("notifications/tools/list_changed".equals(method)) {
+            toolsChangedListener.run();
+            return;
+        }
+        if (id == null) {
+            return;
+        }
+
+        // 服务端发起的请求: 只支持 ping, 其余回复 method not found
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("jsonrpc", "2.0");
+        response.set("id", id);
+        if ("ping".equals(method)) {
+            response.putObject("result");
+        } else {
+            response.putObject("error").put("code", METHOD_NOT_FOUND).put("message", "Method not supported: " + method);
+        }
+        try {
+            transport.send(response);
+        } catch (IOException e) {
+            log.debug("Failed to answer MCP server request {} from {}: {}", method, serverName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onSendFailure(JsonNode message, Throwable error) {
+        fail(message, error);
+    }
+
+    @Override
+    public void onClosed(Throwable cause) {
+        closed = true;
+        McpException failure = new McpException("MCP session to " + serverName + " closed", cause);
+        pending.values().forEach(future -> future.completeExceptionally(failure));
+        pending.clear();
+    }
+
+    private void fail(JsonNode message, Throwable error) {
+        if (message.isArray()) {
+            message.forEach(item -> fail(item, error));
+            return;
+        }
+        JsonNode id = message.get("id");
+        if (id != null && id.canConvertToLong()) {
+            CompletableFuture<JsonNode> future = pending.get(id.asLong());
+            if (future != null) {
+                future.completeExceptionally(error instanceof McpException ? error
+                        : new McpException("MCP request to " + serverName + " failed: " + error.getMessage(), error));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            transport.close();
+            onClosed(null);
+        }
+    }
+
+    /**
+     * 批量请求中的单个调用
+     */
+    public record Call(String method, JsonNode params) {
+    }
+}
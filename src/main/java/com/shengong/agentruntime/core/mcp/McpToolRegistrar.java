@@ -0,0 +1,139 @@
+package com.shengong.agentruntime.core.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.service.ToolRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MCP 工具自动注册
+ * <p>
+ * 启动完成后连接每个配置的 MCP 服务, 把 tools/list 中的工具注册为 {@link McpRemoteTool};
+ * 收到 tools/list_changed 通知或定时刷新时与已注册的工具做差异比较,
+ * 只注册新增、替换定义变化、注销已下线的工具
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Component
+public class McpToolRegistrar {
+
+    private final McpClient mcpClient;
+    private final ToolRegistry toolRegistry;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    /**
+     * 服务名 -> (注册名 -> Tool)
+     */
+    private final Map<String, Map<String, McpRemoteTool>> registered = new ConcurrentHashMap<>();
+
+    public McpToolRegistrar(McpClient mcpClient,
+                            ToolRegistry toolRegistry,
+                            ObjectMapper objectMapper,
+                            @Value("${agent-runtime.mcp.discovery.enabled:true}") boolean enabled) {
+        this.mcpClient = mcpClient;
+        this.toolRegistry = toolRegistry;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    /**
+     * 启动后在虚拟线程上发现工具, 避免慢启动的 stdio 服务阻塞应用就绪
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void discoverOnStartup() {
+        if (!enabled || mcpClient.servers().isEmpty()) {
+            return;
+        }
+        // 通知在传输层读线程上回调, 同步刷新会等待同一线程读取响应, 因此切换到新线程执行
+        mcpClient.addToolsChangedListener(server -> Thread.ofVirtual().name("mcp-sync-" + server).start(() -> sync(server)));
+        Thread.ofVirtual().name("mcp-discovery").start(this::syncAll);
+    }
+
+    /**
+     * 兜底刷新: 不推送 list_changed 的服务依赖 tools-cache-ttl 过期后重新拉取
+     */
+    @Scheduled(fixedDelayString = "${agent-runtime.mcp.discovery.refresh-interval-ms:300000}",
+            initialDelayString = "${agent-runtime.mcp.discovery.refresh-interval-ms:300000}")
+    public void syncAll() {
+        if (!enabled) {
+            return;
+        }
+        for (String server : mcpClient.servers()) {
+            sync(server);
+        }
+    }
+
+    /**
+     * 同步单个服务的工具
+     */
+    public void sync(String server) {
+        Map<String, McpRemoteTool> current = registered.computeIfAbsent(server, key -> new ConcurrentHashMap<>());
+        synchronized (current) {
+            Iterable<JsonNode> definitions;
+            try {
+                definitions = mcpClient.listTools(server);
+            } catch (Exception e) {
+                // 服务暂不可用时保留已注册的工具, 调用时再重连
+                log.warn("Failed to discover tools from MCP server {}: {}", server, e.getMessage());
+                return;
+            }
+
+            Map<String, JsonNode> latest = new HashMap<>();
+            for (JsonNode definition : definitions) {
+                latest.put(McpRemoteTool.toolName(server, definition.path("name").asText()), definition);
+            }
+
+            int added = 0;
+            int updated = 0;
+            for (Map.Entry<String, JsonNode> entry : latest.entrySet()) {
+                McpRemoteTool existing = current.get(entry.getKey());
+                if (existing != null && existing.sameDefinition(entry.getValue())) {
+                    continue;
+                }
+                McpRemoteTool tool = new McpRemoteTool(mcpClient, objectMapper, server, entry.getValue());
+                toolRegistry.register(tool);
+                current.put(entry.getKey(), tool);
+                if (existing == null) {
+                    added++;
+                } else {
+                    updated++;
+                }
+            }
+
+            int removed = 0;
+            for (String name : new HashSet<>(current.keySet())) {
+                if (!latest.containsKey(name)) {
+                    toolRegistry.unregister(name);
+                    current.remove(name);
+                    removed++;
+                }
+            }
+
+            if (added + updated + removed > 0) {
+                log.info("Synced MCP tools: server={}, added={}, updated={}, removed={}, total={}",
+                        server, added, updated, removed, current.size());
+            }
+        }
+    }
+
+    /**
+     * 某个服务当前已注册的工具名
+     */
+    public Set<String> registeredTools(String server) {
+        return Set.copyOf(registered.getOrDefault(server, Map.of()).keySet());
+    }
+}
@@ -0,0 +1,51 @@
+package com.shengong.agentruntime.core.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+
+/**
+ * MCP 传输层
+ * 负责收发 JSON-RPC 消息 (单条对象或批量数组), 不关心请求与响应的对应关系
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public interface McpTransport extends AutoCloseable {
+
+    /**
+     * 建立连接, 之后收到的消息通过 handler 回调
+     */
+    void start(Handler handler) throws IOException;
+
+    /**
+     * 发送一条消息或一批消息
+     */
+    void send(JsonNode message) throws IOException;
+
+    boolean isOpen();
+
+    @Override
+    void close();
+
+    /**
+     * 传输层事件回调
+     */
+    interface Handler {
+
+        /**
+         * 收到服务端消息 (可能是批量数组)
+         */
+        void onMessage(JsonNode message);
+
+        /**
+         * 某次发送失败 (HTTP 传输下单个 POST 失败), 其中的请求应按失败处理
+         */
+        void onSendFailure(JsonNode message, Throwable error);
+
+        /**
+         * 连接已断开, 会话不可再用
+         */
+        void onClosed(Throwable cause);
+    }
+}
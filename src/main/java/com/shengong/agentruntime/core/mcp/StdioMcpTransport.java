@@ -0,0 +1,139 @@
+package com.shengong.agentruntime.core.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.config.McpProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * stdio 传输: 启动 MCP 服务子进程, 通过 stdin / stdout 交换按行分隔的 JSON-RPC 消息
+ * 进程在会话期间常驻, 所有请求复用同一个进程; stderr 转到日志
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+public class StdioMcpTransport implements McpTransport {
+
+    private final String serverName;
+    private final McpProperties.Server config;
+    private final ObjectMapper objectMapper;
+
+    private Process process;
+    private BufferedWriter writer;
+    private volatile boolean open;
+
+    public StdioMcpTransport(String serverName, McpProperties.Server config, ObjectMapper objectMapper) {
+        this.serverName = serverName;
+        this.config = config;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void start(Handler handler) throws IOException {
+        if (config.getCommand().isEmpty()) {
+            throw new IOException("No command configured for MCP server " + serverName);
+        }
+        ProcessBuilder builder = new ProcessBuilder(config.getCommand());
+        builder.environment().putAll(config.getEnv());
+        if (config.getWorkingDirectory() != null) {
+            builder.directory(new File(config.getWorkingDirectory()));
+        }
+        process = builder.start();
+        writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        open = true;
+
+        Thread.ofVirtual().name("mcp-stdio-" + serverName).start(() -> readLoop(handler));
+        Thread.ofVirtual().name("mcp-stderr-" + serverName).start(this::drainStderr);
+        log.info("Started MCP server process: server={}, pid={}", serverName, process.pid());
+    }
+
+    private void readLoop(Handler handler) {
+        Throwable cause = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode message;
+                try {
+                    message = objectMapper.readTree(line);
+                } catch (IOException e) {
+                    // 部分服务会向 stdout 打印非协议内容, 忽略即可
+                    log.debug("Ignoring non JSON-RPC output from MCP server {}: {}", serverName, line);
+                    continue;
+                }
+                handler.onMessage(message);
+            }
+        } catch (IOException e) {
+            cause = e;
+        }
+        open = false;
+        handler.onClosed(cause != null ? cause : new IOException("MCP server process " + serverName + " exited"));
+    }
+
+    private void drainStderr() {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                log.debug("[mcp:{}] {}", serverName, line);
+            }
+        } catch (IOException ignored) {
+            // 进程退出
+        }
+    }
+
+    @Override
+    public void send(JsonNode message) throws IOException {
+        if (!open) {
+            throw new IOException("MCP server process " + serverName + " is not running");
+        }
+        // Jackson 的紧凑输出不含换行, 满足 stdio 传输按行分隔的要求
+        String json = objectMapper.writeValueAsString(message);
+        synchronized (this) {
+            writer.write(json);
+            writer.write('\n');
+            writer.flush();
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open && process.isAlive();
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        if (process == null) {
+            return;
+        }
+        try {
+            // 按规范先关闭 stdin, 等待进程自行退出, 超时后再强制结束
+            writer.close();
+            if (!process.waitFor(2, TimeUnit.SECONDS)) {
+                process.destroy();
+                if (!process.waitFor(2, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            }
+        } catch (IOException e) {
+            process.destroyForcibly();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        }
+    }
+}
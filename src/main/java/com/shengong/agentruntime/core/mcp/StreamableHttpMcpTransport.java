@@ -0,0 +1,159 @@
+package com.shengong.agentruntime.core.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.config.McpProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Streamable HTTP 传输
+ * <p>
+ * 每条 (批量) 消息一个 POST, 响应为 application/json 或 text/event-stream; 服务端在 initialize
+ * 响应中下发的 Mcp-Session-Id 会附加到后续请求. 基于共享的 toolWebClient, 请求复用 keep-alive 连接,
+ * 不再为每次调用单独建连. 会话过期 (带会话 ID 的请求返回 404) 时按连接断开处理, 由客户端重建会话
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+public class StreamableHttpMcpTransport implements McpTransport {
+
+    static final String SESSION_HEADER = "Mcp-Session-Id";
+
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final String serverName;
+    private final McpProperties.Server config;
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+
+    private Handler handler;
+    private volatile String sessionId;
+    private volatile boolean open;
+
+    public StreamableHttpMcpTransport(String serverName, McpProperties.Server config,
+                                      WebClient webClient, ObjectMapper objectMapper) {
+        this.serverName = serverName;
+        this.config = config;
+        this.webClient = webClient;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void start(Handler handler) throws IOException {
+        if (config.getUrl() == null) {
+            throw new IOException("No url configured for MCP server " + serverName);
+        }
+        this.handler = handler;
+        this.open = true;
+    }
+
+    @Override
+    public void send(JsonNode message) throws IOException {
+        if (!open) {
+            throw new IOException("MCP session to " + serverName + " is closed");
+        }
+        String body = objectMapper.writeValueAsString(message);
+        String currentSession = sessionId;
+
+        webClient.post()
+                .uri(config.getUrl())
+                .headers(headers -> {
+                    headers.setContentType(MediaType.APPLICATION_JSON);
+                    headers.setAccept(List.of(MediaType.APPLICATION_JSON, MediaType.TEXT_EVENT_STREAM));
+                    if (currentSession != null) {
+                        headers.set(SESSION_HEADER, currentSession);
+                    }
+                    config.getHeaders().forEach(headers::set);
+                })
+                .bodyValue(body)
+                .exchangeToFlux(response -> {
+                    String assigned = response.headers().asHttpHeaders().getFirst(SESSION_HEADER);
+                    if (assigned != null) {
+                        sessionId = assigned;
+                    }
+                    if (currentSession != null && response.statusCode().isSameCodeAs(HttpStatus.NOT_FOUND)) {
+                        return Flux.error(new SessionExpiredException());
+                    }
+                    if (response.statusCode().isError()) {
+                        return response.createException().flatMapMany(Flux::error);
+                    }
+                    MediaType contentType = response.headers().contentType().orElse(MediaType.APPLICATION_JSON);
+                    if (MediaType.TEXT_EVENT_STREAM.isCompatibleWith(contentType)) {
+                        return response.bodyToFlux(SSE_TYPE)
+                                .filter(event -> event.data() != null && !event.data().isBlank())
+                                .map(ServerSentEvent::data);
+                    }
+                    // 仅含通知 / 响应的消息服务端返回 202, 没有响应体
+                    return response.bodyToMono(String.class).flux();
+                })
+                .subscribe(data -> handler.onMessage(parse(data)), error -> {
+                    if (error instanceof SessionExpiredException) {
+                        log.warn("MCP session expired: server={}", serverName);
+                        open = false;
+                        handler.onClosed(error);
+                    } else {
+                        handler.onSendFailure(message, error);
+                    }
+                });
+    }
+
+    private JsonNode parse(String data) {
+        try {
+            return objectMapper.readTree(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * 显式结束服务端会话; 服务端不支持时会返回 405, 忽略即可
+     */
+    @Override
+    public void close() {
+        open = false;
+        String currentSession = sessionId;
+        if (currentSession == null) {
+            return;
+        }
+        try {
+            webClient.delete()
+                    .uri(config.getUrl())
+                    .header(SESSION_HEADER, currentSession)
+                    .headers(headers -> config.getHeaders().forEach(headers::set))
+                    .retrieve()
+                    .toBodilessEntity()
+                    .timeout(Duration.ofSeconds(2))
+                    .block();
+        } catch (Exception e) {
+            log.debug("Failed to terminate MCP session {} on {}: {}", currentSession, serverName, e.getMessage());
+        }
+    }
+
+    private static final class SessionExpiredException extends McpException {
+
+        private static final long serialVersionUID = 1L;
+
+        SessionExpiredException() {
+            super("MCP session expired");
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.shengong.agentruntime.core.tool;
 
 import com.shengong.agentruntime.model.ToolResult;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Tool 接口
@@ -43,6 +44,17 @@ public interface Tool {
      */
     ToolResult invoke(Map<String, Object> arguments);
 
+    /**
+     * 异步执行工具
+     * 默认在虚拟线程上执行 {@link #invoke}; 基于非阻塞 I/O 的 Tool 应覆盖此方法并让 {@link #isAsync()} 返回 true
+     *
+     * @param arguments 参数
+     * @return 执行结果, 失败时以 {@link ToolResult#failure} 正常完成
+     */
+    default CompletableFuture<ToolResult> invokeAsync(Map<String, Object> arguments) {
+        return ToolFutures.supplyAsync(() -> invoke(arguments));
+    }
+
     /**
      * Tool 类别
      *
@@ -53,7 +65,7 @@ public interface Tool {
     }
 
     /**
-     * 是否异步执行
+     * 是否原生异步 (invokeAsync 不占用调用线程)
      *
      * @return true 异步, false 同步
      */
@@ -0,0 +1,73 @@
+package com.shengong.agentruntime.core.tool;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Tool 异步调用工具方法
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public final class ToolFutures {
+
+    /**
+     * 阻塞式 Tool 的异步适配: 每次调用一个虚拟线程, 阻塞 I/O 不占用平台线程
+     */
+    public static final Executor VIRTUAL_THREADS = task -> Thread.ofVirtual().name("tool-async").start(task);
+
+    private ToolFutures() {
+    }
+
+    /**
+     * 在虚拟线程上执行阻塞调用
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, VIRTUAL_THREADS);
+    }
+
+    /**
+     * 调用返回 Future 的方法, 把同步抛出的异常也转换为失败的 Future
+     */
+    public static <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> supplier) {
+        try {
+            CompletableFuture<T> future = supplier.get();
+            return future != null ? future : CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 等待结果, 异常原样抛出而非包装在 CompletionException 中
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 去掉 CompletionException / ExecutionException 包装
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+}
@@ -10,6 +10,9 @@ import java.lang.annotation.Target;
 /**
  * Tool 定义注解
  * 用于自动注册 Tool，替代 ToolType 枚举
+ * <p>
+ * 调用策略 (重试 / 超时 / 并发 / 缓存) 由调用链统一执行, 可被
+ * agent-runtime.tool.invocation.policies.{name} 配置覆盖
  *
  * @author 神工团队
  * @since 1.1.0
@@ -33,4 +36,34 @@ public @interface ToolDefinition {
      * Tool 类别
      */
     String category() default "general";
+
+    /**
+     * 是否幂等 (相同参数重复调用无副作用), 只有幂等的 Tool 才会重试
+     */
+    boolean idempotent() default false;
+
+    /**
+     * 失败后的最大重试次数, 仅对幂等 Tool 生效
+     */
+    int maxRetries() default 0;
+
+    /**
+     * 首次重试的退避时间(毫秒), 之后每次翻倍
+     */
+    long retryBackoffMs() default 200;
+
+    /**
+     * 单次调用超时(毫秒), 0 表示不限制
+     */
+    long timeoutMs() default 0;
+
+    /**
+     * 最大并发调用数, 0 表示不限制
+     */
+    int maxConcurrency() default 0;
+
+    /**
+     * 成功结果的缓存时间(毫秒), 以参数为键, 0 表示不缓存
+     */
+    long cacheTtlMs() default 0;
 }
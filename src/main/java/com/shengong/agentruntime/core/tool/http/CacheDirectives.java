@@ -0,0 +1,85 @@
+package com.shengong.agentruntime.core.tool.http;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Cache-Control 指令 (RFC 9111 §5.2), 同时用于请求与响应
+ * 数值指令缺省时为 null
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+record CacheDirectives(
+        boolean noStore,
+        boolean noCache,
+        boolean isPrivate,
+        boolean isPublic,
+        boolean mustRevalidate,
+        Long maxAge,
+        Long sMaxAge) {
+
+    static final CacheDirectives NONE = new CacheDirectives(false, false, false, false, false, null, null);
+
+    static CacheDirectives parse(HttpHeaders headers) {
+        List<String> values = headers.get(HttpHeaders.CACHE_CONTROL);
+        if (values == null || values.isEmpty()) {
+            // HTTP/1.0 兼容: 请求中的 Pragma: no-cache 等同于 Cache-Control: no-cache
+            boolean pragmaNoCache = headers.getOrEmpty(HttpHeaders.PRAGMA).stream()
+                    .anyMatch(value -> value.toLowerCase(Locale.ROOT).contains("no-cache"));
+            return pragmaNoCache ? new CacheDirectives(false, true, false, false, false, null, null) : NONE;
+        }
+
+        boolean noStore = false;
+        boolean noCache = false;
+        boolean isPrivate = false;
+        boolean isPublic = false;
+        boolean mustRevalidate = false;
+        Long maxAge = null;
+        Long sMaxAge = null;
+
+        for (String value : values) {
+            for (String directive : value.split(",")) {
+                String token = directive.trim().toLowerCase(Locale.ROOT);
+                int equals = token.indexOf('=');
+                String name = equals < 0 ? token : token.substring(0, equals).trim();
+                String argument = equals < 0 ? null : unquote(token.substring(equals + 1).trim());
+
+                switch (name) {
+                    case "no-store" -> noStore = true;
+                    // 带字段名参数的 no-cache / private 按整条响应处理, 更保守
+                    case "no-cache" -> noCache = true;
+                    case "private" -> isPrivate = true;
+                    case "public" -> isPublic = true;
+                    case "must-revalidate", "proxy-revalidate" -> mustRevalidate = true;
+                    case "max-age" -> maxAge = parseSeconds(argument, maxAge);
+                    case "s-maxage" -> sMaxAge = parseSeconds(argument, sMaxAge);
+                    default -> {
+                    }
+                }
+            }
+        }
+        return new CacheDirectives(noStore, noCache, isPrivate, isPublic, mustRevalidate, maxAge, sMaxAge);
+    }
+
+    private static Long parseSeconds(String argument, Long current) {
+        if (argument == null) {
+            return current;
+        }
+        try {
+            return Math.max(0, Long.parseLong(argument));
+        } catch (NumberFormatException e) {
+            // 无法解析的 max-age 视为已过期 (RFC 9111 §4.2.1)
+            return 0L;
+        }
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,82 @@
+package com.shengong.agentruntime.core.tool.http;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存的 HTTP 响应
+ * 内存层直接保存该对象, 磁盘层以 JSON 形式保存
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachedHttpResponse {
+
+    private String url;
+
+    private int statusCode;
+
+    private Map<String, List<String>> headers;
+
+    private String body;
+
+    /**
+     * JSON 响应体的结构摘要, 命中缓存时与未命中时返回相同的字段; 非 JSON 时为 null
+     */
+    private Map<String, Object> json;
+
+    /**
+     * 响应体 UTF-8 字节数
+     */
+    private long bodySize;
+
+    /**
+     * 发出请求的时间 (epoch 毫秒)
+     */
+    private long requestTime;
+
+    /**
+     * 收到响应的时间 (epoch 毫秒)
+     */
+    private long responseTime;
+
+    /**
+     * 响应 Vary 头列出的请求头及其在原始请求中的取值
+     */
+    private Map<String, String> varyHeaders;
+
+    /**
+     * 调用方通过 cacheTtl 指定的新鲜期 (毫秒), 优先于响应头
+     */
+    private Long ttlOverrideMs;
+
+    @JsonIgnore
+    public HttpHeaders httpHeaders() {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        if (headers != null) {
+            headers.forEach(httpHeaders::addAll);
+        }
+        return httpHeaders;
+    }
+
+    @JsonIgnore
+    public String etag() {
+        return httpHeaders().getETag();
+    }
+
+    @JsonIgnore
+    public String lastModified() {
+        return httpHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+    }
+}
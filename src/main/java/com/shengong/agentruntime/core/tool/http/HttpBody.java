@@ -0,0 +1,69 @@
+package com.shengong.agentruntime.core.tool.http;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * 流式读取后的 HTTP 响应体
+ * 小响应体保存在内存 ({@link #content}), 超过阈值后落盘到临时文件 ({@link #file}),
+ * 两种情况下都提供首尾预览与 JSON 结构摘要
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@Builder
+public class HttpBody {
+
+    public static final HttpBody EMPTY = HttpBody.builder().content(new byte[0]).head("").tail("").build();
+
+    private String contentType;
+
+    private Charset charset;
+
+    /**
+     * 响应体总字节数
+     */
+    private long size;
+
+    /**
+     * 内存中的响应体, 落盘时为 null
+     */
+    private byte[] content;
+
+    /**
+     * 落盘文件, 未落盘时为 null
+     */
+    private Path file;
+
+    /**
+     * 开头的预览文本
+     */
+    private String head;
+
+    /**
+     * 结尾的预览文本
+     */
+    private String tail;
+
+    /**
+     * JSON 响应体的结构摘要 (根类型、数组元素数、顶层字段), 非 JSON 时为 null
+     */
+    private Map<String, Object> json;
+
+    public boolean isSpilled() {
+        return file != null;
+    }
+
+    /**
+     * 内存中的响应体文本, 落盘时返回 null
+     */
+    public String text() {
+        return content != null ? new String(content, charset != null ? charset : StandardCharsets.UTF_8) : null;
+    }
+}
@@ -0,0 +1,559 @@
+package com.shengong.agentruntime.core.tool.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * HTTP 响应缓存 (RFC 9111 语义, 按共享缓存处理)
+ * <p>
+ * 只缓存 GET 响应, 遵循 Cache-Control / Expires / Vary, 过期条目带 ETag 或 Last-Modified 时
+ * 由调用方发起条件请求重新验证. 内存层按总字节数做 LRU 淘汰; 启用磁盘层时写穿到磁盘,
+ * 内存未命中时从磁盘加载, 磁盘层同样按总字节数淘汰最久未访问的条目.
+ * <p>
+ * 通过 Micrometer 导出 tool.http.cache.requests (按 result 区分)、tool.http.cache.bytes.saved
+ * 与 tool.http.cache.hit.ratio 等指标
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Component
+public class HttpResponseCache {
+
+    /**
+     * 缓存处理结果
+     */
+    public enum Result {
+        HIT, MISS, REVALIDATED, BYPASS
+    }
+
+    /**
+     * 可缓存的状态码 (4xx/5xx 由 HttpClientTool 作为失败处理, 不进入缓存)
+     */
+    private static final Set<Integer> CACHEABLE_STATUS = Set.of(200, 203, 300, 301, 308);
+
+    /**
+     * 启发式新鲜期: (Date - Last-Modified) 的 10%
+     */
+    private static final double HEURISTIC_FRACTION = 0.1;
+
+    /**
+     * 304 响应中不应覆盖缓存条目的头
+     */
+    private static final Set<String> NOT_MODIFIED_EXCLUDED_HEADERS = Set.of(
+            HttpHeaders.CONTENT_LENGTH.toLowerCase(Locale.ROOT),
+            HttpHeaders.CONTENT_ENCODING.toLowerCase(Locale.ROOT),
+            HttpHeaders.TRANSFER_ENCODING.toLowerCase(Locale.ROOT));
+
+    private static final String DISK_SUFFIX = ".json";
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long memoryMaxBytes;
+    private final long maxEntryBytes;
+    private final long heuristicMaxAgeMs;
+    private final boolean diskEnabled;
+    private final Path diskDirectory;
+    private final long diskMaxBytes;
+
+    private final LinkedHashMap<String, CachedHttpResponse> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private long memoryBytes;
+
+    private final Map<String, DiskEntry> diskIndex = new ConcurrentHashMap<>();
+    private final AtomicLong diskBytes = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter revalidations;
+    private final Counter bypasses;
+    private final Counter bytesSaved;
+
+    public HttpResponseCache(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${agent-runtime.tool.http.cache.enabled:true}") boolean enabled,
+            @Value("${agent-runtime.tool.http.cache.memory-max-size:64MB}") DataSize memoryMaxSize,
+            @Value("${agent-runtime.tool.http.cache.max-entry-size:2MB}") DataSize maxEntrySize,
+            @Value("${agent-runtime.tool.http.cache.heuristic-max-age:5m}") Duration heuristicMaxAge,
+            @Value("${agent-runtime.tool.http.cache.disk-enabled:false}") boolean diskEnabled,
+            @Value("${agent-runtime.tool.http.cache.disk-directory:data/http-cache}") String diskDirectory,
+            @Value("${agent-runtime.tool.http.cache.disk-max-size:512MB}") DataSize diskMaxSize) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.memoryMaxBytes = memoryMaxSize.toBytes();
+        this.maxEntryBytes = maxEntrySize.toBytes();
+        this.heuristicMaxAgeMs = heuristicMaxAge.toMillis();
+        this.diskEnabled = diskEnabled;
+        this.diskDirectory = Paths.get(diskDirectory);
+        this.diskMaxBytes = diskMaxSize.toBytes();
+
+        this.hits = requestCounter(meterRegistry, Result.HIT);
+        this.misses = requestCounter(meterRegistry, Result.MISS);
+        this.revalidations = requestCounter(meterRegistry, Result.REVALIDATED);
+        this.bypasses = requestCounter(meterRegistry, Result.BYPASS);
+        this.bytesSaved = Counter.builder("tool.http.cache.bytes.saved")
+                .description("Response body bytes served from cache instead of the network")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        // 仪表盘引用 this, 在构造完成后注册
+        Gauge.builder("tool.http.cache.hit.ratio", this, HttpResponseCache::hitRatio)
+                .description("Share of cacheable requests answered without a full response body")
+                .register(meterRegistry);
+        Gauge.builder("tool.http.cache.size", this, cache -> cache.memoryBytes())
+                .tag("tier", "memory")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("tool.http.cache.size", diskBytes, AtomicLong::get)
+                .tag("tier", "disk")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        if (!enabled || !diskEnabled) {
+            return;
+        }
+        Files.createDirectories(diskDirectory);
+        try (Stream<Path> files = Files.list(diskDirectory)) {
+            files.filter(path -> path.getFileName().toString().endsWith(DISK_SUFFIX)).forEach(path -> {
+                try {
+                    long size = Files.size(path);
+                    diskIndex.put(path.getFileName().toString(),
+                            new DiskEntry(size, Files.getLastModifiedTime(path).toMillis()));
+                    diskBytes.addAndGet(size);
+                } catch (IOException e) {
+                    log.warn("Failed to stat http cache file {}: {}", path, e.getMessage());
+                }
+            });
+        }
+        log.info("HTTP response disk cache opened: directory={}, entries={}, bytes={}",
+                diskDirectory.toAbsolutePath(), diskIndex.size(), diskBytes.get());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // --- 查找 ---
+
+    /**
+     * 查找可用于该请求的缓存条目
+     *
+     * @param ttlOverrideMs 调用方指定的新鲜期, 为 null 时按响应头计算
+     * @return 未命中 (或 Vary 不匹配) 时返回 null
+     */
+    public Lookup lookup(String url, HttpHeaders requestHeaders, Long ttlOverrideMs) {
+        CachedHttpResponse entry = get(url);
+        if (entry == null || !varyMatches(entry, requestHeaders)) {
+            return null;
+        }
+
+        CacheDirectives request = CacheDirectives.parse(requestHeaders);
+        CacheDirectives response = CacheDirectives.parse(entry.httpHeaders());
+        long age = currentAge(entry, System.currentTimeMillis());
+        long lifetime = ttlOverrideMs != null ? ttlOverrideMs : freshnessLifetime(entry, response);
+
+        boolean fresh = !request.noCache() && !response.noCache()
+                && age < lifetime
+                && (request.maxAge() == null || age <= request.maxAge() * 1000);
+        return new Lookup(entry, fresh, age);
+    }
+
+    /**
+     * 缓存查找结果
+     *
+     * @param entry 缓存条目
+     * @param fresh 是否可直接使用; 否则需重新验证
+     * @param ageMs 条目当前年龄
+     */
+    public record Lookup(CachedHttpResponse entry, boolean fresh, long ageMs) {
+
+        /**
+         * 是否可以发起条件请求
+         */
+        public boolean revalidatable() {
+            return entry.etag() != null || entry.lastModified() != null;
+        }
+
+        /**
+         * 条件请求头: If-None-Match 优先, 其次 If-Modified-Since
+         */
+        public void applyConditionalHeaders(HttpHeaders headers) {
+            if (entry.etag() != null) {
+                headers.setIfNoneMatch(entry.etag());
+            }
+            if (entry.lastModified() != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, entry.lastModified());
+            }
+        }
+    }
+
+    // --- 写入 ---
+
+    /**
+     * 按 RFC 9111 §3 判断并写入缓存
+     *
+     * @param json 响应体的 JSON 结构摘要, 随条目一起保存
+     * @return 是否已缓存
+     */
+    public boolean store(String url, HttpHeaders requestHeaders, int statusCode, HttpHeaders responseHeaders,
+                         String body, Map<String, Object> json, long requestTime, long responseTime,
+                         Long ttlOverrideMs) {
+        if (!enabled || !CACHEABLE_STATUS.contains(statusCode)) {
+            return false;
+        }
+
+        CacheDirectives request = CacheDirectives.parse(requestHeaders);
+        CacheDirectives response = CacheDirectives.parse(responseHeaders);
+        if (request.noStore() || response.noStore() || response.isPrivate()) {
+            return false;
+        }
+        // 共享缓存不能保存带认证信息的响应, 除非响应显式允许
+        if (requestHeaders.containsKey(HttpHeaders.AUTHORIZATION)
+                && !response.isPublic() && response.sMaxAge() == null && !response.mustRevalidate()) {
+            return false;
+        }
+        List<String> vary = varyHeaderNames(responseHeaders);
+        if (vary.contains("*")) {
+            return false;
+        }
+
+        boolean explicitFreshness = response.maxAge() != null || response.sMaxAge() != null
+                || responseHeaders.containsKey(HttpHeaders.EXPIRES) || response.isPublic();
+        boolean validators = responseHeaders.getETag() != null
+                || responseHeaders.containsKey(HttpHeaders.LAST_MODIFIED);
+        if (!explicitFreshness && !validators && ttlOverrideMs == null) {
+            return false;
+        }
+
+        long bodySize = body != null ? body.getBytes(StandardCharsets.UTF_8).length : 0;
+        if (bodySize > maxEntryBytes) {
+            return false;
+        }
+
+        Map<String, String> varyHeaders = new LinkedHashMap<>();
+        for (String name : vary) {
+            varyHeaders.put(name, StringUtils.defaultString(requestHeaders.getFirst(name)));
+        }
+
+        put(CachedHttpResponse.builder()
+                .url(url)
+                .statusCode(statusCode)
+                .headers(new LinkedHashMap<>(responseHeaders))
+                .body(body)
+                .json(json)
+                .bodySize(bodySize)
+                .requestTime(requestTime)
+                .responseTime(responseTime)
+                .varyHeaders(varyHeaders)
+                .ttlOverrideMs(ttlOverrideMs)
+                .build());
+        return true;
+    }
+
+    /**
+     * 条件请求返回 304 后, 用新响应头更新条目并重新计时 (RFC 9111 §4.3.4)
+     */
+    public CachedHttpResponse revalidated(CachedHttpResponse entry, HttpHeaders notModifiedHeaders,
+                                          long requestTime, long responseTime, Long ttlOverrideMs) {
+        Map<String, List<String>> headers = new LinkedHashMap<>(entry.getHeaders());
+        notModifiedHeaders.forEach((name, values) -> {
+            if (!NOT_MODIFIED_EXCLUDED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.keySet().removeIf(existing -> existing.equalsIgnoreCase(name));
+                headers.put(name, values);
+            }
+        });
+
+        CachedHttpResponse updated = entry.toBuilder()
+                .headers(headers)
+                .requestTime(requestTime)
+                .responseTime(responseTime)
+                .ttlOverrideMs(ttlOverrideMs != null ? ttlOverrideMs : entry.getTtlOverrideMs())
+                .build();
+        put(updated);
+        return updated;
+    }
+
+    /**
+     * 非安全方法成功后使该 URL 的缓存失效 (RFC 9111 §4.4)
+     */
+    public void invalidate(String url) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (memory) {
+            CachedHttpResponse removed = memory.remove(url);
+            if (removed != null) {
+                memoryBytes -= removed.getBodySize();
+            }
+        }
+        if (diskEnabled) {
+            deleteFromDisk(diskFileName(url));
+        }
+    }
+
+    // --- 指标 ---
+
+    public void recordHit(CachedHttpResponse entry) {
+        hits.increment();
+        bytesSaved.increment(entry.getBodySize());
+    }
+
+    public void recordRevalidated(CachedHttpResponse entry) {
+        revalidations.increment();
+        bytesSaved.increment(entry.getBodySize());
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    public void recordBypass() {
+        bypasses.increment();
+    }
+
+    private double hitRatio() {
+        double served = hits.count() + revalidations.count();
+        double total = served + misses.count();
+        return total == 0 ? 0 : served / total;
+    }
+
+    private long memoryBytes() {
+        synchronized (memory) {
+            return memoryBytes;
+        }
+    }
+
+    // --- 新鲜度计算 (RFC 9111 §4.2) ---
+
+    private long freshnessLifetime(CachedHttpResponse entry, CacheDirectives response) {
+        if (response.sMaxAge() != null) {
+            return response.sMaxAge() * 1000;
+        }
+        if (response.maxAge() != null) {
+            return response.maxAge() * 1000;
+        }
+
+        HttpHeaders headers = entry.httpHeaders();
+        if (headers.containsKey(HttpHeaders.EXPIRES)) {
+            long expires = dateHeader(headers, HttpHeaders.EXPIRES);
+            if (expires < 0) {
+                // 无法解析的 Expires 视为已过期
+                return 0;
+            }
+            long date = dateHeader(headers, HttpHeaders.DATE);
+            return Math.max(0, expires - (date >= 0 ? date : entry.getResponseTime()));
+        }
+
+        long lastModified = dateHeader(headers, HttpHeaders.LAST_MODIFIED);
+        if (lastModified >= 0) {
+            long date = dateHeader(headers, HttpHeaders.DATE);
+            long sinceModified = (date >= 0 ? date : entry.getResponseTime()) - lastModified;
+            return Math.min(heuristicMaxAgeMs, (long) (Math.max(0, sinceModified) * HEURISTIC_FRACTION));
+        }
+        return 0;
+    }
+
+    private static long currentAge(CachedHttpResponse entry, long now) {
+        HttpHeaders headers = entry.httpHeaders();
+        long date = dateHeader(headers, HttpHeaders.DATE);
+        long apparentAge = date >= 0 ? Math.max(0, entry.getResponseTime() - date) : 0;
+
+        long ageValue = 0;
+        String age = headers.getFirst(HttpHeaders.AGE);
+        if (age != null) {
+            try {
+                ageValue = Math.max(0, Long.parseLong(age.trim())) * 1000;
+            } catch (NumberFormatException ignored) {
+                // 忽略非法的 Age
+            }
+        }
+        long responseDelay = entry.getResponseTime() - entry.getRequestTime();
+        long correctedInitialAge = Math.max(apparentAge, ageValue + responseDelay);
+        long residentTime = now - entry.getResponseTime();
+        return correctedInitialAge + residentTime;
+    }
+
+    private static long dateHeader(HttpHeaders headers, String name) {
+        try {
+            return headers.getFirstDate(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static List<String> varyHeaderNames(HttpHeaders responseHeaders) {
+        List<String> names = new ArrayList<>();
+        for (String value : responseHeaders.getOrEmpty(HttpHeaders.VARY)) {
+            for (String name : value.split(",")) {
+                if (!name.isBlank()) {
+                    names.add(name.trim());
+                }
+            }
+        }
+        return names;
+    }
+
+    private static boolean varyMatches(CachedHttpResponse entry, HttpHeaders requestHeaders) {
+        if (entry.getVaryHeaders() == null) {
+            return true;
+        }
+        for (Map.Entry<String, String> vary : entry.getVaryHeaders().entrySet()) {
+            if (!vary.getValue().equals(StringUtils.defaultString(requestHeaders.getFirst(vary.getKey())))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // --- 存储层 ---
+
+    private CachedHttpResponse get(String url) {
+        if (!enabled) {
+            return null;
+        }
+        synchronized (memory) {
+            CachedHttpResponse entry = memory.get(url);
+            if (entry != null) {
+                return entry;
+            }
+        }
+        if (!diskEnabled) {
+            return null;
+        }
+
+        CachedHttpResponse entry = readFromDisk(url);
+        if (entry != null) {
+            putInMemory(entry);
+        }
+        return entry;
+    }
+
+    private void put(CachedHttpResponse entry) {
+        putInMemory(entry);
+        if (diskEnabled) {
+            writeToDisk(entry);
+        }
+    }
+
+    private void putInMemory(CachedHttpResponse entry) {
+        synchronized (memory) {
+            CachedHttpResponse previous = memory.put(entry.getUrl(), entry);
+            memoryBytes += entry.getBodySize() - (previous != null ? previous.getBodySize() : 0);
+
+            Iterator<CachedHttpResponse> eldest = memory.values().iterator();
+            while (memoryBytes > memoryMaxBytes && eldest.hasNext()) {
+                CachedHttpResponse evicted = eldest.next();
+                eldest.remove();
+                memoryBytes -= evicted.getBodySize();
+            }
+        }
+    }
+
+    private CachedHttpResponse readFromDisk(String url) {
+        String fileName = diskFileName(url);
+        DiskEntry diskEntry = diskIndex.get(fileName);
+        if (diskEntry == null) {
+            return null;
+        }
+        try {
+            CachedHttpResponse entry = objectMapper.readValue(diskDirectory.resolve(fileName).toFile(), CachedHttpResponse.class);
+            if (!url.equals(entry.getUrl())) {
+                return null;
+            }
+            diskIndex.put(fileName, new DiskEntry(diskEntry.size(), System.currentTimeMillis()));
+            return entry;
+        } catch (IOException e) {
+            log.warn("Failed to read http cache file {}: {}", fileName, e.getMessage());
+            deleteFromDisk(fileName);
+            return null;
+        }
+    }
+
+    private void writeToDisk(CachedHttpResponse entry) {
+        String fileName = diskFileName(entry.getUrl());
+        try {
+            Path temp = Files.createTempFile(diskDirectory, "entry", ".tmp");
+            objectMapper.writeValue(temp.toFile(), entry);
+            long size = Files.size(temp);
+            Files.move(temp, diskDirectory.resolve(fileName),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            DiskEntry previous = diskIndex.put(fileName, new DiskEntry(size, System.currentTimeMillis()));
+            diskBytes.addAndGet(size - (previous != null ? previous.size() : 0));
+            evictDisk();
+        } catch (IOException e) {
+            log.warn("Failed to write http cache file for {}: {}", entry.getUrl(), e.getMessage());
+        }
+    }
+
+    /**
+     * 超出容量时删除最久未访问的文件, 降到容量的 90% 以下, 避免频繁淘汰
+     */
+    private synchronized void evictDisk() {
+        if (diskBytes.get() <= diskMaxBytes) {
+            return;
+        }
+        long target = (long) (diskMaxBytes * 0.9);
+        List<Map.Entry<String, DiskEntry>> entries = new ArrayList<>(diskIndex.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess()));
+        for (Map.Entry<String, DiskEntry> entry : entries) {
+            if (diskBytes.get() <= target) {
+                break;
+            }
+            deleteFromDisk(entry.getKey());
+        }
+    }
+
+    private void deleteFromDisk(String fileName) {
+        DiskEntry removed = diskIndex.remove(fileName);
+        if (removed != null) {
+            diskBytes.addAndGet(-removed.size());
+        }
+        try {
+            Files.deleteIfExists(diskDirectory.resolve(fileName));
+        } catch (IOException e) {
+            log.warn("Failed to delete http cache file {}: {}", fileName, e.getMessage());
+        }
+    }
+
+    private static String diskFileName(String url) {
+        return DigestUtils.md5DigestAsHex(url.getBytes(StandardCharsets.UTF_8)) + DISK_SUFFIX;
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, Result result) {
+        return Counter.builder("tool.http.cache.requests")
+                .description("HttpClientTool GET requests by cache result")
+                .tag("result", result.name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+    }
+
+    private record DiskEntry(long size, long lastAccess) {
+    }
+}
@@ -0,0 +1,326 @@
+package com.shengong.agentruntime.core.tool.http;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 流式响应体读取器
+ * <p>
+ * 按 DataBuffer 逐块消费响应体, 不在堆上聚合整个响应: 不超过 memory-threshold 的部分保存在内存,
+ * 超过后整体落盘到 spill-directory 下的临时文件; 累计超过 max-size 时中止读取并取消请求.
+ * 读取过程中保留开头与结尾各 preview-size 字节作为预览, JSON 响应体通过 Jackson 流式解析生成结构摘要.
+ * 落盘文件保留 spill-retention 后由定时任务清理
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Component
+public class StreamingBodyReader {
+
+    private static final String SPILL_PREFIX = "body-";
+
+    /**
+     * JSON 摘要最多列出的顶层字段数
+     */
+    private static final int MAX_SUMMARY_FIELDS = 50;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final long maxSize;
+    private final long memoryThreshold;
+    private final int previewSize;
+    private final Path spillDirectory;
+    private final Duration spillRetention;
+
+    public StreamingBodyReader(
+            @Value("${agent-runtime.tool.http.body.max-size:100MB}") DataSize maxSize,
+            @Value("${agent-runtime.tool.http.body.memory-threshold:1MB}") DataSize memoryThreshold,
+            @Value("${agent-runtime.tool.http.body.preview-size:4KB}") DataSize previewSize,
+            @Value("${agent-runtime.tool.http.body.spill-directory:${java.io.tmpdir}/agent-runtime-http}") String spillDirectory,
+            @Value("${agent-runtime.tool.http.body.spill-retention:1h}") Duration spillRetention) {
+        this.maxSize = maxSize.toBytes();
+        this.memoryThreshold = memoryThreshold.toBytes();
+        this.previewSize = (int) previewSize.toBytes();
+        this.spillDirectory = Paths.get(spillDirectory);
+        this.spillRetention = spillRetention;
+    }
+
+    /**
+     * 流式读取响应体, 文件写入在 boundedElastic 线程上执行, 不阻塞 Netty 事件循环
+     *
+     * @throws DataBufferLimitException 响应体超过 max-size
+     */
+    public Mono<HttpBody> read(HttpHeaders headers, Flux<DataBuffer> body) {
+        MediaType contentType = headers.getContentType();
+        return Mono.using(
+                () -> new BodySink(contentType),
+                sink -> body
+                        .publishOn(Schedulers.boundedElastic())
+                        .concatMap(buffer -> {
+                            try {
+                                sink.write(buffer);
+                                return Mono.empty();
+                            } catch (IOException e) {
+                                return Mono.error(e);
+                            } finally {
+                                DataBufferUtils.release(buffer);
+                            }
+                        })
+                        // 取消或出错时释放 publishOn 队列中尚未消费的缓冲区
+                        .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                        .then(Mono.fromCallable(sink::finish)),
+                BodySink::close);
+    }
+
+    /**
+     * 清理超过保留期的落盘文件
+     */
+    @Scheduled(fixedDelayString = "${agent-runtime.tool.http.body.cleanup-interval-ms:600000}")
+    public void cleanupSpilledBodies() {
+        if (!Files.isDirectory(spillDirectory)) {
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - spillRetention.toMillis();
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            files.filter(path -> path.getFileName().toString().startsWith(SPILL_PREFIX)).forEach(path -> {
+                try {
+                    if (Files.getLastModifiedTime(path).toMillis() < cutoff) {
+                        Files.deleteIfExists(path);
+                    }
+                } catch (IOException e) {
+                    log.warn("Failed to clean up spilled body {}: {}", path, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Failed to list spill directory {}: {}", spillDirectory, e.getMessage());
+        }
+    }
+
+    /**
+     * 对 JSON 流做一次流式遍历, 只统计结构, 不构建对象树
+     */
+    Map<String, Object> summarizeJson(InputStream input) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        try (JsonParser parser = jsonFactory.createParser(input)) {
+            JsonToken root = parser.nextToken();
+            if (root == null) {
+                return null;
+            }
+            summary.put("root", root == JsonToken.START_ARRAY ? "array"
+                    : root == JsonToken.START_OBJECT ? "object" : "value");
+
+            if (root == JsonToken.START_ARRAY) {
+                long elements = 0;
+                JsonToken token;
+                while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+                    elements++;
+                    parser.skipChildren();
+                }
+                summary.put("elements", elements);
+            } else if (root == JsonToken.START_OBJECT) {
+                List<String> fields = new ArrayList<>();
+                int fieldCount = 0;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    if (fields.size() < MAX_SUMMARY_FIELDS) {
+                        fields.add(parser.currentName());
+                    }
+                    fieldCount++;
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+                summary.put("fieldCount", fieldCount);
+                summary.put("fields", fields);
+            }
+            summary.put("valid", true);
+        } catch (IOException e) {
+            summary.put("valid", false);
+            summary.put("error", e.getMessage());
+        }
+        return summary;
+    }
+
+    private static boolean isJson(MediaType contentType) {
+        return contentType != null
+                && (MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                || contentType.getSubtype().endsWith("+json"));
+    }
+
+    /**
+     * 单次请求的响应体缓冲: 先写内存, 超过阈值后把已有内容连同后续数据写入临时文件
+     */
+    private final class BodySink {
+
+        private final MediaType contentType;
+        private final Charset charset;
+        private final ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private final byte[] head = new byte[previewSize];
+        private final byte[] tail = new byte[previewSize];
+        private int headLength;
+        private long size;
+        private Path file;
+        private FileChannel channel;
+        private boolean finished;
+
+        BodySink(MediaType contentType) {
+            this.contentType = contentType;
+            this.charset = contentType != null && contentType.getCharset() != null
+                    ? contentType.getCharset()
+                    : StandardCharsets.UTF_8;
+        }
+
+        void write(DataBuffer buffer) throws IOException {
+            int length = buffer.readableByteCount();
+            if (size + length > maxSize) {
+                throw new DataBufferLimitException("Response body exceeds limit of " + maxSize + " bytes");
+            }
+            byte[] bytes = new byte[length];
+            buffer.read(bytes);
+
+            if (headLength < head.length) {
+                int copy = Math.min(length, head.length - headLength);
+                System.arraycopy(bytes, 0, head, headLength, copy);
+                headLength += copy;
+            }
+            appendTail(bytes);
+
+            if (channel == null && size + length > memoryThreshold) {
+                spill();
+            }
+            if (channel != null) {
+                ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+                while (byteBuffer.hasRemaining()) {
+                    channel.write(byteBuffer);
+                }
+            } else {
+                memory.write(bytes);
+            }
+            size += length;
+        }
+
+        /**
+         * tail 作为环形缓冲区, 按 size 取模定位写入位置
+         */
+        private void appendTail(byte[] bytes) {
+            if (tail.length == 0) {
+                return;
+            }
+            int offset = Math.max(0, bytes.length - tail.length);
+            for (int i = offset; i < bytes.length; i++) {
+                tail[(int) ((size + i) % tail.length)] = bytes[i];
+            }
+        }
+
+        private void spill() throws IOException {
+            Files.createDirectories(spillDirectory);
+            file = Files.createTempFile(spillDirectory, SPILL_PREFIX, ".tmp");
+            channel = FileChannel.open(file, StandardOpenOption.WRITE);
+            channel.write(ByteBuffer.wrap(memory.toByteArray()));
+            memory.reset();
+            log.debug("Spilling response body to {}", file);
+        }
+
+        HttpBody finish() throws IOException {
+            byte[] content = null;
+            Map<String, Object> json = null;
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+                if (isJson(contentType)) {
+                    try (InputStream input = Files.newInputStream(file)) {
+                        json = summarizeJson(input);
+                    }
+                }
+            } else {
+                content = memory.toByteArray();
+                if (isJson(contentType)) {
+                    json = summarizeJson(new ByteArrayInputStream(content));
+                }
+            }
+            finished = true;
+
+            return HttpBody.builder()
+                    .contentType(contentType != null ? contentType.toString() : null)
+                    .charset(charset)
+                    .size(size)
+                    .content(content)
+                    .file(file)
+                    .head(decode(head, 0, headLength))
+                    .tail(decode(tailBytes(), 0, (int) Math.min(size, tail.length)))
+                    .json(json)
+                    .build();
+        }
+
+        private byte[] tailBytes() {
+            int length = (int) Math.min(size, tail.length);
+            byte[] ordered = new byte[length];
+            long start = size - length;
+            for (int i = 0; i < length; i++) {
+                ordered[i] = tail[(int) ((start + i) % tail.length)];
+            }
+            return ordered;
+        }
+
+        private String decode(byte[] bytes, int offset, int length) {
+            try {
+                CharBuffer chars = charset.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                        .decode(ByteBuffer.wrap(bytes, offset, length));
+                return chars.toString();
+            } catch (IOException e) {
+                return "";
+            }
+        }
+
+        /**
+         * 请求失败或被取消时删除未完成的落盘文件
+         */
+        void close() {
+            try {
+                if (channel != null && channel.isOpen()) {
+                    channel.close();
+                }
+                if (!finished && file != null) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException e) {
+                log.warn("Failed to discard spilled body {}: {}", file, e.getMessage());
+            }
+        }
+    }
+}
@@ -2,16 +2,37 @@ package com.shengong.agentruntime.core.tool.impl;
 
 import com.shengong.agentruntime.core.tool.AbstractTool;
 import com.shengong.agentruntime.core.tool.annotation.ToolDefinition;
+import com.shengong.agentruntime.core.tool.http.CachedHttpResponse;
+import com.shengong.agentruntime.core.tool.http.HttpBody;
+import com.shengong.agentruntime.core.tool.http.HttpResponseCache;
+import com.shengong.agentruntime.core.tool.http.StreamingBodyReader;
 import com.shengong.agentruntime.model.ToolResult;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * HTTP 客户端 Tool
  * 通用 HTTP 请求工具
+ * <p>
+ * GET 请求经过 {@link HttpResponseCache}: 新鲜的缓存直接返回, 过期但带校验器的条目发起条件请求,
+ * 可通过参数 cacheTtl (秒) 指定新鲜期, noCache=true 跳过缓存. 结果中的 cache 字段标明
+ * HIT / MISS / REVALIDATED / BYPASS.
+ * <p>
+ * 响应体由 {@link StreamingBodyReader} 流式读取: 超过内存阈值的响应体落盘, 结果中返回 bodyFile 与
+ * head / tail 预览而非完整 body; JSON 响应体附带流式解析得到的结构摘要 (json 字段)
+ * <p>
+ * 原生异步: invokeAsync 直接返回响应式管道的 Future, 不占用调用线程; invoke 等待该 Future
  *
  * @author 神工团队
  * @since 1.0.0
@@ -24,69 +45,205 @@ import java.util.Map;
 )
 public class HttpClientTool extends AbstractTool {
 
+    private static final String PARAMETERS_SCHEMA = """
+            {
+              "type": "object",
+              "properties": {
+                "url": {"type": "string", "description": "Request URL"},
+                "method": {"type": "string", "enum": ["GET", "POST"], "description": "HTTP method, default GET"},
+                "headers": {"type": "object", "description": "Request headers"},
+                "body": {"type": "string", "description": "POST request body"},
+                "noCache": {"type": "boolean", "description": "Skip the response cache"},
+                "cacheTtl": {"type": "integer", "description": "Freshness lifetime in seconds for this GET response"}
+              },
+              "required": ["url"]
+            }
+            """;
+
     private final WebClient webClient;
+    private final HttpResponseCache responseCache;
+    private final StreamingBodyReader bodyReader;
     private final int timeout;
 
-    public HttpClientTool(@Value("${agent-runtime.tool.http.timeout:30000}") int timeout) {
+    public HttpClientTool(@Qualifier("toolWebClient") WebClient webClient,
+                          HttpResponseCache responseCache,
+                          StreamingBodyReader bodyReader,
+                          @Value("${agent-runtime.tool.http.timeout:30000}") int timeout) {
         this.timeout = timeout;
-        this.webClient = WebClient.builder().build();
+        this.webClient = webClient;
+        this.responseCache = responseCache;
+        this.bodyReader = bodyReader;
+    }
+
+    @Override
+    public String parametersSchema() {
+        return PARAMETERS_SCHEMA;
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public ToolResult invoke(Map<String, Object> arguments) {
+        return invokeAsync(arguments).join();
+    }
+
+    @Override
+    public boolean isAsync() {
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<ToolResult> invokeAsync(Map<String, Object> arguments) {
+        Mono<Map<String, Object>> response;
         try {
             String url = (String) arguments.get("url");
             String method = (String) arguments.getOrDefault("method", "GET");
             Map<String, Object> headers = (Map<String, Object>) arguments.getOrDefault("headers", Map.of());
             Object body = arguments.get("body");
+            boolean noCache = Boolean.parseBoolean(String.valueOf(arguments.getOrDefault("noCache", false)));
+            Long cacheTtlMs = arguments.get("cacheTtl") != null
+                    ? Long.parseLong(arguments.get("cacheTtl").toString()) * 1000
+                    : null;
 
             log.info("Making HTTP request: method={}, url={}", method, url);
 
-            Map<String, Object> response = switch (method.toUpperCase()) {
-                case "GET" -> makeGetRequest(url, headers);
+            response = switch (method.toUpperCase()) {
+                case "GET" -> makeGetRequest(url, headers, noCache, cacheTtlMs);
                 case "POST" -> makePostRequest(url, headers, body);
                 default -> throw new IllegalArgumentException("Unsupported HTTP method: " + method);
             };
+        } catch (Exception e) {
+            response = Mono.error(e);
+        }
 
-            return ToolResult.success(response);
+        return response
+                .map(ToolResult::success)
+                .onErrorResume(e -> {
+                    log.error("HTTP request failed: {}", e.getMessage(), e);
+                    return Mono.just(ToolResult.failure("HTTP request failed: " + e.getMessage()));
+                })
+                .toFuture();
+    }
 
-        } catch (Exception e) {
-            log.error("HTTP request failed: {}", e.getMessage(), e);
-            return ToolResult.failure("HTTP request failed: " + e.getMessage());
+    private Mono<Map<String, Object>> makeGetRequest(String url, Map<String, Object> headers,
+                                                     boolean noCache, Long cacheTtlMs) {
+        HttpHeaders requestHeaders = new HttpHeaders();
+        headers.forEach((k, v) -> requestHeaders.add(k, v.toString()));
+
+        if (noCache || !responseCache.isEnabled()) {
+            responseCache.recordBypass();
+            return exchange("GET", webClient.get().uri(url).headers(h -> h.addAll(requestHeaders)))
+                    .map(response -> toResult(response, HttpResponseCache.Result.BYPASS));
+        }
+
+        HttpResponseCache.Lookup cached = responseCache.lookup(url, requestHeaders, cacheTtlMs);
+        if (cached != null && cached.fresh()) {
+            responseCache.recordHit(cached.entry());
+            log.debug("HTTP cache hit: url={}, age={}ms", url, cached.ageMs());
+            return Mono.just(toResult(cached.entry(), HttpResponseCache.Result.HIT));
         }
+
+        HttpHeaders conditionalHeaders = new HttpHeaders();
+        conditionalHeaders.addAll(requestHeaders);
+        if (cached != null && cached.revalidatable()) {
+            cached.applyConditionalHeaders(conditionalHeaders);
+        }
+
+        long requestTime = System.currentTimeMillis();
+        return exchange("GET", webClient.get().uri(url).headers(h -> h.addAll(conditionalHeaders)))
+                // 写缓存可能落盘, 不在事件循环线程上执行
+                .publishOn(Schedulers.boundedElastic())
+                .map(response -> {
+                    long responseTime = System.currentTimeMillis();
+                    if (cached != null && response.statusCode() == HttpStatus.NOT_MODIFIED.value()) {
+                        CachedHttpResponse entry = responseCache.revalidated(
+                                cached.entry(), response.headers(), requestTime, responseTime, cacheTtlMs);
+                        responseCache.recordRevalidated(entry);
+                        return toResult(entry, HttpResponseCache.Result.REVALIDATED);
+                    }
+
+                    responseCache.recordMiss();
+                    // 落盘的大响应体不进入缓存
+                    if (!response.body().isSpilled()) {
+                        responseCache.store(url, requestHeaders, response.statusCode(), response.headers(),
+                                response.body().text(), response.body().getJson(), requestTime, responseTime,
+                                cacheTtlMs);
+                    }
+                    return toResult(response, HttpResponseCache.Result.MISS);
+                });
     }
 
-    private Map<String, Object> makeGetRequest(String url, Map<String, Object> headers) {
-        try {
-            String response = webClient.get()
-                    .uri(url)
-                    .headers(h -> headers.forEach((k, v) -> h.add(k, v.toString())))
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofMillis(timeout))
-                    .block();
-
-            return Map.of("statusCode", 200, "body", response);
-        } catch (Exception e) {
-            throw new RuntimeException("GET request failed: " + e.getMessage(), e);
+    private Mono<Map<String, Object>> makePostRequest(String url, Map<String, Object> headers, Object body) {
+        return exchange("POST", webClient.post()
+                .uri(url)
+                .headers(h -> headers.forEach((k, v) -> h.add(k, v.toString())))
+                .bodyValue(body != null ? body : ""))
+                .map(response -> {
+                    // 非安全方法会使该 URL 的缓存失效
+                    responseCache.invalidate(url);
+                    return toResult(response, null);
+                });
+    }
+
+    /**
+     * 发送请求并流式读取响应体, 4xx/5xx 按失败处理
+     */
+    private Mono<FetchedResponse> exchange(String method, WebClient.RequestHeadersSpec<?> request) {
+        return request
+                .exchangeToMono(clientResponse -> {
+                    if (clientResponse.statusCode().isError()) {
+                        return clientResponse.createException().flatMap(Mono::error);
+                    }
+                    HttpHeaders responseHeaders = clientResponse.headers().asHttpHeaders();
+                    return bodyReader.read(responseHeaders, clientResponse.bodyToFlux(DataBuffer.class))
+                            .defaultIfEmpty(HttpBody.EMPTY)
+                            .map(body -> new FetchedResponse(clientResponse.statusCode().value(), responseHeaders, body));
+                })
+                .timeout(Duration.ofMillis(timeout))
+                .switchIfEmpty(Mono.error(new IllegalStateException("empty response")))
+                .onErrorMap(e -> new RuntimeException(method + " request failed: " + e.getMessage(), e));
+    }
+
+    private static Map<String, Object> toResult(FetchedResponse response, HttpResponseCache.Result cache) {
+        HttpBody body = response.body();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statusCode", response.statusCode());
+        if (body.getContentType() != null) {
+            result.put("contentType", body.getContentType());
+        }
+        result.put("size", body.getSize());
+        if (body.isSpilled()) {
+            // 大响应体只返回文件位置与首尾预览, 由调用方按需读取
+            result.put("bodyFile", body.getFile().toAbsolutePath().toString());
+            result.put("head", body.getHead());
+            result.put("tail", body.getTail());
+        } else {
+            result.put("body", body.text());
+        }
+        if (body.getJson() != null) {
+            result.put("json", body.getJson());
         }
+        if (cache != null) {
+            result.put("cache", cache.name());
+        }
+        return result;
     }
 
-    private Map<String, Object> makePostRequest(String url, Map<String, Object> headers, Object body) {
-        try {
-            String response = webClient.post()
-                    .uri(url)
-                    .headers(h -> headers.forEach((k, v) -> h.add(k, v.toString())))
-                    .bodyValue(body != null ? body : "")
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofMillis(timeout))
-                    .block();
-
-            return Map.of("statusCode", 200, "body", response);
-        } catch (Exception e) {
-            throw new RuntimeException("POST request failed: " + e.getMessage(), e);
+    private static Map<String, Object> toResult(CachedHttpResponse entry, HttpResponseCache.Result cache) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statusCode", entry.getStatusCode());
+        String contentType = entry.httpHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
+        if (contentType != null) {
+            result.put("contentType", contentType);
+        }
+        result.put("size", entry.getBodySize());
+        result.put("body", entry.getBody() != null ? entry.getBody() : "");
+        if (entry.getJson() != null) {
+            result.put("json", entry.getJson());
         }
+        result.put("cache", cache.name());
+        return result;
+    }
+
+    private record FetchedResponse(int statusCode, HttpHeaders headers, HttpBody body) {
     }
 }
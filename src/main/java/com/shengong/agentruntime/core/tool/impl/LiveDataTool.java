@@ -1,26 +1,85 @@
 package com.shengong.agentruntime.core.tool.impl;
 
+import com.shengong.agentruntime.config.LiveSeriesProperties;
+import com.shengong.agentruntime.core.analytics.timeseries.Downsampler;
+import com.shengong.agentruntime.core.analytics.timeseries.LiveSeries;
 import com.shengong.agentruntime.core.tool.AbstractTool;
 import com.shengong.agentruntime.core.tool.annotation.ToolDefinition;
+import com.shengong.agentruntime.core.tool.synthetic.LiveSpec;
+import com.shengong.agentruntime.core.tool.synthetic.LiveTimeline;
+import com.shengong.agentruntime.core.tool.synthetic.SyntheticDataGenerator;
 import com.shengong.agentruntime.model.ToolResult;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import java.util.*;
 
 /**
  * 直播数据 Tool (Mock 实现)
- * 模拟从直播服务拉取数据
+ * 模拟从直播服务拉取数据, 由 {@link SyntheticDataGenerator} 按 seed 可复现地生成,
+ * 时间片粒度可细到秒级, liveMetrics 由时间线汇总得到. 返回的 timeline 超过点数预算时按在线人数与 GMV 下采样
+ * ({@link Downsampler}), 进程内的下游 Agent 仍可经 {@link LiveTimeline#of} 取得完整时间线
  *
  * @author 神工团队
  * @since 1.0.0
  */
 @Slf4j
+@RequiredArgsConstructor
 @ToolDefinition(
         name = "live_data_tool",
         description = "Fetch live streaming data from external service",
-        category = "data-source"
+        category = "data-source",
+        idempotent = true,
+        maxRetries = 2,
+        timeoutMs = 10000
 )
 public class LiveDataTool extends AbstractTool {
 
+    private static final String PARAMETERS_SCHEMA = """
+            {
+              "type": "object",
+              "properties": {
+                "timeRange": {
+                  "type": "object",
+                  "properties": {
+                    "startTime": {"type": "string", "description": "yyyy-MM-dd HH:mm:ss"},
+                    "endTime": {"type": "string", "description": "yyyy-MM-dd HH:mm:ss"}
+                  },
+                  "required": ["startTime", "endTime"]
+                },
+                "filters": {"type": "object", "description": "Filters such as liveRoomId or anchorId"},
+                "granularityMinutes": {"type": "integer", "description": "Timeline slot length in minutes, default 120"},
+                "granularitySeconds": {"type": "integer", "description": "Timeline slot length in seconds, overrides granularityMinutes for second-level timelines"},
+                "maxPoints": {"type": "integer", "description": "Maximum timeline points returned, larger timelines are downsampled; 0 returns every slot"},
+                "seed": {"type": "integer", "description": "Random seed; derived from the other arguments when omitted"},
+                "baseViewers": {"type": "integer", "description": "Average concurrent viewers on the plateau"},
+                "injectAnomalies": {"type": "boolean", "description": "Inject the default conversion drop, default true"},
+                "anomalies": {
+                  "type": "array",
+                  "description": "Anomalies to inject instead of the defaults",
+                  "items": {
+                    "type": "object",
+                    "properties": {
+                      "type": {"type": "string", "enum": ["VIEWER_DROP", "TRAFFIC_SPIKE", "CONVERSION_DROP"]},
+                      "start": {"type": "number", "description": "Window start as a fraction of the time range"},
+                      "end": {"type": "number", "description": "Window end as a fraction of the time range"},
+                      "magnitude": {"type": "number"}
+                    },
+                    "required": ["type", "start", "end"]
+                  }
+                }
+              },
+              "required": ["timeRange"]
+            }
+            """;
+
+    private final SyntheticDataGenerator generator;
+    private final LiveSeriesProperties liveProperties;
+
+    @Override
+    public String parametersSchema() {
+        return PARAMETERS_SCHEMA;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public ToolResult invoke(Map<String, Object> arguments) {
@@ -30,10 +89,22 @@ public class LiveDataTool extends AbstractTool {
 
             log.info("Fetching live data: timeRange={}, filters={}", timeRange, filters);
 
-            // 模拟数据
-            Map<String, Object> mockData = generateMockLiveData(timeRange, filters);
+            LiveSpec spec = generator.liveSpec(arguments);
+            LiveTimeline timeline = generator.generateLive(spec);
+
+            Map<String, Object> data = new HashMap<>();
+            data.put("timeRange", timeRange);
+            data.put("filters", filters);
+            data.put("liveMetrics", generator.liveMetrics(spec, timeline));
+            data.put("timeline", timeline(timeline, arguments));
+            data.put("timelinePoints", timeline.size());
+            data.put("granularityMinutes", spec.granularityMinutes());
+            data.put("granularitySeconds", spec.getGranularitySeconds());
+            data.put("seed", spec.getSeed());
+            data.put("injectedAnomalies", SyntheticDataGenerator.describeAnomalies(
+                    spec.getAnomalies(), spec.getStartMillis(), spec.getEndMillis()));
 
-            return ToolResult.success(mockData);
+            return ToolResult.success(data);
 
         } catch (Exception e) {
             log.error("Live data fetch failed: {}", e.getMessage(), e);
@@ -41,38 +112,18 @@ public class LiveDataTool extends AbstractTool {
         }
     }
 
-    private Map<String, Object> generateMockLiveData(Map<String, Object> timeRange,
-                                                      Map<String, Object> filters) {
-        Map<String, Object> data = new HashMap<>();
-
-        data.put("timeRange", timeRange);
-        data.put("filters", filters);
-
-        // 模拟直播指标
-        Map<String, Object> metrics = new HashMap<>();
-        metrics.put("totalGmv", 12345.67 + new Random().nextDouble() * 5000);
-        metrics.put("previousGmv", 17000.0);
-        metrics.put("peakViewers", 980 + new Random().nextInt(200));
-        metrics.put("avgViewers", 430 + new Random().nextInt(100));
-        metrics.put("totalViewers", 2500 + new Random().nextInt(500));
-        metrics.put("giftCount", 230 + new Random().nextInt(50));
-        metrics.put("commentCount", 1200 + new Random().nextInt(300));
-        metrics.put("likeCount", 5600 + new Random().nextInt(1000));
-        metrics.put("orderCount", 87 + new Random().nextInt(20));
-
-        data.put("liveMetrics", metrics);
-
-        // 模拟时间段数据
-        List<Map<String, Object>> timeline = new ArrayList<>();
-        for (int i = 0; i < 12; i++) {
-            timeline.add(Map.of(
-                    "timeSlot", String.format("%02d:00-%02d:00", i * 2, i * 2 + 2),
-                    "viewers", 300 + new Random().nextInt(500),
-                    "gmv", 1000 + new Random().nextDouble() * 2000
-            ));
+    /**
+     * 按 maxPoints (默认取配置的 tool-points) 下采样时间线
+     */
+    private List<Map<String, Object>> timeline(LiveTimeline timeline, Map<String, Object> arguments) {
+        LiveSeriesProperties.Downsampling downsampling = liveProperties.getDownsampling();
+        int maxPoints = arguments.get("maxPoints") instanceof Number number
+                ? number.intValue()
+                : downsampling.getToolPoints();
+        if (maxPoints <= 0 || timeline.size() <= maxPoints) {
+            return timeline.rows();
         }
-        data.put("timeline", timeline);
-
-        return data;
+        LiveSeries series = LiveSeries.from(timeline);
+        return timeline.rows(Downsampler.select(downsampling.getMethod(), maxPoints, series.viewers(), series.gmv()));
     }
 }
@@ -1,19 +1,32 @@
 package com.shengong.agentruntime.core.tool.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.core.mcp.McpClient;
 import com.shengong.agentruntime.core.tool.AbstractTool;
+import com.shengong.agentruntime.core.tool.ToolFutures;
 import com.shengong.agentruntime.core.tool.annotation.ToolDefinition;
 import com.shengong.agentruntime.model.ToolResult;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * MCP 代理 Tool
  * 通过 HTTP 代理调用 MCP 服务
+ * <p>
+ * 在 agent-runtime.mcp.servers 中配置的服务由 {@link McpClient} 直连 (长连接会话, 不经过代理);
+ * 传入 calls 列表 (每项含 tool / arguments) 时合并为一个 JSON-RPC 批量请求. 两种方式均为原生异步
  *
  * @author 神工团队
  * @since 1.0.0
@@ -28,55 +41,162 @@ import java.util.Map;
 )
 public class McpProxyTool extends AbstractTool {
 
+    private static final String PARAMETERS_SCHEMA = """
+            {
+              "type": "object",
+              "properties": {
+                "server": {"type": "string", "description": "MCP server name"},
+                "tool": {"type": "string", "description": "Tool name on the MCP server, required unless calls is given"},
+                "arguments": {"type": "object", "description": "Tool arguments"},
+                "calls": {
+                  "type": "array",
+                  "description": "Several calls to the same directly connected server, sent as one JSON-RPC batch",
+                  "items": {
+                    "type": "object",
+                    "properties": {
+                      "tool": {"type": "string", "description": "Tool name on the MCP server"},
+                      "arguments": {"type": "object", "description": "Tool arguments"}
+                    },
+                    "required": ["tool"]
+                  }
+                }
+              },
+              "required": ["server"]
+            }
+            """;
+
     @Value("${agent-runtime.mcp.proxy.url}")
     private String mcpProxyUrl;
 
     @Value("${agent-runtime.mcp.proxy.timeout:30000}")
     private int timeout;
 
-    private final WebClient.Builder webClientBuilder;
+    private final WebClient toolWebClient;
+
+    private final McpClient mcpClient;
+
+    private final ObjectMapper objectMapper;
+
+    private WebClient webClient;
+
+    @PostConstruct
+    public void init() {
+        // 派生实例与其他 Tool 共用连接池
+        this.webClient = toolWebClient.mutate().baseUrl(mcpProxyUrl).build();
+    }
+
+    @Override
+    public String parametersSchema() {
+        return PARAMETERS_SCHEMA;
+    }
 
     @Override
-    @SuppressWarnings("unchecked")
     public ToolResult invoke(Map<String, Object> arguments) {
+        return invokeAsync(arguments).join();
+    }
+
+    @Override
+    public boolean isAsync() {
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<ToolResult> invokeAsync(Map<String, Object> arguments) {
+        CompletableFuture<ToolResult> result;
         try {
             String server = (String) arguments.get("server");
             String tool = (String) arguments.get("tool");
             Map<String, Object> toolArguments = (Map<String, Object>) arguments.getOrDefault("arguments", Map.of());
+            List<Map<String, Object>> calls = (List<Map<String, Object>>) arguments.get("calls");
+            boolean batch = calls != null && !calls.isEmpty();
 
-            log.info("Invoking MCP tool: server={}, tool={}", server, tool);
+            if (server == null || (tool == null && !batch)) {
+                return CompletableFuture.completedFuture(
+                        ToolResult.failure("MCP proxy call requires server and either tool or calls"));
+            }
+            if (batch && !mcpClient.hasServer(server)) {
+                return CompletableFuture.completedFuture(
+                        ToolResult.failure("Batched calls require a directly connected MCP server: " + server));
+            }
+            if (mcpClient.hasServer(server)) {
+                result = invokeNative(server, tool, toolArguments, calls);
+            } else {
+                result = invokeProxy(server, tool, toolArguments);
+            }
+        } catch (Exception e) {
+            result = CompletableFuture.failedFuture(e);
+        }
 
-            WebClient webClient = webClientBuilder.baseUrl(mcpProxyUrl).build();
+        return result.exceptionally(error -> {
+            Throwable cause = ToolFutures.unwrap(error);
+            log.error("MCP proxy call failed: {}", cause.getMessage(), cause);
+            return ToolResult.failure("MCP proxy call failed: " + cause.getMessage());
+        });
+    }
 
-            Map<String, Object> requestBody = Map.of(
-                    "server", server,
-                    "tool", tool,
-                    "arguments", toolArguments
-            );
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<ToolResult> invokeProxy(String server, String tool, Map<String, Object> toolArguments) {
+        log.info("Invoking MCP tool: server={}, tool={}", server, tool);
 
-            Map<String, Object> response = webClient.post()
-                    .uri("/mcp/invoke")
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .timeout(Duration.ofMillis(timeout))
-                    .block();
+        Map<String, Object> requestBody = Map.of(
+                "server", server,
+                "tool", tool,
+                "arguments", toolArguments
+        );
 
-            if (response == null) {
-                return ToolResult.failure("MCP proxy returned null response");
-            }
-
-            Boolean success = (Boolean) response.getOrDefault("success", false);
-            if (success) {
-                return ToolResult.success((Map<String, Object>) response.get("result"));
-            } else {
-                String error = (String) response.getOrDefault("error", "Unknown error");
-                return ToolResult.failure("MCP tool failed: " + error);
-            }
+        return webClient.post()
+                .uri("/mcp/invoke")
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToMono(Map.class)
+                .timeout(Duration.ofMillis(timeout))
+                .map(response -> {
+                    Boolean success = (Boolean) response.getOrDefault("success", false);
+                    if (success) {
+                        return ToolResult.success((Map<String, Object>) response.get("result"));
+                    }
+                    String error = (String) response.getOrDefault("error", "Unknown error");
+                    return ToolResult.failure("MCP tool failed: " + error);
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> ToolResult.failure("MCP proxy returned null response")))
+                .toFuture();
+    }
 
-        } catch (Exception e) {
-            log.error("MCP proxy call failed: {}", e.getMessage(), e);
-            return ToolResult.failure("MCP proxy call failed: " + e.getMessage());
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<ToolResult> invokeNative(String server, String tool, Map<String, Object> toolArguments,
+                                                       List<Map<String, Object>> calls) {
+        if (calls != null && !calls.isEmpty()) {
+            log.info("Invoking {} MCP tools in batch: server={}", calls.size(), server);
+            List<McpClient.ToolCall> toolCalls = calls.stream()
+                    .map(call -> new McpClient.ToolCall((String) call.get("tool"),
+                            (Map<String, Object>) call.getOrDefault("arguments", Map.of())))
+                    .toList();
+            return mcpClient.callToolsAsync(server, toolCalls).thenApply(callResults -> {
+                List<Map<String, Object>> results = new ArrayList<>();
+                for (McpClient.CallResult result : callResults) {
+                    Map<String, Object> item = new LinkedHashMap<>();
+                    item.put("tool", result.tool());
+                    item.put("success", result.error() == null && !result.result().path("isError").asBoolean(false));
+                    if (result.result() != null) {
+                        item.put("result", objectMapper.convertValue(result.result(), Map.class));
+                    }
+                    if (result.error() != null) {
+                        item.put("error", result.error());
+                    }
+                    results.add(item);
+                }
+                return ToolResult.success(Map.of("results", results));
+            });
         }
+
+        log.info("Invoking MCP tool natively: server={}, tool={}", server, tool);
+        return mcpClient.callToolAsync(server, tool, toolArguments).thenApply(result -> {
+            Map<String, Object> data = objectMapper.convertValue(result, Map.class);
+            if (result.path("isError").asBoolean(false)) {
+                return ToolResult.failure("MCP tool failed: " + result.path("content"));
+            }
+            return ToolResult.success(data);
+        });
     }
 }
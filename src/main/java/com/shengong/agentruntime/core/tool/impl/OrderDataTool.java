@@ -2,25 +2,82 @@ package com.shengong.agentruntime.core.tool.impl;
 
 import com.shengong.agentruntime.core.tool.AbstractTool;
 import com.shengong.agentruntime.core.tool.annotation.ToolDefinition;
+import com.shengong.agentruntime.core.tool.synthetic.OrderColumns;
+import com.shengong.agentruntime.core.tool.synthetic.OrderSpec;
+import com.shengong.agentruntime.core.tool.synthetic.SyntheticDataGenerator;
 import com.shengong.agentruntime.model.ToolResult;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import java.util.*;
 
 /**
  * 订单数据 Tool (Mock 实现)
- * 模拟从订单服务拉取数据
+ * 模拟从订单服务拉取数据, 由 {@link SyntheticDataGenerator} 按 seed 可复现地生成,
+ * 订单数、店铺 / 商品基数与注入的异常均可通过参数指定
  *
  * @author 神工团队
  * @since 1.0.0
  */
 @Slf4j
+@RequiredArgsConstructor
 @ToolDefinition(
         name = "order_data_tool",
         description = "Fetch order data from order service",
-        category = "data-source"
+        category = "data-source",
+        idempotent = true,
+        maxRetries = 2,
+        timeoutMs = 10000
 )
 public class OrderDataTool extends AbstractTool {
 
+    private static final String PARAMETERS_SCHEMA = """
+            {
+              "type": "object",
+              "properties": {
+                "timeRange": {
+                  "type": "object",
+                  "properties": {
+                    "startTime": {"type": "string", "description": "yyyy-MM-dd HH:mm:ss"},
+                    "endTime": {"type": "string", "description": "yyyy-MM-dd HH:mm:ss"}
+                  },
+                  "required": ["startTime", "endTime"]
+                },
+                "queryType": {"type": "string", "description": "all, refunded or delayed"},
+                "count": {"type": "integer", "description": "Number of orders, default 100"},
+                "seed": {"type": "integer", "description": "Random seed; derived from the other arguments when omitted"},
+                "shops": {"type": "integer", "description": "Number of distinct shops"},
+                "skus": {"type": "integer", "description": "Number of distinct SKUs"},
+                "buyers": {"type": "integer", "description": "Number of distinct buyers"},
+                "refundRate": {"type": "number", "description": "Baseline refund rate, 0-1"},
+                "delayRate": {"type": "number", "description": "Baseline delayed shipment rate, 0-1"},
+                "injectAnomalies": {"type": "boolean", "description": "Inject default refund and delay spikes, default true"},
+                "anomalies": {
+                  "type": "array",
+                  "description": "Anomalies to inject instead of the defaults",
+                  "items": {
+                    "type": "object",
+                    "properties": {
+                      "type": {"type": "string", "enum": ["REFUND_SPIKE", "DELAY_SPIKE", "AMOUNT_DROP", "PROCESSING_SLOWDOWN"]},
+                      "start": {"type": "number", "description": "Window start as a fraction of the time range"},
+                      "end": {"type": "number", "description": "Window end as a fraction of the time range"},
+                      "magnitude": {"type": "number"},
+                      "shop": {"type": "integer", "description": "Only affect this shop index"}
+                    },
+                    "required": ["type", "start", "end"]
+                  }
+                }
+              },
+              "required": ["timeRange"]
+            }
+            """;
+
+    private final SyntheticDataGenerator generator;
+
+    @Override
+    public String parametersSchema() {
+        return PARAMETERS_SCHEMA;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public ToolResult invoke(Map<String, Object> arguments) {
@@ -29,32 +86,21 @@ public class OrderDataTool extends AbstractTool {
 
             log.info("Fetching order data: timeRange={}", timeRange);
 
-            // 模拟订单数据
-            Map<String, Object> mockData = generateMockOrderData();
+            OrderSpec spec = generator.orderSpec(arguments);
+            OrderColumns orders = generator.generateOrders(spec);
 
-            return ToolResult.success(mockData);
+            Map<String, Object> data = new HashMap<>();
+            data.put("orderList", orders.rows());
+            data.put("totalCount", orders.size());
+            data.put("seed", spec.getSeed());
+            data.put("injectedAnomalies", SyntheticDataGenerator.describeAnomalies(
+                    spec.getAnomalies(), spec.getStartMillis(), spec.getEndMillis()));
+
+            return ToolResult.success(data);
 
         } catch (Exception e) {
             log.error("Order data fetch failed: {}", e.getMessage(), e);
             return ToolResult.failure("Failed to fetch order data: " + e.getMessage());
         }
     }
-
-    private Map<String, Object> generateMockOrderData() {
-        List<Map<String, Object>> orders = new ArrayList<>();
-        Random random = new Random();
-
-        // 生成100个模拟订单
-        for (int i = 1; i <= 100; i++) {
-            Map<String, Object> order = new HashMap<>();
-            order.put("orderId", "ORD" + String.format("%06d", i));
-            order.put("status", random.nextDouble() < 0.2 ? "REFUNDED" : "COMPLETED");
-            order.put("amount", 100 + random.nextDouble() * 500);
-            order.put("delayedShipment", random.nextDouble() < 0.12);
-            order.put("processingTimeHours", 12 + random.nextDouble() * 60);
-            orders.add(order);
-        }
-
-        return Map.of("orderList", orders, "totalCount", orders.size());
-    }
 }
@@ -2,70 +2,135 @@ package com.shengong.agentruntime.core.tool.impl;
 
 import com.shengong.agentruntime.core.tool.AbstractTool;
 import com.shengong.agentruntime.core.tool.annotation.ToolDefinition;
+import com.shengong.agentruntime.core.tool.scrape.CrawlRequest;
+import com.shengong.agentruntime.core.tool.scrape.CrawledPage;
+import com.shengong.agentruntime.core.tool.scrape.MainContentExtractor;
+import com.shengong.agentruntime.core.tool.scrape.PageCache;
+import com.shengong.agentruntime.core.tool.scrape.StreamingExtractor;
+import com.shengong.agentruntime.core.tool.scrape.WebCrawler;
 import com.shengong.agentruntime.model.ToolResult;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 /**
  * 网页抓取 Tool
  * 使用 Jsoup 抓取网页数据
+ * <p>
+ * 三种模式:
+ * <ul>
+ *     <li>单页: 参数 url</li>
+ *     <li>批量: 参数 urls, 并发抓取列表中的全部页面</li>
+ *     <li>爬取: 参数 seed (或 seeds) 与 maxDepth, 按 follow / include / exclude / sameHost 规则跟进链接</li>
+ * </ul>
+ * 批量与爬取模式由 {@link WebCrawler} 在虚拟线程上并发执行; 需要在每个页面完成时立即拿到结果的调用方
+ * 直接调用 {@link #crawl(CrawlRequest, Consumer)}.
+ * <p>
+ * 单页模式下 stream=true 时使用 {@link StreamingExtractor} 边解析边提取 (每个选择器取 maxMatches 个);
+ * mainContent=true 时用 {@link MainContentExtractor} 去除模板内容只返回正文, maxChars 限制返回文本长度.
+ * <p>
+ * 非流式抓取经过 {@link PageCache}: 页面缓存在磁盘并以条件请求刷新, 提取结果按页面版本记忆; noCache=true 强制重新抓取
  *
  * @author 神工团队
  * @since 1.0.0
  */
 @Slf4j
+@RequiredArgsConstructor
 @ToolDefinition(
         name = "web_scrape_tool",
-        description = "Scrape data from web pages using CSS selectors",
+        description = "Scrape data from web pages using CSS selectors; supports batch (urls) and crawl (seed + maxDepth) modes",
         category = "scraper"
 )
 public class WebScrapeTool extends AbstractTool {
 
+    private static final String PARAMETERS_SCHEMA = """
+            {
+              "type": "object",
+              "properties": {
+                "url": {"type": "string", "description": "Page to scrape (single-page mode)"},
+                "urls": {"type": "array", "items": {"type": "string"}, "description": "Pages to scrape concurrently (batch mode)"},
+                "seed": {"type": "string", "description": "Start page for crawl mode"},
+                "seeds": {"type": "array", "items": {"type": "string"}, "description": "Start pages for crawl mode"},
+                "maxDepth": {"type": "integer", "description": "Link depth to follow in crawl mode"},
+                "maxPages": {"type": "integer", "description": "Page limit in crawl mode"},
+                "follow": {"type": "string", "description": "CSS selector for links to follow in crawl mode, default a[href]"},
+                "include": {"type": "string", "description": "Regex a followed link must match"},
+                "exclude": {"type": "string", "description": "Regex for links not to follow"},
+                "sameHost": {"type": "boolean", "description": "Only follow links on the seed's host, default true"},
+                "timeout": {"type": "integer", "description": "Per-request timeout in milliseconds, default 10000"},
+                "selectors": {"type": "object", "additionalProperties": {"type": "string"}, "description": "Field name to CSS selector"},
+                "stream": {"type": "boolean", "description": "Single-page mode: extract while parsing and stop once every selector has maxMatches results"},
+                "maxMatches": {"type": "integer", "description": "Matches to collect per selector in stream mode, default 1"},
+                "mainContent": {"type": "boolean", "description": "Return only the main article text"},
+                "maxChars": {"type": "integer", "description": "Maximum characters of text to return"},
+                "noCache": {"type": "boolean", "description": "Force a refetch instead of using the page cache"}
+              }
+            }
+            """;
+
+    private final WebCrawler webCrawler;
+    private final PageCache pageCache;
+
+    @Override
+    public String parametersSchema() {
+        return PARAMETERS_SCHEMA;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public ToolResult invoke(Map<String, Object> arguments) {
         try {
-            String url = (String) arguments.get("url");
             Map<String, String> selectors = (Map<String, String>) arguments.getOrDefault("selectors", Map.of());
             int timeout = ((Number) arguments.getOrDefault("timeout", 10000)).intValue();
 
-            log.info("Scraping URL: {}", url);
-
-            Document doc = Jsoup.connect(url)
-                    .timeout(timeout)
-                    .userAgent("Mozilla/5.0 (compatible; ShengongBot/1.0)")
-                    .get();
+            boolean mainContent = Boolean.parseBoolean(String.valueOf(arguments.getOrDefault("mainContent", false)));
+            int maxChars = ((Number) arguments.getOrDefault("maxChars", 0)).intValue();
+            boolean noCache = Boolean.parseBoolean(String.valueOf(arguments.getOrDefault("noCache", false)));
 
-            Map<String, Object> scrapedData = new HashMap<>();
-
-            // 根据选择器提取数据
-            for (Map.Entry<String, String> entry : selectors.entrySet()) {
-                String fieldName = entry.getKey();
-                String selector = entry.getValue();
+            if (arguments.containsKey("urls") || arguments.containsKey("seed") || arguments.containsKey("seeds")) {
+                CrawlRequest request = crawlRequest(arguments, selectors, timeout, mainContent, maxChars, noCache);
+                List<CrawledPage> pages = Collections.synchronizedList(new ArrayList<>());
+                Map<String, Object> summary = crawl(request, pages::add);
+                return ToolResult.success(Map.of(
+                        "summary", summary,
+                        "pages", pages
+                ));
+            }
 
-                Elements elements = doc.select(selector);
-                List<String> values = new ArrayList<>();
+            String url = (String) arguments.get("url");
+            boolean stream = Boolean.parseBoolean(String.valueOf(arguments.getOrDefault("stream", false)));
 
-                for (Element element : elements) {
-                    values.add(element.text());
-                }
+            log.info("Scraping URL: {}", url);
 
-                scrapedData.put(fieldName, values.size() == 1 ? values.get(0) : values);
+            // 流式模式: 边解析边匹配选择器, 全部取满后停止, 不构建完整 DOM (不经过页面缓存)
+            if (stream && !selectors.isEmpty()) {
+                int maxMatches = ((Number) arguments.getOrDefault("maxMatches", 1)).intValue();
+                Connection connection = Jsoup.connect(url)
+                        .timeout(timeout)
+                        .userAgent("Mozilla/5.0 (compatible; ShengongBot/1.0)");
+                StreamingExtractor.Result result = StreamingExtractor.extract(
+                        connection.execute().streamParser(), selectors, Math.max(1, maxMatches));
+                return ToolResult.success(Map.of(
+                        "url", url,
+                        "data", result.data(),
+                        "stoppedEarly", result.stoppedEarly()
+                ));
             }
 
-            // 如果没有指定选择器,返回标题和文本内容
-            if (selectors.isEmpty()) {
-                scrapedData.put("title", doc.title());
-                scrapedData.put("text", doc.body().text());
-            }
+            PageCache.Page page = pageCache.fetch(url, timeout, noCache);
 
             return ToolResult.success(Map.of(
                     "url", url,
-                    "data", scrapedData
+                    "finalUrl", page.finalUrl(),
+                    "data", extract(page, selectors, mainContent, maxChars),
+                    "cache", page.source().name()
             ));
 
         } catch (Exception e) {
@@ -73,4 +138,91 @@ public class WebScrapeTool extends AbstractTool {
             return ToolResult.failure("Web scraping failed: " + e.getMessage());
         }
     }
+
+    /**
+     * 批量抓取或爬取, 按 request 中的选择器提取每个页面
+     *
+     * @param onPage 每个页面完成后立即回调, 在抓取线程上调用, 需线程安全
+     * @return 爬取汇总 (页面数、成功 / 失败数、耗时等)
+     */
+    public Map<String, Object> crawl(CrawlRequest request, Consumer<CrawledPage> onPage) throws InterruptedException {
+        log.info("Crawling {} seed(s): maxDepth={}, maxPages={}",
+                request.getSeeds().size(), request.getMaxDepth(), request.getMaxPages());
+        return webCrawler.crawl(request,
+                page -> extract(page, request.getSelectors(), request.isMainContent(), request.getMaxChars()),
+                onPage);
+    }
+
+    private static CrawlRequest crawlRequest(Map<String, Object> arguments, Map<String, String> selectors, int timeout,
+                                             boolean mainContent, int maxChars, boolean noCache) {
+        List<String> seeds = new ArrayList<>();
+        if (arguments.get("urls") instanceof Collection<?> urls) {
+            urls.forEach(url -> seeds.add(url.toString()));
+        }
+        if (arguments.get("seeds") instanceof Collection<?> seedList) {
+            seedList.forEach(url -> seeds.add(url.toString()));
+        }
+        if (arguments.get("seed") != null) {
+            seeds.add(arguments.get("seed").toString());
+        }
+        // 批量模式只抓取列表本身
+        int maxDepth = arguments.containsKey("urls") && !arguments.containsKey("maxDepth")
+                ? 0
+                : ((Number) arguments.getOrDefault("maxDepth", 1)).intValue();
+
+        return CrawlRequest.builder()
+                .seeds(seeds)
+                .maxDepth(maxDepth)
+                .maxPages(((Number) arguments.getOrDefault("maxPages", 0)).intValue())
+                .followSelector((String) arguments.getOrDefault("follow", "a[href]"))
+                .include(arguments.get("include") != null ? Pattern.compile(arguments.get("include").toString()) : null)
+                .exclude(arguments.get("exclude") != null ? Pattern.compile(arguments.get("exclude").toString()) : null)
+                .sameHost(Boolean.parseBoolean(String.valueOf(arguments.getOrDefault("sameHost", true))))
+                .timeoutMs(timeout)
+                .noCache(noCache)
+                .selectors(selectors)
+                .mainContent(mainContent)
+                .maxChars(maxChars)
+                .build();
+    }
+
+    /**
+     * 页面内容未变化时直接复用上次的提取结果
+     */
+    private Map<String, Object> extract(PageCache.Page page, Map<String, String> selectors,
+                                        boolean mainContent, int maxChars) {
+        String extraction = new TreeMap<>(selectors) + "|mainContent=" + mainContent + "|maxChars=" + maxChars;
+        return pageCache.memoize(page.version(), extraction,
+                () -> extract(page.document(), selectors, mainContent, maxChars));
+    }
+
+    private static Map<String, Object> extract(Document doc, Map<String, String> selectors,
+                                               boolean mainContent, int maxChars) {
+        Map<String, Object> scrapedData = new HashMap<>();
+
+        // 根据选择器提取数据
+        for (Map.Entry<String, String> entry : selectors.entrySet()) {
+            String fieldName = entry.getKey();
+            String selector = entry.getValue();
+
+            Elements elements = doc.select(selector);
+            List<String> values = new ArrayList<>();
+
+            for (Element element : elements) {
+                values.add(element.text());
+            }
+
+            scrapedData.put(fieldName, values.size() == 1 ? values.get(0) : values);
+        }
+
+        // 如果没有指定选择器,返回标题和文本内容
+        if (selectors.isEmpty()) {
+            scrapedData.put("title", doc.title());
+            String text = mainContent ? MainContentExtractor.extract(doc, maxChars) : doc.body().text();
+            scrapedData.put("text", maxChars > 0 && text.length() > maxChars ? text.substring(0, maxChars) : text);
+        } else if (mainContent) {
+            scrapedData.put("mainContent", MainContentExtractor.extract(doc, maxChars));
+        }
+        return scrapedData;
+    }
 }
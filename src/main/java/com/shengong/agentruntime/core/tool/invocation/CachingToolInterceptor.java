@@ -0,0 +1,179 @@
+package com.shengong.agentruntime.core.tool.invocation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.shengong.agentruntime.config.ToolInvocationProperties;
+import com.shengong.agentruntime.model.ToolResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 结果缓存拦截器
+ * 对配置了 cacheTtlMs 的 Tool, 以 "Tool 名 + 参数的规范化 JSON" 为键缓存成功结果;
+ * 参数无法序列化 (如包含回调) 时不缓存. 存入与命中时都做深拷贝, 调用方修改结果 (包括嵌套的 Map 与 List) 不会污染缓存
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Order(100)
+@Component
+public class CachingToolInterceptor implements ToolInterceptor {
+
+    /**
+     * 键与属性顺序无关, 保证 {a,b} 与 {b,a} 命中同一条目
+     */
+    private final ObjectMapper keyMapper = JsonMapper.builder()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+
+    private final Map<String, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+
+    public CachingToolInterceptor(ToolInvocationProperties properties, MeterRegistry meterRegistry) {
+        int maxEntries = properties.getCacheMaxEntries();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.misses = requestCounter(meterRegistry, "miss");
+    }
+
+    @Override
+    public ToolResult intercept(ToolInvocation invocation, Chain chain) {
+        String key = cacheKey(invocation);
+        if (key == null) {
+            return chain.proceed(invocation);
+        }
+        ToolResult cached = lookup(key);
+        if (cached != null) {
+            return cached;
+        }
+        return store(key, invocation, chain.proceed(invocation));
+    }
+
+    @Override
+    public CompletableFuture<ToolResult> interceptAsync(ToolInvocation invocation, AsyncChain chain) {
+        String key = cacheKey(invocation);
+        if (key == null) {
+            return chain.proceed(invocation);
+        }
+        ToolResult cached = lookup(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return chain.proceed(invocation).thenApply(result -> store(key, invocation, result));
+    }
+
+    private ToolResult lookup(String key) {
+        long now = System.currentTimeMillis();
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+            if (cached != null && cached.expiresAt() <= now) {
+                entries.remove(key);
+                cached = null;
+            }
+        }
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return copy(cached.result());
+    }
+
+    private ToolResult store(String key, ToolInvocation invocation, ToolResult result) {
+        if (result != null && result.isSuccess()) {
+            synchronized (entries) {
+                entries.put(key, new Entry(copy(result), System.currentTimeMillis() + invocation.policy().getCacheTtlMs()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 失效某个 Tool 的全部缓存
+     */
+    public void invalidate(String toolName) {
+        String prefix = toolName + "\n";
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    /**
+     * 未配置缓存或参数无法序列化时返回 null
+     */
+    private String cacheKey(ToolInvocation invocation) {
+        if (invocation.policy().getCacheTtlMs() <= 0) {
+            return null;
+        }
+        try {
+            return invocation.toolName() + "\n" + keyMapper.writeValueAsString(invocation.arguments());
+        } catch (JsonProcessingException e) {
+            log.debug("Arguments of tool {} are not cacheable: {}", invocation.toolName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static ToolResult copy(ToolResult source) {
+        ToolResult copy = ToolResult.success(deepCopy(source.getData()));
+        copy.setToolName(source.getToolName());
+        copy.setLatencyMs(source.getLatencyMs());
+        return copy;
+    }
+
+    /**
+     * 逐层复制嵌套的 Map 与集合, 保留 null 值与迭代顺序; 其余值视为不可变, 直接共享
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T deepCopy(T value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((k, v) -> copy.put(k, deepCopy(v)));
+            return (T) copy;
+        }
+        if (value instanceof Set<?> set) {
+            Set<Object> copy = new LinkedHashSet<>();
+            set.forEach(element -> copy.add(deepCopy(element)));
+            return (T) copy;
+        }
+        if (value instanceof Collection<?> collection) {
+            List<Object> copy = new ArrayList<>(collection.size());
+            collection.forEach(element -> copy.add(deepCopy(element)));
+            return (T) copy;
+        }
+        return value;
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("tool.invocations.cache")
+                .description("Tool result cache lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Entry(ToolResult result, long expiresAt) {
+    }
+}
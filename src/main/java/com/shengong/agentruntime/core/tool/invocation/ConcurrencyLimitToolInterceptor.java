@@ -0,0 +1,117 @@
+package com.shengong.agentruntime.core.tool.invocation;
+
+import com.shengong.agentruntime.config.ToolInvocationProperties;
+import com.shengong.agentruntime.core.tool.ToolFutures;
+import com.shengong.agentruntime.model.ToolResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 并发限制拦截器
+ * 每个配置了 maxConcurrency 的 Tool 一个信号量, 名额用尽时最多等待 concurrency-wait-timeout,
+ * 仍无空闲名额则直接返回失败, 避免下游被打满时调用方无限排队.
+ * 异步调用在有空闲名额时直接执行, 只有需要等待时才占用一个虚拟线程, 名额在 Future 完成时释放
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Order(300)
+@Component
+@RequiredArgsConstructor
+public class ConcurrencyLimitToolInterceptor implements ToolInterceptor {
+
+    private final ToolInvocationProperties properties;
+
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+
+    @Override
+    public ToolResult intercept(ToolInvocation invocation, Chain chain) {
+        Semaphore semaphore = semaphore(invocation);
+        if (semaphore == null) {
+            return chain.proceed(invocation);
+        }
+        ToolResult rejected = acquire(invocation, semaphore);
+        if (rejected != null) {
+            return rejected;
+        }
+        try {
+            return chain.proceed(invocation);
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    @Override
+    public CompletableFuture<ToolResult> interceptAsync(ToolInvocation invocation, AsyncChain chain) {
+        Semaphore semaphore = semaphore(invocation);
+        if (semaphore == null) {
+            return chain.proceed(invocation);
+        }
+        if (semaphore.tryAcquire()) {
+            return proceedAndRelease(invocation, chain, semaphore);
+        }
+        return ToolFutures.supplyAsync(() -> acquire(invocation, semaphore))
+                .thenCompose(rejected -> rejected != null ? CompletableFuture.completedFuture(rejected)
+                        : proceedAndRelease(invocation, chain, semaphore));
+    }
+
+    private static CompletableFuture<ToolResult> proceedAndRelease(ToolInvocation invocation, AsyncChain chain,
+                                                                   Semaphore semaphore) {
+        return ToolFutures.call(() -> chain.proceed(invocation))
+                .whenComplete((result, error) -> semaphore.release());
+    }
+
+    /**
+     * 未配置并发上限时返回 null
+     */
+    private Semaphore semaphore(ToolInvocation invocation) {
+        int maxConcurrency = invocation.policy().getMaxConcurrency();
+        if (maxConcurrency <= 0) {
+            return null;
+        }
+        // 策略变更 (如 MCP 工具重新注册后配置不同) 时换用新的信号量, 旧调用仍在旧信号量上释放
+        return limits.compute(invocation.toolName(), (name, existing) ->
+                existing != null && existing.permits() == maxConcurrency ? existing
+                        : new Limit(maxConcurrency, new Semaphore(maxConcurrency))).semaphore();
+    }
+
+    /**
+     * 等待名额, 成功返回 null, 超时或中断返回失败结果
+     */
+    private ToolResult acquire(ToolInvocation invocation, Semaphore semaphore) {
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(properties.getConcurrencyWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ToolResult.failure("Interrupted while waiting for tool " + invocation.toolName());
+        }
+        if (!acquired) {
+            int maxConcurrency = invocation.policy().getMaxConcurrency();
+            log.warn("Tool {} concurrency limit {} reached", invocation.toolName(), maxConcurrency);
+            return ToolResult.failure("Tool " + invocation.toolName() + " is busy: concurrency limit "
+                    + maxConcurrency + " reached");
+        }
+        return null;
+    }
+
+    /**
+     * 当前正在执行的调用数
+     */
+    public int inFlight(String toolName) {
+        Limit limit = limits.get(toolName);
+        return limit == null ? 0 : limit.permits() - limit.semaphore().availablePermits();
+    }
+
+    private record Limit(int permits, Semaphore semaphore) {
+    }
+}
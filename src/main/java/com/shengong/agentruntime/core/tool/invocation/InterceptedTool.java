@@ -0,0 +1,75 @@
+package com.shengong.agentruntime.core.tool.invocation;
+
+import com.shengong.agentruntime.core.tool.Tool;
+import com.shengong.agentruntime.model.ToolResult;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 经过调用链的 Tool 包装, 由 ToolRegistry 对外提供
+ * 调用链延迟获取: Tool 在 BeanPostProcessor 阶段注册, 此时调用链的依赖 (如 MeterRegistry) 可能尚未就绪
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public class InterceptedTool implements Tool {
+
+    private final Tool delegate;
+    private final Supplier<ToolInvocationChain> chain;
+
+    public InterceptedTool(Tool delegate, Supplier<ToolInvocationChain> chain) {
+        this.delegate = delegate;
+        this.chain = chain;
+    }
+
+    /**
+     * 原始 Tool
+     */
+    public Tool unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+
+    @Override
+    public String description() {
+        return delegate.description();
+    }
+
+    @Override
+    public String parametersSchema() {
+        return delegate.parametersSchema();
+    }
+
+    @Override
+    public String category() {
+        return delegate.category();
+    }
+
+    @Override
+    public boolean isAsync() {
+        return delegate.isAsync();
+    }
+
+    @Override
+    public ToolResult invoke(Map<String, Object> arguments) {
+        ToolInvocationChain current = chain.get();
+        return current != null ? current.invoke(delegate, arguments) : delegate.invoke(arguments);
+    }
+
+    @Override
+    public CompletableFuture<ToolResult> invokeAsync(Map<String, Object> arguments) {
+        ToolInvocationChain current = chain.get();
+        return current != null ? current.invokeAsync(delegate, arguments) : delegate.invokeAsync(arguments);
+    }
+
+    @Override
+    public String toString() {
+        return "InterceptedTool[" + delegate.name() + "]";
+    }
+}
@@ -0,0 +1,77 @@
+package com.shengong.agentruntime.core.tool.invocation;
+
+import com.shengong.agentruntime.core.tool.ToolFutures;
+import com.shengong.agentruntime.model.ToolResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 最外层拦截器: 计时并记录 tool.invocations 指标, 回填 ToolResult 的 latencyMs / toolName,
+ * 把 Tool 抛出的异常统一转换为失败结果
+ * <p>
+ * outcome 标签: success / failure (Tool 返回失败) / error (抛出异常)
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Order(0)
+@Component
+@RequiredArgsConstructor
+public class MetricsToolInterceptor implements ToolInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public ToolResult intercept(ToolInvocation invocation, Chain chain) {
+        long start = System.nanoTime();
+        try {
+            return complete(invocation, start, chain.proceed(invocation), null);
+        } catch (Exception e) {
+            return complete(invocation, start, null, e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<ToolResult> interceptAsync(ToolInvocation invocation, AsyncChain chain) {
+        long start = System.nanoTime();
+        return ToolFutures.call(() -> chain.proceed(invocation))
+                .handle((result, error) -> complete(invocation, start, result, error));
+    }
+
+    private ToolResult complete(ToolInvocation invocation, long start, ToolResult result, Throwable error) {
+        String outcome;
+        if (error != null) {
+            Throwable cause = ToolFutures.unwrap(error);
+            log.error("Tool {} failed: {}", invocation.toolName(), cause.getMessage(), cause);
+            result = ToolResult.failure("Tool " + invocation.toolName() + " failed: " + cause.getMessage());
+            outcome = "error";
+        } else {
+            if (result == null) {
+                result = ToolResult.failure("Tool returned no result");
+            }
+            outcome = result.isSuccess() ? "success" : "failure";
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Timer.builder("tool.invocations")
+                .description("Tool invocation latency")
+                .tag("tool", invocation.toolName())
+                .tag("category", invocation.tool().category())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+
+        result.setLatencyMs(elapsed / 1_000_000);
+        result.setToolName(invocation.toolName());
+        log.debug("Tool {} {} in {}ms", invocation.toolName(), outcome, result.getLatencyMs());
+        return result;
+    }
+}
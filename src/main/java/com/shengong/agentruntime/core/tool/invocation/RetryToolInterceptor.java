@@ -0,0 +1,112 @@
+package com.shengong.agentruntime.core.tool.invocation;
+
+import com.shengong.agentruntime.config.ToolInvocationProperties;
+import com.shengong.agentruntime.core.tool.ToolFutures;
+import com.shengong.agentruntime.model.ToolResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 重试拦截器
+ * 仅对声明为幂等且 maxRetries > 0 的 Tool 生效; 失败结果或异常都会触发重试,
+ * 退避时间从 retryBackoffMs 开始指数增长, 上限为 max-retry-backoff.
+ * 位于并发限制之外, 退避等待期间不占用并发名额; 异步调用通过延迟执行器退避, 不占用线程
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Order(200)
+@Component
+@RequiredArgsConstructor
+public class RetryToolInterceptor implements ToolInterceptor {
+
+    private final ToolInvocationProperties properties;
+
+    @Override
+    public ToolResult intercept(ToolInvocation invocation, Chain chain) {
+        ToolPolicy policy = invocation.policy();
+        if (!policy.retryable()) {
+            return chain.proceed(invocation);
+        }
+
+        long backoffMs = initialBackoff(policy);
+        for (int attempt = 0; ; attempt++) {
+            ToolResult result;
+            RuntimeException error = null;
+            try {
+                result = chain.proceed(invocation);
+                if (result != null && result.isSuccess()) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                result = null;
+                error = e;
+            }
+
+            if (attempt >= policy.getMaxRetries()) {
+                if (error != null) {
+                    throw error;
+                }
+                return result;
+            }
+
+            logRetry(invocation, attempt, result, error, backoffMs);
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (error != null) {
+                    throw error;
+                }
+                return result;
+            }
+            backoffMs = nextBackoff(backoffMs);
+        }
+    }
+
+    @Override
+    public CompletableFuture<ToolResult> interceptAsync(ToolInvocation invocation, AsyncChain chain) {
+        if (!invocation.policy().retryable()) {
+            return chain.proceed(invocation);
+        }
+        return attemptAsync(invocation, chain, 0, initialBackoff(invocation.policy()));
+    }
+
+    private CompletableFuture<ToolResult> attemptAsync(ToolInvocation invocation, AsyncChain chain,
+                                                       int attempt, long backoffMs) {
+        return ToolFutures.call(() -> chain.proceed(invocation))
+                .handle((result, error) -> {
+                    if (error == null && result != null && result.isSuccess()
+                            || attempt >= invocation.policy().getMaxRetries()) {
+                        return error != null ? CompletableFuture.<ToolResult>failedFuture(ToolFutures.unwrap(error))
+                                : CompletableFuture.completedFuture(result);
+                    }
+                    logRetry(invocation, attempt, result, error != null ? ToolFutures.unwrap(error) : null, backoffMs);
+                    return CompletableFuture.supplyAsync(() -> null,
+                                    CompletableFuture.delayedExecutor(backoffMs, TimeUnit.MILLISECONDS, ToolFutures.VIRTUAL_THREADS))
+                            .thenCompose(ignored -> attemptAsync(invocation, chain, attempt + 1, nextBackoff(backoffMs)));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private static long initialBackoff(ToolPolicy policy) {
+        return Math.max(0, policy.getRetryBackoffMs());
+    }
+
+    private long nextBackoff(long backoffMs) {
+        return Math.min(properties.getMaxRetryBackoff().toMillis(), Math.max(1, backoffMs * 2));
+    }
+
+    private static void logRetry(ToolInvocation invocation, int attempt, ToolResult result, Throwable error, long backoffMs) {
+        log.warn("Tool {} attempt {}/{} failed: {}, retrying in {}ms", invocation.toolName(), attempt + 1,
+                invocation.policy().getMaxRetries() + 1, error != null ? error.getMessage()
+                        : result != null ? result.getError() : "no result", backoffMs);
+    }
+}
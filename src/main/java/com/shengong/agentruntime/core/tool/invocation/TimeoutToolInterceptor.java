@@ -0,0 +1,117 @@
+package com.shengong.agentruntime.core.tool.invocation;
+
+import com.shengong.agentruntime.core.tool.ToolFutures;
+import com.shengong.agentruntime.model.ToolResult;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 超时拦截器
+ * 配置了 timeoutMs 的 Tool 在虚拟线程上执行, 超时后中断并返回失败;
+ * 位于最内层, 每次重试单独计时. 异步调用不切换线程, 超时后以失败结果完成并取消底层 Future;
+ * 调用先完成时取消对应的定时任务, 不在调度队列中堆积
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Order(400)
+@Component
+public class TimeoutToolInterceptor implements ToolInterceptor {
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("tool-invoke-", 0).factory());
+
+    private final ScheduledThreadPoolExecutor scheduler = newScheduler();
+
+    private static ScheduledThreadPoolExecutor newScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "tool-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 取消的任务立即移出队列
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    @Override
+    public ToolResult intercept(ToolInvocation invocation, Chain chain) {
+        long timeoutMs = invocation.policy().getTimeoutMs();
+        if (timeoutMs <= 0) {
+            return chain.proceed(invocation);
+        }
+
+        Future<ToolResult> future = executor.submit(() -> chain.proceed(invocation));
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("Tool {} timed out after {}ms", invocation.toolName(), timeoutMs);
+            return ToolResult.failure("Tool " + invocation.toolName() + " timed out after " + timeoutMs + "ms");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return ToolResult.failure("Interrupted while invoking tool " + invocation.toolName());
+        }
+    }
+
+    @Override
+    public CompletableFuture<ToolResult> interceptAsync(ToolInvocation invocation, AsyncChain chain) {
+        long timeoutMs = invocation.policy().getTimeoutMs();
+        if (timeoutMs <= 0) {
+            return chain.proceed(invocation);
+        }
+
+        CompletableFuture<ToolResult> source = ToolFutures.call(() -> chain.proceed(invocation));
+        CompletableFuture<ToolResult> timed = new CompletableFuture<>();
+        source.whenComplete((result, error) -> {
+            if (error != null) {
+                timed.completeExceptionally(error);
+            } else {
+                timed.complete(result);
+            }
+        });
+        ScheduledFuture<?> timeout = scheduler.schedule(() -> {
+            if (timed.complete(ToolResult.failure("Tool " + invocation.toolName() + " timed out after " + timeoutMs + "ms"))) {
+                source.cancel(true);
+                log.warn("Tool {} timed out after {}ms", invocation.toolName(), timeoutMs);
+            }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+        timed.whenComplete((result, error) -> timeout.cancel(false));
+        return timed;
+    }
+
+    /**
+     * 尚未触发的超时任务数
+     */
+    int pendingTimeouts() {
+        return scheduler.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+}
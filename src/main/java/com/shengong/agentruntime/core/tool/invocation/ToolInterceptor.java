@@ -0,0 +1,39 @@
+package com.shengong.agentruntime.core.tool.invocation;
+
+import com.shengong.agentruntime.core.tool.ToolFutures;
+import com.shengong.agentruntime.model.ToolResult;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tool 调用拦截器
+ * 实现为 Spring Bean 后自动加入调用链, 按 @Order 由外到内执行
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public interface ToolInterceptor {
+
+    /**
+     * 拦截一次调用, 调用 chain.proceed 继续执行后续拦截器与 Tool 本身
+     */
+    ToolResult intercept(ToolInvocation invocation, Chain chain);
+
+    /**
+     * 拦截一次异步调用
+     * 默认在虚拟线程上执行同步的 {@link #intercept}, 需要保持非阻塞的拦截器应覆盖此方法
+     */
+    default CompletableFuture<ToolResult> interceptAsync(ToolInvocation invocation, AsyncChain chain) {
+        return ToolFutures.supplyAsync(() -> intercept(invocation, next -> ToolFutures.join(chain.proceed(next))));
+    }
+
+    interface Chain {
+
+        ToolResult proceed(ToolInvocation invocation);
+    }
+
+    interface AsyncChain {
+
+        CompletableFuture<ToolResult> proceed(ToolInvocation invocation);
+    }
+}
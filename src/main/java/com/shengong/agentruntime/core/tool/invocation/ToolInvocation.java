@@ -0,0 +1,21 @@
+package com.shengong.agentruntime.core.tool.invocation;
+
+import com.shengong.agentruntime.core.tool.Tool;
+
+import java.util.Map;
+
+/**
+ * 一次 Tool 调用的上下文
+ *
+ * @param tool      被调用的原始 Tool
+ * @param arguments 调用参数
+ * @param policy    生效的调用策略
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public record ToolInvocation(Tool tool, Map<String, Object> arguments, ToolPolicy policy) {
+
+    public String toolName() {
+        return tool.name();
+    }
+}
@@ -0,0 +1,59 @@
+package com.shengong.agentruntime.core.tool.invocation;
+
+import com.shengong.agentruntime.core.tool.Tool;
+import com.shengong.agentruntime.core.tool.ToolFutures;
+import com.shengong.agentruntime.model.ToolResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Tool 调用链
+ * 从 ToolRegistry 取得的 Tool 都经由此处调用, 依次经过所有 {@link ToolInterceptor};
+ * 异步调用走各拦截器的 interceptAsync, 最内层调用 Tool 的 invokeAsync
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Component
+public class ToolInvocationChain {
+
+    private final List<ToolInterceptor> interceptors;
+    private final ToolPolicyResolver policyResolver;
+
+    public ToolInvocationChain(List<ToolInterceptor> interceptors, ToolPolicyResolver policyResolver) {
+        this.interceptors = List.copyOf(interceptors);
+        this.policyResolver = policyResolver;
+        log.info("Tool invocation chain: {}", this.interceptors.stream().map(i -> i.getClass().getSimpleName()).toList());
+    }
+
+    public ToolResult invoke(Tool tool, Map<String, Object> arguments) {
+        ToolInvocation invocation = new ToolInvocation(tool, arguments != null ? arguments : Map.of(),
+                policyResolver.resolve(tool));
+        return proceed(0, invocation);
+    }
+
+    public CompletableFuture<ToolResult> invokeAsync(Tool tool, Map<String, Object> arguments) {
+        ToolInvocation invocation = new ToolInvocation(tool, arguments != null ? arguments : Map.of(),
+                policyResolver.resolve(tool));
+        return proceedAsync(0, invocation);
+    }
+
+    private CompletableFuture<ToolResult> proceedAsync(int index, ToolInvocation invocation) {
+        if (index == interceptors.size()) {
+            return ToolFutures.call(() -> invocation.tool().invokeAsync(invocation.arguments()));
+        }
+        return ToolFutures.call(() -> interceptors.get(index).interceptAsync(invocation, next -> proceedAsync(index + 1, next)));
+    }
+
+    private ToolResult proceed(int index, ToolInvocation invocation) {
+        if (index == interceptors.size()) {
+            return invocation.tool().invoke(invocation.arguments());
+        }
+        return interceptors.get(index).intercept(invocation, next -> proceed(index + 1, next));
+    }
+}
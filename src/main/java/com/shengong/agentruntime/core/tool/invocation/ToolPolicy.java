@@ -0,0 +1,37 @@
+package com.shengong.agentruntime.core.tool.invocation;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Tool 调用策略
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@Builder(toBuilder = true)
+public class ToolPolicy {
+
+    /**
+     * 不重试、不限时、不限流、不缓存
+     */
+    public static final ToolPolicy DEFAULT = ToolPolicy.builder().build();
+
+    private final boolean idempotent;
+
+    private final int maxRetries;
+
+    @Builder.Default
+    private final long retryBackoffMs = 200;
+
+    private final long timeoutMs;
+
+    private final int maxConcurrency;
+
+    private final long cacheTtlMs;
+
+    public boolean retryable() {
+        return idempotent && maxRetries > 0;
+    }
+}
@@ -0,0 +1,155 @@
+package com.shengong.agentruntime.core.tool.invocation;
+
+import com.shengong.agentruntime.config.ToolInvocationProperties;
+import com.shengong.agentruntime.core.tool.Tool;
+import com.shengong.agentruntime.core.tool.annotation.ToolDefinition;
+import com.shengong.agentruntime.entity.ToolConfigEntity;
+import com.shengong.agentruntime.repository.ToolConfigRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 解析 Tool 的调用策略: 先取 @ToolDefinition, 再叠加配置中按名称的覆盖, 最后叠加 tool_config 表中的策略
+ * <p>
+ * tool_config 中已启用行的 config.policy (字段同 agent-runtime.tool.invocation.policies, 时长可写 "500ms" 或毫秒数)
+ * 定期整体加载为快照, 调用时只读快照不访问数据库. 读取失败时保留上一份快照, 某一行无效时只跳过该行;
+ * 未配置数据库 (edge profile) 时只使用配置文件
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ToolPolicyResolver {
+
+    private final ToolInvocationProperties properties;
+    private final ObjectProvider<ToolConfigRepository> toolConfigRepository;
+
+    private volatile Map<String, ToolInvocationProperties.Policy> storedPolicies = Map.of();
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${agent-runtime.tool.invocation.refresh-interval-ms:60000}",
+            initialDelayString = "${agent-runtime.tool.invocation.refresh-interval-ms:60000}")
+    public void refresh() {
+        reload();
+    }
+
+    /**
+     * 重新加载 tool_config 中的策略
+     */
+    public synchronized void reload() {
+        ToolConfigRepository repository = toolConfigRepository.getIfAvailable();
+        if (!properties.isDatabaseEnabled() || repository == null) {
+            return;
+        }
+        Map<String, ToolInvocationProperties.Policy> loaded = new HashMap<>();
+        try {
+            for (ToolConfigEntity entity : repository.findByEnabledTrue()) {
+                if (entity.getConfig() == null || !(entity.getConfig().get("policy") instanceof Map<?, ?> policy)) {
+                    continue;
+                }
+                try {
+                    loaded.put(entity.getName(), toPolicy(policy));
+                } catch (IllegalArgumentException e) {
+                    log.error("Invalid invocation policy for tool {} in tool_config, ignoring it: {}",
+                            entity.getName(), e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to load tool policies from tool_config, keeping previous: {}", e.getMessage());
+            return;
+        }
+        if (!loaded.equals(storedPolicies)) {
+            log.info("Loaded invocation policies for {} tool(s) from tool_config", loaded.size());
+        }
+        storedPolicies = Map.copyOf(loaded);
+    }
+
+    public ToolPolicy resolve(Tool tool) {
+        Tool target = tool instanceof InterceptedTool intercepted ? intercepted.unwrap() : tool;
+        ToolDefinition definition = AnnotationUtils.findAnnotation(AopUtils.getTargetClass(target), ToolDefinition.class);
+        ToolPolicy.ToolPolicyBuilder builder = definition == null ? ToolPolicy.DEFAULT.toBuilder()
+                : ToolPolicy.builder()
+                .idempotent(definition.idempotent())
+                .maxRetries(definition.maxRetries())
+                .retryBackoffMs(definition.retryBackoffMs())
+                .timeoutMs(definition.timeoutMs())
+                .maxConcurrency(definition.maxConcurrency())
+                .cacheTtlMs(definition.cacheTtlMs());
+
+        apply(builder, properties.getPolicies().get(tool.name()));
+        apply(builder, storedPolicies.get(tool.name()));
+        return builder.build();
+    }
+
+    private static void apply(ToolPolicy.ToolPolicyBuilder builder, ToolInvocationProperties.Policy override) {
+        if (override == null) {
+            return;
+        }
+        if (override.getIdempotent() != null) {
+            builder.idempotent(override.getIdempotent());
+        }
+        if (override.getMaxRetries() != null) {
+            builder.maxRetries(override.getMaxRetries());
+        }
+        if (override.getRetryBackoff() != null) {
+            builder.retryBackoffMs(override.getRetryBackoff().toMillis());
+        }
+        if (override.getTimeout() != null) {
+            builder.timeoutMs(override.getTimeout().toMillis());
+        }
+        if (override.getMaxConcurrency() != null) {
+            builder.maxConcurrency(override.getMaxConcurrency());
+        }
+        if (override.getCacheTtl() != null) {
+            builder.cacheTtlMs(override.getCacheTtl().toMillis());
+        }
+    }
+
+    private static ToolInvocationProperties.Policy toPolicy(Map<?, ?> values) {
+        ToolInvocationProperties.Policy policy = new ToolInvocationProperties.Policy();
+        if (values.get("idempotent") != null) {
+            policy.setIdempotent(Boolean.parseBoolean(values.get("idempotent").toString()));
+        }
+        policy.setMaxRetries(toInteger(values.get("maxRetries")));
+        policy.setRetryBackoff(toDuration(values.get("retryBackoff")));
+        policy.setTimeout(toDuration(values.get("timeout")));
+        policy.setMaxConcurrency(toInteger(values.get("maxConcurrency")));
+        policy.setCacheTtl(toDuration(values.get("cacheTtl")));
+        return policy;
+    }
+
+    private static Integer toInteger(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return value instanceof Number number ? number.intValue() : Integer.valueOf(value.toString().trim());
+    }
+
+    /**
+     * 数字按毫秒, 字符串按 Spring Boot 的时长格式 ("500ms" / "5s" / "PT5S")
+     */
+    private static Duration toDuration(Object value) {
+        if (value == null) {
+            return null;
+        }
+        return value instanceof Number number ? Duration.ofMillis(number.longValue())
+                : DurationStyle.detectAndParse(value.toString().trim());
+    }
+}
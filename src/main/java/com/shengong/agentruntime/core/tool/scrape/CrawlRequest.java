@@ -0,0 +1,85 @@
+package com.shengong.agentruntime.core.tool.scrape;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 批量抓取 / 爬取请求
+ * 只给出 urls 时按列表批量抓取; 给出 seeds 且 maxDepth > 0 时按链接规则继续爬取
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@Builder
+public class CrawlRequest {
+
+    /**
+     * 起始 URL (批量模式下即全部 URL)
+     */
+    private List<String> seeds;
+
+    /**
+     * 最大爬取深度, 0 表示只抓取 seeds
+     */
+    @Builder.Default
+    private int maxDepth = 0;
+
+    /**
+     * 本次最多抓取的页面数
+     */
+    private int maxPages;
+
+    /**
+     * 提取待跟进链接的 CSS 选择器
+     */
+    @Builder.Default
+    private String followSelector = "a[href]";
+
+    /**
+     * 跟进链接必须匹配的正则, 为 null 时不限制
+     */
+    private Pattern include;
+
+    /**
+     * 匹配后不跟进的正则
+     */
+    private Pattern exclude;
+
+    /**
+     * 是否只跟进与 seed 同主机的链接
+     */
+    @Builder.Default
+    private boolean sameHost = true;
+
+    /**
+     * 单次请求超时 (毫秒)
+     */
+    @Builder.Default
+    private int timeoutMs = 10000;
+
+    /**
+     * 忽略页面缓存直接抓取
+     */
+    private boolean noCache;
+
+    /**
+     * 字段名到 CSS 选择器, 为空时返回标题与正文
+     */
+    @Builder.Default
+    private Map<String, String> selectors = Map.of();
+
+    /**
+     * 是否只提取正文 (去除导航、页脚等模板内容)
+     */
+    private boolean mainContent;
+
+    /**
+     * 返回文本的最大字符数, 0 表示不限制
+     */
+    private int maxChars;
+}
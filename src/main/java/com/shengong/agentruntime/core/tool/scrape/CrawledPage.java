@@ -0,0 +1,47 @@
+package com.shengong.agentruntime.core.tool.scrape;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 单个页面的抓取结果
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@Builder
+public class CrawledPage {
+
+    private String url;
+
+    /**
+     * 跟随重定向后的最终 URL
+     */
+    private String finalUrl;
+
+    private int depth;
+
+    private boolean success;
+
+    /**
+     * 请求次数 (含重试)
+     */
+    private int attempts;
+
+    /**
+     * 页面缓存结果: HIT / REVALIDATED / MISS / BYPASS
+     */
+    private String cache;
+
+    /**
+     * 选择器提取结果
+     */
+    private Map<String, Object> data;
+
+    private String error;
+
+    private long latencyMs;
+}
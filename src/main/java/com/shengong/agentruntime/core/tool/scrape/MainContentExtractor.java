@@ -0,0 +1,162 @@
+package com.shengong.agentruntime.core.tool.scrape;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 正文提取 (去除导航、页脚、广告等模板内容)
+ * <p>
+ * 采用 Readability 式打分: 先删除脚本、导航、表单以及 class/id 明显属于模板的块,
+ * 再按段落文本长度与逗号数给父节点 (全额) 和祖父节点 (半额) 加分, 结合 class/id 语义权重,
+ * 乘以 (1 - 链接密度) 后取得分最高的块作为正文. 页面有足够长的 &lt;article&gt; / &lt;main&gt; 时直接采用
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public final class MainContentExtractor {
+
+    private static final String REMOVED_TAGS =
+            "script, style, noscript, iframe, nav, header, footer, aside, form, button, svg, template";
+
+    private static final Pattern NEGATIVE = Pattern.compile(
+            "comment|sidebar|footer|footnote|masthead|menu|nav|breadcrumb|share|social|related|promo|sponsor"
+                    + "|advert|\\bad[s-]?\\b|banner|cookie|popup|modal|subscribe|pagination|widget|login",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern POSITIVE = Pattern.compile(
+            "article|content|main|post|entry|story|text|body|detail|blog",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final int MIN_PARAGRAPH_LENGTH = 25;
+    private static final int MIN_SEMANTIC_LENGTH = 250;
+
+    private MainContentExtractor() {
+    }
+
+    /**
+     * 提取正文文本, 段落之间以换行分隔
+     * 会修改传入的 Document
+     *
+     * @param maxChars 最大字符数, &lt;= 0 表示不限制
+     */
+    public static String extract(Document doc, int maxChars) {
+        Element body = doc.body();
+        if (body == null) {
+            return "";
+        }
+        body.select(REMOVED_TAGS).remove();
+        for (Element element : body.select("[class], [id]")) {
+            String names = element.className() + " " + element.id();
+            if (NEGATIVE.matcher(names).find() && !POSITIVE.matcher(names).find()
+                    && !element.tagName().equals("body") && !element.tagName().equals("article")) {
+                element.remove();
+            }
+        }
+
+        Element content = semanticContainer(body);
+        if (content == null) {
+            content = topCandidate(body);
+        }
+        return truncate(blockText(content != null ? content : body), maxChars);
+    }
+
+    private static Element semanticContainer(Element body) {
+        Element best = null;
+        int bestLength = MIN_SEMANTIC_LENGTH;
+        for (Element element : body.select("article, main, [role=main]")) {
+            int length = element.text().length();
+            if (length > bestLength) {
+                best = element;
+                bestLength = length;
+            }
+        }
+        return best;
+    }
+
+    private static Element topCandidate(Element body) {
+        Map<Element, Double> scores = new IdentityHashMap<>();
+        for (Element paragraph : body.select("p, pre, td, li, blockquote")) {
+            String text = paragraph.text();
+            if (text.length() < MIN_PARAGRAPH_LENGTH) {
+                continue;
+            }
+            double score = 1 + text.split("[,，、。]").length + Math.min(text.length() / 100, 3);
+            Element parent = paragraph.parent();
+            if (parent != null) {
+                scores.merge(parent, score, Double::sum);
+                Element grandparent = parent.parent();
+                if (grandparent != null) {
+                    scores.merge(grandparent, score / 2, Double::sum);
+                }
+            }
+        }
+
+        Element best = null;
+        double bestScore = 0;
+        for (Map.Entry<Element, Double> entry : scores.entrySet()) {
+            Element element = entry.getKey();
+            double score = (entry.getValue() + classWeight(element)) * (1 - linkDensity(element));
+            if (score > bestScore) {
+                best = element;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private static double classWeight(Element element) {
+        String names = element.className() + " " + element.id();
+        double weight = 0;
+        if (NEGATIVE.matcher(names).find()) {
+            weight -= 25;
+        }
+        if (POSITIVE.matcher(names).find()) {
+            weight += 25;
+        }
+        return weight;
+    }
+
+    private static double linkDensity(Element element) {
+        int textLength = element.text().length();
+        if (textLength == 0) {
+            return 1;
+        }
+        int linkLength = 0;
+        for (Element link : element.select("a")) {
+            linkLength += link.text().length();
+        }
+        return Math.min(1, (double) linkLength / textLength);
+    }
+
+    /**
+     * 按块级元素分行输出, 比 Element.text() 更适合直接放进 prompt
+     */
+    private static String blockText(Element root) {
+        StringBuilder text = new StringBuilder();
+        Elements blocks = root.select("h1, h2, h3, h4, h5, h6, p, pre, li, blockquote, td");
+        Set<Element> blockSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        blockSet.addAll(blocks);
+        for (Element block : blocks) {
+            // 嵌套块只输出最外层, 避免重复
+            if (block.parents().stream().anyMatch(parent -> parent != root && blockSet.contains(parent))) {
+                continue;
+            }
+            String line = block.text().trim();
+            if (!line.isEmpty()) {
+                text.append(line).append('\n');
+            }
+        }
+        return text.isEmpty() ? root.text() : text.toString().trim();
+    }
+
+    private static String truncate(String text, int maxChars) {
+        return maxChars > 0 && text.length() > maxChars ? text.substring(0, maxChars) : text;
+    }
+}
@@ -0,0 +1,451 @@
+package com.shengong.agentruntime.core.tool.scrape;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * WebScrapeTool 页面缓存
+ * <p>
+ * 以规范化 URL 为 key, 在磁盘上保存 gzip 压缩的 HTML 与元数据 (ETag / Last-Modified / 抓取时间 / 内容版本).
+ * fresh-ttl 内直接返回缓存; 过期后带 If-None-Match / If-Modified-Since 发起条件请求, 304 时只刷新抓取时间.
+ * 选择器提取结果按 (内容版本, 选择器集合) 记忆在内存中, 页面未变化时重复抓取既不解析也不提取.
+ * 元数据同时记录跟随重定向后的最终 URL, 页面以它作为解析的 base URI, 保证相对链接解析正确.
+ * 磁盘占用超过 max-size 时按最久未访问淘汰
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Component
+public class PageCache {
+
+    /**
+     * 页面来源
+     */
+    public enum Source {
+        HIT, REVALIDATED, MISS, BYPASS
+    }
+
+    private static final String META_SUFFIX = ".meta.json";
+    private static final String HTML_SUFFIX = ".html.gz";
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path directory;
+    private final long freshTtlMs;
+    private final long maxBytes;
+    private final int memoMaxEntries;
+
+    private final Map<String, DiskEntry> index = new ConcurrentHashMap<>();
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final LinkedHashMap<String, Map<String, Object>> memo;
+
+    private final Map<Source, Counter> requests = new EnumMap<>(Source.class);
+    private final Counter memoHits;
+    private final Counter memoMisses;
+
+    public PageCache(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${agent-runtime.tool.scrape.cache.enabled:true}") boolean enabled,
+            @Value("${agent-runtime.tool.scrape.cache.directory:data/page-cache}") String directory,
+            @Value("${agent-runtime.tool.scrape.cache.fresh-ttl:10m}") Duration freshTtl,
+            @Value("${agent-runtime.tool.scrape.cache.max-size:1GB}") DataSize maxSize,
+            @Value("${agent-runtime.tool.scrape.cache.memo-max-entries:10000}") int memoMaxEntries) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.freshTtlMs = freshTtl.toMillis();
+        this.maxBytes = maxSize.toBytes();
+        this.memoMaxEntries = memoMaxEntries;
+        this.memo = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, Object>> eldest) {
+                return size() > PageCache.this.memoMaxEntries;
+            }
+        };
+
+        for (Source source : Source.values()) {
+            requests.put(source, Counter.builder("tool.scrape.cache.requests")
+                    .description("WebScrapeTool page fetches by cache result")
+                    .tag("result", source.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        this.memoHits = Counter.builder("tool.scrape.cache.memo").tag("result", "hit").register(meterRegistry);
+        this.memoMisses = Counter.builder("tool.scrape.cache.memo").tag("result", "miss").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.getFileName().toString().endsWith(HTML_SUFFIX)).forEach(path -> {
+                String name = path.getFileName().toString();
+                String key = name.substring(0, name.length() - HTML_SUFFIX.length());
+                try {
+                    long size = Files.size(path) + Files.size(directory.resolve(key + META_SUFFIX));
+                    index.put(key, new DiskEntry(size, Files.getLastModifiedTime(path).toMillis()));
+                    diskBytes.addAndGet(size);
+                } catch (IOException e) {
+                    log.warn("Dropping incomplete page cache entry {}: {}", key, e.getMessage());
+                    delete(key);
+                }
+            });
+        }
+        log.info("Page cache opened: directory={}, entries={}, bytes={}",
+                directory.toAbsolutePath(), index.size(), diskBytes.get());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 只查缓存: 返回仍在 fresh-ttl 内的页面, 否则返回 null, 不发起网络请求
+     */
+    public Page fresh(String url) {
+        if (!enabled) {
+            return null;
+        }
+        String normalized = normalize(url);
+        String key = key(normalized);
+        PageMeta meta = readMeta(key, normalized);
+        if (meta == null || System.currentTimeMillis() - meta.getFetchedAt() >= freshTtlMs) {
+            return null;
+        }
+        return hit(url, key, meta);
+    }
+
+    /**
+     * 获取页面: 新鲜缓存直接返回, 过期缓存条件请求, 否则完整抓取并写入缓存
+     *
+     * @param noCache 为 true 时忽略已有缓存直接抓取 (结果仍写入缓存)
+     */
+    public Page fetch(String url, int timeoutMs, boolean noCache) throws IOException {
+        if (!enabled) {
+            Connection.Response response = connect(url, timeoutMs).execute();
+            requests.get(Source.BYPASS).increment();
+            return new Page(url, response.url().toExternalForm(), response.body(), null, Source.BYPASS);
+        }
+
+        String normalized = normalize(url);
+        String key = key(normalized);
+        PageMeta meta = noCache ? null : readMeta(key, normalized);
+        long now = System.currentTimeMillis();
+
+        if (meta != null && now - meta.getFetchedAt() < freshTtlMs) {
+            Page page = hit(url, key, meta);
+            if (page != null) {
+                return page;
+            }
+        }
+
+        Connection connection = connect(url, timeoutMs).ignoreHttpErrors(true);
+        if (meta != null) {
+            if (meta.getEtag() != null) {
+                connection.header("If-None-Match", meta.getEtag());
+            }
+            if (meta.getLastModified() != null) {
+                connection.header("If-Modified-Since", meta.getLastModified());
+            }
+        }
+        Connection.Response response = connection.execute();
+
+        if (response.statusCode() == 304 && meta != null) {
+            String html = readHtml(key);
+            if (html != null) {
+                meta.setFinalUrl(response.url().toExternalForm());
+                meta.setFetchedAt(now);
+                writeMeta(key, meta);
+                requests.get(Source.REVALIDATED).increment();
+                return new Page(url, meta.getFinalUrl(), html, meta.getVersion(), Source.REVALIDATED);
+            }
+            // 缓存文件已丢失, 重新完整抓取
+            response = connect(url, timeoutMs).execute();
+        }
+        if (response.statusCode() >= 400) {
+            throw new HttpStatusException("HTTP error fetching URL", response.statusCode(), url);
+        }
+
+        String html = response.body();
+        String finalUrl = response.url().toExternalForm();
+        String version = DigestUtils.md5DigestAsHex(html.getBytes(StandardCharsets.UTF_8));
+        store(key, new PageMeta(normalized, finalUrl, response.header("ETag"), response.header("Last-Modified"),
+                now, version), html);
+        requests.get(Source.MISS).increment();
+        return new Page(url, finalUrl, html, version, Source.MISS);
+    }
+
+    /**
+     * 按 (页面版本, 提取参数) 记忆提取结果
+     * <p>
+     * 返回值 (包括其中嵌套的 Map / List) 不可修改, 调用方无法改写被记忆的结果
+     *
+     * @param version    页面版本, 为 null (未缓存) 时不记忆
+     * @param extraction 提取参数的稳定表示, 如排序后的选择器集合
+     */
+    public Map<String, Object> memoize(String version, String extraction, Supplier<Map<String, Object>> extractor) {
+        if (version == null || memoMaxEntries <= 0) {
+            return extractor.get();
+        }
+        String memoKey = version + '|' + extraction;
+        synchronized (memo) {
+            Map<String, Object> cached = memo.get(memoKey);
+            if (cached != null) {
+                memoHits.increment();
+                return cached;
+            }
+        }
+        memoMisses.increment();
+        Map<String, Object> result = immutableCopy(extractor.get());
+        synchronized (memo) {
+            memo.put(memoKey, result);
+        }
+        return result;
+    }
+
+    /**
+     * 深拷贝为不可修改结构, 保留 null 值与迭代顺序
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T immutableCopy(T value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            map.forEach((k, v) -> copy.put(k, immutableCopy(v)));
+            return (T) Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof Collection<?> collection) {
+            List<Object> copy = new ArrayList<>(collection.size());
+            collection.forEach(element -> copy.add(immutableCopy(element)));
+            return (T) Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+
+    private Page hit(String url, String key, PageMeta meta) {
+        String html = readHtml(key);
+        if (html == null) {
+            return null;
+        }
+        touch(key);
+        requests.get(Source.HIT).increment();
+        // 旧版本元数据没有 finalUrl
+        String finalUrl = meta.getFinalUrl() != null ? meta.getFinalUrl() : url;
+        return new Page(url, finalUrl, html, meta.getVersion(), Source.HIT);
+    }
+
+    private static String normalize(String url) {
+        return Optional.ofNullable(WebCrawler.normalize(url)).orElse(url);
+    }
+
+    private static String key(String normalizedUrl) {
+        return DigestUtils.md5DigestAsHex(normalizedUrl.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Connection connect(String url, int timeoutMs) {
+        return Jsoup.connect(url)
+                .timeout(timeoutMs)
+                .userAgent(WebCrawler.USER_AGENT);
+    }
+
+    private PageMeta readMeta(String key, String normalizedUrl) {
+        if (!index.containsKey(key)) {
+            return null;
+        }
+        try {
+            PageMeta meta = objectMapper.readValue(directory.resolve(key + META_SUFFIX).toFile(), PageMeta.class);
+            return normalizedUrl.equals(meta.getUrl()) ? meta : null;
+        } catch (IOException e) {
+            log.warn("Failed to read page cache metadata {}: {}", key, e.getMessage());
+            delete(key);
+            return null;
+        }
+    }
+
+    private String readHtml(String key) {
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(directory.resolve(key + HTML_SUFFIX)))) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("Failed to read cached page {}: {}", key, e.getMessage());
+            delete(key);
+            return null;
+        }
+    }
+
+    private void store(String key, PageMeta meta, String html) {
+        try {
+            Path htmlTemp = Files.createTempFile(directory, key, ".tmp");
+            try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(htmlTemp))) {
+                output.write(html.getBytes(StandardCharsets.UTF_8));
+            }
+            long size = Files.size(htmlTemp);
+            Files.move(htmlTemp, directory.resolve(key + HTML_SUFFIX),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            size += writeMeta(key, meta);
+
+            DiskEntry previous = index.put(key, new DiskEntry(size, System.currentTimeMillis()));
+            diskBytes.addAndGet(size - (previous != null ? previous.size() : 0));
+            evict();
+        } catch (IOException e) {
+            log.warn("Failed to cache page {}: {}", meta.getUrl(), e.getMessage());
+        }
+    }
+
+    private long writeMeta(String key, PageMeta meta) throws IOException {
+        Path temp = Files.createTempFile(directory, key, ".tmp");
+        objectMapper.writeValue(temp.toFile(), meta);
+        long size = Files.size(temp);
+        Files.move(temp, directory.resolve(key + META_SUFFIX),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    private void touch(String key) {
+        index.computeIfPresent(key, (k, entry) -> new DiskEntry(entry.size(), System.currentTimeMillis()));
+    }
+
+    /**
+     * 超出容量时删除最久未访问的页面, 降到容量的 90% 以下
+     */
+    private synchronized void evict() {
+        if (diskBytes.get() <= maxBytes) {
+            return;
+        }
+        long target = (long) (maxBytes * 0.9);
+        List<Map.Entry<String, DiskEntry>> entries = new ArrayList<>(index.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess()));
+        for (Map.Entry<String, DiskEntry> entry : entries) {
+            if (diskBytes.get() <= target) {
+                break;
+            }
+            delete(entry.getKey());
+        }
+    }
+
+    private void delete(String key) {
+        DiskEntry removed = index.remove(key);
+        if (removed != null) {
+            diskBytes.addAndGet(-removed.size());
+        }
+        try {
+            Files.deleteIfExists(directory.resolve(key + HTML_SUFFIX));
+            Files.deleteIfExists(directory.resolve(key + META_SUFFIX));
+        } catch (IOException e) {
+            log.warn("Failed to delete page cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * 抓取到的页面, 文档在首次访问时才解析
+     */
+    public static final class Page {
+
+        private final String url;
+        private final String finalUrl;
+        private final String html;
+        private final String version;
+        private final Source source;
+        private Document document;
+
+        Page(String url, String finalUrl, String html, String version, Source source) {
+            this.url = url;
+            this.finalUrl = finalUrl;
+            this.html = html;
+            this.version = version;
+            this.source = source;
+        }
+
+        /**
+         * 请求的 URL
+         */
+        public String url() {
+            return url;
+        }
+
+        /**
+         * 跟随重定向后的最终 URL, 也是文档的 base URI
+         */
+        public String finalUrl() {
+            return finalUrl;
+        }
+
+        /**
+         * 内容版本 (HTML 摘要), 未经缓存时为 null
+         */
+        public String version() {
+            return version;
+        }
+
+        public Source source() {
+            return source;
+        }
+
+        public Document document() {
+            if (document == null) {
+                document = Jsoup.parse(html, finalUrl);
+            }
+            return document;
+        }
+    }
+
+    /**
+     * 缓存元数据
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PageMeta {
+
+        private String url;
+
+        /**
+         * 跟随重定向后的最终 URL
+         */
+        private String finalUrl;
+
+        private String etag;
+
+        private String lastModified;
+
+        private long fetchedAt;
+
+        private String version;
+    }
+
+    private record DiskEntry(long size, long lastAccess) {
+    }
+}
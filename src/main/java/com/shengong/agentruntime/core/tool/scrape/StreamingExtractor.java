@@ -0,0 +1,115 @@
+package com.shengong.agentruntime.core.tool.scrape;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.StreamParser;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 基于 Jsoup {@link StreamParser} 的流式选择器提取
+ * <p>
+ * 元素在解析到结束标签时逐个产出, 随即对尚未满足的选择器求值; 所有选择器都取满
+ * maxMatches 个结果后立即停止解析, 页面剩余部分既不下载也不建树.
+ * 元素产出时其子树已完整、祖先与前序兄弟已在树中, 因此后代 / 子代 / 前序兄弟组合器与 :has 都可用;
+ * 依赖后续兄弟的伪类 (如 :last-child、:nth-last-child) 只能看到已解析的部分.
+ * <p>
+ * 求值后不再被任何选择器需要的元素立即从树中移除, 长页面解析时内存占用与已解析长度无关: 祖先仍可能匹配
+ * 尚未取满的选择器时保留 (祖先的 text() 需要其后代); 选择器依赖兄弟、位置或后代文本
+ * (+ ~ :has :contains :nth-* 等) 时不做移除
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public final class StreamingExtractor {
+
+    /**
+     * 结果依赖兄弟元素、位置或后代的选择器写法; 按字符串保守判断, 误判只会关闭移除
+     */
+    private static final Pattern CONTEXT_DEPENDENT =
+            Pattern.compile("[+~]|:(has|contains|matches|nth-|first-|last-|only-|empty)");
+
+    private StreamingExtractor() {
+    }
+
+    /**
+     * 流式提取
+     *
+     * @param parser     已绑定输入的 StreamParser, 由本方法负责关闭
+     * @param selectors  字段名 -&gt; CSS 选择器
+     * @param maxMatches 每个选择器最多收集的匹配数
+     * @return 提取结果 (单个匹配为字符串, 多个为列表) 以及是否提前停止解析
+     */
+    public static Result extract(StreamParser parser, Map<String, String> selectors, int maxMatches)
+            throws IOException {
+        List<String> fields = new ArrayList<>(selectors.keySet());
+        List<Evaluator> evaluators = new ArrayList<>(fields.size());
+        List<List<String>> values = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            evaluators.add(QueryParser.parse(selectors.get(field)));
+            values.add(new ArrayList<>());
+        }
+
+        int unsatisfied = fields.size();
+        boolean prune = selectors.values().stream().noneMatch(selector -> CONTEXT_DEPENDENT.matcher(selector).find());
+        boolean stoppedEarly = false;
+        try (parser) {
+            Iterator<Element> elements = parser.iterator();
+            while (unsatisfied > 0 && elements.hasNext()) {
+                Element element = elements.next();
+                for (int i = 0; i < evaluators.size(); i++) {
+                    List<String> matched = values.get(i);
+                    if (matched.size() < maxMatches && element.is(evaluators.get(i))) {
+                        matched.add(element.text());
+                        if (matched.size() == maxMatches) {
+                            unsatisfied--;
+                        }
+                    }
+                }
+                if (prune && !neededByAncestor(element, evaluators, values, maxMatches)) {
+                    element.remove();
+                }
+            }
+            if (unsatisfied == 0) {
+                parser.stop();
+                stoppedEarly = true;
+            }
+        }
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            List<String> matched = values.get(i);
+            data.put(fields.get(i), matched.size() == 1 ? matched.get(0) : matched);
+        }
+        return new Result(data, stoppedEarly);
+    }
+
+    /**
+     * 祖先已在树中且自身属性完整, 对不依赖后代的选择器求值结果与闭合后相同
+     */
+    private static boolean neededByAncestor(Element element, List<Evaluator> evaluators,
+                                            List<List<String>> values, int maxMatches) {
+        for (Element ancestor = element.parent(); ancestor != null; ancestor = ancestor.parent()) {
+            for (int i = 0; i < evaluators.size(); i++) {
+                if (values.get(i).size() < maxMatches && ancestor.is(evaluators.get(i))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param data         字段名 -&gt; 提取值
+     * @param stoppedEarly 是否在文档结束前停止
+     */
+    public record Result(Map<String, Object> data, boolean stoppedEarly) {
+    }
+}
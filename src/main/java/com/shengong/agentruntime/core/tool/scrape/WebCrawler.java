@@ -0,0 +1,384 @@
+package com.shengong.agentruntime.core.tool.scrape;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.HttpStatusException;
+import org.jsoup.nodes.Element;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 并发网页爬取器
+ * <p>
+ * 每个页面在独立的虚拟线程上抓取, 全局并发数与单主机并发数分别由信号量限制,
+ * 同一主机的请求按 per-host-rate 均匀间隔发出 (礼貌爬取). URL 规范化后去重,
+ * 超时、429 与 5xx 视为瞬时失败, 按指数退避重试. 每个页面完成后立即回调 onPage,
+ * 调用方可以边爬取边消费结果. 页面经 {@link PageCache} 获取, 命中新鲜缓存的页面不受并发与速率限制
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Component
+public class WebCrawler {
+
+    static final String USER_AGENT = "Mozilla/5.0 (compatible; ShengongBot/1.0)";
+
+    /**
+     * 主机闸门数量超过该值时清理空闲闸门
+     */
+    private static final int MAX_IDLE_GATES = 1024;
+
+    private final int maxConcurrency;
+    private final int perHostConcurrency;
+    private final long perHostIntervalNanos;
+    private final int maxPagesLimit;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final Duration crawlTimeout;
+    private final PageCache pageCache;
+
+    /**
+     * 主机闸门在所有爬取任务间共享, 并发的多次调用同样受单主机限制
+     */
+    private final Map<String, HostGate> hostGates = new ConcurrentHashMap<>();
+
+    public WebCrawler(
+            @Value("${agent-runtime.tool.scrape.crawl.max-concurrency:32}") int maxConcurrency,
+            @Value("${agent-runtime.tool.scrape.crawl.per-host-concurrency:2}") int perHostConcurrency,
+            @Value("${agent-runtime.tool.scrape.crawl.per-host-rate:2.0}") double perHostRate,
+            @Value("${agent-runtime.tool.scrape.crawl.max-pages:200}") int maxPagesLimit,
+            @Value("${agent-runtime.tool.scrape.crawl.max-retries:2}") int maxRetries,
+            @Value("${agent-runtime.tool.scrape.crawl.retry-backoff:500ms}") Duration retryBackoff,
+            @Value("${agent-runtime.tool.scrape.crawl.timeout:5m}") Duration crawlTimeout,
+            PageCache pageCache) {
+        this.maxConcurrency = maxConcurrency;
+        this.perHostConcurrency = perHostConcurrency;
+        this.perHostIntervalNanos = perHostRate > 0 ? (long) (1_000_000_000L / perHostRate) : 0;
+        this.maxPagesLimit = maxPagesLimit;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
+        this.crawlTimeout = crawlTimeout;
+        this.pageCache = pageCache;
+    }
+
+    /**
+     * 执行爬取, 所有页面完成 (或超时) 后返回汇总
+     *
+     * @param extractor 从页面提取数据
+     * @param onPage    每个页面完成后的回调, 在抓取线程上调用, 需线程安全
+     * @return 汇总信息: pages / succeeded / failed / duplicates / truncated / elapsedMs
+     */
+    public Map<String, Object> crawl(CrawlRequest request,
+                                     Function<PageCache.Page, Map<String, Object>> extractor,
+                                     Consumer<CrawledPage> onPage) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        CrawlRun run = new CrawlRun(request, extractor, onPage);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            run.executor = executor;
+            for (String seed : request.getSeeds()) {
+                run.enqueue(seed, 0);
+            }
+            run.finishSeeding();
+
+            boolean completed;
+            try {
+                run.done.get(crawlTimeout.toMillis(), TimeUnit.MILLISECONDS);
+                completed = true;
+            } catch (TimeoutException e) {
+                log.warn("Crawl timed out after {}, cancelling remaining pages", crawlTimeout);
+                completed = false;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+            if (!completed) {
+                run.cancelled = true;
+                executor.shutdownNow();
+            }
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("pages", run.succeeded.get() + run.failed.get());
+        summary.put("succeeded", run.succeeded.get());
+        summary.put("failed", run.failed.get());
+        summary.put("duplicates", run.duplicates.get());
+        summary.put("truncated", run.truncated || run.cancelled);
+        summary.put("elapsedMs", System.currentTimeMillis() - start);
+        return summary;
+    }
+
+    /**
+     * 单次爬取的状态
+     */
+    private final class CrawlRun {
+
+        private final CrawlRequest request;
+        private final Function<PageCache.Page, Map<String, Object>> extractor;
+        private final Consumer<CrawledPage> onPage;
+        private final Set<String> seen = ConcurrentHashMap.newKeySet();
+        private final Set<String> seedHosts = ConcurrentHashMap.newKeySet();
+        private final Semaphore globalPermits = new Semaphore(maxConcurrency);
+        private final int maxPages;
+
+        /**
+         * 已入队未完成的页面数, 额外加 1 直到 seeds 全部入队, 避免过早判定完成
+         */
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final AtomicInteger scheduled = new AtomicInteger();
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicInteger duplicates = new AtomicInteger();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private ExecutorService executor;
+        private volatile boolean truncated;
+        private volatile boolean cancelled;
+
+        CrawlRun(CrawlRequest request, Function<PageCache.Page, Map<String, Object>> extractor, Consumer<CrawledPage> onPage) {
+            this.request = request;
+            this.extractor = extractor;
+            this.onPage = onPage;
+            this.maxPages = request.getMaxPages() > 0 ? Math.min(request.getMaxPages(), maxPagesLimit) : maxPagesLimit;
+            for (String seed : request.getSeeds()) {
+                String host = host(seed);
+                if (host != null) {
+                    seedHosts.add(host);
+                }
+            }
+        }
+
+        void enqueue(String url, int depth) {
+            String normalized = normalize(url);
+            if (normalized == null || cancelled) {
+                return;
+            }
+            if (!seen.add(normalized)) {
+                duplicates.incrementAndGet();
+                return;
+            }
+            if (scheduled.incrementAndGet() > maxPages) {
+                truncated = true;
+                return;
+            }
+            pending.incrementAndGet();
+            try {
+                executor.execute(() -> {
+                    try {
+                        process(normalized, depth);
+                    } finally {
+                        complete();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                complete();
+            }
+        }
+
+        void finishSeeding() {
+            complete();
+        }
+
+        private void complete() {
+            if (pending.decrementAndGet() == 0) {
+                done.complete(null);
+            }
+        }
+
+        private void process(String url, int depth) {
+            long start = System.currentTimeMillis();
+            CrawledPage.CrawledPageBuilder page = CrawledPage.builder().url(url).depth(depth);
+            int attempts = 0;
+            try {
+                PageCache.Page fetched = null;
+                while (fetched == null) {
+                    attempts++;
+                    try {
+                        fetched = fetch(url);
+                    } catch (IOException e) {
+                        if (attempts > maxRetries || !isTransient(e)) {
+                            throw e;
+                        }
+                        long backoff = retryBackoff.toMillis() << (attempts - 1);
+                        log.debug("Transient failure fetching {} (attempt {}): {}, retrying in {}ms",
+                                url, attempts, e.getMessage(), backoff);
+                        Thread.sleep(backoff + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+                    }
+                }
+
+                // 先收集链接, 提取器 (如正文提取) 可能会修改文档
+                List<String> links = new ArrayList<>();
+                if (depth < request.getMaxDepth()) {
+                    for (Element link : fetched.document().select(request.getFollowSelector())) {
+                        String target = link.absUrl("href");
+                        if (shouldFollow(target)) {
+                            links.add(target);
+                        }
+                    }
+                }
+
+                page.success(true).finalUrl(fetched.finalUrl()).cache(fetched.source().name())
+                        .data(extractor.apply(fetched));
+                succeeded.incrementAndGet();
+                links.forEach(target -> enqueue(target, depth + 1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                page.success(false).error("interrupted");
+                failed.incrementAndGet();
+            } catch (Exception e) {
+                page.success(false).error(e.getMessage());
+                failed.incrementAndGet();
+            }
+
+            CrawledPage result = page.attempts(attempts).latencyMs(System.currentTimeMillis() - start).build();
+            if (onPage != null) {
+                try {
+                    onPage.accept(result);
+                } catch (Exception e) {
+                    log.warn("Crawl page callback failed for {}: {}", url, e.getMessage());
+                }
+            }
+        }
+
+        private PageCache.Page fetch(String url) throws IOException, InterruptedException {
+            // 新鲜缓存不产生网络请求, 无需占用主机配额
+            PageCache.Page cached = request.isNoCache() ? null : pageCache.fresh(url);
+            if (cached != null) {
+                return cached;
+            }
+            String host = host(url);
+            HostGate gate = gate(host);
+            globalPermits.acquire();
+            try {
+                gate.permits.acquire();
+                try {
+                    long waitNanos = gate.reserve();
+                    if (waitNanos > 0) {
+                        TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+                    return pageCache.fetch(url, request.getTimeoutMs(), request.isNoCache());
+                } finally {
+                    gate.permits.release();
+                }
+            } finally {
+                globalPermits.release();
+            }
+        }
+
+        private boolean shouldFollow(String url) {
+            if (url == null || url.isEmpty() || !(url.startsWith("http://") || url.startsWith("https://"))) {
+                return false;
+            }
+            if (request.isSameHost() && !seedHosts.contains(host(url))) {
+                return false;
+            }
+            if (request.getInclude() != null && !request.getInclude().matcher(url).find()) {
+                return false;
+            }
+            return request.getExclude() == null || !request.getExclude().matcher(url).find();
+        }
+    }
+
+    private HostGate gate(String host) {
+        if (hostGates.size() > MAX_IDLE_GATES) {
+            long now = System.nanoTime();
+            hostGates.values().removeIf(gate -> gate.isIdle(now));
+        }
+        return hostGates.computeIfAbsent(host != null ? host : "", h -> new HostGate(perHostConcurrency));
+    }
+
+    /**
+     * 单主机闸门: 并发信号量 + 按固定间隔分配请求时间槽
+     */
+    private final class HostGate {
+
+        private final Semaphore permits;
+        private long nextSlot;
+
+        HostGate(int concurrency) {
+            this.permits = new Semaphore(concurrency);
+            this.nextSlot = System.nanoTime();
+        }
+
+        /**
+         * 预占下一个时间槽
+         *
+         * @return 需要等待的纳秒数
+         */
+        synchronized long reserve() {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextSlot);
+            nextSlot = slot + perHostIntervalNanos;
+            return slot - now;
+        }
+
+        synchronized boolean isIdle(long now) {
+            return permits.availablePermits() == perHostConcurrency && nextSlot - now < 0;
+        }
+    }
+
+    private static boolean isTransient(IOException e) {
+        if (e instanceof HttpStatusException statusException) {
+            int status = statusException.getStatusCode();
+            return status == 429 || status >= 500;
+        }
+        // 连接被拒绝 / 重置 / 超时可重试, DNS 失败与不支持的内容类型等不重试
+        return e instanceof SocketTimeoutException || e instanceof SocketException;
+    }
+
+    /**
+     * URL 规范化: 去掉 fragment 与默认端口, scheme / host 小写, 空路径补 /
+     */
+    static String normalize(String url) {
+        try {
+            URI uri = new URI(url.trim()).normalize();
+            String scheme = uri.getScheme();
+            if (scheme == null || uri.getHost() == null) {
+                return null;
+            }
+            scheme = scheme.toLowerCase(Locale.ROOT);
+            int port = uri.getPort();
+            if (("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443)) {
+                port = -1;
+            }
+            String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            StringBuilder builder = new StringBuilder(scheme).append("://")
+                    .append(uri.getHost().toLowerCase(Locale.ROOT));
+            if (port != -1) {
+                builder.append(':').append(port);
+            }
+            builder.append(path);
+            if (uri.getRawQuery() != null) {
+                builder.append('?').append(uri.getRawQuery());
+            }
+            return builder.toString();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String host(String url) {
+        try {
+            String host = new URI(url).getHost();
+            return host != null ? host.toLowerCase(Locale.ROOT) : null;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+}
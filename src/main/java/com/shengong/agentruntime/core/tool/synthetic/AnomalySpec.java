@@ -0,0 +1,87 @@
+package com.shengong.agentruntime.core.tool.synthetic;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 注入的异常
+ * 时间窗口以数据时间范围的比例表示, 生成结果中同时返回其实际起止时间作为检测的标准答案
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnomalySpec {
+
+    public enum Type {
+        /** 订单: 退款率乘以 magnitude */
+        REFUND_SPIKE,
+        /** 订单: 发货延迟率乘以 magnitude */
+        DELAY_SPIKE,
+        /** 订单: 客单价除以 magnitude */
+        AMOUNT_DROP,
+        /** 订单: 处理时长乘以 magnitude */
+        PROCESSING_SLOWDOWN,
+        /** 直播: 在线人数除以 magnitude */
+        VIEWER_DROP,
+        /** 直播: 在线人数乘以 magnitude */
+        TRAFFIC_SPIKE,
+        /** 直播: 转化率除以 magnitude */
+        CONVERSION_DROP
+    }
+
+    private Type type;
+
+    /**
+     * 窗口起点, [0, 1)
+     */
+    private double start;
+
+    /**
+     * 窗口终点, (start, 1]
+     */
+    private double end;
+
+    /**
+     * 强度倍数 (> 1)
+     */
+    @Builder.Default
+    private double magnitude = 3.0;
+
+    /**
+     * 只影响该店铺 (从 0 开始的下标), null 表示全部
+     */
+    private Integer shop;
+
+    boolean covers(double position) {
+        return position >= start && position < end;
+    }
+
+    boolean affects(double position, int shopIndex) {
+        return covers(position) && (shop == null || shop == shopIndex);
+    }
+
+    /**
+     * 标准答案: 异常类型与实际时间窗口
+     */
+    Map<String, Object> describe(long startMillis, long endMillis) {
+        long span = endMillis - startMillis;
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("type", type.name());
+        description.put("startTime", startMillis + (long) (span * start));
+        description.put("endTime", startMillis + (long) (span * end));
+        description.put("magnitude", magnitude);
+        if (shop != null) {
+            description.put("shopId", OrderColumns.shopId(shop));
+        }
+        return description;
+    }
+}
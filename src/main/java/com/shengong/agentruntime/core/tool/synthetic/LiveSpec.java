@@ -0,0 +1,56 @@
+package com.shengong.agentruntime.core.tool.synthetic;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 直播时间线生成参数
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@Builder(toBuilder = true)
+public class LiveSpec {
+
+    private final long seed;
+
+    private final long startMillis;
+
+    private final long endMillis;
+
+    /**
+     * 时间片长度 (秒), 可细到秒级
+     */
+    private final int granularitySeconds;
+
+    /**
+     * 平台期的平均在线人数
+     */
+    private final int baseViewers;
+
+    /**
+     * 每分钟每位观众的下单概率
+     */
+    private final double conversionRate;
+
+    private final double avgOrderValue;
+
+    /**
+     * 限时秒杀等流量峰值的个数
+     */
+    private final int peaks;
+
+    private final List<AnomalySpec> anomalies;
+
+    public double granularityMinutes() {
+        return granularitySeconds / 60.0;
+    }
+
+    public int slots() {
+        long seconds = Math.max(1, (endMillis - startMillis) / 1000);
+        return (int) Math.max(1, (seconds + granularitySeconds - 1) / granularitySeconds);
+    }
+}
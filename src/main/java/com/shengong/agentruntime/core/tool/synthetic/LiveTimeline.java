@@ -0,0 +1,212 @@
+package com.shengong.agentruntime.core.tool.synthetic;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * 列式存储的直播时间线, 每个时间片一行
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public class LiveTimeline {
+
+    private static final DateTimeFormatter SLOT_FORMAT = DateTimeFormatter.ofPattern("HH:mm")
+            .withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter SECOND_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+
+    private final int size;
+    private final long granularityMillis;
+
+    final long[] slotStart;
+    final int[] viewers;
+    final double[] gmv;
+    final int[] orders;
+    final int[] comments;
+    final int[] likes;
+    final int[] gifts;
+
+    /**
+     * 不含注入异常时的期望 GMV, 用于给出环比基线
+     */
+    final double[] expectedGmv;
+
+    LiveTimeline(int size, long granularityMillis) {
+        this.size = size;
+        this.granularityMillis = granularityMillis;
+        this.slotStart = new long[size];
+        this.viewers = new int[size];
+        this.gmv = new double[size];
+        this.orders = new int[size];
+        this.comments = new int[size];
+        this.likes = new int[size];
+        this.gifts = new int[size];
+        this.expectedGmv = new double[size];
+    }
+
+    /**
+     * 从 {@link #rows()} 或 {@link #rows(int[])} 返回的视图取回列式数据 (下采样视图取回的是完整时间线), 其他 List 返回 null
+     */
+    public static LiveTimeline of(List<?> timeline) {
+        return timeline instanceof RowView view ? view.timeline() : null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long granularityMillis() {
+        return granularityMillis;
+    }
+
+    public long slotStart(int slot) {
+        return slotStart[slot];
+    }
+
+    public int viewers(int slot) {
+        return viewers[slot];
+    }
+
+    public double gmv(int slot) {
+        return gmv[slot];
+    }
+
+    public int orders(int slot) {
+        return orders[slot];
+    }
+
+    public int comments(int slot) {
+        return comments[slot];
+    }
+
+    public int likes(int slot) {
+        return likes[slot];
+    }
+
+    public int gifts(int slot) {
+        return gifts[slot];
+    }
+
+    /**
+     * 汇总指标, 字段与 LiveDataPrepAgent 读取的 liveMetrics 一致
+     *
+     * @param avgWatchMinutes 人均观看时长, 用于由在线人数估算累计观众
+     */
+    public Map<String, Object> summary(double previousGmvDrift, double avgWatchMinutes) {
+        double totalGmv = 0;
+        double expected = 0;
+        long viewerMinutes = 0;
+        long viewerSum = 0;
+        int peakViewers = 0;
+        long orderCount = 0;
+        long commentCount = 0;
+        long likeCount = 0;
+        long giftCount = 0;
+        double minutes = granularityMillis / 60_000.0;
+        for (int slot = 0; slot < size; slot++) {
+            totalGmv += gmv[slot];
+            expected += expectedGmv[slot];
+            viewerSum += viewers[slot];
+            viewerMinutes += (long) (viewers[slot] * minutes);
+            peakViewers = Math.max(peakViewers, viewers[slot]);
+            orderCount += orders[slot];
+            commentCount += comments[slot];
+            likeCount += likes[slot];
+            giftCount += gifts[slot];
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("totalGmv", SyntheticDataGenerator.round2(totalGmv));
+        metrics.put("previousGmv", SyntheticDataGenerator.round2(expected * (1 + previousGmvDrift)));
+        metrics.put("peakViewers", peakViewers);
+        metrics.put("avgViewers", size > 0 ? (int) (viewerSum / size) : 0);
+        metrics.put("totalViewers", Math.max(peakViewers, (long) (viewerMinutes / avgWatchMinutes)));
+        metrics.put("giftCount", giftCount);
+        metrics.put("commentCount", commentCount);
+        metrics.put("likeCount", likeCount);
+        metrics.put("orderCount", orderCount);
+        return metrics;
+    }
+
+    public Map<String, Object> row(int slot) {
+        Map<String, Object> row = new LinkedHashMap<>(12);
+        DateTimeFormatter format = granularityMillis % 60_000 == 0 ? SLOT_FORMAT : SECOND_FORMAT;
+        row.put("timeSlot", format.format(Instant.ofEpochMilli(slotStart[slot])) + "-"
+                + format.format(Instant.ofEpochMilli(slotStart[slot] + granularityMillis)));
+        row.put("startTime", slotStart[slot]);
+        row.put("viewers", viewers[slot]);
+        row.put("gmv", gmv[slot]);
+        row.put("orders", orders[slot]);
+        row.put("comments", comments[slot]);
+        row.put("likes", likes[slot]);
+        row.put("gifts", gifts[slot]);
+        return row;
+    }
+
+    public List<Map<String, Object>> rows() {
+        return new RowView(this, null);
+    }
+
+    /**
+     * 只含指定时间片的行视图, 用于下采样后的输出; 序列化时只输出这些行,
+     * 进程内的消费方仍可通过 {@link #of} 拿到完整时间线做精确计算
+     *
+     * @param slots 升序的时间片下标
+     */
+    public List<Map<String, Object>> rows(int[] slots) {
+        return new RowView(this, slots);
+    }
+
+    public void writeNdjson(JsonGenerator generator) throws IOException {
+        for (int slot = 0; slot < size; slot++) {
+            generator.writeStartObject();
+            generator.writeNumberField("startTime", slotStart[slot]);
+            generator.writeNumberField("viewers", viewers[slot]);
+            generator.writeNumberField("gmv", gmv[slot]);
+            generator.writeNumberField("orders", orders[slot]);
+            generator.writeNumberField("comments", comments[slot]);
+            generator.writeNumberField("likes", likes[slot]);
+            generator.writeNumberField("gifts", gifts[slot]);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+    }
+
+    private static final class RowView extends AbstractList<Map<String, Object>> implements RandomAccess {
+
+        private final LiveTimeline timeline;
+        private final int[] slots;
+
+        private RowView(LiveTimeline timeline, int[] slots) {
+            this.timeline = timeline;
+            this.slots = slots;
+        }
+
+        LiveTimeline timeline() {
+            return timeline;
+        }
+
+        @Override
+        public Map<String, Object> get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return timeline.row(slots != null ? slots[index] : index);
+        }
+
+        @Override
+        public int size() {
+            return slots != null ? slots.length : timeline.size;
+        }
+    }
+}
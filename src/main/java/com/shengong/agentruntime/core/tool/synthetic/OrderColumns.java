@@ -0,0 +1,257 @@
+package com.shengong.agentruntime.core.tool.synthetic;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * 列式存储的订单数据
+ * 每个字段一个基本类型数组, 百万级订单不产生逐条对象; {@link #rows()} 以只读视图按需把单行包装为 Map,
+ * 兼容按 orderList 读取 Map 的 Agent
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public class OrderColumns {
+
+    public static final byte COMPLETED = 0;
+    public static final byte REFUNDED = 1;
+    public static final byte CANCELLED = 2;
+
+    static final String[] STATUSES = {"COMPLETED", "REFUNDED", "CANCELLED"};
+
+    static final String[] CHANNELS = {"live", "search", "recommend", "cart", "other"};
+
+    static final double[] CHANNEL_WEIGHTS = {0.45, 0.65, 0.85, 0.95, 1.0};
+
+    /**
+     * 退款原因, 非退款订单的编码为 -1
+     */
+    static final String[] REFUND_REASONS = {"QUALITY_ISSUE", "NOT_AS_DESCRIBED", "SLOW_DELIVERY", "WRONG_SIZE", "CHANGED_MIND"};
+
+    static final byte QUALITY_ISSUE = 0;
+    static final byte SLOW_DELIVERY = 2;
+
+    static final double[] REFUND_REASON_WEIGHTS = {0.3, 0.5, 0.6, 0.8, 1.0};
+
+    private final int capacity;
+
+    /**
+     * 第 0 行的全局序号 (流式生成时每个分块从不同序号开始)
+     */
+    long firstIndex;
+
+    int size;
+
+    final byte[] status;
+    final double[] amount;
+    final boolean[] delayed;
+    final double[] processingHours;
+    final long[] createdAt;
+    final int[] shop;
+    final int[] sku;
+    final short[] region;
+    final byte[] channel;
+    final int[] buyer;
+    final byte[] refundReason;
+
+    public OrderColumns(int capacity) {
+        this.capacity = capacity;
+        this.status = new byte[capacity];
+        this.amount = new double[capacity];
+        this.delayed = new boolean[capacity];
+        this.processingHours = new double[capacity];
+        this.createdAt = new long[capacity];
+        this.shop = new int[capacity];
+        this.sku = new int[capacity];
+        this.region = new short[capacity];
+        this.channel = new byte[capacity];
+        this.buyer = new int[capacity];
+        this.refundReason = new byte[capacity];
+    }
+
+    /**
+     * 从 {@link #rows()} 返回的视图取回列式数据, 其他 List 返回 null
+     */
+    public static OrderColumns of(List<?> orderList) {
+        return orderList instanceof RowView view ? view.columns() : null;
+    }
+
+    /**
+     * 状态名, 下标即 {@link #statusCode} 的取值
+     */
+    public static List<String> statusNames() {
+        return List.of(STATUSES);
+    }
+
+    public static String orderId(long index) {
+        String digits = Long.toString(index + 1);
+        return digits.length() >= 6 ? "ORD" + digits : "ORD" + "000000".substring(digits.length()) + digits;
+    }
+
+    public static String shopId(int shop) {
+        return "SHOP" + pad(shop, 4);
+    }
+
+    public static String skuId(int sku) {
+        return "SKU" + pad(sku, 6);
+    }
+
+    public static String regionId(int region) {
+        return "R" + pad(region, 2);
+    }
+
+    public static String channelName(int channel) {
+        return CHANNELS[channel];
+    }
+
+    public static String buyerId(int buyer) {
+        return "U" + pad(buyer, 7);
+    }
+
+    public static String refundReasonName(int reason) {
+        return REFUND_REASONS[reason];
+    }
+
+    private static String pad(int value, int width) {
+        String digits = Integer.toString(value);
+        return digits.length() >= width ? digits : "0".repeat(width - digits.length()) + digits;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public byte statusCode(int row) {
+        return status[row];
+    }
+
+    public double amount(int row) {
+        return amount[row];
+    }
+
+    public boolean delayedShipment(int row) {
+        return delayed[row];
+    }
+
+    public double processingTimeHours(int row) {
+        return processingHours[row];
+    }
+
+    public long createdAt(int row) {
+        return createdAt[row];
+    }
+
+    public int shop(int row) {
+        return shop[row];
+    }
+
+    public int sku(int row) {
+        return sku[row];
+    }
+
+    public int region(int row) {
+        return region[row];
+    }
+
+    public int channel(int row) {
+        return channel[row];
+    }
+
+    public int buyer(int row) {
+        return buyer[row];
+    }
+
+    /**
+     * 退款原因编码, 非退款订单为 -1
+     */
+    public int refundReason(int row) {
+        return refundReason[row];
+    }
+
+    public Map<String, Object> row(int row) {
+        Map<String, Object> order = new LinkedHashMap<>(16);
+        order.put("orderId", orderId(firstIndex + row));
+        order.put("status", STATUSES[status[row]]);
+        order.put("amount", amount[row]);
+        order.put("delayedShipment", delayed[row]);
+        order.put("processingTimeHours", processingHours[row]);
+        order.put("createdAt", createdAt[row]);
+        order.put("shopId", shopId(shop[row]));
+        order.put("skuId", skuId(sku[row]));
+        order.put("region", regionId(region[row]));
+        order.put("channel", CHANNELS[channel[row]]);
+        order.put("buyerId", buyerId(buyer[row]));
+        if (refundReason[row] >= 0) {
+            order.put("refundReason", REFUND_REASONS[refundReason[row]]);
+        }
+        return order;
+    }
+
+    /**
+     * 按行的只读视图, 访问时才创建单行 Map
+     */
+    public List<Map<String, Object>> rows() {
+        return new RowView(this);
+    }
+
+    /**
+     * 以 NDJSON 写出 [from, to) 行, 直接从列写出, 不经过 Map
+     */
+    public void writeNdjson(JsonGenerator generator, int from, int to) throws IOException {
+        for (int row = from; row < to; row++) {
+            generator.writeStartObject();
+            generator.writeStringField("orderId", orderId(firstIndex + row));
+            generator.writeStringField("status", STATUSES[status[row]]);
+            generator.writeNumberField("amount", amount[row]);
+            generator.writeBooleanField("delayedShipment", delayed[row]);
+            generator.writeNumberField("processingTimeHours", processingHours[row]);
+            generator.writeNumberField("createdAt", createdAt[row]);
+            generator.writeStringField("shopId", shopId(shop[row]));
+            generator.writeStringField("skuId", skuId(sku[row]));
+            generator.writeStringField("region", regionId(region[row]));
+            generator.writeStringField("channel", CHANNELS[channel[row]]);
+            generator.writeStringField("buyerId", buyerId(buyer[row]));
+            if (refundReason[row] >= 0) {
+                generator.writeStringField("refundReason", REFUND_REASONS[refundReason[row]]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+    }
+
+    private static final class RowView extends AbstractList<Map<String, Object>> implements RandomAccess {
+
+        private final OrderColumns columns;
+
+        private RowView(OrderColumns columns) {
+            this.columns = columns;
+        }
+
+        OrderColumns columns() {
+            return columns;
+        }
+
+        @Override
+        public Map<String, Object> get(int index) {
+            if (index < 0 || index >= columns.size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return columns.row(index);
+        }
+
+        @Override
+        public int size() {
+            return columns.size;
+        }
+    }
+}
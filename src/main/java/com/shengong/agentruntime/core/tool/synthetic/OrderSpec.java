@@ -0,0 +1,64 @@
+package com.shengong.agentruntime.core.tool.synthetic;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 订单数据生成参数
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@Builder(toBuilder = true)
+public class OrderSpec {
+
+    private final long seed;
+
+    private final int count;
+
+    /**
+     * 下单时间范围 (epoch 毫秒), 订单按序号均匀分布在范围内
+     */
+    private final long startMillis;
+
+    private final long endMillis;
+
+    /**
+     * 店铺 / 商品 / 地区数量 (基数)
+     */
+    private final int shops;
+
+    private final int skus;
+
+    private final int regions;
+
+    private final int buyers;
+
+    /**
+     * 店铺与商品的头部集中程度, 1 为均匀
+     */
+    private final double skew;
+
+    private final double refundRate;
+
+    private final double cancelRate;
+
+    private final double delayRate;
+
+    /**
+     * 客单价中位数与对数标准差
+     */
+    private final double amountMedian;
+
+    private final double amountSigma;
+
+    /**
+     * 处理时长中位数 (小时)
+     */
+    private final double processingMedianHours;
+
+    private final List<AnomalySpec> anomalies;
+}
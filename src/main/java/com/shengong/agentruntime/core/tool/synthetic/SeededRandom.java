@@ -0,0 +1,101 @@
+package com.shengong.agentruntime.core.tool.synthetic;
+
+/**
+ * 可重置的 SplitMix64 随机数
+ * 每条记录按 (seed, 记录序号) 重置状态, 记录的取值只取决于序号, 与分块方式、线程数无关,
+ * 因此并行生成的结果与顺序生成完全一致. 一个工作线程复用一个实例, 不为每条记录创建对象
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+final class SeededRandom {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+
+    SeededRandom reset(long seed, long stream) {
+        state = mix(seed ^ mix(stream * GOLDEN_GAMMA + GOLDEN_GAMMA));
+        return this;
+    }
+
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    long nextLong() {
+        return mix(state += GOLDEN_GAMMA);
+    }
+
+    /**
+     * [0, 1)
+     */
+    double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * [0, bound)
+     */
+    int nextInt(int bound) {
+        return (int) (((nextLong() >>> 33) * bound) >>> 31);
+    }
+
+    boolean chance(double probability) {
+        return nextDouble() < probability;
+    }
+
+    /**
+     * 标准正态分布 (Box-Muller)
+     */
+    double gaussian() {
+        double u1 = 1.0 - nextDouble();
+        double u2 = nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u1)) * Math.cos(2.0 * Math.PI * u2);
+    }
+
+    /**
+     * 泊松分布; 均值较小时逐次相乘 (Knuth), 否则用正态近似
+     */
+    int poisson(double mean) {
+        if (mean <= 0) {
+            return 0;
+        }
+        if (mean >= 10) {
+            return (int) Math.max(0, Math.round(mean + Math.sqrt(mean) * gaussian()));
+        }
+        double limit = Math.exp(-mean);
+        double product = nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 随机取整: 以小数部分为概率向上取整, 期望等于原值, 秒级时间片的小计数不会全被截断为 0
+     */
+    int round(double value) {
+        int floor = (int) Math.floor(value);
+        return chance(value - floor) ? floor + 1 : floor;
+    }
+
+    /**
+     * 对数正态分布, 中位数为 median
+     */
+    double logNormal(double median, double sigma) {
+        return median * Math.exp(sigma * gaussian());
+    }
+
+    /**
+     * 长尾分布的下标 [0, n): skew 越大越集中在小下标 (头部店铺 / 商品)
+     */
+    int skewed(int n, double skew) {
+        int index = (int) (n * Math.pow(nextDouble(), skew));
+        return Math.min(index, n - 1);
+    }
+}
@@ -0,0 +1,562 @@
+package com.shengong.agentruntime.core.tool.synthetic;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shengong.agentruntime.config.SyntheticDataProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * 可复现的模拟数据生成器
+ * <p>
+ * 同样的 seed 与参数总是生成同样的数据: 每条记录用 (seed, 全局序号) 重置随机数后独立生成,
+ * 大数据量按 chunk-size 分块并行填充到列式数组, 结果与顺序生成一致.
+ * 订单的店铺 / 商品按长尾分布集中, 金额与处理时长服从对数正态分布;
+ * 直播时间线由开播爬坡、平台期波动、秒杀峰值和收尾衰减叠加而成. 注入的异常随数据一起返回, 作为检测的标准答案
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Component
+public class SyntheticDataGenerator {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 生成默认异常与峰值位置使用的随机流, 与记录序号 (>= 0) 不冲突
+     */
+    private static final long LAYOUT_STREAM = -1L;
+
+    private final SyntheticDataProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper keyMapper;
+
+    public SyntheticDataGenerator(SyntheticDataProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.keyMapper = objectMapper.copy().enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    }
+
+    // --- 参数解析 ---
+
+    /**
+     * 由 Tool 参数构造订单生成参数, 未指定的字段取配置默认值
+     */
+    public OrderSpec orderSpec(Map<String, Object> arguments) {
+        SyntheticDataProperties.Orders defaults = properties.getOrders();
+        long[] range = timeRange(arguments);
+        long seed = seed(arguments);
+        int count = intArg(arguments, "count", defaults.getDefaultCount());
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative: " + count);
+        }
+
+        List<AnomalySpec> anomalies = anomalies(arguments, defaults.isInjectAnomalies(), () -> {
+            SeededRandom layout = new SeededRandom().reset(seed, LAYOUT_STREAM);
+            double refundStart = 0.45 + 0.25 * layout.nextDouble();
+            double delayStart = 0.10 + 0.25 * layout.nextDouble();
+            return List.of(
+                    AnomalySpec.builder().type(AnomalySpec.Type.REFUND_SPIKE)
+                            .start(refundStart).end(refundStart + 0.15).magnitude(4.0).build(),
+                    AnomalySpec.builder().type(AnomalySpec.Type.DELAY_SPIKE)
+                            .start(delayStart).end(delayStart + 0.25).magnitude(4.0).build());
+        });
+
+        return OrderSpec.builder()
+                .seed(seed)
+                .count(count)
+                .startMillis(range[0])
+                .endMillis(range[1])
+                .shops(Math.max(1, intArg(arguments, "shops", defaults.getShops())))
+                .skus(Math.max(1, intArg(arguments, "skus", defaults.getSkus())))
+                .regions(Math.max(1, Math.min(Short.MAX_VALUE, intArg(arguments, "regions", defaults.getRegions()))))
+                .buyers(Math.max(1, intArg(arguments, "buyers", defaults.getBuyers())))
+                .skew(Math.max(1.0, doubleArg(arguments, "skew", defaults.getSkew())))
+                .refundRate(rate(arguments, "refundRate", defaults.getRefundRate()))
+                .cancelRate(rate(arguments, "cancelRate", defaults.getCancelRate()))
+                .delayRate(rate(arguments, "delayRate", defaults.getDelayRate()))
+                .amountMedian(defaults.getAmountMedian())
+                .amountSigma(defaults.getAmountSigma())
+                .processingMedianHours(defaults.getProcessingMedianHours())
+                .anomalies(anomalies)
+                .build();
+    }
+
+    /**
+     * 由 Tool 参数构造直播时间线生成参数, 未指定的字段取配置默认值
+     */
+    public LiveSpec liveSpec(Map<String, Object> arguments) {
+        SyntheticDataProperties.Live defaults = properties.getLive();
+        long[] range = timeRange(arguments);
+        long seed = seed(arguments);
+
+        List<AnomalySpec> anomalies = anomalies(arguments, defaults.isInjectAnomalies(), () -> {
+            SeededRandom layout = new SeededRandom().reset(seed, LAYOUT_STREAM);
+            double start = 0.55 + 0.15 * layout.nextDouble();
+            return List.of(AnomalySpec.builder().type(AnomalySpec.Type.CONVERSION_DROP)
+                    .start(start).end(start + 0.15).magnitude(2.5).build());
+        });
+
+        return LiveSpec.builder()
+                .seed(seed)
+                .startMillis(range[0])
+                .endMillis(range[1])
+                .granularitySeconds(Math.max(1, intArg(arguments, "granularitySeconds",
+                        intArg(arguments, "granularityMinutes", defaults.getGranularityMinutes()) * 60)))
+                .baseViewers(Math.max(1, intArg(arguments, "baseViewers", defaults.getBaseViewers())))
+                .conversionRate(rate(arguments, "conversionRate", defaults.getConversionRate()))
+                .avgOrderValue(doubleArg(arguments, "avgOrderValue", defaults.getAvgOrderValue()))
+                .peaks(Math.max(0, intArg(arguments, "peaks", defaults.getPeaks())))
+                .anomalies(anomalies)
+                .build();
+    }
+
+    /**
+     * 注入异常的标准答案 (类型与实际时间窗口)
+     */
+    public static List<Map<String, Object>> describeAnomalies(List<AnomalySpec> anomalies, long startMillis, long endMillis) {
+        List<Map<String, Object>> described = new ArrayList<>(anomalies.size());
+        for (AnomalySpec anomaly : anomalies) {
+            described.add(anomaly.describe(startMillis, endMillis));
+        }
+        return described;
+    }
+
+    public static String formatTime(long epochMillis) {
+        return TIME_FORMAT.format(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()));
+    }
+
+    // --- 订单 ---
+
+    /**
+     * 在内存中生成全部订单
+     */
+    public OrderColumns generateOrders(OrderSpec spec) {
+        int maxCount = properties.getOrders().getMaxCount();
+        if (spec.getCount() > maxCount) {
+            throw new IllegalArgumentException("count " + spec.getCount() + " exceeds max " + maxCount
+                    + ", use the NDJSON export for larger datasets");
+        }
+        long started = System.nanoTime();
+        OrderColumns columns = new OrderColumns(spec.getCount());
+        columns.size = spec.getCount();
+        OrderFiller filler = new OrderFiller(spec);
+        fill(spec.getCount(), (from, to, rng) -> filler.fill(columns, from, to, rng));
+        log.debug("Generated {} orders in {} ms (seed={})", spec.getCount(),
+                (System.nanoTime() - started) / 1_000_000, spec.getSeed());
+        return columns;
+    }
+
+    /**
+     * 以 NDJSON 流式写出订单, 内存中只保留一个分块缓冲区, 数据量不受 max-count 限制
+     *
+     * @return 写出的订单数
+     */
+    public long writeOrders(OrderSpec spec, OutputStream out) throws IOException {
+        int bufferRows = (int) Math.min(spec.getCount(),
+                (long) properties.getChunkSize() * Runtime.getRuntime().availableProcessors());
+        OrderColumns buffer = new OrderColumns(Math.max(1, bufferRows));
+        OrderFiller filler = new OrderFiller(spec);
+
+        try (JsonGenerator generator = ndjsonGenerator(out)) {
+            for (long offset = 0; offset < spec.getCount(); offset += buffer.capacity()) {
+                int rows = (int) Math.min(buffer.capacity(), spec.getCount() - offset);
+                buffer.firstIndex = offset;
+                buffer.size = rows;
+                fill(rows, (from, to, rng) -> filler.fill(buffer, from, to, rng));
+                buffer.writeNdjson(generator, 0, rows);
+                generator.flush();
+            }
+        }
+        return spec.getCount();
+    }
+
+    /**
+     * 单份订单参数的预处理结果, 可被多个线程共享
+     */
+    private static final class OrderFiller {
+
+        private final OrderSpec spec;
+        private final AnomalySpec[] anomalies;
+        private final double slotMillis;
+
+        private OrderFiller(OrderSpec spec) {
+            this.spec = spec;
+            this.anomalies = spec.getAnomalies().toArray(AnomalySpec[]::new);
+            this.slotMillis = spec.getCount() > 0 ? (double) (spec.getEndMillis() - spec.getStartMillis()) / spec.getCount() : 0;
+        }
+
+        void fill(OrderColumns columns, int from, int to, SeededRandom rng) {
+            long count = spec.getCount();
+            for (int row = from; row < to; row++) {
+                long index = columns.firstIndex + row;
+                rng.reset(spec.getSeed(), index);
+                double position = (index + 0.5) / count;
+
+                int shop = rng.skewed(spec.getShops(), spec.getSkew());
+                double refundRate = spec.getRefundRate();
+                double delayRate = spec.getDelayRate();
+                double amountFactor = 1.0;
+                double processingFactor = 1.0;
+                boolean refundSpike = false;
+                for (AnomalySpec anomaly : anomalies) {
+                    if (!anomaly.affects(position, shop)) {
+                        continue;
+                    }
+                    switch (anomaly.getType()) {
+                        case REFUND_SPIKE -> {
+                            refundRate *= anomaly.getMagnitude();
+                            refundSpike = true;
+                        }
+                        case DELAY_SPIKE -> delayRate *= anomaly.getMagnitude();
+                        case AMOUNT_DROP -> amountFactor /= anomaly.getMagnitude();
+                        case PROCESSING_SLOWDOWN -> processingFactor *= anomaly.getMagnitude();
+                        default -> {
+                            // 直播类异常不影响订单
+                        }
+                    }
+                }
+
+                columns.createdAt[row] = spec.getStartMillis() + (long) ((index + rng.nextDouble()) * slotMillis);
+                columns.shop[row] = shop;
+                columns.sku[row] = rng.skewed(spec.getSkus(), spec.getSkew());
+                columns.region[row] = (short) rng.nextInt(spec.getRegions());
+                columns.channel[row] = channel(rng.nextDouble());
+                columns.amount[row] = Math.max(0.01,
+                        round2(rng.logNormal(spec.getAmountMedian(), spec.getAmountSigma()) * amountFactor));
+
+                double status = rng.nextDouble();
+                if (status < spec.getCancelRate()) {
+                    columns.status[row] = OrderColumns.CANCELLED;
+                } else if (status < spec.getCancelRate() + refundRate) {
+                    columns.status[row] = OrderColumns.REFUNDED;
+                } else {
+                    columns.status[row] = OrderColumns.COMPLETED;
+                }
+
+                boolean delayed = columns.status[row] != OrderColumns.CANCELLED && rng.chance(delayRate);
+                double processing = rng.logNormal(spec.getProcessingMedianHours(), 0.5) * processingFactor;
+                if (delayed) {
+                    processing += 24 + 24 * rng.nextDouble();
+                }
+                columns.delayed[row] = delayed;
+                columns.processingHours[row] = round2(processing);
+
+                // 新增字段放在最后抽取, 已有字段的取值不随之改变
+                columns.buyer[row] = rng.skewed(spec.getBuyers(), 1.5);
+                columns.refundReason[row] = columns.status[row] == OrderColumns.REFUNDED
+                        ? refundReason(rng.nextDouble(), delayed, refundSpike) : -1;
+            }
+        }
+
+        /**
+         * 退款原因: 延迟发货的订单多为物流原因, 退款激增期间多为质量问题
+         */
+        private static byte refundReason(double value, boolean delayed, boolean refundSpike) {
+            if (delayed) {
+                if (value < 0.6) {
+                    return OrderColumns.SLOW_DELIVERY;
+                }
+                value = (value - 0.6) / 0.4;
+            } else if (refundSpike) {
+                if (value < 0.5) {
+                    return OrderColumns.QUALITY_ISSUE;
+                }
+                value = (value - 0.5) / 0.5;
+            }
+            double[] weights = OrderColumns.REFUND_REASON_WEIGHTS;
+            for (byte i = 0; i < weights.length - 1; i++) {
+                if (value < weights[i]) {
+                    return i;
+                }
+            }
+            return (byte) (weights.length - 1);
+        }
+
+        private static byte channel(double value) {
+            double[] weights = OrderColumns.CHANNEL_WEIGHTS;
+            for (byte i = 0; i < weights.length - 1; i++) {
+                if (value < weights[i]) {
+                    return i;
+                }
+            }
+            return (byte) (weights.length - 1);
+        }
+    }
+
+    // --- 直播时间线 ---
+
+    public LiveTimeline generateLive(LiveSpec spec) {
+        int slots = spec.slots();
+        int maxSlots = properties.getLive().getMaxSlots();
+        if (slots > maxSlots) {
+            throw new IllegalArgumentException("time range yields " + slots + " slots, exceeds max " + maxSlots
+                    + ", use a larger granularitySeconds or granularityMinutes");
+        }
+
+        LiveTimeline timeline = new LiveTimeline(slots, spec.getGranularitySeconds() * 1000L);
+        LiveFiller filler = new LiveFiller(spec, slots);
+        fill(slots, (from, to, rng) -> filler.fill(timeline, from, to, rng));
+        return timeline;
+    }
+
+    /**
+     * 时间线汇总指标, previousGmv 为不含异常的期望 GMV 加上由 seed 决定的小幅波动
+     */
+    public Map<String, Object> liveMetrics(LiveSpec spec, LiveTimeline timeline) {
+        double drift = 0.05 * new SeededRandom().reset(spec.getSeed(), LAYOUT_STREAM - 1).gaussian();
+        return timeline.summary(drift, properties.getLive().getAvgWatchMinutes());
+    }
+
+    public void writeLive(LiveSpec spec, OutputStream out) throws IOException {
+        LiveTimeline timeline = generateLive(spec);
+        try (JsonGenerator generator = ndjsonGenerator(out)) {
+            timeline.writeNdjson(generator);
+        }
+    }
+
+    private static final class LiveFiller {
+
+        private final LiveSpec spec;
+        private final AnomalySpec[] anomalies;
+        private final int slots;
+        private final double minutes;
+        private final double[] peakCenters;
+        private final double[] peakHeights;
+        private final double[] peakWidths;
+        private final double slowPhase;
+        private final double fastPhase;
+
+        private LiveFiller(LiveSpec spec, int slots) {
+            this.spec = spec;
+            this.anomalies = spec.getAnomalies().toArray(AnomalySpec[]::new);
+            this.slots = slots;
+            this.minutes = spec.granularityMinutes();
+
+            SeededRandom layout = new SeededRandom().reset(spec.getSeed(), LAYOUT_STREAM - 2);
+            this.slowPhase = 2 * Math.PI * layout.nextDouble();
+            this.fastPhase = 2 * Math.PI * layout.nextDouble();
+            this.peakCenters = new double[spec.getPeaks()];
+            this.peakHeights = new double[spec.getPeaks()];
+            this.peakWidths = new double[spec.getPeaks()];
+            for (int i = 0; i < spec.getPeaks(); i++) {
+                peakCenters[i] = 0.15 + 0.7 * layout.nextDouble();
+                peakHeights[i] = 0.4 + 0.8 * layout.nextDouble();
+                peakWidths[i] = 0.01 + 0.03 * layout.nextDouble();
+            }
+        }
+
+        void fill(LiveTimeline timeline, int from, int to, SeededRandom rng) {
+            long granularityMillis = timeline.granularityMillis();
+            for (int slot = from; slot < to; slot++) {
+                rng.reset(spec.getSeed(), slot);
+                double position = (slot + 0.5) / slots;
+
+                double expectedViewers = spec.getBaseViewers() * curve(position);
+                double viewers = expectedViewers * Math.max(0.5, 1 + 0.05 * rng.gaussian());
+                double conversion = spec.getConversionRate();
+                for (AnomalySpec anomaly : anomalies) {
+                    if (!anomaly.covers(position)) {
+                        continue;
+                    }
+                    switch (anomaly.getType()) {
+                        case VIEWER_DROP -> viewers /= anomaly.getMagnitude();
+                        case TRAFFIC_SPIKE -> viewers *= anomaly.getMagnitude();
+                        case CONVERSION_DROP -> conversion /= anomaly.getMagnitude();
+                        default -> {
+                            // 订单类异常不影响时间线
+                        }
+                    }
+                }
+
+                // 订单数按泊松分布, 秒级时间片的均值远小于 1
+                double orderMean = viewers * conversion * minutes;
+                int orders = rng.poisson(orderMean);
+                double viewerMinutes = viewers * minutes;
+
+                timeline.slotStart[slot] = spec.getStartMillis() + slot * granularityMillis;
+                timeline.viewers[slot] = (int) Math.round(viewers);
+                timeline.orders[slot] = orders;
+                timeline.gmv[slot] = round2(orders * spec.getAvgOrderValue() * Math.max(0.5, 1 + 0.1 * rng.gaussian()));
+                timeline.expectedGmv[slot] = expectedViewers * spec.getConversionRate() * minutes * spec.getAvgOrderValue();
+                double comments = viewerMinutes * 0.02 * Math.max(0, 1 + 0.2 * rng.gaussian());
+                double likes = viewerMinutes * 0.1 * Math.max(0, 1 + 0.2 * rng.gaussian());
+                double gifts = viewerMinutes * 0.004 * Math.max(0, 1 + 0.3 * rng.gaussian());
+                timeline.comments[slot] = rng.round(comments);
+                timeline.likes[slot] = rng.round(likes);
+                timeline.gifts[slot] = rng.round(gifts);
+            }
+        }
+
+        /**
+         * 在线人数曲线 (相对平台期): 开播爬坡, 平台期慢波动 + 快波动, 秒杀峰值, 收尾衰减
+         */
+        private double curve(double position) {
+            double ramp = position < 0.1 ? 0.3 + 7.0 * position : 1.0;
+            double decay = position > 0.85 ? 1.0 - 4.0 * (position - 0.85) : 1.0;
+            double waves = 1.0 + 0.15 * Math.sin(2 * Math.PI * 3 * position + slowPhase)
+                    + 0.08 * Math.sin(2 * Math.PI * 11 * position + fastPhase);
+            double peaks = 0;
+            for (int i = 0; i < peakCenters.length; i++) {
+                double distance = (position - peakCenters[i]) / peakWidths[i];
+                peaks += peakHeights[i] * Math.exp(-0.5 * distance * distance);
+            }
+            return ramp * decay * waves * (1.0 + peaks);
+        }
+    }
+
+    // --- 分块并行 ---
+
+    @FunctionalInterface
+    private interface RangeFiller {
+        void fill(int from, int to, SeededRandom rng);
+    }
+
+    /**
+     * 达到并行阈值时按 chunk-size 分块并行填充, 每个分块一个随机数实例
+     */
+    private void fill(int length, RangeFiller filler) {
+        int chunkSize = Math.max(1, properties.getChunkSize());
+        if (length < properties.getParallelThreshold() || length <= chunkSize) {
+            filler.fill(0, length, new SeededRandom());
+            return;
+        }
+        int chunks = (length + chunkSize - 1) / chunkSize;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> filler.fill(
+                chunk * chunkSize, Math.min(length, (chunk + 1) * chunkSize), new SeededRandom()));
+    }
+
+    private JsonGenerator ndjsonGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // 每条记录后自行写换行, 不使用根级分隔符
+        generator.setRootValueSeparator(null);
+        return generator;
+    }
+
+    // --- 参数工具 ---
+
+    private List<AnomalySpec> anomalies(Map<String, Object> arguments, boolean injectByDefault,
+                                        Supplier<List<AnomalySpec>> defaults) {
+        Object inject = arguments.get("injectAnomalies");
+        if (Boolean.FALSE.equals(inject) || "false".equals(inject)) {
+            return List.of();
+        }
+        Object configured = arguments.get("anomalies");
+        if (configured instanceof List<?> list) {
+            List<AnomalySpec> anomalies = new ArrayList<>(list.size());
+            for (Object item : list) {
+                AnomalySpec anomaly = objectMapper.convertValue(item, AnomalySpec.class);
+                if (anomaly.getType() == null || anomaly.getStart() < 0 || anomaly.getEnd() <= anomaly.getStart()) {
+                    throw new IllegalArgumentException("Invalid anomaly: " + item);
+                }
+                anomalies.add(anomaly);
+            }
+            return anomalies;
+        }
+        return injectByDefault || Boolean.TRUE.equals(inject) ? defaults.get() : List.of();
+    }
+
+    /**
+     * 未指定 seed 时由其余参数派生, 同样的查询得到同样的数据
+     */
+    private long seed(Map<String, Object> arguments) {
+        Object seed = arguments.get("seed");
+        if (seed instanceof Number number) {
+            return number.longValue();
+        }
+        if (seed instanceof String text && !text.isBlank()) {
+            return Long.parseLong(text.trim());
+        }
+        Map<String, Object> rest = new HashMap<>(arguments);
+        rest.remove("seed");
+        // 只影响返回点数的参数不参与派生, 同一查询按不同预算下采样得到的是同一份数据
+        rest.remove("maxPoints");
+        String canonical;
+        try {
+            canonical = keyMapper.writeValueAsString(rest);
+        } catch (Exception e) {
+            canonical = String.valueOf(rest);
+        }
+        return SeededRandom.mix(canonical.hashCode());
+    }
+
+    private static long[] timeRange(Map<String, Object> arguments) {
+        long dayStart = LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long start = dayStart;
+        long end = dayStart + 24 * 3_600_000L;
+        if (arguments.get("timeRange") instanceof Map<?, ?> timeRange) {
+            start = parseTime(timeRange.get("startTime"), start);
+            end = parseTime(timeRange.get("endTime"), start + 24 * 3_600_000L);
+        }
+        if (end <= start) {
+            throw new IllegalArgumentException("timeRange endTime must be after startTime");
+        }
+        return new long[]{start, end};
+    }
+
+    private static long parseTime(Object value, long fallback) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (!(value instanceof String text) || text.isBlank()) {
+            return fallback;
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        try {
+            return LocalDateTime.parse(text.trim(), TIME_FORMAT).atZone(zone).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+            // 继续尝试 ISO 格式
+        }
+        try {
+            return LocalDateTime.parse(text.trim()).atZone(zone).toInstant().toEpochMilli();
+        } catch (DateTimeParseException ignored) {
+            return LocalDate.parse(text.trim()).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+    }
+
+    private static int intArg(Map<String, Object> arguments, String key, int defaultValue) {
+        Object value = arguments.get(key);
+        if (value instanceof Number number) {
+            return number.intValue();
+        }
+        return value instanceof String text && !text.isBlank() ? Integer.parseInt(text.trim()) : defaultValue;
+    }
+
+    private static double doubleArg(Map<String, Object> arguments, String key, double defaultValue) {
+        Object value = arguments.get(key);
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        return value instanceof String text && !text.isBlank() ? Double.parseDouble(text.trim()) : defaultValue;
+    }
+
+    private static double rate(Map<String, Object> arguments, String key, double defaultValue) {
+        double rate = doubleArg(arguments, key, defaultValue);
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException(key + " must be within [0, 1]: " + rate);
+        }
+        return rate;
+    }
+
+    static double round2(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
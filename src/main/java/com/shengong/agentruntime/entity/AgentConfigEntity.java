@@ -0,0 +1,78 @@
+package com.shengong.agentruntime.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Agent 配置实体
+ * 按 Agent 名称保存运行时可修改的配置, 如 AnomalyDetectionAgent 的异常规则
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@Entity
+@Table(name = "agent_config", indexes = {
+        @Index(name = "idx_enabled", columnList = "enabled"),
+        @Index(name = "idx_domain", columnList = "domain")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AgentConfigEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "name", nullable = false, unique = true, length = 100)
+    private String name;
+
+    @Column(name = "type", nullable = false, length = 50)
+    private String type;
+
+    @Column(name = "domain", length = 50)
+    private String domain;
+
+    @Column(name = "description", columnDefinition = "TEXT")
+    private String description;
+
+    /**
+     * 配置 JSON
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "config", columnDefinition = "JSON")
+    private Map<String, Object> config;
+
+    @Column(name = "enabled")
+    private Boolean enabled;
+
+    @Column(name = "version", length = 20)
+    private String version;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        createdAt = now;
+        updatedAt = now;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,77 @@
+package com.shengong.agentruntime.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Agent 延迟直方图快照实体
+ * 定期将内存中的 HDR 直方图落库, 用于查询超出内存保留期的历史分位数
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@Entity
+@Table(name = "agent_latency_snapshot", indexes = {
+        @Index(name = "idx_agent_stage_window", columnList = "agentName, stage, windowEnd"),
+        @Index(name = "idx_window_end", columnList = "windowEnd")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AgentLatencySnapshotEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "agent_name", nullable = false, length = 100)
+    private String agentName;
+
+    /**
+     * 流水线阶段: execute, persist
+     */
+    @Column(name = "stage", nullable = false, length = 50)
+    private String stage;
+
+    @Column(name = "window_start", nullable = false)
+    private LocalDateTime windowStart;
+
+    @Column(name = "window_end", nullable = false)
+    private LocalDateTime windowEnd;
+
+    @Column(name = "sample_count", nullable = false)
+    private Long sampleCount;
+
+    @Column(name = "p50_ms")
+    private Long p50Ms;
+
+    @Column(name = "p95_ms")
+    private Long p95Ms;
+
+    @Column(name = "p99_ms")
+    private Long p99Ms;
+
+    @Column(name = "max_ms")
+    private Long maxMs;
+
+    /**
+     * HdrHistogram 压缩编码, 可与其他快照合并计算任意窗口的分位数
+     */
+    @Lob
+    @Column(name = "histogram", nullable = false, columnDefinition = "BLOB")
+    private byte[] histogram;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
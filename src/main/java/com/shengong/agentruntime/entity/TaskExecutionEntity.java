@@ -23,6 +23,7 @@ import java.util.Map;
         @Index(name = "idx_trace_id", columnList = "traceId"),
         @Index(name = "idx_status", columnList = "status"),
         @Index(name = "idx_user_id", columnList = "userId"),
+        @Index(name = "idx_user_started_at", columnList = "userId, startedAt"),
         @Index(name = "idx_started_at", columnList = "startedAt"),
         @Index(name = "idx_task_type", columnList = "taskType"),
         @Index(name = "idx_domain", columnList = "domain")
@@ -0,0 +1,72 @@
+package com.shengong.agentruntime.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Tool 配置实体
+ * 按 Tool 名称保存运行时可修改的配置, 如 config.policy 中的调用策略 (超时 / 重试 / 并发 / 缓存)
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@Entity
+@Table(name = "tool_config", indexes = {
+        @Index(name = "idx_enabled", columnList = "enabled"),
+        @Index(name = "idx_category", columnList = "category")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ToolConfigEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "name", nullable = false, unique = true, length = 100)
+    private String name;
+
+    @Column(name = "category", length = 50)
+    private String category;
+
+    @Column(name = "description", columnDefinition = "TEXT")
+    private String description;
+
+    /**
+     * 配置 JSON
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "config", columnDefinition = "JSON")
+    private Map<String, Object> config;
+
+    @Column(name = "enabled")
+    private Boolean enabled;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        LocalDateTime now = LocalDateTime.now();
+        createdAt = now;
+        updatedAt = now;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
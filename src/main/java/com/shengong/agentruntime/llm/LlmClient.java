@@ -1,5 +1,6 @@
 package com.shengong.agentruntime.llm;
 
+import dev.langchain4j.agent.tool.ToolSpecification;
 import dev.langchain4j.data.message.*;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.googleai.GoogleAiGeminiChatModel;
@@ -150,6 +151,30 @@ public class LlmClient {
         }
     }
 
+    /**
+     * 函数调用对话 - 向模型声明可用工具
+     *
+     * @param messages 消息列表 (含之前轮次的 AiMessage 与 ToolExecutionResultMessage)
+     * @param tools    工具声明, 为空时模型只能直接回答
+     * @return AI 消息, 可能包含文本或工具调用请求
+     */
+    public AiMessage chatWithTools(List<ChatMessage> messages, List<ToolSpecification> tools) {
+        try {
+            dev.langchain4j.model.output.Response<AiMessage> response = tools == null || tools.isEmpty()
+                    ? model.generate(messages)
+                    : model.generate(messages, tools);
+            AiMessage message = response.content();
+
+            log.debug("LLM tool-calling response received: toolCalls={}",
+                    message.hasToolExecutionRequests() ? message.toolExecutionRequests().size() : 0);
+            return message;
+
+        } catch (Exception e) {
+            log.error("LLM tool-calling chat failed: {}", e.getMessage(), e);
+            throw new RuntimeException("LLM tool-calling chat failed: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * 获取模型名称
      */
@@ -0,0 +1,114 @@
+package com.shengong.agentruntime.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.core.tool.Tool;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.model.chat.request.json.JsonArraySchema;
+import dev.langchain4j.model.chat.request.json.JsonBooleanSchema;
+import dev.langchain4j.model.chat.request.json.JsonEnumSchema;
+import dev.langchain4j.model.chat.request.json.JsonIntegerSchema;
+import dev.langchain4j.model.chat.request.json.JsonNumberSchema;
+import dev.langchain4j.model.chat.request.json.JsonObjectSchema;
+import dev.langchain4j.model.chat.request.json.JsonSchemaElement;
+import dev.langchain4j.model.chat.request.json.JsonStringSchema;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 把 Tool 的 JSON Schema (Tool.parametersSchema) 转换为 LLM function declaration
+ * 支持 object / array / string / integer / number / boolean / enum, 无法识别的类型按 string 处理;
+ * 转换结果按 (名称, 描述, Schema) 缓存
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ToolSchemaConverter {
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<List<String>, ToolSpecification> cache = new ConcurrentHashMap<>();
+
+    public ToolSpecification toSpecification(Tool tool) {
+        List<String> key = List.of(tool.name(), tool.description(), tool.parametersSchema());
+        return cache.computeIfAbsent(key, k -> ToolSpecification.builder()
+                .name(tool.name())
+                .description(tool.description())
+                .parameters(parameters(tool))
+                .build());
+    }
+
+    private JsonObjectSchema parameters(Tool tool) {
+        JsonNode schema;
+        try {
+            schema = objectMapper.readTree(tool.parametersSchema());
+        } catch (Exception e) {
+            log.warn("Invalid parameters schema for tool {}: {}", tool.name(), e.getMessage());
+            return JsonObjectSchema.builder().build();
+        }
+        return schema != null && schema.isObject() ? objectSchema(schema) : JsonObjectSchema.builder().build();
+    }
+
+    private JsonObjectSchema objectSchema(JsonNode schema) {
+        Map<String, JsonSchemaElement> properties = new LinkedHashMap<>();
+        schema.path("properties").fields()
+                .forEachRemaining(entry -> properties.put(entry.getKey(), element(entry.getValue())));
+        List<String> required = new ArrayList<>();
+        schema.path("required").forEach(name -> required.add(name.asText()));
+
+        JsonObjectSchema.Builder builder = JsonObjectSchema.builder()
+                .description(description(schema))
+                .properties(properties);
+        if (!required.isEmpty()) {
+            builder.required(required);
+        }
+        return builder.build();
+    }
+
+    private JsonSchemaElement element(JsonNode schema) {
+        String description = description(schema);
+        if (schema.has("enum")) {
+            List<String> values = new ArrayList<>();
+            schema.get("enum").forEach(value -> values.add(value.asText()));
+            return JsonEnumSchema.builder().enumValues(values).description(description).build();
+        }
+        String type = schema.path("type").isArray() ? firstNonNullType(schema.get("type")) : schema.path("type").asText("");
+        return switch (type) {
+            case "object" -> objectSchema(schema);
+            case "array" -> JsonArraySchema.builder()
+                    .items(schema.has("items") ? element(schema.get("items")) : JsonStringSchema.builder().build())
+                    .description(description)
+                    .build();
+            case "integer" -> JsonIntegerSchema.builder().description(description).build();
+            case "number" -> JsonNumberSchema.builder().description(description).build();
+            case "boolean" -> JsonBooleanSchema.builder().description(description).build();
+            default -> JsonStringSchema.builder().description(description).build();
+        };
+    }
+
+    /**
+     * "type": ["string", "null"] 形式取第一个非 null 类型
+     */
+    private static String firstNonNullType(JsonNode types) {
+        for (JsonNode type : types) {
+            if (!"null".equals(type.asText())) {
+                return type.asText();
+            }
+        }
+        return "string";
+    }
+
+    private static String description(JsonNode schema) {
+        return schema.hasNonNull("description") ? schema.get("description").asText() : null;
+    }
+}
@@ -0,0 +1,47 @@
+package com.shengong.agentruntime.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset 分页结果
+ * 不计算总数, 通过 nextCursor 继续翻页
+ *
+ * @param <T> 记录类型
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@AllArgsConstructor
+public class KeysetPage<T> {
+
+    /**
+     * 当前页记录
+     */
+    private List<T> items;
+
+    /**
+     * 请求的每页记录数
+     */
+    private int size;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasMore;
+
+    /**
+     * 下一页游标, 没有更多数据时为 null
+     */
+    private String nextCursor;
+
+    /**
+     * 转换记录类型, 保留分页信息
+     */
+    public <R> KeysetPage<R> map(Function<List<T>, List<R>> converter) {
+        return new KeysetPage<>(converter.apply(items), size, hasMore, nextCursor);
+    }
+}
@@ -0,0 +1,52 @@
+package com.shengong.agentruntime.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Agent 延迟分位数统计结果
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatencyPercentiles {
+
+    private String agentName;
+
+    /**
+     * 流水线阶段: execute, persist
+     */
+    private String stage;
+
+    private LocalDateTime windowStart;
+
+    private LocalDateTime windowEnd;
+
+    /**
+     * 样本数
+     */
+    private long count;
+
+    private long p50Ms;
+
+    private long p95Ms;
+
+    private long p99Ms;
+
+    private long maxMs;
+
+    private double meanMs;
+
+    /**
+     * 数据来源: memory (内存滚动窗口), snapshot (快照 + 未落库部分)
+     */
+    private String source;
+}
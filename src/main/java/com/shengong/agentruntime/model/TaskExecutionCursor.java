@@ -0,0 +1,68 @@
+package com.shengong.agentruntime.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 任务执行记录的 Keyset 游标
+ * 以 (startedAt, id) 定位上一页最后一条记录, 下一页从其之后继续读取
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@AllArgsConstructor
+public class TaskExecutionCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private LocalDateTime startedAt;
+
+    private Long id;
+
+    /**
+     * 根据记录摘要生成游标
+     */
+    public static TaskExecutionCursor of(TaskExecutionSummary summary) {
+        return new TaskExecutionCursor(summary.getStartedAt(), summary.getId());
+    }
+
+    /**
+     * 编码为对外暴露的不透明字符串
+     */
+    public String encode() {
+        String raw = startedAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标字符串, 为空时返回 null (表示第一页)
+     *
+     * @throws IllegalArgumentException 游标格式非法时抛出
+     */
+    public static TaskExecutionCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            if (index <= 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new TaskExecutionCursor(
+                    LocalDateTime.parse(raw.substring(0, index)),
+                    Long.parseLong(raw.substring(index + 1))
+            );
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
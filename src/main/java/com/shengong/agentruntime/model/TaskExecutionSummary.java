@@ -0,0 +1,45 @@
+package com.shengong.agentruntime.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 任务执行记录摘要
+ * 列表查询的默认投影, 不包含 payload / result 等大字段
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskExecutionSummary {
+
+    private Long id;
+
+    private String taskId;
+
+    private String taskType;
+
+    private String domain;
+
+    private String agentName;
+
+    private String traceId;
+
+    /**
+     * 执行状态: running, ok, error, partial
+     */
+    private String status;
+
+    private String userId;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+
+    private Integer latencyMs;
+}
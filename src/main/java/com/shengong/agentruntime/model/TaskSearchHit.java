@@ -0,0 +1,51 @@
+package com.shengong.agentruntime.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 执行记录检索命中
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskSearchHit {
+
+    private Long id;
+
+    private String taskId;
+
+    private String taskType;
+
+    private String domain;
+
+    private String agentName;
+
+    private String traceId;
+
+    private String status;
+
+    private String userId;
+
+    private LocalDateTime startedAt;
+
+    /**
+     * 摘要 (截断)
+     */
+    private String summary;
+
+    /**
+     * 错误信息 (截断)
+     */
+    private String errorMessage;
+
+    private float score;
+}
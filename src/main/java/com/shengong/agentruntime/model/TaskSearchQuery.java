@@ -0,0 +1,47 @@
+package com.shengong.agentruntime.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 执行记录全文检索条件
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskSearchQuery {
+
+    /**
+     * 检索语句, 支持 "短语"、-排除、| 或; 为空时只按过滤条件匹配
+     */
+    private String q;
+
+    private String agentName;
+
+    private String status;
+
+    private String domain;
+
+    private String userId;
+
+    private LocalDateTime startTime;
+
+    private LocalDateTime endTime;
+
+    /**
+     * 排序方式: relevance (默认) 或 time (startedAt 倒序)
+     */
+    private String sort;
+
+    private int from;
+
+    private int size;
+}
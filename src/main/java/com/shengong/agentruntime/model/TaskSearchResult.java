@@ -0,0 +1,40 @@
+package com.shengong.agentruntime.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 执行记录检索结果
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskSearchResult {
+
+    /**
+     * 命中总数
+     */
+    private long total;
+
+    private int from;
+
+    private int size;
+
+    private List<TaskSearchHit> items;
+
+    /**
+     * 分面计数: 维度 (agentName / status / domain) → 取值 → 命中数
+     */
+    private Map<String, Map<String, Long>> facets;
+
+    private long tookMs;
+}
@@ -0,0 +1,22 @@
+package com.shengong.agentruntime.repository;
+
+import com.shengong.agentruntime.entity.AgentConfigEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Agent 配置 Repository
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Repository
+public interface AgentConfigRepository extends JpaRepository<AgentConfigEntity, Long> {
+
+    /**
+     * 按 Agent 名称查询已启用的配置
+     */
+    Optional<AgentConfigEntity> findByNameAndEnabledTrue(String name);
+}
@@ -0,0 +1,28 @@
+package com.shengong.agentruntime.repository;
+
+import com.shengong.agentruntime.entity.AgentLatencySnapshotEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Agent 延迟直方图快照 Repository
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Repository
+public interface AgentLatencySnapshotRepository extends JpaRepository<AgentLatencySnapshotEntity, Long> {
+
+    /**
+     * 查询结束时间晚于指定时间的所有快照
+     */
+    List<AgentLatencySnapshotEntity> findByWindowEndAfter(LocalDateTime windowEnd);
+
+    /**
+     * 查询指定 Agent 结束时间晚于指定时间的快照
+     */
+    List<AgentLatencySnapshotEntity> findByAgentNameAndWindowEndAfter(String agentName, LocalDateTime windowEnd);
+}
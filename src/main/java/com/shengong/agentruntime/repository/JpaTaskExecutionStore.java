@@ -0,0 +1,125 @@
+package com.shengong.agentruntime.repository;
+
+import com.shengong.agentruntime.entity.TaskExecutionEntity;
+import com.shengong.agentruntime.model.TaskExecutionCursor;
+import com.shengong.agentruntime.model.TaskExecutionSummary;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * 基于 JPA (MySQL) 的任务执行记录存储
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "agent-runtime.store", name = "type", havingValue = "jpa", matchIfMissing = true)
+public class JpaTaskExecutionStore implements TaskExecutionStore {
+
+    private final TaskExecutionRepository taskExecutionRepository;
+    private final EntityManager entityManager;
+
+    @Override
+    public TaskExecutionEntity save(TaskExecutionEntity entity) {
+        return taskExecutionRepository.save(entity);
+    }
+
+    @Override
+    public Optional<TaskExecutionEntity> findByTaskId(String taskId) {
+        return taskExecutionRepository.findByTaskId(taskId);
+    }
+
+    @Override
+    public List<TaskExecutionEntity> findByTraceId(String traceId) {
+        return taskExecutionRepository.findByTraceId(traceId);
+    }
+
+    @Override
+    public List<TaskExecutionEntity> findAllById(Collection<Long> ids) {
+        return taskExecutionRepository.findAllById(ids);
+    }
+
+    @Override
+    public List<TaskExecutionEntity> findRecent(int limit) {
+        return taskExecutionRepository.findTop10ByOrderByStartedAtDesc().stream()
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public List<TaskExecutionSummary> findRecentSummaries(int limit) {
+        return taskExecutionRepository.findRecentSummaries(PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<TaskExecutionSummary> findSummariesByUserId(String userId, TaskExecutionCursor cursor, int limit) {
+        return cursor == null
+                ? taskExecutionRepository.findSummariesByUserId(userId, PageRequest.of(0, limit))
+                : taskExecutionRepository.findSummariesByUserIdAfter(
+                        userId, cursor.getStartedAt(), cursor.getId(), PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<TaskExecutionSummary> findSummariesByTimeRange(LocalDateTime startTime, LocalDateTime endTime,
+                                                               TaskExecutionCursor cursor, int limit) {
+        return cursor == null
+                ? taskExecutionRepository.findSummariesByTimeRange(startTime, endTime, PageRequest.of(0, limit))
+                : taskExecutionRepository.findSummariesByTimeRangeAfter(
+                        startTime, endTime, cursor.getStartedAt(), cursor.getId(), PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<TaskExecutionEntity> findByTimeRange(LocalDateTime startTime, LocalDateTime endTime) {
+        return taskExecutionRepository.findByTimeRange(startTime, endTime);
+    }
+
+    @Override
+    public Stream<TaskExecutionEntity> streamForExport(LocalDateTime startTime, LocalDateTime endTime,
+                                                       String agentName, String status, String userId) {
+        // 读出后立即从持久化上下文中移除, 避免一级缓存随导出行数增长
+        return taskExecutionRepository.streamForExport(startTime, endTime, agentName, status, userId)
+                .map(entity -> {
+                    entityManager.detach(entity);
+                    return entity;
+                });
+    }
+
+    @Override
+    public long countByTimeRange(LocalDateTime startTime, LocalDateTime endTime) {
+        return taskExecutionRepository.countByTimeRange(startTime, endTime);
+    }
+
+    @Override
+    public long countByStatus(String status) {
+        return taskExecutionRepository.countByStatus(status);
+    }
+
+    @Override
+    public Map<String, Long> countByAgentName() {
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : taskExecutionRepository.countByAgentName()) {
+            counts.put((String) row[0], (Long) row[1]);
+        }
+        return counts;
+    }
+
+    @Override
+    public void delete(TaskExecutionEntity entity) {
+        taskExecutionRepository.delete(entity);
+    }
+
+    @Override
+    public int deleteStartedBefore(LocalDateTime before) {
+        List<TaskExecutionEntity> oldRecords = taskExecutionRepository.findByTimeRange(LocalDateTime.MIN, before);
+        taskExecutionRepository.deleteAll(oldRecords);
+        return oldRecords.size();
+    }
+}
@@ -1,16 +1,22 @@
 package com.shengong.agentruntime.repository;
 
 import com.shengong.agentruntime.entity.TaskExecutionEntity;
+import com.shengong.agentruntime.model.TaskExecutionSummary;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * 任务执行记录 Repository
@@ -21,11 +27,36 @@ import java.util.Optional;
 @Repository
 public interface TaskExecutionRepository extends JpaRepository<TaskExecutionEntity, Long> {
 
+    /**
+     * 摘要投影, 只读取列表展示需要的列
+     */
+    String SUMMARY_SELECT = "SELECT new com.shengong.agentruntime.model.TaskExecutionSummary(" +
+            "t.id, t.taskId, t.taskType, t.domain, t.agentName, t.traceId, t.status, t.userId, " +
+            "t.startedAt, t.completedAt, t.latencyMs) FROM TaskExecutionEntity t ";
+
+    /**
+     * Keyset 条件: 严格位于游标 (startedAt, id) 之后 (按倒序)
+     */
+    String AFTER_CURSOR = "(t.startedAt < :cursorStartedAt " +
+            "OR (t.startedAt = :cursorStartedAt AND t.id < :cursorId)) ";
+
+    String KEYSET_ORDER = "ORDER BY t.startedAt DESC, t.id DESC";
+
+    /**
+     * MySQL Connector/J 仅在 fetchSize 为 Integer.MIN_VALUE 时逐行流式读取结果集
+     */
+    String STREAMING_FETCH_SIZE = "" + Integer.MIN_VALUE;
+
     /**
      * 根据 taskId 查询
      */
     Optional<TaskExecutionEntity> findByTaskId(String taskId);
 
+    /**
+     * 根据 taskId 批量查询 (本地日志写后复制时匹配已有记录)
+     */
+    List<TaskExecutionEntity> findByTaskIdIn(Collection<String> taskIds);
+
     /**
      * 根据 traceId 查询所有记录
      */
@@ -95,4 +126,74 @@ public interface TaskExecutionRepository extends JpaRepository<TaskExecutionEnti
      */
     @Query("SELECT t.agentName, COUNT(t) FROM TaskExecutionEntity t GROUP BY t.agentName")
     List<Object[]> countByAgentName();
+
+    /**
+     * 用户任务摘要 (第一页)
+     */
+    @Query(SUMMARY_SELECT + "WHERE t.userId = :userId " + KEYSET_ORDER)
+    List<TaskExecutionSummary> findSummariesByUserId(
+            @Param("userId") String userId,
+            Pageable limit
+    );
+
+    /**
+     * 用户任务摘要 (游标之后)
+     */
+    @Query(SUMMARY_SELECT + "WHERE t.userId = :userId AND " + AFTER_CURSOR + KEYSET_ORDER)
+    List<TaskExecutionSummary> findSummariesByUserIdAfter(
+            @Param("userId") String userId,
+            @Param("cursorStartedAt") LocalDateTime cursorStartedAt,
+            @Param("cursorId") Long cursorId,
+            Pageable limit
+    );
+
+    /**
+     * 时间范围内的任务摘要 (第一页)
+     */
+    @Query(SUMMARY_SELECT + "WHERE t.startedAt >= :startTime AND t.startedAt <= :endTime " + KEYSET_ORDER)
+    List<TaskExecutionSummary> findSummariesByTimeRange(
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            Pageable limit
+    );
+
+    /**
+     * 时间范围内的任务摘要 (游标之后)
+     */
+    @Query(SUMMARY_SELECT + "WHERE t.startedAt >= :startTime AND t.startedAt <= :endTime AND "
+            + AFTER_CURSOR + KEYSET_ORDER)
+    List<TaskExecutionSummary> findSummariesByTimeRangeAfter(
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("cursorStartedAt") LocalDateTime cursorStartedAt,
+            @Param("cursorId") Long cursorId,
+            Pageable limit
+    );
+
+    /**
+     * 最近的任务摘要
+     */
+    @Query(SUMMARY_SELECT + KEYSET_ORDER)
+    List<TaskExecutionSummary> findRecentSummaries(Pageable limit);
+
+    /**
+     * 以只读游标流式读取导出数据, 必须在只读事务内消费并关闭
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAMING_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT t FROM TaskExecutionEntity t WHERE t.startedAt >= :startTime AND t.startedAt <= :endTime " +
+            "AND (:agentName IS NULL OR t.agentName = :agentName) " +
+            "AND (:status IS NULL OR t.status = :status) " +
+            "AND (:userId IS NULL OR t.userId = :userId) " +
+            "ORDER BY t.startedAt ASC, t.id ASC")
+    Stream<TaskExecutionEntity> streamForExport(
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("agentName") String agentName,
+            @Param("status") String status,
+            @Param("userId") String userId
+    );
 }
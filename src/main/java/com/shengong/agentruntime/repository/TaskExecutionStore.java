@@ -0,0 +1,101 @@
+package com.shengong.agentruntime.repository;
+
+import com.shengong.agentruntime.entity.TaskExecutionEntity;
+import com.shengong.agentruntime.model.TaskExecutionCursor;
+import com.shengong.agentruntime.model.TaskExecutionSummary;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * 任务执行记录存储
+ * 由 agent-runtime.store.type 选择实现: jpa (默认, MySQL) 或 journal (本地追加日志)
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public interface TaskExecutionStore {
+
+    /**
+     * 新增或更新记录, 新记录会被分配 id
+     */
+    TaskExecutionEntity save(TaskExecutionEntity entity);
+
+    /**
+     * 根据 taskId 查询
+     */
+    Optional<TaskExecutionEntity> findByTaskId(String taskId);
+
+    /**
+     * 根据 traceId 查询所有记录
+     */
+    List<TaskExecutionEntity> findByTraceId(String traceId);
+
+    /**
+     * 根据 id 批量查询, 不保证顺序
+     */
+    List<TaskExecutionEntity> findAllById(Collection<Long> ids);
+
+    /**
+     * 查询最近 N 条完整记录
+     */
+    List<TaskExecutionEntity> findRecent(int limit);
+
+    /**
+     * 查询最近 N 条摘要, 按 (startedAt, id) 倒序
+     */
+    List<TaskExecutionSummary> findRecentSummaries(int limit);
+
+    /**
+     * 用户任务摘要, 按 (startedAt, id) 倒序, cursor 为空时从第一条开始
+     */
+    List<TaskExecutionSummary> findSummariesByUserId(String userId, TaskExecutionCursor cursor, int limit);
+
+    /**
+     * 时间范围内的任务摘要, 按 (startedAt, id) 倒序, cursor 为空时从第一条开始
+     */
+    List<TaskExecutionSummary> findSummariesByTimeRange(LocalDateTime startTime, LocalDateTime endTime,
+                                                        TaskExecutionCursor cursor, int limit);
+
+    /**
+     * 根据时间范围查询完整记录
+     */
+    List<TaskExecutionEntity> findByTimeRange(LocalDateTime startTime, LocalDateTime endTime);
+
+    /**
+     * 按 (startedAt, id) 正序流式读取导出数据, 调用方负责关闭
+     */
+    Stream<TaskExecutionEntity> streamForExport(LocalDateTime startTime, LocalDateTime endTime,
+                                                String agentName, String status, String userId);
+
+    /**
+     * 统计某个时间段内的执行次数
+     */
+    long countByTimeRange(LocalDateTime startTime, LocalDateTime endTime);
+
+    /**
+     * 根据状态统计
+     */
+    long countByStatus(String status);
+
+    /**
+     * 根据 Agent 名称统计执行次数
+     */
+    Map<String, Long> countByAgentName();
+
+    /**
+     * 删除记录
+     */
+    void delete(TaskExecutionEntity entity);
+
+    /**
+     * 删除开始时间早于指定时间的记录
+     *
+     * @return 删除的记录数
+     */
+    int deleteStartedBefore(LocalDateTime before);
+}
@@ -0,0 +1,28 @@
+package com.shengong.agentruntime.repository;
+
+import com.shengong.agentruntime.entity.ToolConfigEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tool 配置 Repository
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Repository
+public interface ToolConfigRepository extends JpaRepository<ToolConfigEntity, Long> {
+
+    /**
+     * 按 Tool 名称查询已启用的配置
+     */
+    Optional<ToolConfigEntity> findByNameAndEnabledTrue(String name);
+
+    /**
+     * 全部已启用的配置
+     */
+    List<ToolConfigEntity> findByEnabledTrue();
+}
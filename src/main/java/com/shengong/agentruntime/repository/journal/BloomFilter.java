@@ -0,0 +1,71 @@
+package com.shengong.agentruntime.repository.journal;
+
+/**
+ * 段内字符串字段的布隆过滤器, 用于跳过不可能包含目标 taskId / traceId / userId 的段
+ * 非线程安全, 由 {@link JournalTaskExecutionStore} 的读写锁保护
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+final class BloomFilter {
+
+    private static final int HASH_COUNT = 4;
+
+    private final long[] words;
+    private final int mask;
+
+    /**
+     * @param bits 位数, 向上取整为 2 的幂
+     */
+    BloomFilter(int bits) {
+        int size = Integer.highestOneBit(Math.max(64, bits - 1)) << 1;
+        this.words = new long[size >>> 6];
+        this.mask = size - 1;
+    }
+
+    void add(String value) {
+        if (value == null) {
+            return;
+        }
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            int bit = (h1 + i * h2) & mask;
+            words[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(String value) {
+        if (value == null) {
+            return false;
+        }
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < HASH_COUNT; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * FNV-1a 64 位哈希, 再经 murmur3 finalizer 混合
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
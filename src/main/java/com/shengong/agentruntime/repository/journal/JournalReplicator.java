@@ -0,0 +1,151 @@
+package com.shengong.agentruntime.repository.journal;
+
+import com.shengong.agentruntime.entity.TaskExecutionEntity;
+import com.shengong.agentruntime.repository.TaskExecutionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 本地日志到 MySQL 的写后复制
+ * 按写入顺序读取 {@link JournalTaskExecutionStore} 的变更, 每批在一个事务内按 taskId 写入 (已存在则更新, 墓碑则删除),
+ * 成功后把复制位置原子写入日志目录下的 replication.position. 位置只在事务提交后前进, 失败时下次从原位置重试,
+ * 因此是至少一次: 重复应用同一批变更的结果相同. MySQL 中的 id 由数据库生成, 与日志中的 id 无关
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "agent-runtime.store.journal.replication", name = "enabled", havingValue = "true")
+public class JournalReplicator {
+
+    static final String POSITION_FILE = "replication.position";
+
+    private final JournalTaskExecutionStore journal;
+    private final TaskExecutionRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final Path positionFile;
+    private final int batchSize;
+
+    private long position;
+
+    public JournalReplicator(
+            JournalTaskExecutionStore journal,
+            TaskExecutionRepository repository,
+            PlatformTransactionManager transactionManager,
+            @Value("${agent-runtime.store.journal.directory:data/journal}") String directory,
+            @Value("${agent-runtime.store.journal.replication.batch-size:500}") int batchSize) {
+        this.journal = journal;
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.positionFile = Paths.get(directory).resolve(POSITION_FILE);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (Files.exists(positionFile)) {
+            position = Long.parseLong(Files.readString(positionFile, StandardCharsets.UTF_8).trim());
+        }
+        journal.acknowledge(position);
+        log.info("Journal replication to MySQL enabled, resuming at segment {} offset {}",
+                position >>> 32, (int) position);
+    }
+
+    /**
+     * 复制积压的全部变更, 某一批失败时停止并等待下次调度
+     *
+     * @return 本次复制的变更数
+     */
+    @Scheduled(fixedDelayString = "${agent-runtime.store.journal.replication.interval-ms:1000}")
+    public synchronized int replicate() {
+        int replicated = 0;
+        while (true) {
+            JournalTaskExecutionStore.ChangeBatch batch = journal.readChanges(position, batchSize);
+            try {
+                if (!batch.changes().isEmpty()) {
+                    transactionTemplate.executeWithoutResult(status -> apply(batch.changes()));
+                }
+                if (batch.nextPosition() != position) {
+                    savePosition(batch.nextPosition());
+                }
+            } catch (RuntimeException | IOException e) {
+                log.error("Journal replication failed at segment {} offset {}, will retry: {}",
+                        position >>> 32, (int) position, e.getMessage(), e);
+                return replicated;
+            }
+            replicated += batch.changes().size();
+            if (batch.changes().size() < batchSize) {
+                if (replicated > 0) {
+                    log.debug("Replicated {} journal changes to MySQL", replicated);
+                }
+                return replicated;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        replicate();
+    }
+
+    /**
+     * 同一批内同一 taskId 只保留最后一次变更
+     */
+    private void apply(List<JournalTaskExecutionStore.Change> changes) {
+        Map<String, JournalTaskExecutionStore.Change> latest = new LinkedHashMap<>();
+        for (JournalTaskExecutionStore.Change change : changes) {
+            if (change.taskId() != null) {
+                latest.remove(change.taskId());
+                latest.put(change.taskId(), change);
+            }
+        }
+        Map<String, TaskExecutionEntity> existing = repository.findByTaskIdIn(latest.keySet()).stream()
+                .collect(Collectors.toMap(TaskExecutionEntity::getTaskId, Function.identity(), (a, b) -> a));
+
+        List<TaskExecutionEntity> saves = new ArrayList<>();
+        List<TaskExecutionEntity> deletes = new ArrayList<>();
+        for (JournalTaskExecutionStore.Change change : latest.values()) {
+            TaskExecutionEntity current = existing.get(change.taskId());
+            if (change.isDelete()) {
+                if (current != null) {
+                    deletes.add(current);
+                }
+                continue;
+            }
+            TaskExecutionEntity entity = change.entity();
+            entity.setId(current != null ? current.getId() : null);
+            saves.add(entity);
+        }
+        repository.deleteAll(deletes);
+        repository.saveAll(saves);
+    }
+
+    private void savePosition(long next) throws IOException {
+        Path temp = positionFile.resolveSibling(POSITION_FILE + ".tmp");
+        Files.writeString(temp, Long.toString(next), StandardCharsets.UTF_8);
+        Files.move(temp, positionFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        position = next;
+        journal.acknowledge(next);
+    }
+}
@@ -0,0 +1,309 @@
+package com.shengong.agentruntime.repository.journal;
+
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * 日志段: 预分配并内存映射的定长文件, 段头之后顺序追加帧
+ *
+ * <pre>
+ * 段头 [int magic][int version][long highWaterId]
+ * 帧   [int length][int crc32c][body ...]
+ * </pre>
+ * highWaterId 为创建该段时已分配的最大 id, 之前的段被压缩删除后重放仍能据此恢复 id 序列, 不会复用已分配的 id.
+ * 长度为 0 表示段内数据结束, 因此长度字段在 body 与校验和之后最后写入
+ * 段内同时维护 startedAt 的最小/最大值与 traceId / userId 的布隆过滤器, 作为查询时的稀疏索引
+ * 非线程安全, 由 {@link JournalTaskExecutionStore} 的读写锁保护
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Getter
+final class JournalSegment implements Closeable {
+
+    static final int FRAME_HEADER = 8;
+
+    /**
+     * 段头长度, 第一帧的偏移
+     */
+    static final int SEGMENT_HEADER = 16;
+
+    private static final int MAGIC = 0x534A524E;
+    private static final int VERSION = 1;
+
+    private static final int ZERO_CHUNK = 64 * 1024;
+
+    private final int sequence;
+    private final Path path;
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long highWaterId;
+
+    private final BloomFilter traceIds;
+    private final BloomFilter userIds;
+
+    private int writePosition = SEGMENT_HEADER;
+    private int records;
+    private int liveRecords;
+    private long minStartedAt = Long.MAX_VALUE;
+    private long maxStartedAt = Long.MIN_VALUE;
+    private boolean sealed;
+
+    private JournalSegment(int sequence, Path path, FileChannel channel, MappedByteBuffer buffer,
+                           long highWaterId, int bloomBits) {
+        this.sequence = sequence;
+        this.path = path;
+        this.channel = channel;
+        this.capacity = buffer.capacity();
+        this.buffer = buffer;
+        this.highWaterId = highWaterId;
+        this.traceIds = new BloomFilter(bloomBits);
+        this.userIds = new BloomFilter(bloomBits);
+    }
+
+    /**
+     * 创建新段并预分配空间
+     *
+     * @param highWaterId 当前已分配的最大 id
+     */
+    static JournalSegment create(Path path, int sequence, int capacity, int bloomBits, long highWaterId)
+            throws IOException {
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(8, highWaterId);
+        buffer.force();
+        return new JournalSegment(sequence, path, channel, buffer, highWaterId, bloomBits);
+    }
+
+    /**
+     * 打开已有段, 需随后调用 {@link #recover} 恢复写入位置
+     *
+     * @throws IOException 文件不是当前版本的日志段
+     */
+    static JournalSegment open(Path path, int sequence, int bloomBits) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < SEGMENT_HEADER) {
+                throw new IOException("Journal segment too short: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a version " + VERSION + " journal segment: " + path);
+            }
+            return new JournalSegment(sequence, path, channel, buffer, buffer.getLong(8), bloomBits);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 从段首开始校验所有帧, 遇到第一个长度或校验和不合法的帧停止
+     *
+     * @return 是否完整读到段尾 (false 表示存在损坏的帧)
+     */
+    boolean recover(CRC32C crc, FrameVisitor visitor) {
+        int position = SEGMENT_HEADER;
+        boolean clean = true;
+        while (position + FRAME_HEADER <= capacity) {
+            int length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || position + FRAME_HEADER + length > capacity
+                    || buffer.getInt(position + 4) != checksum(crc, position + FRAME_HEADER, length)) {
+                clean = false;
+                break;
+            }
+            records++;
+            visitor.visit(position, position + FRAME_HEADER, length);
+            position += FRAME_HEADER + length;
+        }
+        writePosition = position;
+        return clean;
+    }
+
+    /**
+     * 遍历已写入的帧, visitor 返回 false 时停止
+     */
+    void forEach(FrameVisitor visitor) {
+        forEachFrom(SEGMENT_HEADER, visitor);
+    }
+
+    /**
+     * 从 position 处的帧开始遍历, position 须为帧边界
+     */
+    void forEachFrom(int position, FrameVisitor visitor) {
+        while (position < writePosition) {
+            int length = buffer.getInt(position);
+            if (!visitor.visit(position, position + FRAME_HEADER, length)) {
+                return;
+            }
+            position += FRAME_HEADER + length;
+        }
+    }
+
+    /**
+     * 在段尾追加一帧
+     *
+     * @param writer 向 body 区域写入数据, 空间不足时抛出 BufferOverflowException
+     * @return 帧偏移, 段剩余空间不足时返回 -1
+     */
+    int append(Consumer<ByteBuffer> writer, CRC32C crc) {
+        int offset = writePosition;
+        if (sealed || offset + FRAME_HEADER >= capacity) {
+            return -1;
+        }
+
+        ByteBuffer body = buffer.slice(offset + FRAME_HEADER, capacity - offset - FRAME_HEADER);
+        try {
+            writer.accept(body);
+        } catch (BufferOverflowException e) {
+            zero(offset + FRAME_HEADER, body.position());
+            return -1;
+        } catch (RuntimeException e) {
+            zero(offset + FRAME_HEADER, body.position());
+            throw e;
+        }
+
+        commit(offset, body.position(), crc);
+        return offset;
+    }
+
+    /**
+     * 原样复制其他段中的一帧 (压缩时使用), 无需重新编码
+     *
+     * @return 帧偏移, 段剩余空间不足时返回 -1
+     */
+    int appendFrame(ByteBuffer source, int sourceOffset, int length) {
+        int offset = writePosition;
+        if (sealed || offset + FRAME_HEADER + length > capacity) {
+            return -1;
+        }
+        buffer.put(offset + FRAME_HEADER, source, sourceOffset + FRAME_HEADER, length);
+        buffer.putInt(offset + 4, source.getInt(sourceOffset + 4));
+        buffer.putInt(offset, length);
+        writePosition = offset + FRAME_HEADER + length;
+        records++;
+        return offset;
+    }
+
+    /**
+     * 清零 position 之后的数据 (恢复时丢弃损坏的尾部)
+     */
+    void truncate(int position) {
+        zero(position, capacity - position);
+        writePosition = position;
+    }
+
+    void observe(long startedAt, String traceId, String userId) {
+        minStartedAt = Math.min(minStartedAt, startedAt);
+        maxStartedAt = Math.max(maxStartedAt, startedAt);
+        traceIds.add(traceId);
+        userIds.add(userId);
+    }
+
+    void incrementLive() {
+        liveRecords++;
+    }
+
+    void decrementLive() {
+        liveRecords--;
+    }
+
+    void seal() {
+        sealed = true;
+    }
+
+    boolean isEmpty() {
+        return writePosition == SEGMENT_HEADER;
+    }
+
+    /**
+     * 仍有效的记录占比, 墓碑与被覆盖的旧版本都计为无效
+     */
+    double liveRatio() {
+        return records == 0 ? 1.0 : (double) liveRecords / records;
+    }
+
+    /**
+     * 同步到磁盘
+     */
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() {
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close journal segment " + path, e);
+        }
+    }
+
+    /**
+     * 关闭并删除文件, 映射内存在被 GC 回收前仍占用地址空间
+     */
+    void delete() {
+        try {
+            channel.close();
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete journal segment " + path, e);
+        }
+    }
+
+    private void commit(int offset, int length, CRC32C crc) {
+        buffer.putInt(offset + 4, checksum(crc, offset + FRAME_HEADER, length));
+        buffer.putInt(offset, length);
+        writePosition = offset + FRAME_HEADER + length;
+        records++;
+    }
+
+    private int checksum(CRC32C crc, int offset, int length) {
+        crc.reset();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private void zero(int offset, int length) {
+        byte[] zeros = new byte[Math.min(ZERO_CHUNK, Math.max(0, length))];
+        int end = offset + length;
+        for (int position = offset; position < end; position += zeros.length) {
+            buffer.put(position, zeros, 0, Math.min(zeros.length, end - position));
+        }
+    }
+
+    /**
+     * 帧访问回调
+     */
+    @FunctionalInterface
+    interface FrameVisitor {
+
+        /**
+         * @param offset 帧偏移
+         * @param body   body 偏移
+         * @param length body 长度
+         * @return 是否继续遍历
+         */
+        boolean visit(int offset, int body, int length);
+    }
+}
@@ -0,0 +1,816 @@
+package com.shengong.agentruntime.repository.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.entity.TaskExecutionEntity;
+import com.shengong.agentruntime.model.TaskExecutionCursor;
+import com.shengong.agentruntime.model.TaskExecutionSummary;
+import com.shengong.agentruntime.repository.TaskExecutionStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static com.shengong.agentruntime.repository.journal.TaskExecutionRecordCodec.*;
+
+/**
+ * 基于本地追加日志的任务执行记录存储
+ * <p>
+ * 记录以二进制帧顺序追加到预分配的内存映射段文件中, 更新即追加新版本, 删除即追加墓碑;
+ * 内存中保留 id 与 taskId → (段序号, 偏移) 的位置索引与状态/Agent 计数, 其余查询依靠段级的
+ * startedAt 范围与布隆过滤器跳过无关段后直接扫描映射内存. 有效记录占比过低的已封存段
+ * 会被定期压缩, 启动时按段序号重放并校验 CRC32C, 截断损坏的尾部.
+ * <p>
+ * 可以不依赖 MySQL 单独运行 (edge profile), 也可以作为 MySQL 前的本地缓冲: 开启写后复制时
+ * {@link JournalReplicator} 按写入顺序通过 {@link #readChanges} 读取变更写入 MySQL, 尚未复制的段不会被压缩.
+ * <p>
+ * 适用于单实例部署下以写入为主的场景; 写操作串行化, 读操作之间可并发
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(prefix = "agent-runtime.store", name = "type", havingValue = "journal")
+public class JournalTaskExecutionStore implements TaskExecutionStore {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    /**
+     * 每个布隆过滤器的位数, 64MB 段约 6 万条记录时误判率约 0.3%
+     */
+    private static final int BLOOM_BITS = 1 << 20;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final CRC32C crc = new CRC32C();
+    private final TaskExecutionRecordCodec codec;
+    private final Path directory;
+    private final int segmentSize;
+    private final double compactionThreshold;
+
+    private final NavigableMap<Integer, JournalSegment> segments = new TreeMap<>();
+    private final Map<Long, Long> locations = new HashMap<>();
+    private final Map<String, Long> taskLocations = new HashMap<>();
+    private final Map<String, Long> statusCounts = new HashMap<>();
+    private final Map<String, Long> agentCounts = new HashMap<>();
+
+    private JournalSegment active;
+    private long nextId = 1;
+
+    /**
+     * 已复制到 MySQL 的位置, 该位置所在段及之后的段不压缩; 未开启复制时不限制
+     */
+    private volatile long replicatedPosition = Long.MAX_VALUE;
+
+    public JournalTaskExecutionStore(
+            ObjectMapper objectMapper,
+            @Value("${agent-runtime.store.journal.directory:data/journal}") String directory,
+            @Value("${agent-runtime.store.journal.segment-size:64MB}") DataSize segmentSize,
+            @Value("${agent-runtime.store.journal.compaction-threshold:0.5}") double compactionThreshold) {
+        this.codec = new TaskExecutionRecordCodec(objectMapper);
+        this.directory = Paths.get(directory);
+        this.segmentSize = (int) Math.min(Integer.MAX_VALUE, Math.max(64 * 1024, segmentSize.toBytes()));
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * 按段序号重放日志, 重建位置索引与计数
+     */
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(path -> sequenceOf(path) > 0).sorted().toList();
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                Path file = files.get(i);
+                JournalSegment segment = JournalSegment.open(file, sequenceOf(file), BLOOM_BITS);
+                segments.put(segment.getSequence(), segment);
+                nextId = Math.max(nextId, segment.getHighWaterId() + 1);
+
+                boolean last = i == files.size() - 1;
+                boolean clean = segment.recover(crc, (offset, body, length) -> {
+                    replay(segment, offset, body);
+                    return true;
+                });
+                if (!clean) {
+                    log.warn("Corrupted frame in journal segment {} at offset {}, discarding the rest of the segment",
+                            file.getFileName(), segment.getWritePosition());
+                    if (last) {
+                        segment.truncate(segment.getWritePosition());
+                    }
+                }
+                if (!last) {
+                    segment.seal();
+                }
+            }
+
+            active = segments.isEmpty() ? createSegment(1) : segments.lastEntry().getValue();
+            log.info("Task execution journal opened: directory={}, segments={}, records={}",
+                    directory.toAbsolutePath(), segments.size(), locations.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            segments.values().forEach(JournalSegment::close);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- 写入 ---
+
+    @Override
+    public TaskExecutionEntity save(TaskExecutionEntity entity) {
+        lock.writeLock().lock();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            if (entity.getId() == null) {
+                entity.setId(nextId++);
+            } else {
+                nextId = Math.max(nextId, entity.getId() + 1);
+            }
+            if (entity.getCreatedAt() == null) {
+                entity.setCreatedAt(now);
+            }
+            if (entity.getStartedAt() == null) {
+                entity.setStartedAt(now);
+            }
+            entity.setUpdatedAt(now);
+
+            long location = append(out -> codec.encodePut(out, entity));
+            index(segmentOf(location), offsetOf(location));
+            return entity;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(TaskExecutionEntity entity) {
+        if (entity.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            remove(entity.getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int deleteStartedBefore(LocalDateTime before) {
+        long beforeMicros = toMicros(before);
+        lock.writeLock().lock();
+        try {
+            List<Long> ids = new ArrayList<>();
+            for (JournalSegment segment : segments.values()) {
+                if (segment.getMinStartedAt() >= beforeMicros) {
+                    continue;
+                }
+                scanLive(segment, (buffer, body, location) -> {
+                    long startedAt = startedAt(buffer, body);
+                    if (startedAt != NULL_TIME && startedAt < beforeMicros) {
+                        ids.add(id(buffer, body));
+                    }
+                    return true;
+                });
+            }
+            ids.forEach(this::remove);
+            return ids.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- 查询 ---
+
+    @Override
+    public Optional<TaskExecutionEntity> findByTaskId(String taskId) {
+        lock.readLock().lock();
+        try {
+            Long location = taskLocations.get(taskId);
+            return location != null ? Optional.of(decode(location)) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<TaskExecutionEntity> findByTraceId(String traceId) {
+        byte[] key = traceId.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            List<TaskExecutionEntity> results = new ArrayList<>();
+            for (JournalSegment segment : segments.values()) {
+                if (!segment.getTraceIds().mightContain(traceId)) {
+                    continue;
+                }
+                scanLive(segment, (buffer, body, location) -> {
+                    if (stringEquals(buffer, body, TRACE_ID, key)) {
+                        results.add(codec.decode(buffer, body));
+                    }
+                    return true;
+                });
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<TaskExecutionEntity> findAllById(Collection<Long> ids) {
+        lock.readLock().lock();
+        try {
+            List<TaskExecutionEntity> results = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                TaskExecutionEntity entity = load(id);
+                if (entity != null) {
+                    results.add(entity);
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<TaskExecutionEntity> findRecent(int limit) {
+        lock.readLock().lock();
+        try {
+            return top(Long.MIN_VALUE, Long.MAX_VALUE, null, null, null, limit).stream()
+                    .map(candidate -> decode(candidate.location()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<TaskExecutionSummary> findRecentSummaries(int limit) {
+        lock.readLock().lock();
+        try {
+            return summaries(top(Long.MIN_VALUE, Long.MAX_VALUE, null, null, null, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<TaskExecutionSummary> findSummariesByUserId(String userId, TaskExecutionCursor cursor, int limit) {
+        byte[] key = userId.getBytes(StandardCharsets.UTF_8);
+        lock.readLock().lock();
+        try {
+            return summaries(top(Long.MIN_VALUE, Long.MAX_VALUE, cursor,
+                    segment -> segment.getUserIds().mightContain(userId),
+                    (buffer, body) -> stringEquals(buffer, body, USER_ID, key),
+                    limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<TaskExecutionSummary> findSummariesByTimeRange(LocalDateTime startTime, LocalDateTime endTime,
+                                                               TaskExecutionCursor cursor, int limit) {
+        lock.readLock().lock();
+        try {
+            return summaries(top(toMicros(startTime), toMicros(endTime), cursor, null, null, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<TaskExecutionEntity> findByTimeRange(LocalDateTime startTime, LocalDateTime endTime) {
+        long from = toMicros(startTime);
+        long to = toMicros(endTime);
+        lock.readLock().lock();
+        try {
+            List<TaskExecutionEntity> results = new ArrayList<>();
+            for (JournalSegment segment : overlapping(from, to)) {
+                scanLive(segment, (buffer, body, location) -> {
+                    long startedAt = startedAt(buffer, body);
+                    if (startedAt >= from && startedAt <= to) {
+                        results.add(codec.decode(buffer, body));
+                    }
+                    return true;
+                });
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 先只收集 (startedAt, id) 并排序, 读取时再逐条按 id 解码, 内存中只保留排序键, 不随记录大小增长
+     * 已在导出期间被删除的记录会被跳过
+     */
+    @Override
+    public Stream<TaskExecutionEntity> streamForExport(LocalDateTime startTime, LocalDateTime endTime,
+                                                       String agentName, String status, String userId) {
+        long from = toMicros(startTime);
+        long to = toMicros(endTime);
+        byte[] agentKey = utf8(agentName);
+        byte[] statusKey = utf8(status);
+        byte[] userKey = utf8(userId);
+
+        List<Candidate> candidates = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (JournalSegment segment : overlapping(from, to)) {
+                if (userId != null && !segment.getUserIds().mightContain(userId)) {
+                    continue;
+                }
+                scanLive(segment, (buffer, body, location) -> {
+                    long startedAt = startedAt(buffer, body);
+                    if (startedAt >= from && startedAt <= to
+                            && (agentKey == null || stringEquals(buffer, body, AGENT_NAME, agentKey))
+                            && (statusKey == null || stringEquals(buffer, body, STATUS, statusKey))
+                            && (userKey == null || stringEquals(buffer, body, USER_ID, userKey))) {
+                        candidates.add(new Candidate(startedAt, id(buffer, body), location));
+                    }
+                    return true;
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        candidates.sort(null);
+        return candidates.stream()
+                .map(candidate -> {
+                    lock.readLock().lock();
+                    try {
+                        return load(candidate.id());
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                })
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public long countByTimeRange(LocalDateTime startTime, LocalDateTime endTime) {
+        long from = toMicros(startTime);
+        long to = toMicros(endTime);
+        lock.readLock().lock();
+        try {
+            long[] count = new long[1];
+            for (JournalSegment segment : overlapping(from, to)) {
+                scanLive(segment, (buffer, body, location) -> {
+                    long startedAt = startedAt(buffer, body);
+                    if (startedAt >= from && startedAt <= to) {
+                        count[0]++;
+                    }
+                    return true;
+                });
+            }
+            return count[0];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long countByStatus(String status) {
+        lock.readLock().lock();
+        try {
+            return statusCounts.getOrDefault(status, 0L);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Map<String, Long> countByAgentName() {
+        lock.readLock().lock();
+        try {
+            return new HashMap<>(agentCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- 后台维护 ---
+
+    /**
+     * 定期将活动段刷盘, 两次刷盘之间进程崩溃最多丢失该间隔内的写入
+     */
+    @Scheduled(fixedDelayString = "${agent-runtime.store.journal.force-interval-ms:1000}")
+    public void force() {
+        lock.readLock().lock();
+        try {
+            active.force();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 压缩有效记录占比低于阈值的已封存段: 将仍有效的帧原样复制到活动段后删除原文件
+     * 墓碑需保留到所在段成为最早的段为止, 以免更早段中的旧版本在重放时复活; 丢弃墓碑后 id 序列由段头的
+     * highWaterId 恢复. 开启写后复制时只压缩已完整复制的段, 墓碑不会在复制前丢失
+     */
+    @Scheduled(fixedDelayString = "${agent-runtime.store.journal.compaction-interval-ms:300000}",
+            initialDelayString = "${agent-runtime.store.journal.compaction-interval-ms:300000}")
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            int replicatedSegment = (int) (replicatedPosition >>> 32);
+            for (JournalSegment segment : new ArrayList<>(segments.values())) {
+                if (segment == active || !segment.isSealed() || segment.liveRatio() >= compactionThreshold
+                        || segment.getSequence() >= replicatedSegment) {
+                    continue;
+                }
+                int before = segment.getLiveRecords();
+                compact(segment, segment == segments.firstEntry().getValue());
+                log.info("Compacted journal segment {}: relocated {} live records",
+                        segment.getPath().getFileName(), before);
+            }
+        } catch (RuntimeException e) {
+            log.error("Journal compaction failed: {}", e.getMessage(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void compact(JournalSegment segment, boolean oldest) {
+        ByteBuffer source = segment.getBuffer();
+        segment.forEach((offset, body, length) -> {
+            boolean put = op(source, body) == OP_PUT;
+            if (put ? isLive(segment, offset, body) : !oldest) {
+                long location = appendFrame(source, offset, length);
+                if (put) {
+                    index(segmentOf(location), offsetOf(location));
+                }
+            }
+            return true;
+        });
+        active.force();
+        segments.remove(segment.getSequence());
+        segment.delete();
+    }
+
+    // --- 索引维护 (调用方持有写锁) ---
+
+    private void replay(JournalSegment segment, int offset, int body) {
+        ByteBuffer buffer = segment.getBuffer();
+        long id = id(buffer, body);
+        nextId = Math.max(nextId, id + 1);
+        if (op(buffer, body) == OP_PUT) {
+            index(segment, offset);
+        } else {
+            unindex(locations.remove(id));
+        }
+    }
+
+    /**
+     * 将段中 offset 处的记录设为该 id 的最新版本
+     */
+    private void index(JournalSegment segment, int offset) {
+        ByteBuffer buffer = segment.getBuffer();
+        int body = offset + JournalSegment.FRAME_HEADER;
+
+        long location = locationOf(segment, offset);
+        unindex(locations.put(id(buffer, body), location));
+        String taskId = string(buffer, body, TASK_ID);
+        if (taskId != null) {
+            taskLocations.put(taskId, location);
+        }
+        segment.incrementLive();
+        segment.observe(startedAt(buffer, body),
+                string(buffer, body, TRACE_ID),
+                string(buffer, body, USER_ID));
+        statusCounts.merge(string(buffer, body, STATUS), 1L, Long::sum);
+        agentCounts.merge(string(buffer, body, AGENT_NAME), 1L, Long::sum);
+    }
+
+    /**
+     * 撤销旧版本的计数
+     */
+    private void unindex(Long location) {
+        if (location == null) {
+            return;
+        }
+        JournalSegment segment = segmentOf(location);
+        ByteBuffer buffer = segment.getBuffer();
+        int body = offsetOf(location) + JournalSegment.FRAME_HEADER;
+
+        segment.decrementLive();
+        String taskId = string(buffer, body, TASK_ID);
+        if (taskId != null) {
+            taskLocations.remove(taskId, location);
+        }
+        decrement(statusCounts, string(buffer, body, STATUS));
+        decrement(agentCounts, string(buffer, body, AGENT_NAME));
+    }
+
+    private void remove(long id) {
+        Long location = locations.get(id);
+        if (location == null) {
+            return;
+        }
+        String taskId = string(segmentOf(location).getBuffer(), offsetOf(location) + JournalSegment.FRAME_HEADER, TASK_ID);
+        append(out -> codec.encodeDelete(out, id, taskId));
+        unindex(locations.remove(id));
+    }
+
+    private long append(Consumer<ByteBuffer> writer) {
+        int offset = active.append(writer, crc);
+        if (offset < 0) {
+            if (active.isEmpty()) {
+                throw new IllegalArgumentException("Task execution record exceeds journal segment size");
+            }
+            roll();
+            offset = active.append(writer, crc);
+            if (offset < 0) {
+                throw new IllegalArgumentException("Task execution record exceeds journal segment size");
+            }
+        }
+        return locationOf(active, offset);
+    }
+
+    private long appendFrame(ByteBuffer source, int sourceOffset, int length) {
+        int offset = active.appendFrame(source, sourceOffset, length);
+        if (offset < 0) {
+            roll();
+            offset = active.appendFrame(source, sourceOffset, length);
+        }
+        return locationOf(active, offset);
+    }
+
+    private void roll() {
+        active.force();
+        active.seal();
+        active = createSegment(active.getSequence() + 1);
+    }
+
+    private JournalSegment createSegment(int sequence) {
+        Path path = directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        try {
+            JournalSegment segment = JournalSegment.create(path, sequence, segmentSize, BLOOM_BITS, nextId - 1);
+            segments.put(sequence, segment);
+            log.debug("Created journal segment {}", path.getFileName());
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal segment " + path, e);
+        }
+    }
+
+    // --- 写后复制 ---
+
+    /**
+     * 从 position 起按写入顺序读取至多 limit 条变更; 已被之后的版本覆盖的旧版本跳过, 只复制最新版本
+     *
+     * @param position 段序号 &lt;&lt; 32 | 段内偏移, 0 表示日志开头; 所在段已被删除时从下一个段开始
+     */
+    public ChangeBatch readChanges(long position, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Change> changes = new ArrayList<>();
+            int sequence = (int) (position >>> 32);
+            Map.Entry<Integer, JournalSegment> entry = segments.ceilingEntry(sequence);
+            int start = entry != null && entry.getKey() == sequence
+                    ? Math.max(offsetOf(position), JournalSegment.SEGMENT_HEADER)
+                    : JournalSegment.SEGMENT_HEADER;
+            long next = position;
+
+            while (entry != null) {
+                JournalSegment segment = entry.getValue();
+                ByteBuffer buffer = segment.getBuffer();
+                int[] end = {start};
+                segment.forEachFrom(start, (offset, body, length) -> {
+                    if (changes.size() >= limit) {
+                        return false;
+                    }
+                    if (op(buffer, body) == OP_DELETE) {
+                        changes.add(new Change(deletedTaskId(buffer, body), null));
+                    } else if (isLive(segment, offset, body)) {
+                        changes.add(new Change(string(buffer, body, TASK_ID), codec.decode(buffer, body)));
+                    }
+                    end[0] = offset + JournalSegment.FRAME_HEADER + length;
+                    return true;
+                });
+                next = locationOf(segment, end[0]);
+                if (changes.size() >= limit || segment == active) {
+                    break;
+                }
+                entry = segments.higherEntry(entry.getKey());
+                start = JournalSegment.SEGMENT_HEADER;
+            }
+            return new ChangeBatch(changes, next);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 记录已复制到的位置, 压缩只处理该位置之前的段
+     */
+    public void acknowledge(long position) {
+        replicatedPosition = position;
+    }
+
+    /**
+     * 一条变更, entity 为空表示删除
+     */
+    public record Change(String taskId, TaskExecutionEntity entity) {
+
+        public boolean isDelete() {
+            return entity == null;
+        }
+    }
+
+    /**
+     * 一批变更与下一批的起始位置
+     */
+    public record ChangeBatch(List<Change> changes, long nextPosition) {
+    }
+
+    // --- 查询工具 (调用方持有读锁) ---
+
+    /**
+     * 按 (startedAt, id) 倒序取前 limit 条, 维护大小为 limit 的小顶堆;
+     * 段从新到旧遍历, 段内最大 startedAt 已小于堆顶时整段跳过
+     */
+    private List<Candidate> top(long from, long to, TaskExecutionCursor cursor,
+                                SegmentFilter segmentFilter, RecordFilter recordFilter, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        long cursorStartedAt = cursor != null ? toMicros(cursor.getStartedAt()) : Long.MAX_VALUE;
+        long cursorId = cursor != null ? cursor.getId() : Long.MAX_VALUE;
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(limit + 1);
+
+        for (JournalSegment segment : overlapping(from, to).reversed()) {
+            if (segment.getMinStartedAt() > cursorStartedAt
+                    || (heap.size() == limit && segment.getMaxStartedAt() < heap.peek().startedAt())
+                    || (segmentFilter != null && !segmentFilter.test(segment))) {
+                continue;
+            }
+            scanLive(segment, (buffer, body, location) -> {
+                long startedAt = startedAt(buffer, body);
+                if (startedAt < from || startedAt > to) {
+                    return true;
+                }
+                long id = id(buffer, body);
+                if (startedAt > cursorStartedAt || (startedAt == cursorStartedAt && id >= cursorId)) {
+                    return true;
+                }
+                Candidate candidate = new Candidate(startedAt, id, location);
+                if (heap.size() == limit && candidate.compareTo(heap.peek()) <= 0) {
+                    return true;
+                }
+                if (recordFilter == null || recordFilter.test(buffer, body)) {
+                    heap.add(candidate);
+                    if (heap.size() > limit) {
+                        heap.poll();
+                    }
+                }
+                return true;
+            });
+        }
+
+        List<Candidate> results = new ArrayList<>(heap);
+        results.sort(Comparator.reverseOrder());
+        return results;
+    }
+
+    private List<TaskExecutionSummary> summaries(List<Candidate> candidates) {
+        List<TaskExecutionSummary> results = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            JournalSegment segment = segmentOf(candidate.location());
+            results.add(codec.decodeSummary(segment.getBuffer(),
+                    offsetOf(candidate.location()) + JournalSegment.FRAME_HEADER));
+        }
+        return results;
+    }
+
+    private List<JournalSegment> overlapping(long from, long to) {
+        List<JournalSegment> results = new ArrayList<>();
+        for (JournalSegment segment : segments.values()) {
+            if (segment.getLiveRecords() > 0 && segment.getMaxStartedAt() >= from && segment.getMinStartedAt() <= to) {
+                results.add(segment);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 遍历段内仍为最新版本的 PUT 记录
+     */
+    private void scanLive(JournalSegment segment, LiveRecordVisitor visitor) {
+        ByteBuffer buffer = segment.getBuffer();
+        segment.forEach((offset, body, length) -> {
+            if (op(buffer, body) != OP_PUT || !isLive(segment, offset, body)) {
+                return true;
+            }
+            return visitor.visit(buffer, body, locationOf(segment, offset));
+        });
+    }
+
+    private boolean isLive(JournalSegment segment, int offset, int body) {
+        Long location = locations.get(id(segment.getBuffer(), body));
+        return location != null && location == locationOf(segment, offset);
+    }
+
+    private TaskExecutionEntity load(Long id) {
+        Long location = locations.get(id);
+        return location != null ? decode(location) : null;
+    }
+
+    private TaskExecutionEntity decode(long location) {
+        return codec.decode(segmentOf(location).getBuffer(), offsetOf(location) + JournalSegment.FRAME_HEADER);
+    }
+
+    private JournalSegment segmentOf(long location) {
+        return segments.get((int) (location >>> 32));
+    }
+
+    private static long locationOf(JournalSegment segment, int offset) {
+        return ((long) segment.getSequence() << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    private static int offsetOf(long location) {
+        return (int) location;
+    }
+
+    private static void decrement(Map<String, Long> counts, String key) {
+        counts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 排序键 (startedAt, id) 与记录位置
+     */
+    private record Candidate(long startedAt, long id, long location) implements Comparable<Candidate> {
+
+        @Override
+        public int compareTo(Candidate other) {
+            int result = Long.compare(startedAt, other.startedAt);
+            return result != 0 ? result : Long.compare(id, other.id);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SegmentFilter {
+        boolean test(JournalSegment segment);
+    }
+
+    @FunctionalInterface
+    private interface RecordFilter {
+        boolean test(ByteBuffer buffer, int body);
+    }
+
+    @FunctionalInterface
+    private interface LiveRecordVisitor {
+        boolean visit(ByteBuffer buffer, int body, long location);
+    }
+}
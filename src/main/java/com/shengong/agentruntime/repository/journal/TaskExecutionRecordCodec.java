@@ -0,0 +1,301 @@
+package com.shengong.agentruntime.repository.journal;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.shengong.agentruntime.entity.TaskExecutionEntity;
+import com.shengong.agentruntime.model.TaskExecutionSummary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+/**
+ * 任务执行记录的二进制编解码
+ * 定长字段在前, 便于扫描时直接从映射内存中读取 id / startedAt 并比较字符串, 无需反序列化整条记录;
+ * 解码时 payload / result 的 JSON 直接从映射内存解析, 不先复制成字节数组
+ *
+ * <pre>
+ * 0   byte  op (PUT / DELETE)
+ * 1   long  id
+ * 9   long  startedAt   (UTC 微秒, NULL_TIME 表示空)
+ * 17  long  completedAt
+ * 25  long  createdAt
+ * 33  long  updatedAt
+ * 41  int   latencyMs   (NULL_INT 表示空)
+ * 45  string[9] taskId, traceId, userId, agentName, status, taskType, domain, summary, errorMessage
+ *     bytes payload (JSON), bytes result (JSON)
+ * </pre>
+ * 字符串与字节数组均为 int 长度 (-1 表示空) + 内容; DELETE 记录只包含 op、id 与 taskId (供写后复制按 taskId 删除)
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+final class TaskExecutionRecordCodec {
+
+    static final byte OP_PUT = 1;
+    static final byte OP_DELETE = 2;
+
+    static final int TASK_ID = 0;
+    static final int TRACE_ID = 1;
+    static final int USER_ID = 2;
+    static final int AGENT_NAME = 3;
+    static final int STATUS = 4;
+    private static final int TASK_TYPE = 5;
+    private static final int DOMAIN = 6;
+    private static final int SUMMARY = 7;
+    private static final int ERROR_MESSAGE = 8;
+    private static final int STRING_FIELD_COUNT = 9;
+
+    private static final int ID_OFFSET = 1;
+    private static final int STARTED_AT_OFFSET = 9;
+    private static final int COMPLETED_AT_OFFSET = 17;
+    private static final int CREATED_AT_OFFSET = 25;
+    private static final int UPDATED_AT_OFFSET = 33;
+    private static final int LATENCY_OFFSET = 41;
+    private static final int STRINGS_OFFSET = 45;
+    private static final int DELETED_TASK_ID_OFFSET = 9;
+
+    static final long NULL_TIME = Long.MIN_VALUE;
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final long MIN_EPOCH_SECOND = Long.MIN_VALUE / 1_000_000L + 1;
+    private static final long MAX_EPOCH_SECOND = Long.MAX_VALUE / 1_000_000L - 1;
+    private static final int NULL_LENGTH = -1;
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+
+    TaskExecutionRecordCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    // --- 编码 ---
+
+    /**
+     * 将记录写入 out 的当前位置, 空间不足时抛出 BufferOverflowException
+     */
+    void encodePut(ByteBuffer out, TaskExecutionEntity entity) {
+        byte[] payload = toJson(entity.getPayload());
+        byte[] result = toJson(entity.getResult());
+
+        out.put(OP_PUT);
+        out.putLong(entity.getId());
+        out.putLong(toMicros(entity.getStartedAt()));
+        out.putLong(toMicros(entity.getCompletedAt()));
+        out.putLong(toMicros(entity.getCreatedAt()));
+        out.putLong(toMicros(entity.getUpdatedAt()));
+        out.putInt(entity.getLatencyMs() != null ? entity.getLatencyMs() : NULL_INT);
+
+        putString(out, entity.getTaskId());
+        putString(out, entity.getTraceId());
+        putString(out, entity.getUserId());
+        putString(out, entity.getAgentName());
+        putString(out, entity.getStatus());
+        putString(out, entity.getTaskType());
+        putString(out, entity.getDomain());
+        putString(out, entity.getSummary());
+        putString(out, entity.getErrorMessage());
+
+        putBytes(out, payload);
+        putBytes(out, result);
+    }
+
+    void encodeDelete(ByteBuffer out, long id, String taskId) {
+        out.put(OP_DELETE);
+        out.putLong(id);
+        putString(out, taskId);
+    }
+
+    // --- 直接读取字段 (绝对位置读取, 不修改 buffer 状态, 可并发) ---
+
+    static byte op(ByteBuffer buffer, int body) {
+        return buffer.get(body);
+    }
+
+    static long id(ByteBuffer buffer, int body) {
+        return buffer.getLong(body + ID_OFFSET);
+    }
+
+    static long startedAt(ByteBuffer buffer, int body) {
+        return buffer.getLong(body + STARTED_AT_OFFSET);
+    }
+
+    /**
+     * DELETE 记录中被删除记录的 taskId
+     */
+    static String deletedTaskId(ByteBuffer buffer, int body) {
+        return readString(buffer, body + DELETED_TASK_ID_OFFSET);
+    }
+
+    /**
+     * 读取字符串字段
+     */
+    static String string(ByteBuffer buffer, int body, int field) {
+        return readString(buffer, stringOffset(buffer, body, field));
+    }
+
+    /**
+     * 比较字符串字段是否等于 expected (UTF-8 编码), 不创建字符串对象
+     */
+    static boolean stringEquals(ByteBuffer buffer, int body, int field, byte[] expected) {
+        int offset = stringOffset(buffer, body, field);
+        int length = buffer.getInt(offset);
+        if (expected == null) {
+            return length == NULL_LENGTH;
+        }
+        if (length != expected.length) {
+            return false;
+        }
+        return buffer.slice(offset + 4, length).equals(ByteBuffer.wrap(expected));
+    }
+
+    // --- 解码 ---
+
+    TaskExecutionEntity decode(ByteBuffer buffer, int body) {
+        int offset = body + STRINGS_OFFSET;
+        String[] strings = new String[STRING_FIELD_COUNT];
+        for (int i = 0; i < STRING_FIELD_COUNT; i++) {
+            strings[i] = readString(buffer, offset);
+            offset += 4 + Math.max(0, buffer.getInt(offset));
+        }
+
+        Map<String, Object> payload = fromJson(buffer, offset);
+        offset += 4 + Math.max(0, buffer.getInt(offset));
+        Map<String, Object> result = fromJson(buffer, offset);
+
+        int latency = buffer.getInt(body + LATENCY_OFFSET);
+        return TaskExecutionEntity.builder()
+                .id(id(buffer, body))
+                .taskId(strings[TASK_ID])
+                .traceId(strings[TRACE_ID])
+                .userId(strings[USER_ID])
+                .agentName(strings[AGENT_NAME])
+                .status(strings[STATUS])
+                .taskType(strings[TASK_TYPE])
+                .domain(strings[DOMAIN])
+                .summary(strings[SUMMARY])
+                .errorMessage(strings[ERROR_MESSAGE])
+                .payload(payload)
+                .result(result)
+                .startedAt(fromMicros(startedAt(buffer, body)))
+                .completedAt(fromMicros(buffer.getLong(body + COMPLETED_AT_OFFSET)))
+                .createdAt(fromMicros(buffer.getLong(body + CREATED_AT_OFFSET)))
+                .updatedAt(fromMicros(buffer.getLong(body + UPDATED_AT_OFFSET)))
+                .latencyMs(latency != NULL_INT ? latency : null)
+                .build();
+    }
+
+    /**
+     * 只解码摘要字段, 跳过 summary / errorMessage / payload / result
+     */
+    TaskExecutionSummary decodeSummary(ByteBuffer buffer, int body) {
+        int offset = body + STRINGS_OFFSET;
+        String[] strings = new String[DOMAIN + 1];
+        for (int i = 0; i <= DOMAIN; i++) {
+            strings[i] = readString(buffer, offset);
+            offset += 4 + Math.max(0, buffer.getInt(offset));
+        }
+
+        int latency = buffer.getInt(body + LATENCY_OFFSET);
+        return new TaskExecutionSummary(
+                id(buffer, body),
+                strings[TASK_ID],
+                strings[TASK_TYPE],
+                strings[DOMAIN],
+                strings[AGENT_NAME],
+                strings[TRACE_ID],
+                strings[STATUS],
+                strings[USER_ID],
+                fromMicros(startedAt(buffer, body)),
+                fromMicros(buffer.getLong(body + COMPLETED_AT_OFFSET)),
+                latency != NULL_INT ? latency : null
+        );
+    }
+
+    // --- 时间 ---
+
+    static long toMicros(LocalDateTime time) {
+        if (time == null) {
+            return NULL_TIME;
+        }
+        // LocalDateTime.MIN / MAX 等查询边界超出微秒可表示范围, 截断到最值
+        long seconds = time.toEpochSecond(ZoneOffset.UTC);
+        if (seconds <= MIN_EPOCH_SECOND) {
+            return NULL_TIME + 1;
+        }
+        if (seconds >= MAX_EPOCH_SECOND) {
+            return Long.MAX_VALUE;
+        }
+        return seconds * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        if (micros == NULL_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    // --- 内部工具 ---
+
+    private static int stringOffset(ByteBuffer buffer, int body, int field) {
+        int offset = body + STRINGS_OFFSET;
+        for (int i = 0; i < field; i++) {
+            offset += 4 + Math.max(0, buffer.getInt(offset));
+        }
+        return offset;
+    }
+
+    private static String readString(ByteBuffer buffer, int offset) {
+        int length = buffer.getInt(offset);
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putString(ByteBuffer out, String value) {
+        putBytes(out, value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    private static void putBytes(ByteBuffer out, byte[] value) {
+        if (value == null) {
+            out.putInt(NULL_LENGTH);
+            return;
+        }
+        out.putInt(value.length);
+        out.put(value);
+    }
+
+    private byte[] toJson(Map<String, Object> value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to serialize journal record", e);
+        }
+    }
+
+    private Map<String, Object> fromJson(ByteBuffer buffer, int offset) {
+        int length = buffer.getInt(offset);
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(new ByteBufferBackedInputStream(buffer.slice(offset + 4, length)), MAP_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to deserialize journal record", e);
+        }
+    }
+}
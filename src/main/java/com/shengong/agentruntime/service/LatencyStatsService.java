@@ -0,0 +1,335 @@
+package com.shengong.agentruntime.service;
+
+import com.shengong.agentruntime.entity.AgentLatencySnapshotEntity;
+import com.shengong.agentruntime.model.LatencyPercentiles;
+import com.shengong.agentruntime.repository.AgentLatencySnapshotRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.PackedHistogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agent 延迟统计服务
+ * 为每个 (Agent, 阶段) 维护滚动的 HDR 直方图, 增量计算 p50/p95/p99,
+ * 并定期将直方图快照落库, 同时通过 Micrometer 导出到 Prometheus.
+ * 未配置数据库 (edge profile) 时不落库, 查询只覆盖内存中保留的时间窗口
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Service
+public class LatencyStatsService {
+
+    /**
+     * Agent 执行阶段
+     */
+    public static final String STAGE_EXECUTE = "execute";
+
+    /**
+     * 执行结果落库阶段
+     */
+    public static final String STAGE_PERSIST = "persist";
+
+    /**
+     * 有效数字位数, 2 位即相对误差 1% 以内
+     */
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private static final String METRIC_NAME = "agent.execution.latency";
+
+    private final Map<LatencyKey, RollingLatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final AgentLatencySnapshotRepository snapshotRepository;
+    private final long bucketIntervalMs;
+    private final int retentionBuckets;
+    private final int snapshotEveryBuckets;
+    private final boolean snapshotEnabled;
+
+    private int rotationsSinceSnapshot;
+
+    public LatencyStatsService(
+            MeterRegistry meterRegistry,
+            ObjectProvider<AgentLatencySnapshotRepository> snapshotRepository,
+            @Value("${agent-runtime.metrics.latency.bucket-interval-ms:60000}") long bucketIntervalMs,
+            @Value("${agent-runtime.metrics.latency.retention-buckets:60}") int retentionBuckets,
+            @Value("${agent-runtime.metrics.latency.snapshot-every-buckets:5}") int snapshotEveryBuckets,
+            @Value("${agent-runtime.metrics.latency.snapshot-enabled:true}") boolean snapshotEnabled) {
+        this.meterRegistry = meterRegistry;
+        this.snapshotRepository = snapshotRepository.getIfAvailable();
+        this.bucketIntervalMs = bucketIntervalMs;
+        this.retentionBuckets = retentionBuckets;
+        this.snapshotEveryBuckets = Math.max(1, snapshotEveryBuckets);
+        this.snapshotEnabled = snapshotEnabled && this.snapshotRepository != null;
+    }
+
+    /**
+     * 记录一次延迟样本
+     */
+    public void record(String agentName, String stage, long latencyMs) {
+        LatencyKey key = new LatencyKey(agentName, stage);
+        histograms.computeIfAbsent(key, this::createHistogram)
+                .record(Math.max(0, latencyMs));
+    }
+
+    /**
+     * 查询最近一段时间内的延迟分位数
+     * 窗口在内存保留期内时直接合并滚动桶, 否则合并数据库快照与尚未落库的部分
+     *
+     * @param agentName     Agent 名称, 为空时返回所有 Agent
+     * @param windowMinutes 时间窗口 (分钟)
+     */
+    @Transactional(readOnly = true)
+    public List<LatencyPercentiles> getPercentiles(String agentName, int windowMinutes) {
+        long now = System.currentTimeMillis();
+        long windowStart = now - TimeUnit.MINUTES.toMillis(Math.max(1, windowMinutes));
+
+        boolean inMemory = now - windowStart <= bucketIntervalMs * retentionBuckets || snapshotRepository == null;
+        Map<LatencyKey, Histogram> merged = new TreeMap<>();
+
+        histograms.forEach((key, rolling) -> {
+            if (agentName == null || agentName.equals(key.agentName())) {
+                merged.put(key, inMemory ? rolling.mergeSince(windowStart) : rolling.unsnapshotted());
+            }
+        });
+
+        if (!inMemory) {
+            List<AgentLatencySnapshotEntity> snapshots = agentName == null
+                    ? snapshotRepository.findByWindowEndAfter(toLocalDateTime(windowStart))
+                    : snapshotRepository.findByAgentNameAndWindowEndAfter(agentName, toLocalDateTime(windowStart));
+
+            for (AgentLatencySnapshotEntity snapshot : snapshots) {
+                LatencyKey key = new LatencyKey(snapshot.getAgentName(), snapshot.getStage());
+                Histogram decoded = decode(snapshot.getHistogram());
+                if (decoded != null) {
+                    merged.computeIfAbsent(key, k -> new Histogram(SIGNIFICANT_DIGITS)).add(decoded);
+                }
+            }
+        }
+
+        String source = inMemory ? "memory" : "snapshot";
+        List<LatencyPercentiles> results = new ArrayList<>();
+        merged.forEach((key, histogram) -> {
+            if (histogram.getTotalCount() > 0) {
+                results.add(toPercentiles(key, histogram, windowStart, now, source));
+            }
+        });
+        return results;
+    }
+
+    /**
+     * 滚动时间桶, 达到快照周期时将已完成的桶落库
+     */
+    @Scheduled(fixedRateString = "${agent-runtime.metrics.latency.bucket-interval-ms:60000}",
+            initialDelayString = "${agent-runtime.metrics.latency.bucket-interval-ms:60000}")
+    public void rotate() {
+        long now = System.currentTimeMillis();
+        histograms.values().forEach(rolling -> rolling.rotate(now));
+
+        if (snapshotEnabled && ++rotationsSinceSnapshot >= snapshotEveryBuckets) {
+            rotationsSinceSnapshot = 0;
+            snapshot(now);
+        }
+    }
+
+    private void snapshot(long now) {
+        List<AgentLatencySnapshotEntity> snapshots = new ArrayList<>();
+        Map<RollingLatencyHistogram, PendingSnapshot> drained = new HashMap<>();
+
+        histograms.forEach((key, rolling) -> {
+            PendingSnapshot pending = rolling.drainPending(now);
+            Histogram histogram = pending.histogram();
+            if (histogram.getTotalCount() == 0) {
+                return;
+            }
+            drained.put(rolling, pending);
+
+            snapshots.add(AgentLatencySnapshotEntity.builder()
+                    .agentName(key.agentName())
+                    .stage(key.stage())
+                    .windowStart(toLocalDateTime(pending.windowStart()))
+                    .windowEnd(toLocalDateTime(now))
+                    .sampleCount(histogram.getTotalCount())
+                    .p50Ms(histogram.getValueAtPercentile(50))
+                    .p95Ms(histogram.getValueAtPercentile(95))
+                    .p99Ms(histogram.getValueAtPercentile(99))
+                    .maxMs(histogram.getMaxValue())
+                    .histogram(encode(histogram))
+                    .build());
+        });
+
+        if (snapshots.isEmpty()) {
+            return;
+        }
+
+        try {
+            snapshotRepository.saveAll(snapshots);
+            log.debug("Saved {} latency snapshots", snapshots.size());
+        } catch (Exception e) {
+            // 放回待落库区间, 下个快照周期连同新数据一起重试
+            drained.forEach(RollingLatencyHistogram::restorePending);
+            log.error("Failed to save latency snapshots, will retry next cycle: {}", e.getMessage(), e);
+        }
+    }
+
+    private RollingLatencyHistogram createHistogram(LatencyKey key) {
+        Timer timer = Timer.builder(METRIC_NAME)
+                .description("Agent pipeline stage latency")
+                .tag("agent", key.agentName())
+                .tag("stage", key.stage())
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        return new RollingLatencyHistogram(retentionBuckets, bucketIntervalMs, timer);
+    }
+
+    private LatencyPercentiles toPercentiles(LatencyKey key, Histogram histogram,
+                                             long windowStart, long windowEnd, String source) {
+        return LatencyPercentiles.builder()
+                .agentName(key.agentName())
+                .stage(key.stage())
+                .windowStart(toLocalDateTime(windowStart))
+                .windowEnd(toLocalDateTime(windowEnd))
+                .count(histogram.getTotalCount())
+                .p50Ms(histogram.getValueAtPercentile(50))
+                .p95Ms(histogram.getValueAtPercentile(95))
+                .p99Ms(histogram.getValueAtPercentile(99))
+                .maxMs(histogram.getMaxValue())
+                .meanMs(histogram.getMean())
+                .source(source)
+                .build();
+    }
+
+    private static byte[] encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Arrays.copyOf(buffer.array(), length);
+    }
+
+    private static Histogram decode(byte[] bytes) {
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(bytes), 0);
+        } catch (Exception e) {
+            log.warn("Failed to decode latency histogram snapshot: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private record LatencyKey(String agentName, String stage) implements Comparable<LatencyKey> {
+
+        @Override
+        public int compareTo(LatencyKey other) {
+            int result = agentName.compareTo(other.agentName);
+            return result != 0 ? result : stage.compareTo(other.stage);
+        }
+    }
+
+    private record PendingSnapshot(Histogram histogram, long windowStart) {
+    }
+
+    /**
+     * 单个 (Agent, 阶段) 的滚动直方图
+     * 记录路径只写无锁 Recorder, 滚动与查询时再将区间直方图合并到时间桶中
+     */
+    private static final class RollingLatencyHistogram {
+
+        private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS, true);
+        private final Timer timer;
+        private final long bucketIntervalMs;
+        private final Histogram[] buckets;
+        private final long[] bucketStarts;
+        private int nextBucket;
+
+        private Histogram current = new PackedHistogram(SIGNIFICANT_DIGITS);
+        private long currentStart = System.currentTimeMillis();
+
+        private Histogram pending = new PackedHistogram(SIGNIFICANT_DIGITS);
+        private long pendingStart = currentStart;
+
+        private Histogram recycled;
+
+        RollingLatencyHistogram(int retentionBuckets, long bucketIntervalMs, Timer timer) {
+            this.buckets = new Histogram[retentionBuckets];
+            this.bucketStarts = new long[retentionBuckets];
+            this.bucketIntervalMs = bucketIntervalMs;
+            this.timer = timer;
+        }
+
+        void record(long latencyMs) {
+            recorder.recordValue(latencyMs);
+            timer.record(latencyMs, TimeUnit.MILLISECONDS);
+        }
+
+        synchronized void rotate(long now) {
+            drainRecorder();
+            if (buckets.length > 0) {
+                buckets[nextBucket] = current;
+                bucketStarts[nextBucket] = currentStart;
+                nextBucket = (nextBucket + 1) % buckets.length;
+            }
+            pending.add(current);
+
+            current = new PackedHistogram(SIGNIFICANT_DIGITS);
+            currentStart = now;
+        }
+
+        synchronized Histogram mergeSince(long since) {
+            drainRecorder();
+            Histogram merged = new Histogram(SIGNIFICANT_DIGITS);
+            merged.add(current);
+            for (int i = 0; i < buckets.length; i++) {
+                if (buckets[i] != null && bucketStarts[i] + bucketIntervalMs > since) {
+                    merged.add(buckets[i]);
+                }
+            }
+            return merged;
+        }
+
+        synchronized Histogram unsnapshotted() {
+            drainRecorder();
+            Histogram merged = new Histogram(SIGNIFICANT_DIGITS);
+            merged.add(pending);
+            merged.add(current);
+            return merged;
+        }
+
+        synchronized PendingSnapshot drainPending(long now) {
+            PendingSnapshot snapshot = new PendingSnapshot(pending, pendingStart);
+            pending = new PackedHistogram(SIGNIFICANT_DIGITS);
+            pendingStart = now;
+            return snapshot;
+        }
+
+        /**
+         * 落库失败时把取出的区间合并回待落库直方图, 区间起点取两者较早者
+         */
+        synchronized void restorePending(PendingSnapshot snapshot) {
+            pending.add(snapshot.histogram());
+            pendingStart = Math.min(pendingStart, snapshot.windowStart());
+        }
+
+        private void drainRecorder() {
+            recycled = recorder.getIntervalHistogram(recycled);
+            current.add(recycled);
+        }
+    }
+}
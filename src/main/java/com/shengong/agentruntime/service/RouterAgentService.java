@@ -22,6 +22,7 @@ public class RouterAgentService {
 
     private final AgentRegistry agentRegistry;
     private final TaskExecutionService taskExecutionService;
+    private final LatencyStatsService latencyStatsService;
 
     /**
      * 路由并执行任务
@@ -47,38 +48,70 @@ public class RouterAgentService {
             return errorResult;
         }
 
+        return execute(agent, task);
+    }
+
+    /**
+     * 用指定的 Agent 执行任务, 记录执行过程与延迟
+     * 用于同一 taskType / domain 下有多个 Agent、需要直接指定 Agent 的场景 (如流式异常检测触发根因分析)
+     */
+    public AgentResult execute(Agent agent, AgentTask task) {
+        String taskType = task.getTaskType();
+        String domain = task.getDomain();
+
         // 记录任务开始执行
         TaskExecutionEntity executionRecord = taskExecutionService.saveTaskStart(task, agent.name());
 
-        // 执行 Agent
+        // 执行 Agent, 执行阶段只记录一次: handle 返回或抛出时
+        long startTime = System.currentTimeMillis();
+        AgentResult result = null;
+        Exception failure = null;
         try {
             log.info("Executing agent: {}", agent.name());
-            long startTime = System.currentTimeMillis();
-
-            AgentResult result = agent.handle(task);
+            result = agent.handle(task);
+        } catch (Exception e) {
+            failure = e;
+        }
+        long latency = System.currentTimeMillis() - startTime;
+        latencyStatsService.record(agent.name(), LatencyStatsService.STAGE_EXECUTE, latency);
+
+        if (failure == null) {
+            try {
+                result.setLatencyMs(latency);
+                result.setAgentName(agent.name());
+                result.addDebug("taskType", taskType);
+                result.addDebug("domain", domain);
+                result.addDebug("traceId", task.getTraceId());
+
+                log.info("Agent execution completed: agent={}, status={}, latency={}ms",
+                        agent.name(), result.getStatus(), latency);
+
+                // 更新任务执行结果
+                persist(agent, task, result);
+                return result;
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
 
-            long latency = System.currentTimeMillis() - startTime;
-            result.setLatencyMs(latency);
-            result.setAgentName(agent.name());
-            result.addDebug("taskType", taskType);
-            result.addDebug("domain", domain);
-            result.addDebug("traceId", task.getTraceId());
+        log.error("Agent execution failed: agent={}, error={}", agent.name(), failure.getMessage(), failure);
+        AgentResult errorResult = AgentResult.error("Agent execution failed: " + failure.getMessage());
 
-            log.info("Agent execution completed: agent={}, status={}, latency={}ms",
-                    agent.name(), result.getStatus(), latency);
+        // 更新失败记录
+        persist(agent, task, errorResult);
+        return errorResult;
+    }
 
-            // 更新任务执行结果
+    /**
+     * 写入执行结果, 写入失败时同样记录持久化阶段的耗时
+     */
+    private void persist(Agent agent, AgentTask task, AgentResult result) {
+        long persistStart = System.currentTimeMillis();
+        try {
             taskExecutionService.updateTaskResult(task.getTaskId(), result);
-
-            return result;
-        } catch (Exception e) {
-            log.error("Agent execution failed: agent={}, error={}", agent.name(), e.getMessage(), e);
-            AgentResult errorResult = AgentResult.error("Agent execution failed: " + e.getMessage());
-
-            // 更新失败记录
-            taskExecutionService.updateTaskResult(task.getTaskId(), errorResult);
-
-            return errorResult;
+        } finally {
+            latencyStatsService.record(agent.name(), LatencyStatsService.STAGE_PERSIST,
+                    System.currentTimeMillis() - persistStart);
         }
     }
 }
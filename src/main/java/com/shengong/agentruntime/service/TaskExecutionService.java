@@ -1,21 +1,32 @@
 package com.shengong.agentruntime.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.shengong.agentruntime.entity.TaskExecutionEntity;
 import com.shengong.agentruntime.model.AgentResult;
 import com.shengong.agentruntime.model.AgentTask;
-import com.shengong.agentruntime.repository.TaskExecutionRepository;
+import com.shengong.agentruntime.model.KeysetPage;
+import com.shengong.agentruntime.model.TaskExecutionCursor;
+import com.shengong.agentruntime.model.TaskExecutionSummary;
+import com.shengong.agentruntime.repository.TaskExecutionStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * 任务执行记录服务
@@ -28,7 +39,19 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class TaskExecutionService {
 
-    private final TaskExecutionRepository taskExecutionRepository;
+    /**
+     * 列表查询单页上限
+     */
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * 导出时每写出多少行刷新一次输出流
+     */
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+
+    private final TaskExecutionStore taskExecutionStore;
+    private final TaskSearchService taskSearchService;
+    private final ObjectMapper objectMapper;
 
     /**
      * 保存任务开始执行的记录
@@ -47,7 +70,7 @@ public class TaskExecutionService {
                 .startedAt(LocalDateTime.now())
                 .build();
 
-        return taskExecutionRepository.save(entity);
+        return saveAndIndex(entity);
     }
 
     /**
@@ -55,7 +78,7 @@ public class TaskExecutionService {
      */
     @Transactional
     public TaskExecutionEntity updateTaskResult(String taskId, AgentResult result) {
-        Optional<TaskExecutionEntity> optEntity = taskExecutionRepository.findByTaskId(taskId);
+        Optional<TaskExecutionEntity> optEntity = taskExecutionStore.findByTaskId(taskId);
         if (optEntity.isEmpty()) {
             log.warn("Task not found: {}", taskId);
             return null;
@@ -83,7 +106,7 @@ public class TaskExecutionService {
             }
         }
 
-        return taskExecutionRepository.save(entity);
+        return saveAndIndex(entity);
     }
 
     /**
@@ -118,68 +141,199 @@ public class TaskExecutionService {
             }
         }
 
-        return taskExecutionRepository.save(entity);
+        return saveAndIndex(entity);
+    }
+
+    private TaskExecutionEntity saveAndIndex(TaskExecutionEntity entity) {
+        TaskExecutionEntity saved = taskExecutionStore.save(entity);
+        taskSearchService.index(saved);
+        return saved;
     }
 
     /**
      * 根据 taskId 查询
      */
+    @Transactional(readOnly = true)
     public Optional<TaskExecutionEntity> findByTaskId(String taskId) {
-        return taskExecutionRepository.findByTaskId(taskId);
+        return taskExecutionStore.findByTaskId(taskId);
     }
 
     /**
      * 根据 traceId 查询所有相关任务
      */
+    @Transactional(readOnly = true)
     public List<TaskExecutionEntity> findByTraceId(String traceId) {
-        return taskExecutionRepository.findByTraceId(traceId);
+        return taskExecutionStore.findByTraceId(traceId);
     }
 
     /**
-     * 根据用户 ID 分页查询
+     * 查询最近的任务记录
      */
-    public Page<TaskExecutionEntity> findByUserId(String userId, Pageable pageable) {
-        return taskExecutionRepository.findByUserId(userId, pageable);
+    @Transactional(readOnly = true)
+    public List<TaskExecutionEntity> findRecentTasks() {
+        return taskExecutionStore.findRecent(10);
     }
 
     /**
-     * 查询最近的任务记录
+     * 查询最近的任务摘要
      */
-    public List<TaskExecutionEntity> findRecentTasks() {
-        return taskExecutionRepository.findTop10ByOrderByStartedAtDesc();
+    @Transactional(readOnly = true)
+    public List<TaskExecutionSummary> findRecentSummaries(int size) {
+        return taskExecutionStore.findRecentSummaries(clampPageSize(size));
+    }
+
+    /**
+     * 根据用户 ID 按 Keyset 分页查询任务摘要
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<TaskExecutionSummary> findSummariesByUserId(String userId, TaskExecutionCursor cursor, int size) {
+        int pageSize = clampPageSize(size);
+        // 多取一条用于判断是否还有下一页
+        List<TaskExecutionSummary> rows = taskExecutionStore.findSummariesByUserId(userId, cursor, pageSize + 1);
+
+        return toKeysetPage(rows, pageSize);
+    }
+
+    /**
+     * 根据时间范围按 Keyset 分页查询任务摘要
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<TaskExecutionSummary> findSummariesByTimeRange(LocalDateTime startTime, LocalDateTime endTime,
+                                                                     TaskExecutionCursor cursor, int size) {
+        int pageSize = clampPageSize(size);
+        List<TaskExecutionSummary> rows =
+                taskExecutionStore.findSummariesByTimeRange(startTime, endTime, cursor, pageSize + 1);
+
+        return toKeysetPage(rows, pageSize);
+    }
+
+    /**
+     * 按摘要顺序加载完整记录 (包含 payload / result)
+     */
+    @Transactional(readOnly = true)
+    public List<TaskExecutionEntity> loadFullRecords(List<TaskExecutionSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = summaries.stream().map(TaskExecutionSummary::getId).toList();
+        Map<Long, TaskExecutionEntity> entities = taskExecutionStore.findAllById(ids).stream()
+                .collect(Collectors.toMap(TaskExecutionEntity::getId, Function.identity()));
+
+        // 保持 Keyset 顺序, 跳过两次查询之间被删除的记录
+        return ids.stream()
+                .map(entities::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private KeysetPage<TaskExecutionSummary> toKeysetPage(List<TaskExecutionSummary> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<TaskExecutionSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore
+                ? TaskExecutionCursor.of(items.get(items.size() - 1)).encode()
+                : null;
+        return new KeysetPage<>(items, pageSize, hasMore, nextCursor);
+    }
+
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
     }
 
     /**
      * 根据时间范围查询
      */
+    @Transactional(readOnly = true)
     public List<TaskExecutionEntity> findByTimeRange(LocalDateTime startTime, LocalDateTime endTime) {
-        return taskExecutionRepository.findByTimeRange(startTime, endTime);
+        return taskExecutionStore.findByTimeRange(startTime, endTime);
+    }
+
+    /**
+     * 以 NDJSON 格式流式导出执行记录 (每行一个 JSON 对象)
+     * 通过只读游标逐行读取, 内存占用与数据量无关.
+     * 响应头此时已经发出, 中途读取失败时无法再改状态码, 改为写出一行
+     * {"error": {"message": ..., "exportedCount": ...}} 作为结束标记, 客户端据此判断导出不完整
+     *
+     * @return 导出的记录数
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(LocalDateTime startTime, LocalDateTime endTime,
+                             String agentName, String status, String userId,
+                             OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+
+        try (Stream<TaskExecutionEntity> rows = taskExecutionStore.streamForExport(
+                     startTime, endTime, agentName, status, userId);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // 失败时不补全写到一半的记录, 由结束标记说明
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+
+            try {
+                for (TaskExecutionEntity entity : (Iterable<TaskExecutionEntity>) rows::iterator) {
+                    writer.writeValue(generator, entity);
+                    generator.writeRaw('\n');
+
+                    if (++count % EXPORT_FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                }
+            } catch (RuntimeException | IOException e) {
+                log.error("Export of task execution records failed after {} records: {} to {}",
+                        count, startTime, endTime, e);
+                writeExportError(generator, count, e);
+                return count;
+            }
+        }
+
+        log.info("Exported {} task execution records: {} to {}", count, startTime, endTime);
+        return count;
+    }
+
+    /**
+     * 写出导出失败的结束标记, 序列化到一半的记录先以换行截断; 客户端已断开等写出失败的情况只记录日志
+     */
+    private void writeExportError(JsonGenerator generator, long exportedCount, Exception cause) {
+        Map<String, Object> error = Map.of("error", Map.of(
+                "message", cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName(),
+                "exportedCount", exportedCount));
+        try {
+            if (!generator.getOutputContext().inRoot()) {
+                generator.writeRaw('\n');
+            }
+            generator.writeRaw(objectMapper.writeValueAsString(error));
+            generator.writeRaw('\n');
+            generator.flush();
+        } catch (IOException e) {
+            log.debug("Could not write export error record: {}", e.getMessage());
+        }
     }
 
     /**
      * 统计时间范围内的执行次数
      */
+    @Transactional(readOnly = true)
     public long countByTimeRange(LocalDateTime startTime, LocalDateTime endTime) {
-        return taskExecutionRepository.countByTimeRange(startTime, endTime);
+        return taskExecutionStore.countByTimeRange(startTime, endTime);
     }
 
     /**
      * 统计失败任务数量
      */
+    @Transactional(readOnly = true)
     public long countFailedTasks() {
-        return taskExecutionRepository.countByStatus("error");
+        return taskExecutionStore.countByStatus("error");
     }
 
     /**
      * 获取 Agent 执行统计
      */
+    @Transactional(readOnly = true)
     public Map<String, Long> getAgentStatistics() {
-        List<Object[]> results = taskExecutionRepository.countByAgentName();
-        return results.stream()
-                .collect(java.util.stream.Collectors.toMap(
-                        row -> (String) row[0],
-                        row -> (Long) row[1]
-                ));
+        return taskExecutionStore.countByAgentName();
     }
 
     /**
@@ -187,8 +341,11 @@ public class TaskExecutionService {
      */
     @Transactional
     public void deleteByTaskId(String taskId) {
-        taskExecutionRepository.findByTaskId(taskId)
-                .ifPresent(taskExecutionRepository::delete);
+        taskExecutionStore.findByTaskId(taskId)
+                .ifPresent(entity -> {
+                    taskExecutionStore.delete(entity);
+                    taskSearchService.delete(entity);
+                });
     }
 
     /**
@@ -196,10 +353,8 @@ public class TaskExecutionService {
      */
     @Transactional
     public int deleteOldRecords(LocalDateTime before) {
-        List<TaskExecutionEntity> oldRecords = taskExecutionRepository
-                .findByTimeRange(LocalDateTime.MIN, before);
-
-        taskExecutionRepository.deleteAll(oldRecords);
-        return oldRecords.size();
+        int deleted = taskExecutionStore.deleteStartedBefore(before);
+        taskSearchService.deleteStartedBefore(before);
+        return deleted;
     }
 }
@@ -0,0 +1,605 @@
+package com.shengong.agentruntime.service;
+
+import com.shengong.agentruntime.entity.TaskExecutionEntity;
+import com.shengong.agentruntime.model.TaskSearchHit;
+import com.shengong.agentruntime.model.TaskSearchQuery;
+import com.shengong.agentruntime.model.TaskSearchResult;
+import com.shengong.agentruntime.repository.TaskExecutionStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.cjk.CJKAnalyzer;
+import org.apache.lucene.document.*;
+import org.apache.lucene.facet.FacetResult;
+import org.apache.lucene.facet.Facets;
+import org.apache.lucene.facet.FacetsCollector;
+import org.apache.lucene.facet.FacetsConfig;
+import org.apache.lucene.facet.LabelAndValue;
+import org.apache.lucene.facet.sortedset.DefaultSortedSetDocValuesReaderState;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetCounts;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesFacetField;
+import org.apache.lucene.facet.sortedset.SortedSetDocValuesReaderState;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * 执行记录全文检索服务
+ * <p>
+ * 基于 Lucene 的进程内倒排索引, 覆盖 summary、errorMessage 与 result 中的文本字段,
+ * 使用 CJK 二元分词以支持中文检索, 并按 agentName / status / domain 提供分面计数.
+ * 记录在事务提交后增量写入索引, 近实时刷新后可检索; 索引以段文件形式持久化在本地目录,
+ * 由 Lucene 后台合并. 索引与数据库不一致时可调用 {@link #rebuild()} 全量重建, 重建期间旧索引照常提供检索.
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+@Slf4j
+@Service
+public class TaskSearchService {
+
+    /**
+     * 单页上限
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /**
+     * 深分页上限, 更深的结果应通过增加过滤条件缩小范围
+     */
+    private static final int MAX_FROM = 1000;
+
+    private static final int SNIPPET_LENGTH = 300;
+
+    private static final int FACET_TOP_N = 20;
+
+    /**
+     * result 中参与索引的文本总长度上限
+     */
+    private static final int MAX_RESULT_TEXT_LENGTH = 32 * 1024;
+
+    private static final LocalDateTime REBUILD_FROM = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final String REBUILD_SUFFIX = ".rebuild";
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_TASK_ID = "taskId";
+    private static final String FIELD_TASK_TYPE = "taskType";
+    private static final String FIELD_DOMAIN = "domain";
+    private static final String FIELD_AGENT_NAME = "agentName";
+    private static final String FIELD_TRACE_ID = "traceId";
+    private static final String FIELD_STATUS = "status";
+    private static final String FIELD_USER_ID = "userId";
+    private static final String FIELD_STARTED_AT = "startedAt";
+    private static final String FIELD_SUMMARY = "summary";
+    private static final String FIELD_ERROR_MESSAGE = "errorMessage";
+    private static final String FIELD_RESULT = "result";
+
+    private static final List<String> FACET_DIMENSIONS = List.of(FIELD_AGENT_NAME, FIELD_STATUS, FIELD_DOMAIN);
+
+    /**
+     * 检索字段及权重
+     */
+    private static final Map<String, Float> SEARCH_FIELDS = Map.of(
+            FIELD_SUMMARY, 2.0f,
+            FIELD_ERROR_MESSAGE, 1.5f,
+            FIELD_RESULT, 1.0f);
+
+    private final TaskExecutionStore taskExecutionStore;
+    private final boolean enabled;
+    private final Path directory;
+    private final double ramBufferMb;
+    private final Set<String> resultFields;
+
+    private final Analyzer analyzer = new CJKAnalyzer();
+    private final FacetsConfig facetsConfig = new FacetsConfig();
+
+    private FSDirectory indexDirectory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private volatile FacetState facetState;
+
+    /**
+     * 增量写入、刷新与提交共享读锁, 彼此不互相等待; 替换索引与登记重放列表持写锁,
+     * 避免刷新或提交读到已清空但尚未导入的中间状态
+     */
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    /**
+     * 重建期间的增量更新, 替换索引后重放 (更新与删除都按 id 幂等)
+     */
+    private volatile List<IndexAction> pendingDuringRebuild;
+
+    public TaskSearchService(
+            TaskExecutionStore taskExecutionStore,
+            @Value("${agent-runtime.search.enabled:true}") boolean enabled,
+            @Value("${agent-runtime.search.directory:data/search-index}") String directory,
+            @Value("${agent-runtime.search.ram-buffer-mb:32}") double ramBufferMb,
+            @Value("${agent-runtime.search.result-fields:}") List<String> resultFields) {
+        this.taskExecutionStore = taskExecutionStore;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.ramBufferMb = ramBufferMb;
+        this.resultFields = new HashSet<>(resultFields);
+        this.resultFields.remove("");
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            log.info("Task search index disabled");
+            return;
+        }
+
+        Files.createDirectories(directory);
+        indexDirectory = FSDirectory.open(directory);
+
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+                .setRAMBufferSizeMB(ramBufferMb)
+                .setCommitOnClose(true);
+        writer = new IndexWriter(indexDirectory, config);
+        searcherManager = new SearcherManager(writer, null);
+
+        log.info("Task search index opened: directory={}, docs={}", directory.toAbsolutePath(), writer.getDocStats().numDocs);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        searcherManager.close();
+        writer.close();
+        indexDirectory.close();
+    }
+
+    // --- 索引维护 ---
+
+    /**
+     * 索引 (或更新) 一条执行记录, 在当前事务提交后生效
+     */
+    public void index(TaskExecutionEntity entity) {
+        if (!enabled || entity.getId() == null) {
+            return;
+        }
+        // 立即构建文档, 避免提交前实体被继续修改
+        Term id = idTerm(entity.getId());
+        Document document;
+        try {
+            document = toDocument(entity);
+        } catch (RuntimeException e) {
+            log.warn("Failed to build search document for task {}: {}", entity.getTaskId(), e.getMessage());
+            return;
+        }
+        afterCommit(() -> writer.updateDocument(id, document));
+    }
+
+    /**
+     * 从索引中删除记录, 在当前事务提交后生效
+     */
+    public void delete(TaskExecutionEntity entity) {
+        if (!enabled || entity.getId() == null) {
+            return;
+        }
+        Term id = idTerm(entity.getId());
+        afterCommit(() -> writer.deleteDocuments(id));
+    }
+
+    /**
+     * 删除开始时间早于指定时间的记录, 在当前事务提交后生效
+     */
+    public void deleteStartedBefore(LocalDateTime before) {
+        if (!enabled) {
+            return;
+        }
+        Query query = LongPoint.newRangeQuery(FIELD_STARTED_AT, Long.MIN_VALUE, toEpochMillis(before) - 1);
+        afterCommit(() -> writer.deleteDocuments(query));
+    }
+
+    /**
+     * 从存储全量重建索引
+     * <p>
+     * 先写入旁路目录, 读完全部记录后在锁内一次性替换当前索引内容并提交; 读取失败时当前索引不受影响.
+     * 重建期间到达的增量更新照常写入当前索引, 并在替换后重放
+     *
+     * @return 索引的记录数
+     */
+    @Transactional(readOnly = true)
+    public synchronized long rebuild() throws IOException {
+        checkEnabled();
+        long startTime = System.currentTimeMillis();
+        long count = 0;
+
+        Path staging = directory.resolveSibling(directory.getFileName() + REBUILD_SUFFIX);
+        FileSystemUtils.deleteRecursively(staging);
+        // 写入在读锁内追加, 需线程安全; 登记持写锁, 此前取到 null 的写入已全部完成
+        List<IndexAction> pending = Collections.synchronizedList(new ArrayList<>());
+        swapLock.writeLock().lock();
+        try {
+            pendingDuringRebuild = pending;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        try (FSDirectory stagingDirectory = FSDirectory.open(staging)) {
+            IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE)
+                    .setRAMBufferSizeMB(ramBufferMb);
+            try (IndexWriter stagingWriter = new IndexWriter(stagingDirectory, config);
+                 Stream<TaskExecutionEntity> rows = taskExecutionStore.streamForExport(
+                         REBUILD_FROM, LocalDateTime.now().plusDays(1), null, null, null)) {
+                for (TaskExecutionEntity entity : (Iterable<TaskExecutionEntity>) rows::iterator) {
+                    stagingWriter.addDocument(toDocument(entity));
+                    count++;
+                }
+                stagingWriter.commit();
+            }
+
+            swapLock.writeLock().lock();
+            try {
+                writer.deleteAll();
+                writer.addIndexes(stagingDirectory);
+                pendingDuringRebuild = null;
+                for (IndexAction action : pending) {
+                    action.run();
+                }
+                writer.commit();
+                searcherManager.maybeRefresh();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        } finally {
+            pendingDuringRebuild = null;
+            FileSystemUtils.deleteRecursively(staging);
+        }
+
+        log.info("Task search index rebuilt: {} records in {}ms", count, System.currentTimeMillis() - startTime);
+        return count;
+    }
+
+    /**
+     * 近实时刷新, 使新写入的记录可被检索
+     */
+    @Scheduled(fixedDelayString = "${agent-runtime.search.refresh-interval-ms:1000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        // 与写入共享读锁, 刷新期间写入照常进行; 正在替换索引时跳过本轮
+        if (!swapLock.readLock().tryLock()) {
+            return;
+        }
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.warn("Failed to refresh task search index: {}", e.getMessage());
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 定期提交, 进程异常退出时最多丢失一个周期内的索引更新 (可通过重建恢复)
+     */
+    @Scheduled(fixedDelayString = "${agent-runtime.search.commit-interval-ms:60000}")
+    public void commit() {
+        if (!enabled || !writer.hasUncommittedChanges() || !swapLock.readLock().tryLock()) {
+            return;
+        }
+        try {
+            writer.commit();
+        } catch (IOException e) {
+            log.error("Failed to commit task search index: {}", e.getMessage(), e);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    // --- 检索 ---
+
+    /**
+     * 全文检索执行记录, 同时返回命中集合上的分面计数
+     */
+    public TaskSearchResult search(TaskSearchQuery query) throws IOException {
+        checkEnabled();
+        long startTime = System.nanoTime();
+        int size = Math.max(1, Math.min(query.getSize(), MAX_PAGE_SIZE));
+        int from = Math.max(0, Math.min(query.getFrom(), MAX_FROM));
+
+        Query luceneQuery = buildQuery(query);
+        boolean sortByTime = "time".equalsIgnoreCase(query.getSort());
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            FacetsCollector facetsCollector = new FacetsCollector();
+            TopDocs topDocs = sortByTime
+                    ? FacetsCollector.search(searcher, luceneQuery, from + size, new Sort(
+                            new SortField(FIELD_STARTED_AT, SortField.Type.LONG, true),
+                            new SortField(FIELD_ID, SortField.Type.LONG, true)), true, facetsCollector)
+                    : FacetsCollector.search(searcher, luceneQuery, from + size, facetsCollector);
+
+            List<TaskSearchHit> items = new ArrayList<>();
+            StoredFields storedFields = searcher.storedFields();
+            for (int i = from; i < topDocs.scoreDocs.length; i++) {
+                ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                items.add(toHit(storedFields.document(scoreDoc.doc), scoreDoc.score));
+            }
+
+            long total = facetsCollector.getMatchingDocs().stream()
+                    .mapToLong(matchingDocs -> matchingDocs.totalHits)
+                    .sum();
+
+            return TaskSearchResult.builder()
+                    .total(total)
+                    .from(from)
+                    .size(size)
+                    .items(items)
+                    .facets(facets(searcher.getIndexReader(), facetsCollector))
+                    .tookMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime))
+                    .build();
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private Query buildQuery(TaskSearchQuery query) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+
+        if (StringUtils.isNotBlank(query.getQ())) {
+            SimpleQueryParser parser = new SimpleQueryParser(analyzer, SEARCH_FIELDS);
+            parser.setDefaultOperator(BooleanClause.Occur.MUST);
+            builder.add(parser.parse(query.getQ()), BooleanClause.Occur.MUST);
+        } else {
+            builder.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+
+        addFilter(builder, FIELD_AGENT_NAME, query.getAgentName());
+        addFilter(builder, FIELD_STATUS, query.getStatus());
+        addFilter(builder, FIELD_DOMAIN, query.getDomain());
+        addFilter(builder, FIELD_USER_ID, query.getUserId());
+
+        if (query.getStartTime() != null || query.getEndTime() != null) {
+            long lower = query.getStartTime() != null ? toEpochMillis(query.getStartTime()) : Long.MIN_VALUE;
+            long upper = query.getEndTime() != null ? toEpochMillis(query.getEndTime()) : Long.MAX_VALUE;
+            builder.add(LongPoint.newRangeQuery(FIELD_STARTED_AT, lower, upper), BooleanClause.Occur.FILTER);
+        }
+
+        return builder.build();
+    }
+
+    private static void addFilter(BooleanQuery.Builder builder, String field, String value) {
+        if (StringUtils.isNotBlank(value)) {
+            builder.add(new TermQuery(new Term(field, value)), BooleanClause.Occur.FILTER);
+        }
+    }
+
+    private Map<String, Map<String, Long>> facets(IndexReader reader, FacetsCollector facetsCollector) throws IOException {
+        Map<String, Map<String, Long>> results = new LinkedHashMap<>();
+        FACET_DIMENSIONS.forEach(dimension -> results.put(dimension, new LinkedHashMap<>()));
+
+        SortedSetDocValuesReaderState state = facetState(reader);
+        if (state == null) {
+            return results;
+        }
+
+        Facets facets = new SortedSetDocValuesFacetCounts(state, facetsCollector);
+        for (String dimension : FACET_DIMENSIONS) {
+            FacetResult result;
+            try {
+                result = facets.getTopChildren(FACET_TOP_N, dimension);
+            } catch (IllegalArgumentException e) {
+                // 该维度尚无任何取值
+                continue;
+            }
+            if (result != null) {
+                for (LabelAndValue labelAndValue : result.labelValues) {
+                    results.get(dimension).put(labelAndValue.label, labelAndValue.value.longValue());
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 分面的全局序号映射只在 reader 变化 (刷新) 后重建
+     */
+    private SortedSetDocValuesReaderState facetState(IndexReader reader) throws IOException {
+        FacetState current = facetState;
+        if (current != null && current.reader() == reader) {
+            return current.state();
+        }
+        SortedSetDocValuesReaderState state;
+        try {
+            state = new DefaultSortedSetDocValuesReaderState(reader, facetsConfig);
+        } catch (IllegalArgumentException e) {
+            // 索引中还没有分面字段
+            state = null;
+        }
+        facetState = new FacetState(reader, state);
+        return state;
+    }
+
+    // --- 文档转换 ---
+
+    private Document toDocument(TaskExecutionEntity entity) {
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, String.valueOf(entity.getId()), Field.Store.YES));
+        document.add(new NumericDocValuesField(FIELD_ID, entity.getId()));
+
+        addKeyword(document, FIELD_TASK_ID, entity.getTaskId());
+        addKeyword(document, FIELD_TASK_TYPE, entity.getTaskType());
+        addKeyword(document, FIELD_TRACE_ID, entity.getTraceId());
+        addKeyword(document, FIELD_USER_ID, entity.getUserId());
+        addFacet(document, FIELD_AGENT_NAME, entity.getAgentName());
+        addFacet(document, FIELD_STATUS, entity.getStatus());
+        addFacet(document, FIELD_DOMAIN, entity.getDomain());
+
+        if (entity.getStartedAt() != null) {
+            long startedAt = toEpochMillis(entity.getStartedAt());
+            document.add(new LongPoint(FIELD_STARTED_AT, startedAt));
+            document.add(new NumericDocValuesField(FIELD_STARTED_AT, startedAt));
+            document.add(new StoredField(FIELD_STARTED_AT, startedAt));
+        }
+
+        addText(document, FIELD_SUMMARY, entity.getSummary(), Field.Store.YES);
+        addText(document, FIELD_ERROR_MESSAGE, entity.getErrorMessage(), Field.Store.YES);
+        if (entity.getResult() != null) {
+            StringBuilder text = new StringBuilder();
+            appendResultText(text, entity.getResult(), true);
+            addText(document, FIELD_RESULT, text.toString(), Field.Store.NO);
+        }
+
+        try {
+            return facetsConfig.build(document);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to build search document for task " + entity.getTaskId(), e);
+        }
+    }
+
+    /**
+     * 收集 result 中的字符串值, 配置了 result-fields 时只取这些顶层字段
+     */
+    private void appendResultText(StringBuilder text, Object value, boolean topLevel) {
+        if (text.length() >= MAX_RESULT_TEXT_LENGTH) {
+            return;
+        }
+        if (value instanceof Map<?, ?> map) {
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!topLevel || resultFields.isEmpty() || resultFields.contains(String.valueOf(entry.getKey()))) {
+                    appendResultText(text, entry.getValue(), false);
+                }
+            }
+        } else if (value instanceof Collection<?> collection) {
+            for (Object element : collection) {
+                appendResultText(text, element, false);
+            }
+        } else if (value instanceof CharSequence sequence) {
+            int remaining = MAX_RESULT_TEXT_LENGTH - text.length();
+            text.append(sequence, 0, Math.min(sequence.length(), remaining)).append('\n');
+        }
+    }
+
+    private static void addKeyword(Document document, String field, String value) {
+        if (StringUtils.isNotEmpty(value)) {
+            document.add(new StringField(field, value, Field.Store.YES));
+        }
+    }
+
+    private static void addFacet(Document document, String field, String value) {
+        if (StringUtils.isNotEmpty(value)) {
+            document.add(new StringField(field, value, Field.Store.YES));
+            document.add(new SortedSetDocValuesFacetField(field, value));
+        }
+    }
+
+    private static void addText(Document document, String field, String value, Field.Store store) {
+        if (StringUtils.isNotBlank(value)) {
+            document.add(new TextField(field, value, store));
+        }
+    }
+
+    private static TaskSearchHit toHit(Document document, float score) {
+        IndexableField startedAt = document.getField(FIELD_STARTED_AT);
+        return TaskSearchHit.builder()
+                .id(Long.valueOf(document.get(FIELD_ID)))
+                .taskId(document.get(FIELD_TASK_ID))
+                .taskType(document.get(FIELD_TASK_TYPE))
+                .domain(document.get(FIELD_DOMAIN))
+                .agentName(document.get(FIELD_AGENT_NAME))
+                .traceId(document.get(FIELD_TRACE_ID))
+                .status(document.get(FIELD_STATUS))
+                .userId(document.get(FIELD_USER_ID))
+                .startedAt(startedAt != null ? toLocalDateTime(startedAt.numericValue().longValue()) : null)
+                .summary(StringUtils.abbreviate(document.get(FIELD_SUMMARY), SNIPPET_LENGTH))
+                .errorMessage(StringUtils.abbreviate(document.get(FIELD_ERROR_MESSAGE), SNIPPET_LENGTH))
+                .score(Float.isNaN(score) ? 0 : score)
+                .build();
+    }
+
+    // --- 内部工具 ---
+
+    private void afterCommit(IndexAction action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(action);
+                }
+            });
+        } else {
+            apply(action);
+        }
+    }
+
+    /**
+     * 索引失败不影响执行记录的保存, 可通过重建修复
+     */
+    private void apply(IndexAction action) {
+        // 写入与登记重放在同一读锁内完成, 替换索引 (写锁) 不会发生在两者之间而丢失更新;
+        // 取到 null 时要么重建尚未开始 (记录已在存储中提交, 重建读取存储时必然包含它), 要么替换已完成
+        swapLock.readLock().lock();
+        try {
+            action.run();
+            List<IndexAction> pending = pendingDuringRebuild;
+            if (pending != null) {
+                pending.add(action);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to update task search index: {}", e.getMessage());
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void checkEnabled() {
+        if (!enabled) {
+            throw new IllegalStateException("Task search is disabled");
+        }
+    }
+
+    private static Term idTerm(Long id) {
+        return new Term(FIELD_ID, String.valueOf(id));
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    private record FacetState(IndexReader reader, SortedSetDocValuesReaderState state) {
+    }
+
+    @FunctionalInterface
+    private interface IndexAction {
+        void run() throws IOException;
+    }
+}
@@ -1,21 +1,34 @@
 package com.shengong.agentruntime.service;
 
 import com.shengong.agentruntime.core.tool.Tool;
+import com.shengong.agentruntime.core.tool.ToolFutures;
+import com.shengong.agentruntime.core.tool.invocation.InterceptedTool;
+import com.shengong.agentruntime.core.tool.invocation.ToolInvocationChain;
+import com.shengong.agentruntime.model.ToolResult;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Tool 注册中心
+ * 注册的 Tool 统一包装为 {@link InterceptedTool}, 通过注册中心取得的 Tool 调用都经过
+ * {@link ToolInvocationChain} (计时、指标、重试、缓存、并发与超时控制)
  *
  * @author 神工团队
  * @since 1.0.0
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class ToolRegistry {
 
+    private final ObjectProvider<ToolInvocationChain> invocationChainProvider;
+    private volatile ToolInvocationChain invocationChain;
+
     private final Map<String, Tool> tools = new ConcurrentHashMap<>();
     private final Map<String, Set<Tool>> categoryTools = new ConcurrentHashMap<>();
 
@@ -23,19 +36,59 @@ public class ToolRegistry {
      * 注册 Tool
      */
     public void register(Tool tool) {
+        if (!(tool instanceof InterceptedTool)) {
+            tool = new InterceptedTool(tool, this::invocationChain);
+        }
         String name = tool.name();
         if (tools.containsKey(name)) {
             log.warn("Tool {} already registered, will be replaced", name);
         }
 
-        tools.put(name, tool);
+        Tool previous = tools.put(name, tool);
+        if (previous != null) {
+            removeFromCategory(previous);
+        }
 
         // 按类别注册
-        categoryTools.computeIfAbsent(tool.category(), k -> new HashSet<>()).add(tool);
+        categoryTools.computeIfAbsent(tool.category(), k -> ConcurrentHashMap.newKeySet()).add(tool);
 
         log.info("Registered tool: {} (category: {})", name, tool.category());
     }
 
+    /**
+     * 注销 Tool (用于运行期动态发现的 Tool, 如 MCP 服务下线的工具)
+     *
+     * @return 是否存在并已注销
+     */
+    public boolean unregister(String name) {
+        Tool removed = tools.remove(name);
+        if (removed == null) {
+            return false;
+        }
+        removeFromCategory(removed);
+        log.info("Unregistered tool: {} (category: {})", name, removed.category());
+        return true;
+    }
+
+    /**
+     * Tool 在 BeanPostProcessor 阶段注册, 调用链到首次调用时才获取
+     */
+    private ToolInvocationChain invocationChain() {
+        ToolInvocationChain chain = invocationChain;
+        if (chain == null) {
+            chain = invocationChainProvider.getIfAvailable();
+            invocationChain = chain;
+        }
+        return chain;
+    }
+
+    private void removeFromCategory(Tool tool) {
+        Set<Tool> set = categoryTools.get(tool.category());
+        if (set != null) {
+            set.remove(tool);
+        }
+    }
+
     /**
      * 根据名称获取 Tool
      */
@@ -57,10 +110,42 @@ public class ToolRegistry {
         return categoryTools.getOrDefault(category, Collections.emptySet());
     }
 
+    /**
+     * 异步调用 Tool, Tool 不存在时以失败结果完成
+     */
+    public CompletableFuture<ToolResult> invokeAsync(String name, Map<String, Object> arguments) {
+        Tool tool = tools.get(name);
+        if (tool == null) {
+            ToolResult result = ToolResult.failure("Tool not found: " + name);
+            result.setToolName(name);
+            return CompletableFuture.completedFuture(result);
+        }
+        return ToolFutures.call(() -> tool.invokeAsync(arguments))
+                .exceptionally(error -> ToolResult.failure("Tool " + name + " failed: " + ToolFutures.unwrap(error).getMessage()));
+    }
+
+    /**
+     * 并发调用多个 Tool 并等待全部完成, 结果顺序与 calls 一致;
+     * 单个调用失败不影响其他调用
+     */
+    public List<ToolResult> invokeAll(List<ToolCall> calls) {
+        List<CompletableFuture<ToolResult>> futures = calls.stream()
+                .map(call -> invokeAsync(call.name(), call.arguments()))
+                .toList();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
     /**
      * 获取注册数量
      */
     public int getCount() {
         return tools.size();
     }
+
+    /**
+     * 一次 Tool 调用
+     */
+    public record ToolCall(String name, Map<String, Object> arguments) {
+    }
 }
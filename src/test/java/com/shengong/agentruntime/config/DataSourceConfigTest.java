@@ -0,0 +1,155 @@
+package com.shengong.agentruntime.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 读写分离数据源测试
+ * 上下文部分只配置一个库 (单库环境), 连接池懒连接, 不需要真实数据库
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class DataSourceConfigTest {
+
+    private static final String PRIMARY_URL = "jdbc:mysql://localhost:3306/shen_gong";
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory()
+                    .setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withUserConfiguration(DataSourceConfig.class, DataSourcePropertiesConfig.class)
+            .withPropertyValues("spring.datasource.url=" + PRIMARY_URL,
+                    "spring.datasource.username=agent",
+                    "spring.datasource.password=secret");
+
+    @Test
+    void splitIsOffByDefault() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean("replicaPool"));
+    }
+
+    @Test
+    void singleDatabaseGetsSeparateReadOnlyPool() {
+        contextRunner
+                .withPropertyValues("agent-runtime.datasource.read-write-split.enabled=true",
+                        "agent-runtime.datasource.replica.hikari.maximum-pool-size=4")
+                .run(context -> {
+                    HikariDataSource primary = context.getBean("primaryPool", HikariDataSource.class);
+                    HikariDataSource replica = context.getBean("replicaPool", HikariDataSource.class);
+                    assertThat(replica).isNotSameAs(primary);
+                    assertThat(replica.getJdbcUrl()).isEqualTo(PRIMARY_URL);
+                    assertThat(replica.getUsername()).isEqualTo("agent");
+                    assertThat(replica.isReadOnly()).isTrue();
+                    assertThat(replica.getMaximumPoolSize()).isEqualTo(4);
+                    assertThat(context.getBean(DataSource.class)).isInstanceOf(LazyConnectionDataSourceProxy.class);
+                });
+    }
+
+    @Test
+    void replicaUrlOverridesPrimary() {
+        contextRunner
+                .withPropertyValues("agent-runtime.datasource.read-write-split.enabled=true",
+                        "agent-runtime.datasource.replica.url=jdbc:mysql://replica:3306/shen_gong")
+                .run(context -> assertThat(context.getBean("replicaPool", HikariDataSource.class).getJdbcUrl())
+                        .isEqualTo("jdbc:mysql://replica:3306/shen_gong"));
+    }
+
+    @Test
+    void readOnlyTransactionsUseReplica() throws SQLException {
+        DataSource primary = dataSource();
+        DataSource replica = dataSource();
+        LazyConnectionDataSourceProxy routing = new LazyConnectionDataSourceProxy(primary);
+        routing.setReadOnlyDataSource(new DataSourceConfig.FallbackDataSource(
+                replica, primary, Duration.ofSeconds(30), System::nanoTime));
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(routing));
+        readOnly.setReadOnly(true);
+
+        readOnly.executeWithoutResult(status -> touch(routing));
+
+        verify(replica).getConnection();
+        // 主库只用于读取连接默认属性
+        verify(primary, times(1)).getConnection();
+    }
+
+    @Test
+    void replicaFailureRoutesToPrimaryDuringCooldown() throws SQLException {
+        DataSource primary = dataSource();
+        DataSource replica = mock(DataSource.class);
+        when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("replica down"));
+        AtomicLong now = new AtomicLong();
+        DataSource reads = new DataSourceConfig.FallbackDataSource(
+                replica, primary, Duration.ofSeconds(30), now::get);
+
+        Connection first = reads.getConnection();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        reads.getConnection();
+        reads.getConnection();
+
+        verify(first).setReadOnly(true);
+        verify(replica, times(1)).getConnection();
+        verify(primary, times(3)).getConnection();
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(25));
+        reads.getConnection();
+        verify(replica, times(2)).getConnection();
+    }
+
+    @Test
+    void replicaIsUsedAgainAfterRecovery() throws SQLException {
+        DataSource primary = dataSource();
+        DataSource replica = dataSource();
+        when(replica.getConnection())
+                .thenThrow(new SQLTransientConnectionException("replica down"))
+                .thenReturn(mock(Connection.class));
+        AtomicLong now = new AtomicLong();
+        DataSource reads = new DataSourceConfig.FallbackDataSource(
+                replica, primary, Duration.ofSeconds(30), now::get);
+
+        reads.getConnection();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(31));
+        reads.getConnection();
+        reads.getConnection();
+
+        verify(replica, times(3)).getConnection();
+        verify(primary, times(1)).getConnection();
+    }
+
+    private static DataSource dataSource() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        return dataSource;
+    }
+
+    private static void touch(DataSource dataSource) {
+        try {
+            DataSourceUtils.getConnection(dataSource).createStatement();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @EnableConfigurationProperties(DataSourceProperties.class)
+    static class DataSourcePropertiesConfig {
+    }
+}
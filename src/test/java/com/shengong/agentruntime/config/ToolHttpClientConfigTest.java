@@ -0,0 +1,163 @@
+package com.shengong.agentruntime.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.web.reactive.function.client.WebClientAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tool 共享 HTTP 客户端测试, 使用本机 JDK HttpServer
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class ToolHttpClientConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory()
+                    .setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withConfiguration(AutoConfigurations.of(WebClientAutoConfiguration.class))
+            .withUserConfiguration(ToolHttpClientConfig.class)
+            .withPropertyValues("agent-runtime.http-client.warmup=false");
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private HttpServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/small", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            respond(exchange, "ok".getBytes(StandardCharsets.UTF_8));
+        });
+        server.createContext("/large", exchange -> respond(exchange, new byte[4096]));
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void reusesKeepAliveConnections() {
+        contextRunner.run(context -> {
+            WebClient client = context.getBean("toolWebClient", WebClient.class);
+            for (int i = 0; i < 5; i++) {
+                assertThat(client.get().uri(url("/small")).retrieve().bodyToMono(String.class).block())
+                        .isEqualTo("ok");
+                awaitRelease();
+            }
+            assertThat(clientPorts).hasSize(1);
+        });
+    }
+
+    @Test
+    void derivedClientsSharePool() {
+        contextRunner.run(context -> {
+            WebClient client = context.getBean("toolWebClient", WebClient.class);
+            WebClient derived = client.mutate().baseUrl(url("")).build();
+            client.get().uri(url("/small")).retrieve().bodyToMono(String.class).block();
+            awaitRelease();
+            derived.get().uri("/small").retrieve().bodyToMono(String.class).block();
+
+            assertThat(clientPorts).hasSize(1);
+        });
+    }
+
+    @Test
+    void bodiesAboveMaxResponseSizeAreRejected() {
+        contextRunner.withPropertyValues("agent-runtime.http-client.max-response-size=1KB").run(context -> {
+            WebClient client = context.getBean("toolWebClient", WebClient.class);
+
+            assertThatThrownBy(() -> client.get().uri(url("/large")).retrieve().bodyToMono(byte[].class).block())
+                    .hasRootCauseInstanceOf(DataBufferLimitException.class);
+        });
+    }
+
+    @Test
+    void hostOverridesAreApplied() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        String local = "127.0.0.1:" + server.getAddress().getPort();
+        try {
+            // host:port 中的冒号会被 withPropertyValues 当作分隔符, 直接放入属性源
+            contextRunner.withPropertyValues("agent-runtime.http-client.max-connections=50",
+                            "agent-runtime.http-client.max-idle-time=100ms")
+                    .withInitializer(context -> context.getEnvironment().getPropertySources().addFirst(
+                            new MapPropertySource("hosts", Map.of(
+                                    "agent-runtime.http-client.hosts[api.example.com:443].max-connections", "4",
+                                    "agent-runtime.http-client.hosts[" + local + "].max-connections", "3"))))
+                    .run(context -> {
+                        ConnectionProvider provider = context.getBean(ConnectionProvider.class);
+                        assertThat(provider.maxConnections()).isEqualTo(50);
+                        assertThat(provider.maxConnectionsPerHost())
+                                .containsEntry(InetSocketAddress.createUnresolved("api.example.com", 443), 4);
+
+                        WebClient client = context.getBean("toolWebClient", WebClient.class);
+                        client.get().uri(url("/small")).retrieve().bodyToMono(String.class).block();
+                        Thread.sleep(300);
+                        client.get().uri(url("/small")).retrieve().bodyToMono(String.class).block();
+
+                        // 覆盖的主机仍使用全局 max-idle-time: 空闲超时的连接不再复用
+                        assertThat(clientPorts).hasSize(2);
+                        // 覆盖的主机同样导出连接池指标, 且反映该主机的连接上限
+                        assertThat(registry.find("reactor.netty.connection.provider.max.connections")
+                                .tag("remote.address", local).gauge())
+                                .isNotNull()
+                                .satisfies(gauge -> assertThat(gauge.value()).isEqualTo(3));
+                    });
+        } finally {
+            Metrics.removeRegistry(registry);
+            registry.close();
+        }
+    }
+
+    @Test
+    void invalidHostOverrideFailsStartup() {
+        contextRunner.withPropertyValues("agent-runtime.http-client.hosts[api.example.com].max-connections=4")
+                .run(context -> assertThat(context).hasFailed()
+                        .getFailure().hasRootCauseMessage(
+                                "Invalid http-client host override (expected host:port): api.example.com"));
+    }
+
+    /**
+     * 连接在响应体读完之后才异步归还连接池
+     */
+    private static void awaitRelease() throws InterruptedException {
+        Thread.sleep(50);
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static void respond(HttpExchange exchange, byte[] content) throws IOException {
+        exchange.sendResponseHeaders(200, content.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(content);
+        }
+    }
+}
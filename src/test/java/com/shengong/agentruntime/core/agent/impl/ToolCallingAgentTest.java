@@ -0,0 +1,162 @@
+package com.shengong.agentruntime.core.agent.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.config.ToolInvocationProperties;
+import com.shengong.agentruntime.core.tool.Tool;
+import com.shengong.agentruntime.core.tool.invocation.ToolInvocationChain;
+import com.shengong.agentruntime.core.tool.invocation.ToolPolicyResolver;
+import com.shengong.agentruntime.llm.LlmClient;
+import com.shengong.agentruntime.llm.ToolSchemaConverter;
+import com.shengong.agentruntime.model.AgentResult;
+import com.shengong.agentruntime.model.AgentTask;
+import com.shengong.agentruntime.model.ToolResult;
+import com.shengong.agentruntime.repository.ToolConfigRepository;
+import com.shengong.agentruntime.service.ToolRegistry;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * ToolCallingAgent 测试: 幂等结果复用、失败结果不复用与默认工具白名单
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class ToolCallingAgentTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LlmClient llmClient = mock(LlmClient.class);
+    private final ToolInvocationProperties properties = new ToolInvocationProperties();
+    private final ToolRegistry toolRegistry = new ToolRegistry(
+            new StaticListableBeanFactory().getBeanProvider(ToolInvocationChain.class));
+    private final CountingTool lookup = new CountingTool("lookup");
+    private ToolCallingAgent agent;
+
+    @BeforeEach
+    void setUp() {
+        ToolInvocationProperties.Policy idempotent = new ToolInvocationProperties.Policy();
+        idempotent.setIdempotent(true);
+        properties.getPolicies().put("lookup", idempotent);
+        ToolPolicyResolver policyResolver = new ToolPolicyResolver(properties,
+                new StaticListableBeanFactory().getBeanProvider(ToolConfigRepository.class));
+        toolRegistry.register(lookup);
+        toolRegistry.register(new CountingTool("http_client_tool"));
+        agent = new ToolCallingAgent(llmClient, toolRegistry, new ToolSchemaConverter(objectMapper), policyResolver,
+                objectMapper, 8, 32, 20_000, List.of("lookup"));
+    }
+
+    @Test
+    void successfulIdempotentResultsAreReused() {
+        when(llmClient.chatWithTools(any(), any())).thenReturn(call("lookup", "{\"q\":1}"),
+                call("lookup", "{\"q\":1}"), AiMessage.from("done"));
+
+        AgentResult result = agent.execute(new AgentTask(), params(null));
+
+        assertThat(lookup.calls).hasValue(1);
+        assertThat(result.getData()).containsEntry("cacheHits", 1);
+    }
+
+    @Test
+    void failedResultsAreNotReused() {
+        lookup.failuresBeforeSuccess.set(1);
+        when(llmClient.chatWithTools(any(), any())).thenReturn(call("lookup", "{\"q\":1}"),
+                call("lookup", "{\"q\":1}"), call("lookup", "{\"q\":1}"), AiMessage.from("done"));
+
+        AgentResult result = agent.execute(new AgentTask(), params(null));
+
+        // 第一次失败后被逐出, 第二次重新执行并成功, 第三次复用成功结果
+        assertThat(lookup.calls).hasValue(2);
+        assertThat(result.getData()).containsEntry("cacheHits", 1);
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> calls = (List<Map<String, Object>>) result.getData().get("toolCalls");
+        assertThat(calls).extracting(call -> call.get("success")).containsExactly(false, true, true);
+    }
+
+    @Test
+    void defaultsToTheAllowlist() {
+        assertThat(offeredTools(null)).containsExactly("lookup");
+    }
+
+    @Test
+    void explicitToolsOverrideTheAllowlist() {
+        assertThat(offeredTools(List.of("http_client_tool"))).containsExactly("http_client_tool");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> offeredTools(List<String> tools) {
+        when(llmClient.chatWithTools(any(), any())).thenReturn(AiMessage.from("done"));
+        agent.execute(new AgentTask(), params(tools));
+
+        ArgumentCaptor<List<ToolSpecification>> specifications = ArgumentCaptor.forClass(List.class);
+        verify(llmClient, atLeastOnce()).chatWithTools(any(), specifications.capture());
+        return specifications.getValue().stream().map(ToolSpecification::name).toList();
+    }
+
+    private static ToolCallingAgent.ToolCallingParams params(List<String> tools) {
+        ToolCallingAgent.ToolCallingParams params = new ToolCallingAgent.ToolCallingParams();
+        params.setPrompt("question");
+        params.setTools(tools);
+        return params;
+    }
+
+    private static AiMessage call(String tool, String arguments) {
+        return AiMessage.from(List.of(ToolExecutionRequest.builder()
+                .id(tool + "-" + arguments.hashCode())
+                .name(tool)
+                .arguments(arguments)
+                .build()));
+    }
+
+    /**
+     * 记录调用次数, 可设置前几次返回失败
+     */
+    private static final class CountingTool implements Tool {
+
+        private final String name;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger failuresBeforeSuccess = new AtomicInteger();
+
+        CountingTool(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String description() {
+            return name;
+        }
+
+        @Override
+        public String parametersSchema() {
+            return "{\"type\": \"object\", \"properties\": {\"q\": {\"type\": \"integer\"}}}";
+        }
+
+        @Override
+        public synchronized ToolResult invoke(Map<String, Object> arguments) {
+            calls.incrementAndGet();
+            if (failuresBeforeSuccess.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                return ToolResult.failure("temporarily unavailable");
+            }
+            return ToolResult.success(Map.of("q", arguments.getOrDefault("q", 0)));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.shengong.agentruntime.core.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 多维下钻测试: 20 个店铺 x 10 个商品, 每个组合 60 单, 正常退货率 5%, 在指定分组中埋入异常
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class DrillDownEngineTest {
+
+    private static final Set<DrillDownEngine.Metric> REFUNDS = Set.of(DrillDownEngine.Metric.REFUND_RATE);
+
+    @Test
+    void plantedShopSkuSliceReplacesItsShop() {
+        OrderBatch batch = batch(20, 10, (shop, sku) -> shop == 3 && sku == 5 ? 0.6 : 0.05);
+
+        List<Map<String, Object>> slices = engine(3.0).localize(batch, REFUNDS).get("refundRate");
+
+        // 店铺 SHOP03 与商品 SKU05 的超出量几乎全部来自这个组合, 均被更精确的组合替换
+        assertThat(slices).singleElement().satisfies(slice -> {
+            assertThat(slice.get("dimensions")).isEqualTo(Map.of("shopId", "SHOP03", "skuId", "SKU05"));
+            assertThat(slice).containsEntry("orders", 60).containsEntry("value", 0.6);
+            // 60 x (0.6 - 0.05), 占全部 633 单退货的 5.2%
+            assertThat(slice).containsEntry("excess", 33.0).containsEntry("explanatoryPower", 0.052);
+        });
+    }
+
+    @Test
+    void shopWideAnomalyKeepsTheShop() {
+        OrderBatch batch = batch(20, 10, (shop, sku) -> shop == 7 ? 0.3 : 0.05);
+
+        List<Map<String, Object>> slices = engine(3.0).localize(batch, REFUNDS).get("refundRate");
+
+        // 每个组合只解释店铺超出量的 1/10, 达不到 specificity-ratio, 视为已被店铺覆盖
+        assertThat(slices).singleElement()
+                .satisfies(slice -> assertThat(slice.get("dimensions")).isEqualTo(Map.of("shopId", "SHOP07")));
+    }
+
+    @Test
+    void manyGroupsRaiseTheScoreThreshold() {
+        // 60 单中 7 单退货 (约 12%), 对 5% 的基线约 2 个标准差
+        OrderBatch few = batch(2, 1, (shop, sku) -> shop == 0 ? 0.12 : 0.05);
+        OrderBatch many = batch(20, 10, (shop, sku) -> shop == 0 && sku == 0 ? 0.12 : 0.05);
+
+        // 2 个分组时阈值 sqrt(2 ln 2) 约 1.2, 230 个分组时约 3.3
+        assertThat(engine(1.0).localize(few, REFUNDS).get("refundRate")).singleElement()
+                .satisfies(slice -> assertThat((Double) slice.get("score")).isBetween(1.2, 3.3));
+        assertThat(engine(1.0).localize(many, REFUNDS).get("refundRate")).isEmpty();
+    }
+
+    @Test
+    void combinationsWiderThan63BitsAreSkipped() {
+        // 4 个高基数维度各需 17 位, 四者组合 68 位放不进 long 键; 店铺维度仍正常下钻
+        List<Map<String, Object>> orders = new ArrayList<>();
+        for (int i = 0; i < 70_000; i++) {
+            int shop = i % 10;
+            int position = i / 10 % 100;
+            boolean refunded = shop == 4 ? position < 30 : position < 5;
+            Map<String, Object> order = new HashMap<>();
+            order.put("status", refunded ? "REFUNDED" : "COMPLETED");
+            order.put("shopId", "SHOP0" + shop);
+            for (String dimension : List.of("a", "b", "c", "d")) {
+                order.put(dimension, dimension + i);
+            }
+            orders.add(order);
+        }
+        DrillDownEngine engine = new DrillDownEngine(List.of("shopId", "a", "b", "c", "d"), 4, 30, 3.0, 0.8, 5);
+
+        List<Map<String, Object>> slices = engine.localize(OrderBatch.from(orders), REFUNDS).get("refundRate");
+
+        assertThat(slices).singleElement()
+                .satisfies(slice -> assertThat(slice.get("dimensions")).isEqualTo(Map.of("shopId", "SHOP04")));
+    }
+
+    @Test
+    void onlySupportedMetricsAreLocalized() {
+        DrillDownEngine engine = engine(3.0);
+
+        assertThat(engine.supported(List.of("refundRate", "avgProcessingTimeHours", "totalAmount")))
+                .containsExactlyInAnyOrder(DrillDownEngine.Metric.REFUND_RATE, DrillDownEngine.Metric.PROCESSING_TIME);
+        assertThat(engine.localize(OrderBatch.from(List.of()), REFUNDS)).isEmpty();
+        assertThat(engine.localize(batch(2, 2, (shop, sku) -> 0.05), Set.of())).isEmpty();
+    }
+
+    private static DrillDownEngine engine(double minScore) {
+        return new DrillDownEngine(List.of("shopId", "skuId"), 2, 30, minScore, 0.8, 5);
+    }
+
+    /**
+     * 每个店铺 x 商品组合 60 单, 其中前 round(60 x 退货率) 单退货, 不含随机波动
+     */
+    private static OrderBatch batch(int shops, int skus, RefundRate refundRate) {
+        List<Map<String, Object>> orders = new ArrayList<>();
+        for (int shop = 0; shop < shops; shop++) {
+            for (int sku = 0; sku < skus; sku++) {
+                long refunds = Math.round(60 * refundRate.of(shop, sku));
+                for (int i = 0; i < 60; i++) {
+                    orders.add(Map.of("status", i < refunds ? "REFUNDED" : "COMPLETED",
+                            "shopId", String.format("SHOP%02d", shop), "skuId", String.format("SKU%02d", sku)));
+                }
+            }
+        }
+        return OrderBatch.from(orders);
+    }
+
+    @FunctionalInterface
+    private interface RefundRate {
+        double of(int shop, int sku);
+    }
+}
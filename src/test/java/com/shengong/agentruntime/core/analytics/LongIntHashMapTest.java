@@ -0,0 +1,62 @@
+package com.shengong.agentruntime.core.analytics;
+
+import com.shengong.agentruntime.core.analytics.sketch.Hashes;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 开放寻址哈希表测试
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class LongIntHashMapTest {
+
+    @Test
+    void valuesSurviveRepeatedRehash() {
+        LongIntHashMap map = new LongIntHashMap(1);
+        for (int i = 0; i < 100_000; i++) {
+            // 打包维度编码形式的键: 高位与低位都在变化
+            long key = (long) (i % 317) << 40 | i;
+            assertThat(map.putIfAbsent(key, i)).isEqualTo(LongIntHashMap.ABSENT);
+        }
+
+        assertThat(map.size()).isEqualTo(100_000);
+        for (int i = 0; i < 100_000; i++) {
+            long key = (long) (i % 317) << 40 | i;
+            assertThat(map.get(key)).isEqualTo(i);
+            assertThat(map.putIfAbsent(key, -5)).isEqualTo(i);
+        }
+        assertThat(map.get(1L << 62)).isEqualTo(LongIntHashMap.ABSENT);
+        assertThat(map.size()).isEqualTo(100_000);
+    }
+
+    @Test
+    void collidingKeysProbeToDistinctSlots() {
+        // 初始容量 32: 挑出落在同一个槽位的键, 插入第 17 个时触发扩容
+        List<Long> colliding = new ArrayList<>();
+        for (long key = 0; colliding.size() < 24; key++) {
+            if ((Hashes.mix(key) & 31) == 7) {
+                colliding.add(key);
+            }
+        }
+        LongIntHashMap map = new LongIntHashMap(4);
+
+        for (int i = 0; i < 20; i++) {
+            map.putIfAbsent(colliding.get(i), i);
+            for (int j = 0; j <= i; j++) {
+                assertThat(map.get(colliding.get(j))).isEqualTo(j);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(20);
+        for (int i = 20; i < 24; i++) {
+            assertThat(map.get(colliding.get(i))).isEqualTo(LongIntHashMap.ABSENT);
+        }
+        assertThat(map.putIfAbsent(colliding.get(0), 99)).isZero();
+    }
+}
@@ -0,0 +1,141 @@
+package com.shengong.agentruntime.core.analytics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.config.SyntheticDataProperties;
+import com.shengong.agentruntime.core.tool.synthetic.SyntheticDataGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * 订单统计引擎测试: Fork/Join 与顺序聚合一致、按 Map 解析时的默认值
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class OrderStatisticsEngineTest {
+
+    @Test
+    void forkJoinMatchesSequentialPass() {
+        List<Map<String, Object>> orders = orders(60_000);
+        OrderStatisticsEngine sequentialEngine = new OrderStatisticsEngine(Integer.MAX_VALUE, 1024);
+        OrderStatisticsEngine parallelEngine = new OrderStatisticsEngine(1, 1024);
+
+        Map<String, Object> sequential = sequentialEngine.compute(OrderBatch.from(orders)).toMap();
+        Map<String, Object> parallel = parallelEngine.compute(OrderBatch.from(orders)).toMap();
+
+        for (String key : List.of("totalOrders", "refundCount", "delayedShipments", "maxProcessingTimeHours",
+                "statusCounts", "distinctBuyers", "distinctSkus", "topRefundReasons")) {
+            assertThat(parallel.get(key)).as(key).isEqualTo(sequential.get(key));
+        }
+        // 浮点累加顺序不同, 只比较到舍入误差
+        for (String key : List.of("refundRate", "delayRate", "avgProcessingTimeHours", "totalAmount", "avgAmount")) {
+            assertThat((Double) parallel.get(key)).as(key).isCloseTo((Double) sequential.get(key), within(1e-6));
+        }
+        // t-digest 合并后的质心与单个草图不同, 分位数只在误差范围内一致
+        for (String key : List.of("p50ProcessingTimeHours", "p90ProcessingTimeHours", "p99ProcessingTimeHours")) {
+            double expected = (Double) sequential.get(key);
+            assertThat((Double) parallel.get(key)).as(key).isCloseTo(expected, within(expected * 0.02));
+        }
+    }
+
+    @Test
+    void matchesNaiveCountsOverMaps() {
+        List<Map<String, Object>> orders = orders(5_000);
+
+        OrderStatistics statistics = new OrderStatisticsEngine(1, 1024).compute(OrderBatch.from(orders));
+
+        long refunded = orders.stream().filter(order -> "REFUNDED".equals(order.get("status"))).count();
+        long delayed = orders.stream().filter(order -> Boolean.TRUE.equals(order.get("delayedShipment"))).count();
+        double processing = orders.stream().mapToDouble(order -> (Double) order.get("processingTimeHours")).sum();
+        assertThat(statistics.count()).isEqualTo(orders.size());
+        assertThat(statistics.statusCount("REFUNDED")).isEqualTo(refunded);
+        assertThat(statistics.delayedCount()).isEqualTo(delayed);
+        assertThat(statistics.avgProcessingTimeHours()).isCloseTo(processing / orders.size(), within(1e-9));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sketchesTrackExactValues() {
+        List<Map<String, Object>> orders = orders(60_000);
+
+        Map<String, Object> statistics = new OrderStatisticsEngine(1, 1024).compute(OrderBatch.from(orders)).toMap();
+
+        long buyers = orders.stream().map(order -> order.get("buyerId")).distinct().count();
+        long skus = orders.stream().map(order -> order.get("skuId")).distinct().count();
+        assertThat(((Long) statistics.get("distinctBuyers")).doubleValue()).isCloseTo(buyers, within(buyers * 0.03));
+        assertThat(((Long) statistics.get("distinctSkus")).doubleValue()).isCloseTo(skus, within(skus * 0.03));
+
+        double[] hours = orders.stream().mapToDouble(order -> (Double) order.get("processingTimeHours")).sorted().toArray();
+        for (String key : List.of("p50ProcessingTimeHours", "p90ProcessingTimeHours", "p99ProcessingTimeHours")) {
+            double q = Integer.parseInt(key.substring(1, 3)) / 100.0;
+            double exact = hours[(int) (q * hours.length)];
+            assertThat((Double) statistics.get(key)).as(key).isCloseTo(exact, within(exact * 0.03));
+        }
+
+        Map<String, Long> reasons = new HashMap<>();
+        orders.stream().filter(order -> "REFUNDED".equals(order.get("status")) && order.get("refundReason") != null)
+                .forEach(order -> reasons.merge((String) order.get("refundReason"), 1L, Long::sum));
+        Map<String, Long> topReasons = (Map<String, Long>) statistics.get("topRefundReasons");
+        assertThat(topReasons.keySet()).containsExactlyInAnyOrderElementsOf(reasons.keySet());
+        topReasons.forEach((reason, count) -> assertThat(count).as(reason).isGreaterThanOrEqualTo(reasons.get(reason)));
+    }
+
+    @Test
+    void mapsKeepLegacyDefaults() {
+        Map<String, Object> bare = new HashMap<>();
+        Map<String, Object> complete = Map.of("status", "REFUNDED", "amount", 80.0,
+                "processingTimeHours", 6.0, "delayedShipment", true);
+        Map<String, Object> stringly = Map.of("status", "COMPLETED", "amount", "12.5",
+                "processingTimeHours", "3", "delayedShipment", "true");
+
+        OrderBatch batch = OrderBatch.fromMaps(List.of(bare, complete, stringly));
+
+        assertThat(batch.status(0)).isEqualTo("UNKNOWN");
+        assertThat(batch.processingTimeHours(0)).isEqualTo(24);
+        assertThat(batch.amount(0)).isZero();
+        assertThat(batch.delayedShipment(0)).isFalse();
+        assertThat(batch.status(1)).isEqualTo("REFUNDED");
+        assertThat(batch.processingTimeHours(1)).isEqualTo(6);
+        assertThat(batch.delayedShipment(1)).isTrue();
+        // 非数值 / 非布尔取值按缺失处理
+        assertThat(batch.amount(2)).isZero();
+        assertThat(batch.processingTimeHours(2)).isEqualTo(24);
+        assertThat(batch.delayedShipment(2)).isFalse();
+
+        OrderStatistics statistics = new OrderStatisticsEngine(Integer.MAX_VALUE, 1024).compute(batch);
+        assertThat(statistics.statusCount("UNKNOWN")).isEqualTo(1);
+        assertThat(statistics.refundRate()).isCloseTo(1.0 / 3, within(1e-9));
+        assertThat(statistics.avgProcessingTimeHours()).isCloseTo((24 + 6 + 24) / 3.0, within(1e-9));
+    }
+
+    @Test
+    void computeByGroupsOnDimensionValues() {
+        List<Map<String, Object>> orders = List.of(
+                Map.of("status", "REFUNDED", "shopId", "A"),
+                Map.of("status", "COMPLETED", "shopId", "B"),
+                Map.of("status", "REFUNDED", "shopId", "A"),
+                Map.of("status", "COMPLETED"));
+
+        Map<String, OrderStatistics> byShop = new OrderStatisticsEngine(Integer.MAX_VALUE, 1024)
+                .computeBy(OrderBatch.from(orders), "shopId");
+
+        assertThat(byShop).containsOnlyKeys("A", "B");
+        assertThat(byShop.get("A").count()).isEqualTo(2);
+        assertThat(byShop.get("A").refundRate()).isEqualTo(1.0);
+        assertThat(byShop.get("B").refundRate()).isZero();
+    }
+
+    /**
+     * 以 Map 形式复制, 走 fromMaps 路径
+     */
+    private static List<Map<String, Object>> orders(int count) {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(new SyntheticDataProperties(), new ObjectMapper());
+        return List.copyOf(generator.generateOrders(generator.orderSpec(Map.of("count", count, "seed", 9))).rows());
+    }
+}
@@ -0,0 +1,112 @@
+package com.shengong.agentruntime.core.analytics.rule;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.config.AnomalyRuleProperties;
+import com.shengong.agentruntime.entity.AgentConfigEntity;
+import com.shengong.agentruntime.repository.AgentConfigRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 规则加载测试: 数据库规则优先, 规则无效或数据库不可用时保留原有规则
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class AnomalyRuleEngineTest {
+
+    private static final String SOURCE = "agent_config:AnomalyDetectionAgent";
+
+    private final AnomalyRuleProperties properties = new AnomalyRuleProperties();
+    private final AgentConfigRepository repository = mock(AgentConfigRepository.class);
+    private final AnomalyRuleEngine engine = new AnomalyRuleEngine(properties,
+            new StaticListableBeanFactory(Map.of("agentConfigRepository", repository))
+                    .getBeanProvider(AgentConfigRepository.class),
+            new ObjectMapper());
+
+    @Test
+    void storedRulesTakePrecedenceOverConfig() {
+        stored(Map.of("type", "SHOP_HIGH_REFUND_RATE", "metric", "refundRate", "operator", "gt",
+                "threshold", 0.3, "dimension", "shopId", "minOrders", 50));
+
+        engine.init();
+
+        assertThat(engine.source()).isEqualTo(SOURCE);
+        assertThat(engine.current().size()).isEqualTo(1);
+        assertThat(engine.current().dimensions()).containsExactly("shopId");
+        // 定义未变化时不重新编译
+        assertThat(engine.reload()).isSameAs(engine.current());
+    }
+
+    @Test
+    void invalidRuleKeepsThePreviousSet() {
+        stored(Map.of("type", "HIGH_REFUND_RATE", "metric", "refundRate", "threshold", 0.2));
+        engine.init();
+        RuleSet previous = engine.current();
+
+        stored(Map.of("type", "HIGH_REFUND_RATE", "metric", "refundRate", "threshold", 0.1),
+                Map.of("type", "BROKEN", "metric", "refundRate", "operator", "~"));
+        assertThatThrownBy(engine::reload).isInstanceOf(IllegalArgumentException.class);
+        assertThat(engine.current()).isSameAs(previous);
+        assertThat(engine.source()).isEqualTo(SOURCE);
+
+        // JSON 无法转换为规则时同样保留
+        stored(Map.of("type", "HIGH_REFUND_RATE", "threshold", "not a number"));
+        assertThatCode(engine::refresh).doesNotThrowAnyException();
+        assertThat(engine.current()).isSameAs(previous);
+    }
+
+    @Test
+    void invalidStoredRulesAtStartupFallBackToConfig() {
+        stored(Map.of("type", "BROKEN", "metric", "refundRate", "operator", "~"));
+
+        engine.init();
+
+        assertThat(engine.source()).isEqualTo("config");
+        assertThat(engine.current().definitions()).isEqualTo(properties.getDefinitions());
+    }
+
+    @Test
+    void databaseOutageKeepsStoredRules() {
+        stored(Map.of("type", "HIGH_REFUND_RATE", "metric", "refundRate", "threshold", 0.2));
+        engine.init();
+        RuleSet previous = engine.current();
+
+        when(repository.findByNameAndEnabledTrue("AnomalyDetectionAgent"))
+                .thenThrow(new IllegalStateException("connection refused"));
+
+        assertThat(engine.reload()).isSameAs(previous);
+        assertThat(engine.source()).isEqualTo(SOURCE);
+    }
+
+    @Test
+    void withoutStoredRulesConfigIsUsed() {
+        when(repository.findByNameAndEnabledTrue("AnomalyDetectionAgent")).thenReturn(Optional.empty());
+
+        engine.init();
+
+        assertThat(engine.source()).isEqualTo("config");
+        assertThat(engine.current().size()).isEqualTo(3);
+
+        properties.setDatabaseEnabled(false);
+        stored(Map.of("type", "HIGH_REFUND_RATE", "metric", "refundRate", "threshold", 0.2));
+        assertThat(engine.reload().size()).isEqualTo(3);
+    }
+
+    @SafeVarargs
+    private void stored(Map<String, Object>... rules) {
+        AgentConfigEntity entity = AgentConfigEntity.builder()
+                .name("AnomalyDetectionAgent").enabled(true).config(Map.of("rules", List.of(rules))).build();
+        when(repository.findByNameAndEnabledTrue("AnomalyDetectionAgent")).thenReturn(Optional.of(entity));
+    }
+}
@@ -0,0 +1,171 @@
+package com.shengong.agentruntime.core.analytics.rule;
+
+import com.shengong.agentruntime.config.AnomalyRuleProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 规则编译与评估测试: 运算符解析、整体 / 维度规则、默认规则与原先内置阈值一致
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class RuleSetTest {
+
+    @Test
+    void operatorsParseBySymbolOrName() {
+        assertThat(RuleOperator.parse(">")).isEqualTo(RuleOperator.GT);
+        assertThat(RuleOperator.parse(" >= ")).isEqualTo(RuleOperator.GE);
+        assertThat(RuleOperator.parse("lt")).isEqualTo(RuleOperator.LT);
+        assertThat(RuleOperator.parse("LE")).isEqualTo(RuleOperator.LE);
+        assertThat(RuleOperator.parse("==")).isEqualTo(RuleOperator.EQ);
+        assertThat(RuleOperator.parse("Ne")).isEqualTo(RuleOperator.NE);
+
+        assertThatThrownBy(() -> RuleOperator.parse("=>")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RuleOperator.parse(null)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(RuleOperator.GT.bind(1).test(1)).isFalse();
+        assertThat(RuleOperator.GE.bind(1).test(1)).isTrue();
+        assertThat(RuleOperator.LT.bind(1).test(0.5)).isTrue();
+        assertThat(RuleOperator.NE.bind(1).test(1)).isFalse();
+    }
+
+    @Test
+    void invalidRulesFailTheWholeSet() {
+        AnomalyRuleDefinition valid = rule("A", "refundRate", ">", 0.1).build();
+
+        assertThatThrownBy(() -> RuleSet.compile(List.of(valid, rule("B", "refundRate", "~", 0.1).build())))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RuleSet.compile(List.of(valid, rule("C", " ", ">", 0.1).build())))
+                .isInstanceOf(IllegalArgumentException.class);
+        // 未启用的规则不编译, 其中的错误不影响整体
+        RuleSet rules = RuleSet.compile(List.of(valid, rule("B", "refundRate", "~", 0.1).enabled(false).build()));
+        assertThat(rules.size()).isEqualTo(1);
+        assertThat(rules.definitions()).hasSize(2);
+    }
+
+    @Test
+    void globalRulesEvaluateOnceOverTheStatistics() {
+        RuleSet rules = RuleSet.compile(List.of(
+                rule("HIGH_REFUND_RATE", "refundRate", ">", 0.15).severity("high")
+                        .description("退货率 {value%}, 阈值 {threshold%}, 共 {totalOrders} 单, {missing}").build(),
+                rule("LOW_AMOUNT", "avgAmount", "<", 50).build(),
+                rule("NO_SUCH_METRIC", "notComputed", ">", 0).build(),
+                rule("SHOP_ONLY", "refundRate", ">", 0).dimension("shopId").build()));
+
+        List<Map<String, Object>> anomalies = rules.evaluate(statistics(200, 0.25, 0.05, 30, 80));
+
+        assertThat(anomalies).singleElement().satisfies(anomaly -> {
+            assertThat(anomaly).containsEntry("type", "HIGH_REFUND_RATE")
+                    .containsEntry("severity", "high")
+                    .containsEntry("metric", "refundRate")
+                    .containsEntry("value", 0.25)
+                    .containsEntry("operator", ">")
+                    .containsEntry("threshold", 0.15)
+                    .doesNotContainKey("dimension")
+                    .containsEntry("description", "退货率 25.0%, 阈值 15.0%, 共 200 单, {missing}");
+        });
+        assertThat(rules.dimensions()).containsExactly("shopId");
+        assertThat(rules.evaluate(statistics(200, 0.25, 0.05, 30, 20))).extracting(anomaly -> anomaly.get("type"))
+                .containsExactly("HIGH_REFUND_RATE", "LOW_AMOUNT");
+    }
+
+    @Test
+    void dimensionRulesFilterOrderAndLimitSlices() {
+        RuleSet rules = RuleSet.compile(List.of(
+                rule("SHOP_HIGH_REFUND_RATE", "refundRate", ">", 0.3).dimension("shopId").minOrders(50)
+                        .description("店铺 {dimensionValue} 退货率 {value%}, 共 {totalOrders} 单").build(),
+                rule("SHOP_LOW_AMOUNT", "avgAmount", "<", 50).dimension("shopId")
+                        .values(List.of("S2", "S3", "S4")).build()));
+
+        Map<String, Map<String, Object>> slices = new LinkedHashMap<>();
+        slices.put("S1", statistics(100, 0.4, 0, 24, 60));
+        slices.put("S2", statistics(100, 0.6, 0, 24, 10));
+        slices.put("S3", statistics(40, 0.9, 0, 24, 30));
+        slices.put("S4", statistics(500, 0.5, 0, 24, 20));
+        slices.put("S5", statistics(100, 0.2, 0, 24, 5));
+
+        List<Map<String, Object>> all = rules.evaluate("shopId", slices, 10);
+
+        // S3 样本不足, S5 未超阈值; 退货率越高越靠前
+        assertThat(all.subList(0, 3)).extracting(anomaly -> anomaly.get("dimensionValue"))
+                .containsExactly("S2", "S4", "S1");
+        assertThat(all.get(0)).containsEntry("dimension", "shopId")
+                .containsEntry("sampleSize", 100L)
+                .containsEntry("description", "店铺 S2 退货率 60.0%, 共 100 单");
+        // 白名单之外的 S5 不检查; "<" 规则取值越低越靠前
+        assertThat(all.subList(3, all.size())).extracting(anomaly -> anomaly.get("dimensionValue"))
+                .containsExactly("S2", "S4", "S3");
+
+        assertThat(rules.evaluate("shopId", slices, 1)).extracting(anomaly -> anomaly.get("dimensionValue"))
+                .containsExactly("S2", "S2");
+        assertThat(rules.evaluate("region", slices, 10)).isEmpty();
+        assertThat(rules.evaluate("shopId", Map.of(), 10)).isEmpty();
+    }
+
+    @Test
+    void defaultRulesMatchTheFormerBuiltInThresholds() throws IOException {
+        List<AnomalyRuleDefinition> definitions = ymlDefaults();
+        assertThat(definitions).isEqualTo(new AnomalyRuleProperties().getDefinitions());
+        RuleSet rules = RuleSet.compile(definitions);
+
+        assertThat(rules.evaluate(statistics(100, 0.10, 0.05, 24, 100))).isEmpty();
+        // 原先均为严格大于
+        assertThat(rules.evaluate(statistics(100, 0.15, 0.10, 48, 100))).isEmpty();
+
+        List<Map<String, Object>> anomalies = rules.evaluate(statistics(100, 0.2, 0.12, 50.5, 100));
+        assertThat(anomalies).extracting(anomaly -> anomaly.get("type"))
+                .containsExactly("HIGH_REFUND_RATE", "HIGH_DELAY_RATE", "SLOW_PROCESSING");
+        assertThat(anomalies).extracting(anomaly -> anomaly.get("severity"))
+                .containsExactly("high", "medium", "medium");
+        assertThat(anomalies).extracting(anomaly -> anomaly.get("threshold"))
+                .containsExactly(0.15, 0.10, 48.0);
+        assertThat(anomalies).extracting(anomaly -> anomaly.get("description")).containsExactly(
+                "退货率异常高: 20.0%，正常范围应低于15.0%",
+                "发货延迟率过高: 12.0%，影响了 12 个订单",
+                "平均处理时间过长: 50.50 小时，正常应在 48 小时内");
+    }
+
+    /**
+     * application.yml 中的 agent-runtime.analytics.rules.definitions
+     */
+    private static List<AnomalyRuleDefinition> ymlDefaults() throws IOException {
+        List<PropertySource<?>> sources = new YamlPropertySourceLoader()
+                .load("application", new ClassPathResource("application.yml"));
+        return new Binder(ConfigurationPropertySources.from(sources))
+                .bind("agent-runtime.analytics.rules", AnomalyRuleProperties.class)
+                .get().getDefinitions();
+    }
+
+    private static AnomalyRuleDefinition.AnomalyRuleDefinitionBuilder rule(String type, String metric,
+                                                                           String operator, double threshold) {
+        return AnomalyRuleDefinition.builder().type(type).metric(metric).operator(operator).threshold(threshold);
+    }
+
+    /**
+     * 与 OrderStatistics#toMap 同名的指标
+     */
+    private static Map<String, Object> statistics(long orders, double refundRate, double delayRate,
+                                                  double avgProcessingTimeHours, double avgAmount) {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("totalOrders", orders);
+        statistics.put("refundRate", refundRate);
+        statistics.put("delayRate", delayRate);
+        statistics.put("delayedShipments", Math.round(orders * delayRate));
+        statistics.put("avgProcessingTimeHours", avgProcessingTimeHours);
+        statistics.put("avgAmount", avgAmount);
+        return statistics;
+    }
+}
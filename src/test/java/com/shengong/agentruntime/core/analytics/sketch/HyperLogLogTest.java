@@ -0,0 +1,79 @@
+package com.shengong.agentruntime.core.analytics.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * HyperLogLog 基数估计测试
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class HyperLogLogTest {
+
+    /**
+     * precision 14 的标准误差 1.04 / sqrt(2^14)
+     */
+    private static final double STANDARD_ERROR = 1.04 / Math.sqrt(1 << 14);
+
+    @Test
+    void estimatesStayWithinThreeStandardErrors() {
+        // 约 49000 (3m) 以下走线性计数, 覆盖切换点两侧
+        for (int cardinality : new int[]{1, 10, 100, 1_000, 10_000, 40_000, 45_000, 50_000, 60_000, 200_000, 1_000_000}) {
+            HyperLogLog hll = new HyperLogLog();
+            for (int i = 0; i < cardinality; i++) {
+                hll.add(Hashes.hash("buyer-" + i));
+            }
+
+            assertThat((double) hll.estimate()).as("cardinality %d", cardinality)
+                    .isCloseTo(cardinality, within(Math.max(1, 3 * STANDARD_ERROR * cardinality)));
+        }
+    }
+
+    @Test
+    void duplicatesDoNotChangeTheEstimate() {
+        HyperLogLog once = new HyperLogLog();
+        HyperLogLog repeated = new HyperLogLog();
+        for (int i = 0; i < 5_000; i++) {
+            once.add(Hashes.hash("sku-" + i));
+            for (int r = 0; r < 3; r++) {
+                repeated.add(Hashes.hash("sku-" + i));
+            }
+        }
+
+        assertThat(repeated.estimate()).isEqualTo(once.estimate());
+        assertThat(new HyperLogLog().estimate()).isZero();
+    }
+
+    @Test
+    void mergeEqualsTheUnion() {
+        HyperLogLog left = new HyperLogLog();
+        HyperLogLog right = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        // 两个分区有 20000 个重叠取值
+        for (int i = 0; i < 60_000; i++) {
+            left.add(Hashes.hash("buyer-" + i));
+            union.add(Hashes.hash("buyer-" + i));
+        }
+        for (int i = 40_000; i < 100_000; i++) {
+            right.add(Hashes.hash("buyer-" + i));
+            union.add(Hashes.hash("buyer-" + i));
+        }
+
+        long merged = left.merge(right).estimate();
+
+        assertThat(merged).isEqualTo(union.estimate());
+        assertThat((double) merged).isCloseTo(100_000, within(3 * STANDARD_ERROR * 100_000));
+    }
+
+    @Test
+    void precisionIsValidated() {
+        assertThatThrownBy(() -> new HyperLogLog(3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HyperLogLog(19)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HyperLogLog(12).merge(new HyperLogLog(14)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,115 @@
+package com.shengong.agentruntime.core.analytics.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * t-digest 分位数草图测试, 误差按秩计算: 估计值在精确排序中的位置与 q 的差
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class TDigestTest {
+
+    private static final double[] QUANTILES = {0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999};
+
+    @Test
+    void quantilesStayCloseToExactRanks() {
+        double[] values = skewed(200_000, 1);
+        TDigest digest = new TDigest();
+        for (double value : values) {
+            digest.add(value);
+        }
+
+        Arrays.sort(values);
+        assertQuantiles(digest, values);
+        assertThat(digest.count()).isEqualTo(values.length);
+        assertThat(digest.min()).isEqualTo(values[0]);
+        assertThat(digest.max()).isEqualTo(values[values.length - 1]);
+    }
+
+    @Test
+    void mergedPartitionsMatchASingleDigest() {
+        double[] values = skewed(200_000, 2);
+        TDigest single = new TDigest();
+        TDigest[] partitions = new TDigest[8];
+        for (int p = 0; p < partitions.length; p++) {
+            partitions[p] = new TDigest();
+        }
+        for (int i = 0; i < values.length; i++) {
+            single.add(values[i]);
+            // 按区段切分, 各分区的取值分布不同
+            partitions[i * partitions.length / values.length].add(values[i]);
+        }
+        TDigest merged = new TDigest();
+        for (TDigest partition : partitions) {
+            merged.merge(partition);
+        }
+
+        Arrays.sort(values);
+        assertQuantiles(merged, values);
+        assertThat(merged.count()).isEqualTo(single.count());
+        assertThat(merged.min()).isEqualTo(single.min());
+        assertThat(merged.max()).isEqualTo(single.max());
+        for (double q : QUANTILES) {
+            assertThat(merged.quantile(q)).as("q=%s", q)
+                    .isCloseTo(single.quantile(q), within(Math.abs(single.quantile(q)) * 0.05));
+        }
+    }
+
+    @Test
+    void emptyDigestHasNoQuantiles() {
+        TDigest digest = new TDigest();
+        digest.add(Double.NaN);
+
+        assertThat(digest.count()).isZero();
+        assertThat(digest.quantile(0.5)).isNaN();
+        assertThat(digest.min()).isNaN();
+        assertThat(digest.max()).isNaN();
+        assertThat(new TDigest().merge(digest).quantile(0.5)).isNaN();
+    }
+
+    @Test
+    void singleValueIsEveryQuantile() {
+        TDigest digest = new TDigest();
+        digest.add(42.5);
+
+        assertThat(digest.count()).isEqualTo(1);
+        for (double q : new double[]{0, 0.01, 0.5, 0.99, 1}) {
+            assertThat(digest.quantile(q)).isEqualTo(42.5);
+        }
+        assertThat(new TDigest().merge(digest).quantile(0.5)).isEqualTo(42.5);
+    }
+
+    /**
+     * 尾部分位数的秩误差应明显小于中位数附近
+     */
+    private static void assertQuantiles(TDigest digest, double[] sorted) {
+        for (double q : QUANTILES) {
+            double tolerance = q < 0.01 || q > 0.99 ? 0.001 : q < 0.1 || q > 0.9 ? 0.003 : 0.01;
+            assertThat(rank(sorted, digest.quantile(q))).as("q=%s", q).isCloseTo(q, within(tolerance));
+        }
+    }
+
+    private static double rank(double[] sorted, double value) {
+        int index = Arrays.binarySearch(sorted, value);
+        return (double) (index >= 0 ? index : -index - 1) / sorted.length;
+    }
+
+    /**
+     * 对数正态分布, 与订单处理时长一样右偏
+     */
+    private static double[] skewed(int count, long seed) {
+        Random random = new Random(seed);
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = Math.exp(3 + random.nextGaussian() * 0.8);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,119 @@
+package com.shengong.agentruntime.core.analytics.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Count-Min 与 Top-K 测试: 在大量低频取值中埋入高频项
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class TopKTest {
+
+    private static final List<String> HEAVY = List.of("破损", "发错货", "质量问题", "不想要了", "尺码不符");
+    private static final int[] HEAVY_COUNTS = {5_000, 4_000, 3_000, 2_000, 1_500};
+
+    @Test
+    void plantedHeavyHittersAreRecovered() {
+        List<String> stream = stream(3);
+        TopK topK = new TopK(5);
+        for (String value : stream) {
+            topK.add(value, Hashes.hash(value));
+        }
+
+        assertHeavyHitters(topK.top(), stream.size());
+        assertThat(topK.total()).isEqualTo(stream.size());
+    }
+
+    @Test
+    void heavyHittersSurviveMerge() {
+        List<String> stream = stream(4);
+        TopK[] partitions = {new TopK(5), new TopK(5), new TopK(5), new TopK(5)};
+        for (int i = 0; i < stream.size(); i++) {
+            partitions[i % partitions.length].add(stream.get(i), Hashes.hash(stream.get(i)));
+        }
+        // 只出现在一个分区的高频项, 在其余分区的候选中不存在
+        TopK local = new TopK(5);
+        for (int i = 0; i < 6_000; i++) {
+            local.add("少件", Hashes.hash("少件"));
+        }
+
+        TopK merged = new TopK(5);
+        for (TopK partition : partitions) {
+            merged.merge(partition);
+        }
+        merged.merge(local);
+
+        Map<String, Long> top = merged.top();
+        assertThat(top.keySet()).containsExactly("少件", "破损", "发错货", "质量问题", "不想要了");
+        assertThat(merged.total()).isEqualTo(stream.size() + 6_000L);
+        assertThat(top.get("少件")).isBetween(6_000L, 6_000 + (long) (Math.E * merged.total() / 1024));
+    }
+
+    @Test
+    void fewerValuesThanKAreAllReturned() {
+        TopK topK = new TopK(10);
+        for (String value : List.of("a", "b", "a", "c", "a", "b")) {
+            topK.add(value, Hashes.hash(value));
+        }
+
+        assertThat(topK.top()).containsExactly(Map.entry("a", 3L), Map.entry("b", 2L), Map.entry("c", 1L));
+    }
+
+    @Test
+    void countMinNeverUnderestimates() {
+        CountMinSketch sketch = new CountMinSketch(4, 256);
+        CountMinSketch other = new CountMinSketch(4, 256);
+        long total = 0;
+        for (int i = 0; i < 2_000; i++) {
+            sketch.add(Hashes.mix(i), i % 7 + 1);
+            other.add(Hashes.mix(i), 1);
+            total += i % 7 + 2;
+        }
+
+        for (int i = 0; i < 2_000; i++) {
+            assertThat(sketch.estimate(Hashes.mix(i))).isGreaterThanOrEqualTo(i % 7 + 1);
+        }
+        sketch.merge(other);
+        for (int i = 0; i < 2_000; i++) {
+            assertThat(sketch.estimate(Hashes.mix(i))).isGreaterThanOrEqualTo(i % 7 + 2);
+        }
+        assertThat(sketch.total()).isEqualTo(total);
+        assertThatThrownBy(() -> sketch.merge(new CountMinSketch(4, 128))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * 各高频项的估计值不低于真实频次, 高估不超过 Count-Min 的误差上界 e * total / width
+     */
+    private static void assertHeavyHitters(Map<String, Long> top, int total) {
+        assertThat(top.keySet()).containsExactlyElementsOf(HEAVY);
+        for (int i = 0; i < HEAVY.size(); i++) {
+            assertThat(top.get(HEAVY.get(i))).isBetween((long) HEAVY_COUNTS[i],
+                    HEAVY_COUNTS[i] + (long) (Math.E * total / 1024));
+        }
+    }
+
+    /**
+     * 高频项之外是 20000 个各出现 4 次的取值, 整体随机打乱
+     */
+    private static List<String> stream(long seed) {
+        List<String> stream = new ArrayList<>();
+        for (int i = 0; i < HEAVY.size(); i++) {
+            stream.addAll(Collections.nCopies(HEAVY_COUNTS[i], HEAVY.get(i)));
+        }
+        for (int i = 0; i < 20_000; i++) {
+            stream.addAll(Collections.nCopies(4, "noise-" + i));
+        }
+        Collections.shuffle(stream, new Random(seed));
+        return stream;
+    }
+}
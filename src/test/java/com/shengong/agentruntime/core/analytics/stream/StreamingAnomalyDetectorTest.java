@@ -0,0 +1,122 @@
+package com.shengong.agentruntime.core.analytics.stream;
+
+import com.shengong.agentruntime.config.StreamingAnomalyProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 流式检测测试, 在测试线程上直接调用 process / advanceTo / advanceIdle, 不启动检测线程
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class StreamingAnomalyDetectorTest {
+
+    private static final long BUCKET = 60_000L;
+    private static final long START = 1_704_067_200_000L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StreamingAnomalyProperties properties = new StreamingAnomalyProperties();
+
+    @Test
+    void stationaryStreamThenRefundStepAlertsOnce() {
+        properties.setDimensions(new ArrayList<>());
+        StreamingAnomalyDetector detector = detector();
+        List<StreamingAlert> alerts = new ArrayList<>();
+        detector.addListener(alerts::addAll);
+
+        for (int bucket = 0; bucket < 100; bucket++) {
+            publishBucket(detector, bucket, 10, "SHOP0001");
+        }
+        detector.advanceTo(START / BUCKET + 100);
+        assertThat(alerts).isEmpty();
+
+        for (int bucket = 100; bucket < 130; bucket++) {
+            publishBucket(detector, bucket, 40, "SHOP0001");
+        }
+        detector.advanceTo(START / BUCKET + 130);
+
+        assertThat(alerts).extracting(StreamingAlert::type).containsExactly("HIGH_REFUND_RATE");
+        assertThat(alerts.get(0).dimension()).isEqualTo(StreamingAlert.GLOBAL);
+        assertThat(detector.recentAlerts(10)).containsExactlyElementsOf(alerts);
+    }
+
+    @Test
+    void lateEventsDoNotRewindTheIdleClock() {
+        StreamingAnomalyDetector detector = detector();
+        long now = START + 10 * BUCKET;
+
+        // 回放: 事件时间比墙钟晚 10 分钟
+        detector.process(event(START, "COMPLETED", "SHOP0001"), now);
+        detector.process(event(START - 60 * BUCKET, "COMPLETED", "SHOP0001"), now + 1_000);
+
+        detector.advanceIdle(now + BUCKET + BUCKET / 2);
+
+        assertThat(meterRegistry.counter("analytics.stream.events", "result", "late").count()).isEqualTo(1);
+        assertThat(detector.currentBucket()).isEqualTo(Math.floorDiv(START + BUCKET + BUCKET / 2, BUCKET));
+    }
+
+    @Test
+    void leastRecentlySeenKeysAreEvicted() {
+        properties.setDimensions(new ArrayList<>(List.of("shopId")));
+        properties.setMaxKeys(2);
+        StreamingAnomalyDetector detector = detector();
+
+        for (String shop : List.of("A", "B", "A", "C", "A")) {
+            detector.process(event(START, "COMPLETED", shop), START);
+        }
+        detector.advanceTo(START / BUCKET + 1);
+
+        // 按访问顺序淘汰: C 到达时淘汰的是 B, 最近出现过的 A 保留, 之后再出现 A 不需要淘汰
+        assertThat(meterRegistry.counter("analytics.stream.keys.evicted").count()).isEqualTo(1);
+        assertThat(detector.status()).containsEntry("trackedKeys", 2);
+    }
+    @Test
+    void eventsFarAheadOfTheWallClockAreRejected() {
+        StreamingAnomalyDetector detector = detector();
+        long now = START;
+
+        detector.process(event(START, "COMPLETED", "SHOP0001"), now);
+        // 微秒时间戳与超前两小时的时钟
+        detector.process(event(START * 1_000, "COMPLETED", "SHOP0001"), now + 1_000);
+        detector.process(event(START + 120 * BUCKET, "COMPLETED", "SHOP0001"), now + 2_000);
+        // 一个桶以内的超前照常处理
+        detector.process(event(START + 3_000 + BUCKET, "COMPLETED", "SHOP0001"), now + 3_000);
+        detector.process(event(START + BUCKET + 4_000, "COMPLETED", "SHOP0001"), now + 4_000);
+
+        assertThat(meterRegistry.counter("analytics.stream.events", "result", "rejected").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("analytics.stream.events", "result", "late").count()).isZero();
+        assertThat(detector.currentBucket()).isEqualTo(START / BUCKET + 1);
+        assertThat(detector.status()).containsEntry("rejected", 2L);
+    }
+
+    private StreamingAnomalyDetector detector() {
+        properties.setBucketInterval(Duration.ofMillis(BUCKET));
+        properties.setWindowBuckets(5);
+        properties.setEwmaAlpha(0.1);
+        properties.setWarmupBuckets(10);
+        properties.setAlertCooldown(Duration.ofMinutes(20));
+        properties.setSeasonalSlotsPerDay(1);
+        return new StreamingAnomalyDetector(properties, meterRegistry);
+    }
+
+    /**
+     * 在第 bucket 个桶内写入 100 个订单, 其中 refunds 个退款
+     */
+    private static void publishBucket(StreamingAnomalyDetector detector, int bucket, int refunds, String shop) {
+        long bucketStart = START + bucket * BUCKET;
+        for (int i = 0; i < 100; i++) {
+            detector.process(event(bucketStart + i * 100L, i < refunds ? "REFUNDED" : "COMPLETED", shop), bucketStart);
+        }
+    }
+
+    private static OrderEvent event(long timestamp, String status, String shop) {
+        return new OrderEvent("ORD" + timestamp, timestamp, status, 100, false, 24, shop, "SKU000001", "R01", "live");
+    }
+}
@@ -0,0 +1,130 @@
+package com.shengong.agentruntime.core.analytics.stream;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * 滑动窗口与基线测试, 直接逐桶调用 close(), 不经过检测线程
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class WindowStateTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void stationaryStreamRaisesNoAlerts() {
+        WindowState state = new WindowState("global", null, settings(MINUTE, 5, 20, 1));
+
+        List<StreamingAlert> alerts = new ArrayList<>();
+        for (long bucket = 0; bucket < 300; bucket++) {
+            fill(state, 100, 10, 5);
+            state.close(bucket, bucket * MINUTE, bucket * MINUTE, alerts);
+        }
+
+        assertThat(alerts).isEmpty();
+    }
+
+    @Test
+    void refundStepAlertsOnceWithinCooldown() {
+        assertThat(refundAlertsAfterStep(20)).hasSize(1).first()
+                .satisfies(alert -> {
+                    assertThat(alert.metric()).isEqualTo("refundRate");
+                    assertThat(alert.baseline()).isCloseTo(0.1, within(0.005));
+                    assertThat(alert.value()).isGreaterThan(0.2);
+                    assertThat(alert.zScore()).isGreaterThanOrEqualTo(4);
+                });
+        // 同样的数据不设冷却时会连续告警, 说明上面只有一次是冷却的作用
+        assertThat(refundAlertsAfterStep(1)).hasSizeGreaterThan(1);
+    }
+
+    @Test
+    void noAlertsBeforeWarmup() {
+        WindowState state = new WindowState("global", null, settings(MINUTE, 5, 20, 1));
+
+        List<StreamingAlert> alerts = new ArrayList<>();
+        for (long bucket = 0; bucket < 12; bucket++) {
+            // 第一个桶之后退款率就翻了四倍, 但基线还没有预热
+            fill(state, 100, bucket == 0 ? 10 : 40, 5);
+            state.close(bucket, bucket * MINUTE, bucket * MINUTE, alerts);
+        }
+
+        assertThat(alerts).isEmpty();
+    }
+
+    @Test
+    void seasonalBaselineFollowsTheDailyCycle() {
+        // 白天单量是夜间的五倍, 每小时一个桶, 窗口一个桶
+        List<StreamingAlert> seasonal = volumeAlerts(24, 20, -1);
+        List<StreamingAlert> flat = volumeAlerts(1, 20, -1);
+
+        assertThat(seasonal).isEmpty();
+        assertThat(flat).isNotEmpty();
+    }
+
+    @Test
+    void volumeDropAgainstTheSameHourAlerts() {
+        int dropDay = 15;
+        List<StreamingAlert> alerts = volumeAlerts(24, 20, dropDay);
+
+        assertThat(alerts).hasSize(1).first().satisfies(alert -> {
+            assertThat(alert.type()).isEqualTo("ORDER_VOLUME_DROP");
+            assertThat(alert.value()).isEqualTo(50);
+            assertThat(alert.baseline()).isCloseTo(200, within(1.0));
+            assertThat(alert.windowStart()).isEqualTo((dropDay * 24L + 12) * HOUR);
+        });
+    }
+
+    private static List<StreamingAlert> refundAlertsAfterStep(long cooldownBuckets) {
+        WindowState state = new WindowState("shopId", "SHOP0001", settings(MINUTE, 5, cooldownBuckets, 1));
+
+        List<StreamingAlert> alerts = new ArrayList<>();
+        for (long bucket = 0; bucket < 130; bucket++) {
+            fill(state, 100, bucket < 100 ? 10 : 40, 5);
+            state.close(bucket, bucket * MINUTE, bucket * MINUTE, alerts);
+        }
+        return alerts;
+    }
+
+    /**
+     * 每小时一个桶; 8 点到 20 点每桶 200 单, 其余时段 40 单. dropDay 当天 12 点只有 50 单 (-1 表示不下跌)
+     */
+    private static List<StreamingAlert> volumeAlerts(int seasonalSlots, int days, int dropDay) {
+        WindowState state = new WindowState("global", null, settings(HOUR, 1, 1, seasonalSlots));
+
+        List<StreamingAlert> alerts = new ArrayList<>();
+        for (long bucket = 0; bucket < days * 24L; bucket++) {
+            long hour = bucket % 24;
+            int orders = hour >= 8 && hour < 20 ? 200 : 40;
+            if (bucket / 24 == dropDay && hour == 12) {
+                orders = 50;
+            }
+            fill(state, orders, 0, 0);
+            state.close(bucket, bucket * HOUR, bucket * HOUR, alerts);
+        }
+        return alerts;
+    }
+
+    /**
+     * 向当前桶写入 orders 个订单, 其中 refunds 个退款、delayed 个延迟; 处理时长在 20 与 28 小时之间交替
+     */
+    private static void fill(WindowState state, int orders, int refunds, int delayed) {
+        for (int i = 0; i < orders; i++) {
+            state.add(new OrderEvent("ORD" + i, 0, i < refunds ? "REFUNDED" : "COMPLETED", 100,
+                    i >= orders - delayed, i % 2 == 0 ? 20 : 28, "SHOP0001", "SKU000001", "R01", "live"));
+        }
+    }
+
+    private static StreamingSettings settings(long bucketMillis, int windowBuckets, long cooldownBuckets,
+                                              int seasonalSlots) {
+        return new StreamingSettings(bucketMillis, windowBuckets, 0.1, 10, 4.0, 0.2, 30,
+                cooldownBuckets, seasonalSlots, 0);
+    }
+}
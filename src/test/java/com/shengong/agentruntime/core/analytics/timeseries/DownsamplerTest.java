@@ -0,0 +1,103 @@
+package com.shengong.agentruntime.core.analytics.timeseries;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 下采样测试: 10000 个点的平稳序列中埋入尖峰与跌落
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class DownsamplerTest {
+
+    private static final int SIZE = 10_000;
+    private static final int SPIKE = 4_321;
+    private static final int DIP = 7_777;
+
+    @Test
+    void endpointsAreKept() {
+        TimeSeries series = series(SPIKE, DIP);
+
+        for (int budget : new int[]{4, 5, 100, 999}) {
+            assertThat(Downsampler.lttb(series, budget)).startsWith(0).endsWith(SIZE - 1);
+            assertThat(Downsampler.minMax(series, budget)).startsWith(0).endsWith(SIZE - 1);
+        }
+    }
+
+    @Test
+    void outputIsSortedAndWithinBudget() {
+        TimeSeries viewers = series(SPIKE, DIP);
+        TimeSeries gmv = series(1_234, 8_888);
+
+        for (Downsampler.Method method : Downsampler.Method.values()) {
+            for (int budget : new int[]{6, 60, 500, 1_000}) {
+                int[] single = Downsampler.select(method, budget, viewers);
+                int[] multiple = Downsampler.select(method, budget, viewers, gmv);
+
+                assertThat(single).as("%s %d", method, budget).hasSizeLessThanOrEqualTo(budget).isSorted()
+                        .doesNotHaveDuplicates();
+                assertThat(multiple).as("%s %d", method, budget).hasSizeLessThanOrEqualTo(budget).isSorted()
+                        .doesNotHaveDuplicates();
+            }
+        }
+        assertThat(Downsampler.lttb(viewers, 100)).hasSize(100).isSorted();
+        assertThat(Downsampler.minMax(viewers, 100)).hasSizeLessThanOrEqualTo(100).isSorted();
+    }
+
+    @Test
+    void plantedSpikeAndDipSurvive() {
+        TimeSeries series = series(SPIKE, DIP);
+
+        assertThat(Downsampler.lttb(series, 100)).contains(SPIKE, DIP);
+        assertThat(Downsampler.minMax(series, 100)).contains(SPIKE, DIP);
+        for (Downsampler.Method method : Downsampler.Method.values()) {
+            // 预算平分给两列, 各列的尖峰都保留
+            assertThat(Downsampler.select(method, 100, series, series(1_234, 8_888)))
+                    .as(method.name()).contains(SPIKE, DIP, 1_234, 8_888);
+        }
+    }
+
+    @Test
+    void smallSeriesAndNonPositiveBudgetsKeepEverything() {
+        TimeSeries series = series(SPIKE, DIP);
+        TimeSeries small = TimeSeries.of(new long[]{0, 1_000, 2_000}, new double[]{1, 5, 2});
+
+        for (Downsampler.Method method : Downsampler.Method.values()) {
+            assertThat(Downsampler.select(method, 0, series)).hasSize(SIZE);
+            assertThat(Downsampler.select(method, -1, series)).hasSize(SIZE);
+            assertThat(Downsampler.select(method, SIZE, series)).hasSize(SIZE);
+            assertThat(Downsampler.select(method, 3, small)).containsExactly(0, 1, 2);
+        }
+        assertThat(Downsampler.select(Downsampler.Method.LTTB, 10)).isEmpty();
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            rows.add(Map.of("startTime", i * 1_000L, "viewers", i == 20 ? 500.0 : 100.0));
+        }
+        assertThat(Downsampler.rows(rows, Downsampler.Method.LTTB, 0, "viewers")).isSameAs(rows);
+        assertThat(Downsampler.rows(rows, Downsampler.Method.LTTB, 50, "viewers")).isSameAs(rows);
+        // 选中的行是原来的 Map 对象
+        assertThat(Downsampler.rows(rows, Downsampler.Method.MIN_MAX, 10, "viewers"))
+                .hasSizeLessThanOrEqualTo(10).contains(rows.get(0), rows.get(20), rows.get(49))
+                .allSatisfy(row -> assertThat(rows).anySatisfy(original -> assertThat(original).isSameAs(row)));
+    }
+
+    /**
+     * 每秒一个点, 在 100 附近小幅波动; spike 处为 1000, dip 处为 0
+     */
+    private static TimeSeries series(int spike, int dip) {
+        long[] timestamps = new long[SIZE];
+        double[] values = new double[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            timestamps[i] = i * 1_000L;
+            values[i] = i == spike ? 1_000 : i == dip ? 0 : 100 + 5 * Math.sin(i * 0.37);
+        }
+        return TimeSeries.of(timestamps, values);
+    }
+}
@@ -0,0 +1,86 @@
+package com.shengong.agentruntime.core.analytics.timeseries;
+
+import com.shengong.agentruntime.config.LiveSeriesProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 直播指标测试: 10 秒粒度、两小时, 在线人数与 GMV 各埋入一段峰值
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class LiveMetricsEngineTest {
+
+    private static final long START = 1_704_067_200_000L;
+    private static final long STEP = 10_000L;
+    private static final long MINUTE = 60_000L;
+
+    private final LiveMetricsEngine engine = new LiveMetricsEngine(new LiveSeriesProperties());
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rollingWindowsAndPeaksFollowThePlantedBursts() {
+        Map<String, Object> result = engine.analyze(LiveSeries.of(timeline()), 10 * MINUTE, 0);
+
+        assertThat(result).containsEntry("points", 720).containsEntry("granularitySeconds", 10.0)
+                .containsEntry("startTime", START).containsEntry("endTime", START + 120 * MINUTE);
+
+        // 15 分钟窗口 (t - 15m, t] 在 91:50 这个点首次覆盖全部 12 个爆单时间片: 12 x 1000 + 78 x 100
+        Map<String, Object> rolling = (Map<String, Object>) result.get("rolling");
+        assertThat(rolling).containsEntry("windowMinutes", 15.0);
+        assertThat((Map<String, Object>) rolling.get("maxGmv"))
+                .containsEntry("value", 19_800.0).containsEntry("endTime", START + 92 * MINUTE);
+
+        Map<String, Object> peaks = (Map<String, Object>) result.get("peaks");
+        assertThat((List<Map<String, Object>>) peaks.get("viewers")).singleElement().satisfies(peak -> {
+            assertThat((Long) peak.get("peakTime")).isBetween(START + 60 * MINUTE, START + 62 * MINUTE);
+            assertThat((Double) peak.get("lift")).isGreaterThan(2);
+        });
+        assertThat((List<Map<String, Object>>) peaks.get("windowGmv")).singleElement()
+                .satisfies(peak -> assertThat((Long) peak.get("startTime")).isBetween(START + 90 * MINUTE, START + 92 * MINUTE));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void slotsAreEpochAlignedAndWithinBudget() {
+        Map<String, Object> result = engine.analyze(LiveSeries.of(timeline()), 10 * MINUTE, 0);
+
+        List<Map<String, Object>> slots = (List<Map<String, Object>>) result.get("slots");
+        assertThat(result).containsEntry("resolutionSeconds", 600.0).doesNotContainKey("slotCount");
+        assertThat(slots).hasSize(12).allSatisfy(slot -> assertThat((Long) slot.get("startTime") % (10 * MINUTE)).isZero());
+        // 每个 10 分钟时间片 60 个点, 平常每点 GMV 100
+        assertThat(slots.get(0)).containsEntry("gmv", 6_000.0).containsEntry("orders", 60L);
+
+        Map<String, Object> budgeted = engine.analyze(LiveSeries.of(timeline()), 10 * MINUTE, 5);
+        assertThat((List<Map<String, Object>>) budgeted.get("slots")).hasSizeLessThanOrEqualTo(5);
+        assertThat(budgeted).containsEntry("slotCount", 12).containsEntry("downsampling", "LTTB");
+
+        Map<String, Object> metrics = Map.of("timeSeries", Map.of("slots", slots));
+        Map<String, Object> compacted = (Map<String, Object>) engine.downsample(metrics, 4).get("timeSeries");
+        assertThat((List<Map<String, Object>>) compacted.get("slots")).hasSizeLessThanOrEqualTo(4)
+                .first().isEqualTo(slots.get(0));
+        assertThat(compacted).containsEntry("slotCount", 12);
+        assertThat(engine.downsample(metrics, 20)).isSameAs(metrics);
+    }
+
+    /**
+     * 在线人数约 1000, 第 60 到 62 分钟 3000; 每点 GMV 100 (1 单), 第 90 到 92 分钟每点 1000 (10 单)
+     */
+    private static List<Map<String, Object>> timeline() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 720; i++) {
+            long time = START + i * STEP;
+            long minute = i * STEP / MINUTE;
+            double viewers = minute >= 60 && minute < 62 ? 3_000 : 1_000 + 20 * Math.sin(i * 0.3);
+            double gmv = minute >= 90 && minute < 92 ? 1_000 : 100;
+            rows.add(Map.of("startTime", time, "viewers", viewers, "gmv", gmv, "orders", gmv / 100));
+        }
+        return rows;
+    }
+}
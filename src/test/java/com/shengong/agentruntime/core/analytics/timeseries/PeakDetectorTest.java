@@ -0,0 +1,91 @@
+package com.shengong.agentruntime.core.analytics.timeseries;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.IntToDoubleFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * 峰值检测测试: 每分钟一个点, 在 100 附近小幅波动的基线上埋入峰值
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class PeakDetectorTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private final PeakDetector detector = new PeakDetector(30 * MINUTE, 3.0, 0.2);
+
+    @Test
+    void plantedPeakIsFoundWithItsRange() {
+        TimeSeries series = series(180, minute -> minute >= 90 && minute <= 92 ? (minute == 91 ? 260 : 200) : noise(minute));
+
+        List<PeakDetector.Peak> peaks = detector.detect(series, 10);
+
+        assertThat(peaks).singleElement().satisfies(peak -> {
+            assertThat(peak.start()).isEqualTo(90 * MINUTE);
+            assertThat(peak.end()).isEqualTo(92 * MINUTE);
+            assertThat(peak.peakTime()).isEqualTo(91 * MINUTE);
+            assertThat(peak.value()).isEqualTo(260);
+            assertThat(peak.baseline()).isCloseTo(100, within(10.0));
+            assertThat(peak.lift()).isGreaterThan(2);
+        });
+    }
+
+    @Test
+    void noPeaksBeforeAFullWindowOrOnNoise() {
+        // 第 10 分钟的尖峰在第一个完整窗口之前
+        TimeSeries series = series(180, minute -> minute == 10 ? 400 : noise(minute));
+
+        assertThat(detector.detect(series, 10)).isEmpty();
+    }
+
+    @Test
+    void levelShiftIsNotAPeakForever() {
+        // 第 60 分钟起水平从 100 抬升到 300 并保持
+        TimeSeries series = series(240, minute -> minute >= 60 ? 3 * noise(minute) : noise(minute));
+
+        List<PeakDetector.Peak> peaks = detector.detect(series, 10);
+
+        assertThat(peaks).singleElement().satisfies(peak -> {
+            assertThat(peak.start()).isEqualTo(60 * MINUTE);
+            assertThat(peak.end()).isLessThan(120 * MINUTE);
+        });
+    }
+
+    @Test
+    void limitKeepsTheStrongestPeaksInTimeOrder() {
+        TimeSeries series = series(300, minute -> switch (minute) {
+            case 60 -> 150;
+            case 130 -> 400;
+            case 200 -> 250;
+            default -> noise(minute);
+        });
+
+        assertThat(detector.detect(series, 10)).extracting(PeakDetector.Peak::peakTime)
+                .containsExactly(60 * MINUTE, 130 * MINUTE, 200 * MINUTE);
+        assertThat(detector.detect(series, 2)).extracting(PeakDetector.Peak::peakTime)
+                .containsExactly(130 * MINUTE, 200 * MINUTE);
+    }
+
+    /**
+     * 确定性的小幅波动: 100 +- 3
+     */
+    private static double noise(int minute) {
+        return 100 + 3 * Math.sin(minute * 1.7);
+    }
+
+    private static TimeSeries series(int minutes, IntToDoubleFunction value) {
+        long[] timestamps = new long[minutes];
+        double[] values = new double[minutes];
+        for (int minute = 0; minute < minutes; minute++) {
+            timestamps[minute] = minute * MINUTE;
+            values[minute] = value.applyAsDouble(minute);
+        }
+        return TimeSeries.of(timestamps, values);
+    }
+}
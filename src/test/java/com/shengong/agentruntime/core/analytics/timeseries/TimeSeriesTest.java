@@ -0,0 +1,85 @@
+package com.shengong.agentruntime.core.analytics.timeseries;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 时间序列运算测试: 尾随窗口 (t - window, t] 的边界与按 epoch 对齐的重采样
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class TimeSeriesTest {
+
+    @Test
+    void rollingSumExcludesThePointExactlyOneWindowBack() {
+        TimeSeries series = TimeSeries.of(new long[]{0, 1_000, 2_000, 3_000, 5_000}, new double[]{1, 2, 4, 8, 16});
+
+        TimeSeries sums = series.rollingSum(2_000);
+
+        // t = 2000 的窗口为 (0, 2000], t = 0 的点恰在边界上, 不计入; 不等间隔时同样按时间划分
+        assertThat(values(sums)).containsExactly(1, 3, 6, 12, 16);
+        assertThat(values(series.rollingMean(2_000))).containsExactly(1, 1.5, 3, 6, 16);
+        assertThat(sums.timestamp(4)).isEqualTo(5_000);
+    }
+
+    @Test
+    void rollingMaxDropsExpiredMaxima() {
+        TimeSeries series = TimeSeries.of(new long[]{0, 1_000, 2_000, 3_000, 4_000, 5_000},
+                new double[]{5, 1, 3, 3, 0, 0});
+
+        assertThat(values(series.rollingMax(2_000))).containsExactly(5, 5, 3, 3, 3, 0);
+        // 窗口不超过粒度时即原序列
+        assertThat(values(series.rollingMax(1_000))).containsExactly(5, 1, 3, 3, 0, 0);
+    }
+
+    @Test
+    void resampleAlignsBucketsToTheEpoch() {
+        TimeSeries series = TimeSeries.of(new long[]{-1, 59_999, 60_000, 119_999, 120_000, 250_000},
+                new double[]{7, 1, 2, 3, 4, 5});
+
+        TimeSeries sums = series.resample(60_000, TimeSeries.Aggregation.SUM);
+
+        // 桶起点为 60s 的整数倍, 负时间向下取整; 180000 开始的桶没有数据, 不输出
+        assertThat(sums.size()).isEqualTo(5);
+        assertThat(timestamps(sums)).containsExactly(-60_000, 0, 60_000, 120_000, 240_000);
+        assertThat(values(sums)).containsExactly(7, 1, 5, 4, 5);
+        assertThat(values(series.resample(60_000, TimeSeries.Aggregation.MEAN))).containsExactly(7, 1, 2.5, 4, 5);
+        assertThat(values(series.resample(60_000, TimeSeries.Aggregation.MIN))).containsExactly(7, 1, 2, 4, 5);
+        assertThat(values(series.resample(60_000, TimeSeries.Aggregation.MAX))).containsExactly(7, 1, 3, 4, 5);
+        assertThat(values(series.resample(60_000, TimeSeries.Aggregation.LAST))).containsExactly(7, 1, 3, 4, 5);
+    }
+
+    @Test
+    void edgeCases() {
+        TimeSeries empty = TimeSeries.of(new long[0], new double[0]);
+        TimeSeries series = TimeSeries.of(new long[]{0, 10_000, 20_000, 40_000}, new double[]{1, 0, 4, 2});
+
+        assertThat(empty.resample(60_000, TimeSeries.Aggregation.SUM).isEmpty()).isTrue();
+        assertThat(empty.rollingMax(1_000).isEmpty()).isTrue();
+        assertThat(empty.argMax()).isEqualTo(-1);
+        assertThat(series.stepMillis()).isEqualTo(10_000);
+        assertThat(values(series.divide(series, 2))).containsExactly(0.5, 0, 0.5, 0.5);
+        assertThatThrownBy(() -> series.resample(0, TimeSeries.Aggregation.SUM))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> series.divide(empty, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static double[] values(TimeSeries series) {
+        double[] values = new double[series.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = series.value(i);
+        }
+        return values;
+    }
+
+    private static long[] timestamps(TimeSeries series) {
+        long[] timestamps = new long[series.size()];
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = series.timestamp(i);
+        }
+        return timestamps;
+    }
+}
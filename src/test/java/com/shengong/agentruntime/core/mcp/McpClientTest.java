@@ -0,0 +1,226 @@
+package com.shengong.agentruntime.core.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.shengong.agentruntime.config.McpProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * MCP 客户端测试: stdio 子进程 ({@link StubMcpServer}) 与本机 JDK HttpServer 上的 streamable HTTP 服务
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class McpClientTest {
+
+    private static final String STDIO = "stub";
+    private static final String HTTP = "remote";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final McpProperties properties = new McpProperties();
+    private McpClient client;
+
+    @BeforeEach
+    void setUp() {
+        McpProperties.Server stdio = new McpProperties.Server();
+        stdio.setCommand(List.of(ProcessHandle.current().info().command().orElse("java"),
+                "-cp", System.getProperty("java.class.path"), StubMcpServer.class.getName()));
+        properties.setRequestTimeout(Duration.ofSeconds(10));
+        properties.getServers().put(STDIO, stdio);
+        client = new McpClient(properties, objectMapper, WebClient.create());
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+    }
+
+    @Test
+    void responsesAreMatchedById() {
+        CompletableFuture<JsonNode> slow = client.callToolAsync(STDIO, "slow", Map.of("text", "late", "delayMs", 300));
+        List<CompletableFuture<JsonNode>> fast = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            fast.add(client.callToolAsync(STDIO, "echo", Map.of("text", "echo-" + i)));
+        }
+
+        for (int i = 0; i < fast.size(); i++) {
+            assertThat(text(fast.get(i).join())).isEqualTo("echo-" + i);
+        }
+        assertThat(slow).isNotDone();
+        assertThat(text(slow.join())).isEqualTo("late");
+    }
+
+    @Test
+    void batchedCallsKeepOrderAndFailIndependently() {
+        List<McpClient.CallResult> results = client.callTools(STDIO, List.of(
+                new McpClient.ToolCall("slow", Map.of("text", "first", "delayMs", 200)),
+                new McpClient.ToolCall("missing", Map.of()),
+                new McpClient.ToolCall("echo", Map.of("text", "third"))));
+
+        assertThat(results).extracting(McpClient.CallResult::tool).containsExactly("slow", "missing", "echo");
+        assertThat(text(results.get(0).result())).isEqualTo("first");
+        assertThat(results.get(1).error()).contains("Unknown tool: missing");
+        assertThat(text(results.get(2).result())).isEqualTo("third");
+    }
+
+    @Test
+    void answersServerPing() {
+        assertThat(text(client.callTool(STDIO, "ping", Map.of()))).isEqualTo("pong");
+    }
+
+    @Test
+    void listToolsFollowsPagination() {
+        List<JsonNode> tools = client.listTools(STDIO);
+
+        assertThat(tools).extracting(tool -> tool.get("name").asText())
+                .containsExactly("echo", "slow", "ping", "change", "listCalls");
+        // 5 个工具每页 2 个, 共 3 次 tools/list
+        assertThat(text(client.callTool(STDIO, "listCalls", Map.of()))).isEqualTo("3");
+    }
+
+    @Test
+    void listChangedInvalidatesCachedTools() {
+        List<String> changed = new CopyOnWriteArrayList<>();
+        client.addToolsChangedListener(changed::add);
+        client.listTools(STDIO);
+        client.listTools(STDIO);
+        assertThat(text(client.callTool(STDIO, "listCalls", Map.of()))).isEqualTo("3");
+
+        client.callTool(STDIO, "change", Map.of());
+
+        assertThat(changed).containsExactly(STDIO);
+        assertThat(client.listTools(STDIO)).extracting(tool -> tool.get("name").asText()).contains("d");
+        assertThat(text(client.callTool(STDIO, "listCalls", Map.of()))).isEqualTo("6");
+    }
+
+    @Test
+    void closedClientFailsFast() {
+        assertThat(text(client.callTool(STDIO, "ping", Map.of()))).isEqualTo("pong");
+
+        client.close();
+
+        assertThatThrownBy(() -> client.callTool(STDIO, "ping", Map.of()))
+                .isInstanceOf(McpException.class).hasMessageContaining("closed");
+        assertThat(client.callToolAsync(STDIO, "ping", Map.of())).isCompletedExceptionally();
+        assertThatThrownBy(() -> client.listTools(STDIO)).hasMessageContaining("closed");
+    }
+
+    @Test
+    void initializeTimeoutIsReported() throws IOException {
+        // 服务端接受 initialize 但从不响应
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/mcp", exchange -> {
+            exchange.sendResponseHeaders(202, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            McpProperties.Server http = new McpProperties.Server();
+            http.setTransport(McpProperties.Transport.HTTP);
+            http.setUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/mcp");
+            properties.getServers().put(HTTP, http);
+            properties.setRequestTimeout(Duration.ofMillis(300));
+
+            assertThatThrownBy(() -> client.callTool(HTTP, "whoami", Map.of()))
+                    .isInstanceOf(McpException.class)
+                    .hasMessageContaining("MCP initialize timed out for " + HTTP + " after 300ms");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void reconnectsAfterHttpSessionExpires() throws IOException {
+        AtomicInteger sessions = new AtomicInteger();
+        List<String> initialized = new CopyOnWriteArrayList<>();
+        String[] live = new String[1];
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/mcp", exchange -> {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                exchange.close();
+                return;
+            }
+            JsonNode message = objectMapper.readTree(exchange.getRequestBody());
+            String session = exchange.getRequestHeaders().getFirst(StreamableHttpMcpTransport.SESSION_HEADER);
+            String method = message.path("method").asText();
+            if ("initialize".equals(method)) {
+                live[0] = "session-" + sessions.incrementAndGet();
+                initialized.add(live[0]);
+                exchange.getResponseHeaders().set(StreamableHttpMcpTransport.SESSION_HEADER, live[0]);
+                respond(exchange, response(message, objectMapper.createObjectNode().put("protocolVersion",
+                        McpSession.PROTOCOL_VERSION)));
+            } else if (session == null || !session.equals(live[0])) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+            } else if (!message.has("id")) {
+                exchange.sendResponseHeaders(202, -1);
+                exchange.close();
+            } else {
+                ObjectNode result = objectMapper.createObjectNode();
+                result.putArray("content").addObject().put("type", "text").put("text", session);
+                respond(exchange, response(message, result));
+            }
+        });
+        server.start();
+        try {
+            McpProperties.Server http = new McpProperties.Server();
+            http.setTransport(McpProperties.Transport.HTTP);
+            http.setUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/mcp");
+            properties.getServers().put(HTTP, http);
+
+            assertThat(text(client.callTool(HTTP, "whoami", Map.of()))).isEqualTo("session-1");
+            assertThat(text(client.callTool(HTTP, "whoami", Map.of()))).isEqualTo("session-1");
+
+            // 服务端丢弃会话: 进行中的请求失败, 下一次调用重新 initialize
+            live[0] = null;
+            assertThatThrownBy(() -> client.callTool(HTTP, "whoami", Map.of()))
+                    .isInstanceOf(McpException.class);
+            assertThat(text(client.callTool(HTTP, "whoami", Map.of()))).isEqualTo("session-2");
+            assertThat(initialized).containsExactly("session-1", "session-2");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private ObjectNode response(JsonNode request, JsonNode result) {
+        ObjectNode response = objectMapper.createObjectNode().put("jsonrpc", "2.0");
+        response.set("id", request.get("id"));
+        response.set("result", result);
+        return response;
+    }
+
+    private void respond(HttpExchange exchange, JsonNode message) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsString(message).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    private static String text(JsonNode result) {
+        return result.path("content").path(0).path("text").asText();
+    }
+}
@@ -0,0 +1,88 @@
+package com.shengong.agentruntime.core.mcp;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.model.ToolResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * MCP 远程工具调用结果转换测试
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class McpRemoteToolTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final McpClient mcpClient = mock(McpClient.class);
+
+    @Test
+    void successfulCallReturnsResultFields() throws Exception {
+        McpRemoteTool tool = tool();
+        when(mcpClient.callToolAsync("files", "read", Map.of("path", "a"))).thenReturn(CompletableFuture.completedFuture(
+                objectMapper.readTree("{\"content\": [{\"type\": \"text\", \"text\": \"hello\"}]}")));
+
+        ToolResult result = tool.invokeAsync(Map.of("path", "a")).join();
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getData()).containsKey("content");
+        assertThat(tool.isAsync()).isTrue();
+    }
+
+    @Test
+    void isErrorResultBecomesFailure() throws Exception {
+        McpRemoteTool tool = tool();
+        when(mcpClient.callToolAsync("files", "read", Map.of())).thenReturn(CompletableFuture.completedFuture(
+                objectMapper.readTree("{\"isError\": true, \"content\": [{\"type\": \"text\", \"text\": \"no such file\"}]}")));
+
+        ToolResult result = tool.invoke(Map.of());
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getError()).contains("no such file");
+    }
+
+    @Test
+    void transportFailureBecomesFailure() throws Exception {
+        McpRemoteTool tool = tool();
+        when(mcpClient.callToolAsync("files", "read", Map.of()))
+                .thenReturn(CompletableFuture.failedFuture(new McpException("MCP session to files closed")));
+
+        ToolResult result = tool.invoke(Map.of());
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getError()).contains("session to files closed");
+    }
+
+    @Test
+    void missingInputSchemaFallsBackToEmptyObject() throws Exception {
+        McpRemoteTool tool = new McpRemoteTool(mcpClient, objectMapper, "files",
+                objectMapper.readTree("{\"name\": \"read\"}"));
+
+        assertThat(tool.parametersSchema()).isEqualTo("{}");
+        assertThat(tool.description()).isEmpty();
+    }
+
+    @Test
+    void longNamesAreShortenedDeterministically() {
+        String remote = "search_repositories_by_topic_and_language_with_pagination";
+
+        String name = McpRemoteTool.toolName("github-enterprise", remote);
+
+        assertThat(name).hasSize(McpRemoteTool.MAX_NAME_LENGTH).matches("[A-Za-z0-9_-]+")
+                .startsWith("mcp_github-enterprise_search_repositories");
+        assertThat(McpRemoteTool.toolName("github-enterprise", remote)).isEqualTo(name);
+        assertThat(McpRemoteTool.toolName("github-enterprise", remote + "_v2")).isNotEqualTo(name);
+        assertThat(McpRemoteTool.toolName("files", "read")).isEqualTo("mcp_files_read");
+    }
+
+    private McpRemoteTool tool() throws Exception {
+        return new McpRemoteTool(mcpClient, objectMapper, "files", objectMapper.readTree(
+                "{\"name\": \"read\", \"description\": \"Read a file\", \"inputSchema\": {\"type\": \"object\"}}"));
+    }
+}
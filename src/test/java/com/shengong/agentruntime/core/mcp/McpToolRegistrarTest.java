@@ -0,0 +1,109 @@
+package com.shengong.agentruntime.core.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.core.tool.Tool;
+import com.shengong.agentruntime.core.tool.invocation.InterceptedTool;
+import com.shengong.agentruntime.core.tool.invocation.ToolInvocationChain;
+import com.shengong.agentruntime.service.ToolRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * MCP 工具增量注册测试
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class McpToolRegistrarTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final McpClient mcpClient = mock(McpClient.class);
+    private final ToolRegistry toolRegistry = new ToolRegistry(
+            new StaticListableBeanFactory().getBeanProvider(ToolInvocationChain.class));
+    private final McpToolRegistrar registrar = new McpToolRegistrar(mcpClient, toolRegistry, objectMapper, true);
+
+    @Test
+    void registersDiscoveredTools() throws Exception {
+        when(mcpClient.listTools("files")).thenReturn(List.of(
+                definition("read", "Read a file"), definition("list.dir", "List a directory")));
+
+        registrar.sync("files");
+
+        assertThat(registrar.registeredTools("files")).containsExactlyInAnyOrder("mcp_files_read", "mcp_files_list_dir");
+        Tool read = toolRegistry.getTool("mcp_files_read").orElseThrow();
+        assertThat(read.category()).isEqualTo(McpRemoteTool.CATEGORY);
+        assertThat(read.description()).isEqualTo("Read a file");
+        assertThat(objectMapper.readTree(read.parametersSchema()).path("type").asText()).isEqualTo("object");
+    }
+
+    @Test
+    void syncRegistersOnlyTheDifference() throws Exception {
+        when(mcpClient.listTools("files")).thenReturn(List.of(
+                definition("read", "Read a file"), definition("stat", "Stat a file")));
+        registrar.sync("files");
+        Tool read = remote("mcp_files_read");
+        Tool stat = remote("mcp_files_stat");
+
+        when(mcpClient.listTools("files")).thenReturn(List.of(
+                definition("read", "Read a file"), definition("stat", "Stat a path"), definition("write", "Write")));
+        registrar.sync("files");
+
+        assertThat(registrar.registeredTools("files"))
+                .containsExactlyInAnyOrder("mcp_files_read", "mcp_files_stat", "mcp_files_write");
+        // 定义未变的工具保留原实例, 定义变化的工具被替换
+        assertThat(remote("mcp_files_read")).isSameAs(read);
+        assertThat(remote("mcp_files_stat")).isNotSameAs(stat);
+        assertThat(remote("mcp_files_stat").description()).isEqualTo("Stat a path");
+
+        when(mcpClient.listTools("files")).thenReturn(List.of(definition("write", "Write")));
+        registrar.sync("files");
+
+        assertThat(registrar.registeredTools("files")).containsExactly("mcp_files_write");
+        assertThat(toolRegistry.getTool("mcp_files_read")).isEmpty();
+        assertThat(toolRegistry.getToolsByCategory(McpRemoteTool.CATEGORY)).hasSize(1);
+    }
+
+    @Test
+    void unreachableServerKeepsRegisteredTools() throws Exception {
+        when(mcpClient.listTools("files")).thenReturn(List.of(definition("read", "Read a file")));
+        registrar.sync("files");
+
+        when(mcpClient.listTools("files")).thenThrow(new McpException("connection refused"));
+        registrar.sync("files");
+
+        assertThat(registrar.registeredTools("files")).containsExactly("mcp_files_read");
+        assertThat(toolRegistry.getTool("mcp_files_read")).isPresent();
+    }
+
+    @Test
+    void syncAllVisitsEveryServerUnlessDisabled() throws Exception {
+        when(mcpClient.servers()).thenReturn(Set.of("a", "b"));
+        when(mcpClient.listTools("a")).thenReturn(List.of(definition("x", "")));
+        when(mcpClient.listTools("b")).thenReturn(List.of(definition("y", "")));
+
+        new McpToolRegistrar(mcpClient, toolRegistry, objectMapper, false).syncAll();
+        assertThat(toolRegistry.getCount()).isZero();
+
+        registrar.syncAll();
+        assertThat(registrar.registeredTools("a")).containsExactly("mcp_a_x");
+        assertThat(registrar.registeredTools("b")).containsExactly("mcp_b_y");
+    }
+
+    private Tool remote(String name) {
+        return ((InterceptedTool) toolRegistry.getTool(name).orElseThrow()).unwrap();
+    }
+
+    private JsonNode definition(String name, String description) throws Exception {
+        return objectMapper.readTree("""
+                {"name": "%s", "description": "%s", "inputSchema": {"type": "object", "properties": {}}}
+                """.formatted(name, description));
+    }
+}
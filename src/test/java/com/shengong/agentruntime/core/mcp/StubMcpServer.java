@@ -0,0 +1,177 @@
+package com.shengong.agentruntime.core.mcp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试用的 stdio MCP 服务, 由 {@link McpClientTest} 作为子进程启动
+ * <p>
+ * 工具: echo (原样返回 text), slow (延迟 delayMs 后返回 text, 用于乱序响应),
+ * ping (向客户端发起 ping 并校验应答), change (新增工具 d 并发出 list_changed 通知), listCalls (tools/list 次数).
+ * tools/list 每页两个工具
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+public final class StubMcpServer {
+
+    private static final int PAGE_SIZE = 2;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PrintStream out;
+    private final Map<String, CompletableFuture<JsonNode>> clientResponses = new ConcurrentHashMap<>();
+    private final AtomicInteger listCalls = new AtomicInteger();
+    private volatile List<String> tools = List.of("echo", "slow", "ping", "change", "listCalls");
+
+    private StubMcpServer(PrintStream out) {
+        this.out = out;
+    }
+
+    public static void main(String[] args) throws IOException {
+        PrintStream out = new PrintStream(System.out, true, StandardCharsets.UTF_8);
+        // 协议之外的输出, 客户端应忽略
+        out.println("stub mcp server starting");
+        new StubMcpServer(out).run();
+    }
+
+    private void run() throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            JsonNode message = objectMapper.readTree(line);
+            if (message.isArray()) {
+                ArrayNode responses = objectMapper.createArrayNode();
+                message.forEach(item -> {
+                    JsonNode response = handle(item);
+                    if (response != null) {
+                        responses.add(response);
+                    }
+                });
+                if (!responses.isEmpty()) {
+                    write(responses);
+                }
+            } else {
+                JsonNode response = handle(message);
+                if (response != null) {
+                    write(response);
+                }
+            }
+        }
+    }
+
+    /**
+     * 返回同步响应; 异步完成的请求与通知返回 null
+     */
+    private JsonNode handle(JsonNode message) {
+        JsonNode id = message.get("id");
+        if (!message.has("method")) {
+            // 客户端对服务端请求的应答
+            CompletableFuture<JsonNode> waiting = clientResponses.remove(id.asText());
+            if (waiting != null) {
+                waiting.complete(message);
+            }
+            return null;
+        }
+        if (id == null) {
+            return null;
+        }
+        String method = message.get("method").asText();
+        JsonNode params = message.path("params");
+        return switch (method) {
+            case "initialize" -> result(id, objectMapper.createObjectNode()
+                    .put("protocolVersion", params.path("protocolVersion").asText())
+                    .set("serverInfo", objectMapper.createObjectNode().put("name", "stub")));
+            case "tools/list" -> result(id, listTools(params.path("cursor").asInt(0)));
+            case "tools/call" -> call(id, params.path("name").asText(), params.path("arguments"));
+            default -> error(id, -32601, "Method not found: " + method);
+        };
+    }
+
+    private ObjectNode listTools(int offset) {
+        listCalls.incrementAndGet();
+        List<String> current = tools;
+        ObjectNode result = objectMapper.createObjectNode();
+        ArrayNode page = result.putArray("tools");
+        for (int i = offset; i < Math.min(offset + PAGE_SIZE, current.size()); i++) {
+            page.addObject().put("name", current.get(i)).putObject("inputSchema").put("type", "object");
+        }
+        if (offset + PAGE_SIZE < current.size()) {
+            result.put("nextCursor", String.valueOf(offset + PAGE_SIZE));
+        }
+        return result;
+    }
+
+    private JsonNode call(JsonNode id, String tool, JsonNode arguments) {
+        switch (tool) {
+            case "echo":
+                return text(id, arguments.path("text").asText());
+            case "listCalls":
+                return text(id, String.valueOf(listCalls.get()));
+            case "slow":
+                CompletableFuture.delayedExecutor(arguments.path("delayMs").asLong(), TimeUnit.MILLISECONDS)
+                        .execute(() -> write(text(id, arguments.path("text").asText())));
+                return null;
+            case "ping":
+                String pingId = "server-ping-" + id.asText();
+                CompletableFuture<JsonNode> answer = new CompletableFuture<>();
+                clientResponses.put(pingId, answer);
+                answer.orTimeout(5, TimeUnit.SECONDS).whenComplete((response, error) -> {
+                    boolean ok = error == null && pingId.equals(response.path("id").asText())
+                            && response.path("result").isObject() && response.path("result").isEmpty();
+                    write(text(id, ok ? "pong" : "bad ping reply: " + (error != null ? error : response)));
+                });
+                write(objectMapper.createObjectNode().put("jsonrpc", "2.0").put("id", pingId).put("method", "ping"));
+                return null;
+            case "change":
+                tools = List.of("echo", "slow", "ping", "change", "listCalls", "d");
+                // 通知先于响应写出, 客户端收到响应时缓存已失效
+                write(objectMapper.createObjectNode().put("jsonrpc", "2.0")
+                        .put("method", "notifications/tools/list_changed"));
+                return text(id, "changed");
+            default:
+                return error(id, -32602, "Unknown tool: " + tool);
+        }
+    }
+
+    private ObjectNode text(JsonNode id, String text) {
+        ObjectNode result = objectMapper.createObjectNode();
+        result.putArray("content").addObject().put("type", "text").put("text", text);
+        return result(id, result);
+    }
+
+    private ObjectNode result(JsonNode id, JsonNode result) {
+        ObjectNode response = objectMapper.createObjectNode().put("jsonrpc", "2.0");
+        response.set("id", id);
+        response.set("result", result);
+        return response;
+    }
+
+    private ObjectNode error(JsonNode id, int code, String message) {
+        ObjectNode response = objectMapper.createObjectNode().put("jsonrpc", "2.0");
+        response.set("id", id);
+        response.putObject("error").put("code", code).put("message", message);
+        return response;
+    }
+
+    private synchronized void write(JsonNode message) {
+        try {
+            out.println(objectMapper.writeValueAsString(message));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.shengong.agentruntime.core.tool.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * HTTP 响应缓存的 RFC 9111 语义测试
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class HttpResponseCacheTest {
+
+    private static final String URL = "https://api.example.com/items";
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void freshEntryWithinMaxAge() throws IOException {
+        HttpResponseCache cache = cache(DataSize.ofMegabytes(1), false);
+        long now = System.currentTimeMillis();
+
+        assertThat(cache.store(URL, new HttpHeaders(), 200, headers("Cache-Control", "max-age=60"),
+                "{}", null, now, now, null)).isTrue();
+
+        HttpResponseCache.Lookup lookup = cache.lookup(URL, new HttpHeaders(), null);
+        assertThat(lookup).isNotNull();
+        assertThat(lookup.fresh()).isTrue();
+        assertThat(lookup.entry().getBody()).isEqualTo("{}");
+    }
+
+    @Test
+    void expiredEntryIsRevalidatedWithValidators() throws IOException {
+        HttpResponseCache cache = cache(DataSize.ofMegabytes(1), false);
+        long past = System.currentTimeMillis() - 120_000;
+        HttpHeaders response = headers("Cache-Control", "max-age=60");
+        response.setETag("\"v1\"");
+        cache.store(URL, new HttpHeaders(), 200, response, "{}", null, past, past, null);
+
+        HttpResponseCache.Lookup lookup = cache.lookup(URL, new HttpHeaders(), null);
+        assertThat(lookup.fresh()).isFalse();
+        assertThat(lookup.revalidatable()).isTrue();
+        HttpHeaders conditional = new HttpHeaders();
+        lookup.applyConditionalHeaders(conditional);
+        assertThat(conditional.getIfNoneMatch()).containsExactly("\"v1\"");
+
+        long now = System.currentTimeMillis();
+        CachedHttpResponse updated = cache.revalidated(lookup.entry(),
+                headers("Cache-Control", "max-age=300"), now, now, null);
+        assertThat(updated.getBody()).isEqualTo("{}");
+        assertThat(cache.lookup(URL, new HttpHeaders(), null).fresh()).isTrue();
+    }
+
+    @Test
+    void heuristicFreshnessIsCapped() throws IOException {
+        HttpResponseCache cache = cache(DataSize.ofMegabytes(1), false);
+        long now = System.currentTimeMillis();
+        HttpHeaders response = new HttpHeaders();
+        response.setDate(now);
+        // 一年前修改: 10% 约 36 天, 受 heuristic-max-age (5 分钟) 限制
+        response.setLastModified(now - Duration.ofDays(365).toMillis());
+        cache.store(URL, new HttpHeaders(), 200, response, "{}", null, now - 600_000, now - 600_000, null);
+
+        assertThat(cache.lookup(URL, new HttpHeaders(), null).fresh()).isFalse();
+    }
+
+    @Test
+    void uncacheableResponsesAreNotStored() throws IOException {
+        HttpResponseCache cache = cache(DataSize.ofMegabytes(1), false);
+        long now = System.currentTimeMillis();
+        HttpHeaders authorized = new HttpHeaders();
+        authorized.setBearerAuth("token");
+
+        assertThat(cache.store(URL, new HttpHeaders(), 200, headers("Cache-Control", "no-store"),
+                "{}", null, now, now, null)).isFalse();
+        assertThat(cache.store(URL, new HttpHeaders(), 200, headers("Cache-Control", "private, max-age=60"),
+                "{}", null, now, now, null)).isFalse();
+        assertThat(cache.store(URL, new HttpHeaders(), 500, headers("Cache-Control", "max-age=60"),
+                "{}", null, now, now, null)).isFalse();
+        assertThat(cache.store(URL, authorized, 200, headers("Cache-Control", "max-age=60"),
+                "{}", null, now, now, null)).isFalse();
+        assertThat(cache.store(URL, authorized, 200, headers("Cache-Control", "public, max-age=60"),
+                "{}", null, now, now, null)).isTrue();
+    }
+
+    @Test
+    void varyHeadersMustMatch() throws IOException {
+        HttpResponseCache cache = cache(DataSize.ofMegabytes(1), false);
+        long now = System.currentTimeMillis();
+        HttpHeaders response = headers("Cache-Control", "max-age=60");
+        response.setVary(List.of("Accept-Language"));
+        cache.store(URL, headers("Accept-Language", "zh-CN"), 200, response, "中文", null, now, now, null);
+
+        assertThat(cache.lookup(URL, headers("Accept-Language", "zh-CN"), null)).isNotNull();
+        assertThat(cache.lookup(URL, headers("Accept-Language", "en"), null)).isNull();
+    }
+
+    @Test
+    void memoryTierEvictsLeastRecentlyUsedByBytes() throws IOException {
+        HttpResponseCache cache = cache(DataSize.ofBytes(10), false);
+        long now = System.currentTimeMillis();
+        HttpHeaders response = headers("Cache-Control", "max-age=60");
+        cache.store(URL + "/a", new HttpHeaders(), 200, response, "aaaa", null, now, now, null);
+        cache.store(URL + "/b", new HttpHeaders(), 200, response, "bbbb", null, now, now, null);
+        cache.lookup(URL + "/a", new HttpHeaders(), null);
+        cache.store(URL + "/c", new HttpHeaders(), 200, response, "cccc", null, now, now, null);
+
+        assertThat(cache.lookup(URL + "/a", new HttpHeaders(), null)).isNotNull();
+        assertThat(cache.lookup(URL + "/b", new HttpHeaders(), null)).isNull();
+        assertThat(cache.lookup(URL + "/c", new HttpHeaders(), null)).isNotNull();
+    }
+
+    @Test
+    void diskTierSurvivesRestartAndInvalidation() throws IOException {
+        long now = System.currentTimeMillis();
+        cache(DataSize.ofMegabytes(1), true).store(URL, new HttpHeaders(), 200,
+                headers("Cache-Control", "max-age=60"), "{\"a\":1}", Map.of("type", "object"), now, now, null);
+
+        HttpResponseCache restarted = cache(DataSize.ofMegabytes(1), true);
+        CachedHttpResponse entry = restarted.lookup(URL, new HttpHeaders(), null).entry();
+        assertThat(entry.getBody()).isEqualTo("{\"a\":1}");
+        assertThat(entry.getJson()).containsEntry("type", "object");
+
+        restarted.invalidate(URL);
+        assertThat(cache(DataSize.ofMegabytes(1), true).lookup(URL, new HttpHeaders(), null)).isNull();
+    }
+
+    @Test
+    void hitRatioGaugeCountsHitsAndRevalidations() throws IOException {
+        HttpResponseCache cache = cache(DataSize.ofMegabytes(1), false);
+        CachedHttpResponse entry = CachedHttpResponse.builder().url(URL).bodySize(100).build();
+        cache.recordHit(entry);
+        cache.recordRevalidated(entry);
+        cache.recordMiss();
+        cache.recordMiss();
+
+        assertThat(meterRegistry.get("tool.http.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("tool.http.cache.bytes.saved").counter().count()).isEqualTo(200);
+    }
+
+    private HttpResponseCache cache(DataSize memoryMaxSize, boolean diskEnabled) throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(new ObjectMapper(), meterRegistry, true, memoryMaxSize,
+                DataSize.ofMegabytes(1), Duration.ofMinutes(5), diskEnabled, directory.toString(),
+                DataSize.ofMegabytes(10));
+        cache.open();
+        return cache;
+    }
+
+    private static HttpHeaders headers(String name, String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(name, value);
+        return headers;
+    }
+}
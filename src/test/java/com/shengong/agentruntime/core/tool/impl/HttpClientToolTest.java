@@ -0,0 +1,131 @@
+package com.shengong.agentruntime.core.tool.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.core.tool.http.HttpResponseCache;
+import com.shengong.agentruntime.core.tool.http.StreamingBodyReader;
+import com.shengong.agentruntime.model.ToolResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * HttpClientTool 缓存与流式读取测试, 使用本机 JDK HttpServer
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class HttpClientToolTest {
+
+    private static final String ITEMS = "{\"items\":[1,2,3],\"total\":3}";
+
+    @TempDir
+    Path directory;
+
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private HttpServer server;
+    private HttpClientTool tool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/items", exchange -> {
+            exchange.getResponseHeaders().set("ETag", "\"v1\"");
+            exchange.getResponseHeaders().set("Cache-Control", "max-age=60");
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            fullResponses.incrementAndGet();
+            respond(exchange, ITEMS);
+        });
+        server.createContext("/large", exchange -> respond(exchange, "[" + "1,".repeat(2000) + "1]"));
+        server.createContext("/huge", exchange -> respond(exchange, "x".repeat(20_000)));
+        server.start();
+
+        HttpResponseCache cache = new HttpResponseCache(new ObjectMapper(), new SimpleMeterRegistry(), true,
+                DataSize.ofMegabytes(1), DataSize.ofMegabytes(1), Duration.ofMinutes(5), false,
+                directory.resolve("cache").toString(), DataSize.ofMegabytes(1));
+        cache.open();
+        StreamingBodyReader bodyReader = new StreamingBodyReader(DataSize.ofKilobytes(10), DataSize.ofKilobytes(1),
+                DataSize.ofBytes(16), directory.resolve("spill").toString(), Duration.ofHours(1));
+        tool = new HttpClientTool(WebClient.create(), cache, bodyReader, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void everyCacheStateReturnsTheSameFields() {
+        ToolResult miss = tool.invoke(Map.of("url", url("/items")));
+        ToolResult hit = tool.invoke(Map.of("url", url("/items")));
+        // cacheTtl=0 使条目立即过期, 带 ETag 发起条件请求
+        ToolResult revalidated = tool.invoke(Map.of("url", url("/items"), "cacheTtl", 0));
+
+        assertThat(miss.getData()).containsEntry("cache", "MISS");
+        assertThat(hit.getData()).containsEntry("cache", "HIT");
+        assertThat(revalidated.getData()).containsEntry("cache", "REVALIDATED");
+        assertThat(fullResponses).hasValue(1);
+
+        assertThat(hit.getData().keySet()).isEqualTo(miss.getData().keySet());
+        assertThat(revalidated.getData().keySet()).isEqualTo(miss.getData().keySet());
+        assertThat(hit.getData().get("json")).isEqualTo(miss.getData().get("json"));
+        assertThat(revalidated.getData().get("json")).isEqualTo(miss.getData().get("json"));
+        assertThat(hit.getData()).containsEntry("body", ITEMS);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void largeBodiesSpillToDiskWithPreview() throws IOException {
+        ToolResult result = tool.invoke(Map.of("url", url("/large"), "noCache", true));
+
+        assertThat(result.isSuccess()).isTrue();
+        assertThat(result.getData()).doesNotContainKey("body").containsEntry("cache", "BYPASS");
+        Path file = Path.of((String) result.getData().get("bodyFile"));
+        assertThat(Files.size(file)).isEqualTo(4003);
+        assertThat((String) result.getData().get("head")).startsWith("[1,1,");
+        assertThat((String) result.getData().get("tail")).endsWith("1,1]");
+        assertThat((Map<String, Object>) result.getData().get("json")).containsEntry("elements", 2001L);
+    }
+
+    @Test
+    void bodiesAboveMaxSizeFail() {
+        ToolResult result = tool.invoke(Map.of("url", url("/huge")));
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getError()).contains("exceeds limit");
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static void respond(HttpExchange exchange, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.shengong.agentruntime.core.tool.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.core.mcp.McpClient;
+import com.shengong.agentruntime.model.ToolResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * McpProxyTool 参数校验与批量调用测试
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class McpProxyToolTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final McpClient mcpClient = mock(McpClient.class);
+    private final McpProxyTool tool = new McpProxyTool(WebClient.create(), mcpClient, objectMapper);
+
+    @Test
+    void schemaDeclaresBatchedCalls() throws IOException {
+        JsonNode schema = objectMapper.readTree(tool.parametersSchema());
+
+        assertThat(schema.path("properties").has("calls")).isTrue();
+        assertThat(schema.path("properties").path("calls").path("items").path("required").get(0).asText())
+                .isEqualTo("tool");
+        assertThat(schema.path("required")).hasSize(1);
+        assertThat(schema.path("required").get(0).asText()).isEqualTo("server");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void callsWithoutToolAreBatched() {
+        when(mcpClient.hasServer("files")).thenReturn(true);
+        when(mcpClient.callToolsAsync(eq("files"), any())).thenReturn(CompletableFuture.completedFuture(List.of(
+                new McpClient.CallResult("read", objectMapper.createObjectNode(), null),
+                new McpClient.CallResult("stat", null, "boom"))));
+
+        ToolResult result = tool.invoke(Map.of("server", "files", "calls", List.of(
+                Map.of("tool", "read", "arguments", Map.of("path", "a")),
+                Map.of("tool", "stat"))));
+
+        assertThat(result.isSuccess()).isTrue();
+        List<Map<String, Object>> results = (List<Map<String, Object>>) result.getData().get("results");
+        assertThat(results).extracting(item -> item.get("success")).containsExactly(true, false);
+        assertThat(results.get(1)).containsEntry("error", "boom");
+    }
+
+    @Test
+    void requiresToolOrCalls() {
+        when(mcpClient.hasServer("files")).thenReturn(true);
+
+        ToolResult result = tool.invoke(Map.of("server", "files"));
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getError()).contains("either tool or calls");
+    }
+
+    @Test
+    void batchedCallsNeedDirectConnection() {
+        ToolResult result = tool.invoke(Map.of("server", "proxied", "calls", List.of(Map.of("tool", "read"))));
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getError()).contains("directly connected");
+    }
+}
@@ -0,0 +1,161 @@
+package com.shengong.agentruntime.core.tool.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.core.tool.scrape.CrawlRequest;
+import com.shengong.agentruntime.core.tool.scrape.CrawledPage;
+import com.shengong.agentruntime.core.tool.scrape.PageCache;
+import com.shengong.agentruntime.core.tool.scrape.WebCrawler;
+import com.shengong.agentruntime.model.ToolResult;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * WebScrapeTool 批量与爬取模式测试, 使用本机 JDK HttpServer 提供一个小站点
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class WebScrapeToolTest {
+
+    @TempDir
+    Path directory;
+
+    private HttpServer server;
+    private WebScrapeTool tool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        page("/", "<h1>Home</h1><nav><a href='/a'>A</a><a href='/b'>B</a></nav>"
+                + "<footer><a href='/skip'>Skip</a><a href='http://other.invalid/x'>Out</a></footer>");
+        page("/a", "<h1>A</h1><nav><a href='/c'>C</a></nav>");
+        page("/b", "<h1>B</h1>");
+        page("/c", "<h1>C</h1>");
+        page("/skip", "<h1>Skip</h1>");
+        server.start();
+
+        PageCache pageCache = new PageCache(new ObjectMapper(), new SimpleMeterRegistry(), true,
+                directory.toString(), Duration.ofMinutes(10), DataSize.ofMegabytes(10), 100);
+        pageCache.open();
+        WebCrawler crawler = new WebCrawler(8, 4, 1000, 50, 0, Duration.ofMillis(10), Duration.ofSeconds(30),
+                pageCache);
+        tool = new WebScrapeTool(crawler, pageCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void schemaDeclaresEveryCrawlArgument() throws IOException {
+        JsonNode properties = new ObjectMapper().readTree(tool.parametersSchema()).get("properties");
+
+        assertThat(properties.fieldNames()).toIterable()
+                .contains("url", "urls", "seed", "seeds", "maxDepth", "maxPages", "follow", "include",
+                        "exclude", "sameHost", "timeout", "selectors", "stream", "maxMatches", "mainContent", "maxChars",
+                        "noCache");
+    }
+
+    @Test
+    void typedCrawlReportsEachPage() throws InterruptedException {
+        List<CrawledPage> pages = Collections.synchronizedList(new ArrayList<>());
+        CrawlRequest request = CrawlRequest.builder()
+                .seeds(List.of(url("/")))
+                .maxDepth(2)
+                .exclude(Pattern.compile("/skip"))
+                .selectors(Map.of("title", "h1"))
+                .build();
+
+        Map<String, Object> summary = tool.crawl(request, pages::add);
+
+        assertThat(summary).containsEntry("succeeded", 4).containsEntry("failed", 0);
+        assertThat(pages).extracting(page -> page.getData().get("title"))
+                .containsExactlyInAnyOrder("Home", "A", "B", "C");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void crawlArgumentsControlLinkFollowing() {
+        ToolResult result = tool.invoke(Map.of(
+                "seeds", List.of(url("/")),
+                "maxDepth", 1,
+                "follow", "footer a",
+                "sameHost", true,
+                "timeout", 2000,
+                "selectors", Map.of("title", "h1")));
+
+        List<CrawledPage> pages = (List<CrawledPage>) result.getData().get("pages");
+        // 只跟进页脚链接, 外部主机被 sameHost 排除
+        assertThat(pages).extracting(page -> page.getData().get("title")).containsExactlyInAnyOrder("Home", "Skip");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void includeRestrictsFollowedLinks() {
+        ToolResult result = tool.invoke(Map.of(
+                "seed", url("/"),
+                "maxDepth", 2,
+                "include", "/(a|c)$",
+                "selectors", Map.of("title", "h1")));
+
+        List<CrawledPage> pages = (List<CrawledPage>) result.getData().get("pages");
+        assertThat(pages).extracting(page -> page.getData().get("title")).containsExactlyInAnyOrder("Home", "A", "C");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batchModeFetchesOnlyTheList() {
+        ToolResult result = tool.invoke(Map.of(
+                "urls", List.of(url("/a"), url("/b")),
+                "selectors", Map.of("title", "h1")));
+
+        Map<String, Object> summary = (Map<String, Object>) result.getData().get("summary");
+        assertThat(summary).containsEntry("pages", 2);
+    }
+
+    private void page(String path, String body) {
+        server.createContext(path, exchange -> {
+            if (!exchange.getRequestURI().getPath().equals(path)) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            respond(exchange, "<html><head><title>" + path + "</title></head><body>" + body + "</body></html>");
+        });
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static void respond(HttpExchange exchange, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.shengong.agentruntime.core.tool.invocation;
+
+import com.shengong.agentruntime.core.tool.Tool;
+import com.shengong.agentruntime.model.ToolResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 超时拦截器测试
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class TimeoutToolInterceptorTest {
+
+    private final TimeoutToolInterceptor interceptor = new TimeoutToolInterceptor();
+    private final Tool tool = mock(Tool.class);
+
+    @AfterEach
+    void tearDown() {
+        interceptor.shutdown();
+    }
+
+    @Test
+    void completedCallsCancelTheirTimeout() {
+        for (int i = 0; i < 100; i++) {
+            ToolResult result = interceptor.interceptAsync(invocation(60_000),
+                    next -> CompletableFuture.completedFuture(ToolResult.success(Map.of()))).join();
+            assertThat(result.isSuccess()).isTrue();
+        }
+
+        assertThat(interceptor.pendingTimeouts()).isZero();
+    }
+
+    @Test
+    void failedCallsCancelTheirTimeout() {
+        CompletableFuture<ToolResult> result = interceptor.interceptAsync(invocation(60_000),
+                next -> CompletableFuture.failedFuture(new IllegalStateException("boom")));
+
+        assertThat(result).isCompletedExceptionally();
+        assertThat(interceptor.pendingTimeouts()).isZero();
+    }
+
+    @Test
+    void slowAsyncCallsTimeOutAndAreCancelled() {
+        CompletableFuture<ToolResult> source = new CompletableFuture<>();
+
+        ToolResult result = interceptor.interceptAsync(invocation(50), next -> source).join();
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getError()).isEqualTo("Tool slow timed out after 50ms");
+        // 取消在超时结果发布之后进行
+        assertThatThrownBy(() -> source.get(1, TimeUnit.SECONDS)).isInstanceOf(CancellationException.class);
+    }
+
+    @Test
+    void slowSyncCallsTimeOut() {
+        ToolResult result = interceptor.intercept(invocation(50), next -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ToolResult.success(Map.of());
+        });
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getError()).contains("timed out after 50ms");
+    }
+
+    @Test
+    void noTimeoutRunsInline() {
+        Thread caller = Thread.currentThread();
+
+        ToolResult result = interceptor.intercept(invocation(0),
+                next -> ToolResult.success(Map.of("sameThread", Thread.currentThread() == caller)));
+
+        assertThat(result.getData()).containsEntry("sameThread", true);
+    }
+
+    private ToolInvocation invocation(long timeoutMs) {
+        when(tool.name()).thenReturn("slow");
+        return new ToolInvocation(tool, Map.of(), ToolPolicy.builder().timeoutMs(timeoutMs).build());
+    }
+}
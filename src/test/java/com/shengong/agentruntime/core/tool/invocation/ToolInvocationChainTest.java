@@ -0,0 +1,259 @@
+package com.shengong.agentruntime.core.tool.invocation;
+
+import com.shengong.agentruntime.config.ToolInvocationProperties;
+import com.shengong.agentruntime.core.tool.Tool;
+import com.shengong.agentruntime.model.ToolResult;
+import com.shengong.agentruntime.repository.ToolConfigRepository;
+import com.shengong.agentruntime.service.ToolRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 异步 Tool 经完整调用链 (指标 / 缓存 / 重试 / 并发 / 超时) 的测试
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class ToolInvocationChainTest {
+
+    private final ToolInvocationProperties properties = new ToolInvocationProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TimeoutToolInterceptor timeoutInterceptor = new TimeoutToolInterceptor();
+    private final ConcurrencyLimitToolInterceptor concurrencyInterceptor = new ConcurrencyLimitToolInterceptor(properties);
+    private ToolRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        properties.setConcurrencyWaitTimeout(Duration.ofMillis(50));
+        ToolPolicyResolver resolver = new ToolPolicyResolver(properties,
+                new StaticListableBeanFactory().getBeanProvider(ToolConfigRepository.class));
+        ToolInvocationChain chain = new ToolInvocationChain(List.of(
+                new MetricsToolInterceptor(meterRegistry),
+                new CachingToolInterceptor(properties, meterRegistry),
+                new RetryToolInterceptor(properties),
+                concurrencyInterceptor,
+                timeoutInterceptor), resolver);
+        registry = new ToolRegistry(new StaticListableBeanFactory(Map.of("chain", chain))
+                .getBeanProvider(ToolInvocationChain.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        timeoutInterceptor.shutdown();
+    }
+
+    @Test
+    void asyncToolsCompleteWithoutBlocking() {
+        CompletableFuture<ToolResult> pending = new CompletableFuture<>();
+        AsyncTool tool = register(new AsyncTool("remote", arguments -> pending));
+
+        CompletableFuture<ToolResult> result = registry.invokeAsync("remote", Map.of());
+
+        assertThat(result).isNotDone();
+        pending.complete(ToolResult.success(Map.of("value", 1)));
+        ToolResult completed = result.join();
+        assertThat(completed.isSuccess()).isTrue();
+        assertThat(completed.getToolName()).isEqualTo("remote");
+        assertThat(completed.getLatencyMs()).isNotNull();
+        assertThat(tool.syncCalls).hasValue(0);
+    }
+
+    @Test
+    void idempotentAsyncToolsAreRetried() {
+        policy("flaky", policy -> {
+            policy.setIdempotent(true);
+            policy.setMaxRetries(2);
+            policy.setRetryBackoff(Duration.ofMillis(5));
+        });
+        AsyncTool tool = register(new AsyncTool("flaky", new Function<>() {
+            private final AtomicInteger attempts = new AtomicInteger();
+
+            @Override
+            public CompletableFuture<ToolResult> apply(Map<String, Object> arguments) {
+                return attempts.incrementAndGet() < 3
+                        ? CompletableFuture.failedFuture(new IllegalStateException("unavailable"))
+                        : CompletableFuture.completedFuture(ToolResult.success(Map.of()));
+            }
+        }));
+
+        assertThat(registry.invokeAsync("flaky", Map.of()).join().isSuccess()).isTrue();
+        assertThat(tool.asyncCalls).hasValue(3);
+    }
+
+    @Test
+    void nonIdempotentAsyncFailuresAreReported() {
+        AsyncTool tool = register(new AsyncTool("write", arguments -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        ToolResult result = registry.invokeAsync("write", Map.of()).join();
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getError()).isEqualTo("Tool write failed: boom");
+        assertThat(tool.asyncCalls).hasValue(1);
+        assertThat(meterRegistry.get("tool.invocations").tag("tool", "write").tag("outcome", "error").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void concurrencyLimitReleasesOnCompletion() {
+        policy("limited", policy -> policy.setMaxConcurrency(2));
+        List<CompletableFuture<ToolResult>> pending = new CopyOnWriteArrayList<>();
+        register(new AsyncTool("limited", arguments -> {
+            CompletableFuture<ToolResult> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        }));
+
+        List<CompletableFuture<ToolResult>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(registry.invokeAsync("limited", Map.of()));
+        }
+
+        ToolResult rejected = results.get(2).join();
+        assertThat(rejected.isSuccess()).isFalse();
+        assertThat(rejected.getError()).contains("concurrency limit 2 reached");
+        assertThat(concurrencyInterceptor.inFlight("limited")).isEqualTo(2);
+
+        pending.forEach(future -> future.complete(ToolResult.success(Map.of())));
+        assertThat(results.get(0).join().isSuccess()).isTrue();
+        assertThat(results.get(1).join().isSuccess()).isTrue();
+        assertThat(concurrencyInterceptor.inFlight("limited")).isZero();
+    }
+
+    @Test
+    void cachedAsyncResultsAreCopies() {
+        policy("lookup", policy -> policy.setCacheTtl(Duration.ofMinutes(1)));
+        AsyncTool tool = register(new AsyncTool("lookup",
+                arguments -> CompletableFuture.completedFuture(ToolResult.success(new LinkedHashMap<>(arguments)))));
+        Map<String, Object> arguments = new LinkedHashMap<>();
+        arguments.put("b", 2);
+        arguments.put("a", 1);
+
+        ToolResult first = registry.invokeAsync("lookup", Map.of("a", 1, "b", 2)).join();
+        first.getData().put("a", 100);
+        ToolResult second = registry.invokeAsync("lookup", arguments).join();
+
+        assertThat(tool.asyncCalls).hasValue(1);
+        assertThat(second.getData()).containsEntry("a", 1).containsEntry("b", 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void nestedValuesOfCachedResultsAreCopies() {
+        policy("lookup", policy -> policy.setCacheTtl(Duration.ofMinutes(1)));
+        AsyncTool tool = register(new AsyncTool("lookup", arguments -> {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("items", new ArrayList<>(List.of("a", "b")));
+            data.put("meta", new LinkedHashMap<>(Map.of("page", 1)));
+            return CompletableFuture.completedFuture(ToolResult.success(data));
+        }));
+
+        ToolResult miss = registry.invokeAsync("lookup", Map.of()).join();
+        ((List<Object>) miss.getData().get("items")).add("from-miss");
+        ToolResult hit = registry.invokeAsync("lookup", Map.of()).join();
+        ((List<Object>) hit.getData().get("items")).clear();
+        ((Map<String, Object>) hit.getData().get("meta")).put("page", 99);
+        ToolResult again = registry.invokeAsync("lookup", Map.of()).join();
+
+        assertThat(tool.asyncCalls).hasValue(1);
+        assertThat((List<Object>) again.getData().get("items")).containsExactly("a", "b");
+        assertThat((Map<String, Object>) again.getData().get("meta")).containsEntry("page", 1);
+    }
+
+    @Test
+    void slowAsyncToolsTimeOut() {
+        policy("slow", policy -> policy.setTimeout(Duration.ofMillis(30)));
+        register(new AsyncTool("slow", arguments -> new CompletableFuture<>()));
+
+        ToolResult result = registry.invokeAsync("slow", Map.of()).join();
+
+        assertThat(result.isSuccess()).isFalse();
+        assertThat(result.getError()).isEqualTo("Tool slow timed out after 30ms");
+    }
+
+    @Test
+    void invokeAllKeepsOrderAndIsolatesFailures() {
+        register(new AsyncTool("echo",
+                arguments -> CompletableFuture.completedFuture(ToolResult.success(Map.of("v", arguments.get("v"))))));
+
+        List<ToolResult> results = registry.invokeAll(List.of(
+                new ToolRegistry.ToolCall("echo", Map.of("v", 1)),
+                new ToolRegistry.ToolCall("missing", Map.of()),
+                new ToolRegistry.ToolCall("echo", Map.of("v", 3))));
+
+        assertThat(results).extracting(ToolResult::isSuccess).containsExactly(true, false, true);
+        assertThat(results.get(1).getError()).isEqualTo("Tool not found: missing");
+        assertThat(results.get(2).getData()).containsEntry("v", 3);
+    }
+
+    private AsyncTool register(AsyncTool tool) {
+        registry.register(tool);
+        return tool;
+    }
+
+    private void policy(String tool, Consumer<ToolInvocationProperties.Policy> customizer) {
+        ToolInvocationProperties.Policy policy = new ToolInvocationProperties.Policy();
+        customizer.accept(policy);
+        properties.getPolicies().put(tool, policy);
+    }
+
+    /**
+     * 原生异步 Tool, 记录同步与异步入口的调用次数
+     */
+    private static final class AsyncTool implements Tool {
+
+        private final String name;
+        private final Function<Map<String, Object>, CompletableFuture<ToolResult>> behavior;
+        private final AtomicInteger syncCalls = new AtomicInteger();
+        private final AtomicInteger asyncCalls = new AtomicInteger();
+
+        AsyncTool(String name, Function<Map<String, Object>, CompletableFuture<ToolResult>> behavior) {
+            this.name = name;
+            this.behavior = behavior;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public String description() {
+            return name;
+        }
+
+        @Override
+        public boolean isAsync() {
+            return true;
+        }
+
+        @Override
+        public ToolResult invoke(Map<String, Object> arguments) {
+            syncCalls.incrementAndGet();
+            return invokeAsync(arguments).join();
+        }
+
+        @Override
+        public CompletableFuture<ToolResult> invokeAsync(Map<String, Object> arguments) {
+            asyncCalls.incrementAndGet();
+            return behavior.apply(arguments);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.shengong.agentruntime.core.tool.invocation;
+
+import com.shengong.agentruntime.config.ToolInvocationProperties;
+import com.shengong.agentruntime.core.tool.AbstractTool;
+import com.shengong.agentruntime.core.tool.annotation.ToolDefinition;
+import com.shengong.agentruntime.entity.ToolConfigEntity;
+import com.shengong.agentruntime.model.ToolResult;
+import com.shengong.agentruntime.repository.ToolConfigRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tool 调用策略解析测试: 注解 → 配置文件 → tool_config
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class ToolPolicyResolverTest {
+
+    private final ToolInvocationProperties properties = new ToolInvocationProperties();
+    private final ToolConfigRepository repository = mock(ToolConfigRepository.class);
+    private final AnnotatedTool tool = new AnnotatedTool();
+
+    @Test
+    void annotationIsTheBaseline() {
+        ToolPolicy policy = resolver(false).resolve(tool);
+
+        assertThat(policy.isIdempotent()).isTrue();
+        assertThat(policy.getMaxRetries()).isEqualTo(2);
+        assertThat(policy.getTimeoutMs()).isEqualTo(1000);
+    }
+
+    @Test
+    void toolConfigOverridesPropertiesFieldByField() {
+        properties.getPolicies().put("annotated", policy(Duration.ofSeconds(5), 8));
+        when(repository.findByEnabledTrue()).thenReturn(List.of(
+                row("annotated", Map.of("timeout", "2s", "retryBackoff", 750, "cacheTtl", "PT1M"))));
+
+        ToolPolicy policy = resolver(true).resolve(tool);
+
+        assertThat(policy.getTimeoutMs()).isEqualTo(2000);
+        assertThat(policy.getRetryBackoffMs()).isEqualTo(750);
+        assertThat(policy.getCacheTtlMs()).isEqualTo(60_000);
+        // tool_config 未设置的字段沿用配置文件, 再沿用注解
+        assertThat(policy.getMaxConcurrency()).isEqualTo(8);
+        assertThat(policy.getMaxRetries()).isEqualTo(2);
+    }
+
+    @Test
+    void runtimeToolsWithoutAnnotationUseToolConfig() {
+        when(repository.findByEnabledTrue()).thenReturn(List.of(
+                row("mcp_github_search", Map.of("idempotent", true, "maxRetries", "3"))));
+
+        ToolPolicy policy = resolver(true).resolve(new RuntimeTool());
+
+        assertThat(policy.retryable()).isTrue();
+        assertThat(policy.getMaxRetries()).isEqualTo(3);
+    }
+
+    @Test
+    void invalidRowsAreSkipped() {
+        when(repository.findByEnabledTrue()).thenReturn(List.of(
+                row("annotated", Map.of("timeout", "soon")),
+                row("mcp_github_search", Map.of("maxConcurrency", 4))));
+
+        ToolPolicyResolver resolver = resolver(true);
+
+        assertThat(resolver.resolve(tool).getTimeoutMs()).isEqualTo(1000);
+        assertThat(resolver.resolve(new RuntimeTool()).getMaxConcurrency()).isEqualTo(4);
+    }
+
+    @Test
+    void databaseFailureKeepsPreviousPolicies() {
+        when(repository.findByEnabledTrue())
+                .thenReturn(List.of(row("annotated", Map.of("timeout", 3000))))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        ToolPolicyResolver resolver = resolver(true);
+
+        resolver.reload();
+
+        assertThat(resolver.resolve(tool).getTimeoutMs()).isEqualTo(3000);
+    }
+
+    @Test
+    void rowsWithoutPolicyAreIgnored() {
+        when(repository.findByEnabledTrue()).thenReturn(List.of(
+                row("annotated", null),
+                ToolConfigEntity.builder().name("annotated").enabled(true).config(Map.of("apiKey", "x")).build()));
+
+        assertThat(resolver(true).resolve(tool).getTimeoutMs()).isEqualTo(1000);
+    }
+
+    @Test
+    void databaseCanBeDisabled() {
+        properties.setDatabaseEnabled(false);
+        when(repository.findByEnabledTrue()).thenReturn(List.of(row("annotated", Map.of("timeout", 3000))));
+
+        assertThat(resolver(true).resolve(tool).getTimeoutMs()).isEqualTo(1000);
+    }
+
+    private ToolPolicyResolver resolver(boolean withRepository) {
+        StaticListableBeanFactory beanFactory = withRepository
+                ? new StaticListableBeanFactory(Map.of("toolConfigRepository", repository))
+                : new StaticListableBeanFactory();
+        ToolPolicyResolver resolver = new ToolPolicyResolver(properties,
+                beanFactory.getBeanProvider(ToolConfigRepository.class));
+        resolver.init();
+        return resolver;
+    }
+
+    private static ToolConfigEntity row(String name, Map<String, Object> policy) {
+        return ToolConfigEntity.builder()
+                .name(name)
+                .enabled(true)
+                .config(policy == null ? null : Map.of("policy", policy))
+                .build();
+    }
+
+    private static ToolInvocationProperties.Policy policy(Duration timeout, int maxConcurrency) {
+        ToolInvocationProperties.Policy policy = new ToolInvocationProperties.Policy();
+        policy.setTimeout(timeout);
+        policy.setMaxConcurrency(maxConcurrency);
+        return policy;
+    }
+
+    @ToolDefinition(name = "annotated", idempotent = true, maxRetries = 2, timeoutMs = 1000)
+    static class AnnotatedTool extends AbstractTool {
+
+        @Override
+        public ToolResult invoke(Map<String, Object> arguments) {
+            return ToolResult.success(Map.of());
+        }
+    }
+
+    static class RuntimeTool implements com.shengong.agentruntime.core.tool.Tool {
+
+        @Override
+        public String name() {
+            return "mcp_github_search";
+        }
+
+        @Override
+        public String description() {
+            return "";
+        }
+
+        @Override
+        public ToolResult invoke(Map<String, Object> arguments) {
+            return ToolResult.success(Map.of());
+        }
+    }
+}
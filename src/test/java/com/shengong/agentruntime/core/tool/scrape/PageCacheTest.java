@@ -0,0 +1,144 @@
+package com.shengong.agentruntime.core.tool.scrape;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 页面缓存测试: 重定向后的 base URI 与提取结果记忆, 使用本机 JDK HttpServer
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class PageCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicInteger extractions = new AtomicInteger();
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/old", exchange -> {
+            exchange.getResponseHeaders().set("Location", "/docs/guide/index.html");
+            exchange.sendResponseHeaders(301, -1);
+            exchange.close();
+        });
+        server.createContext("/docs/guide/index.html",
+                exchange -> respond(exchange, "<html><body><a href='next.html'>next</a></body></html>"));
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void relativeLinksResolveAgainstFinalUrl() throws IOException {
+        PageCache cache = cache(true);
+
+        PageCache.Page page = cache.fetch(url("/old"), 2000, false);
+
+        assertThat(page.source()).isEqualTo(PageCache.Source.MISS);
+        assertThat(page.url()).isEqualTo(url("/old"));
+        assertThat(page.finalUrl()).isEqualTo(url("/docs/guide/index.html"));
+        assertThat(page.document().select("a").first().absUrl("href")).isEqualTo(url("/docs/guide/next.html"));
+    }
+
+    @Test
+    void cachedPagesKeepFinalUrl() throws IOException {
+        cache(true).fetch(url("/old"), 2000, false);
+
+        PageCache.Page page = cache(true).fresh(url("/old"));
+
+        assertThat(page.source()).isEqualTo(PageCache.Source.HIT);
+        assertThat(page.finalUrl()).isEqualTo(url("/docs/guide/index.html"));
+        assertThat(page.document().select("a").first().absUrl("href")).isEqualTo(url("/docs/guide/next.html"));
+    }
+
+    @Test
+    void bypassedPagesUseFinalUrl() throws IOException {
+        PageCache.Page page = cache(false).fetch(url("/old"), 2000, false);
+
+        assertThat(page.source()).isEqualTo(PageCache.Source.BYPASS);
+        assertThat(page.document().select("a").first().absUrl("href")).isEqualTo(url("/docs/guide/next.html"));
+    }
+
+    @Test
+    void memoizedResultsCannotBeModified() throws IOException {
+        PageCache cache = cache(true);
+
+        Map<String, Object> first = cache.memoize("v1", "items", this::extraction);
+        Map<String, Object> second = cache.memoize("v1", "items", this::extraction);
+
+        assertThat(extractions).hasValue(1);
+        assertThat(second).isEqualTo(first).containsEntry("items", List.of("a", "b")).containsEntry("missing", null);
+        assertThatThrownBy(() -> second.put("items", "x")).isInstanceOf(UnsupportedOperationException.class);
+        @SuppressWarnings("unchecked")
+        List<String> items = (List<String>) second.get("items");
+        assertThatThrownBy(() -> items.add("c")).isInstanceOf(UnsupportedOperationException.class);
+        assertThat(cache.memoize("v1", "items", this::extraction)).containsEntry("items", List.of("a", "b"));
+    }
+
+    @Test
+    void resultsWithoutVersionAreNotMemoized() throws IOException {
+        PageCache cache = cache(true);
+
+        cache.memoize(null, "items", this::extraction);
+        cache.memoize(null, "items", this::extraction);
+
+        assertThat(extractions).hasValue(2);
+    }
+
+    private Map<String, Object> extraction() {
+        extractions.incrementAndGet();
+        Map<String, Object> data = new HashMap<>();
+        data.put("items", new ArrayList<>(List.of("a", "b")));
+        data.put("missing", null);
+        return data;
+    }
+
+    private PageCache cache(boolean enabled) throws IOException {
+        PageCache cache = new PageCache(new ObjectMapper(), new SimpleMeterRegistry(), enabled,
+                directory.toString(), Duration.ofMinutes(10), DataSize.ofMegabytes(10), 100);
+        cache.open();
+        return cache;
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static void respond(HttpExchange exchange, String content) throws IOException {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.shengong.agentruntime.core.tool.scrape;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 流式选择器提取测试
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class StreamingExtractorTest {
+
+    private static final String PAGE = "<html><body>"
+            + "<header><p>nav 1</p><p>nav 2</p></header>"
+            + "<div class='post'><h2>Title</h2><p>first</p><p>second</p></div>"
+            + "<ul><li>a</li><li>b</li><li>c</li></ul>"
+            + "<footer><p>tail</p></footer>"
+            + "</body></html>";
+
+    @Test
+    void stopsOnceEverySelectorIsSatisfied() throws IOException {
+        StreamParser parser = parser(PAGE);
+
+        StreamingExtractor.Result result = StreamingExtractor.extract(parser, Map.of("title", "h2"), 1);
+
+        assertThat(result.data()).containsEntry("title", "Title");
+        assertThat(result.stoppedEarly()).isTrue();
+        assertThat(parser.document().select("footer")).isEmpty();
+    }
+
+    @Test
+    void collectsUpToMaxMatches() throws IOException {
+        StreamingExtractor.Result result = StreamingExtractor.extract(parser(PAGE), Map.of("items", "li"), 2);
+
+        assertThat(result.data()).containsEntry("items", List.of("a", "b"));
+    }
+
+    @Test
+    void evaluatedElementsAreRemoved() throws IOException {
+        StreamParser parser = parser(PAGE);
+
+        StreamingExtractor.extract(parser, Map.of("tail", "footer p"), 1);
+
+        Document document = parser.document();
+        assertThat(document.select("header, div.post, ul")).isEmpty();
+    }
+
+    @Test
+    void ancestorsThatMayMatchKeepTheirDescendants() throws IOException {
+        Map<String, String> selectors = new LinkedHashMap<>();
+        selectors.put("post", "div.post");
+        selectors.put("tail", "footer p");
+
+        StreamingExtractor.Result result = StreamingExtractor.extract(parser(PAGE), selectors, 1);
+
+        assertThat(result.data()).containsEntry("post", "Title first second").containsEntry("tail", "tail");
+    }
+
+    @Test
+    void siblingSelectorsDisablePruning() throws IOException {
+        Map<String, String> selectors = new LinkedHashMap<>();
+        selectors.put("afterTitle", "h2 + p");
+        selectors.put("third", "li:nth-child(3)");
+
+        StreamingExtractor.Result result = StreamingExtractor.extract(parser(PAGE), selectors, 1);
+
+        assertThat(result.data()).containsEntry("afterTitle", "first").containsEntry("third", "c");
+    }
+
+    private static StreamParser parser(String html) {
+        return new StreamParser(Parser.htmlParser()).parse(html, "https://example.com/");
+    }
+}
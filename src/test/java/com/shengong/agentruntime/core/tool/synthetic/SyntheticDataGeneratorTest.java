@@ -0,0 +1,159 @@
+package com.shengong.agentruntime.core.tool.synthetic;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.config.SyntheticDataProperties;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * 模拟数据生成测试: 并行与顺序生成一致、注入异常的标准答案
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class SyntheticDataGeneratorTest {
+
+    private static final long START = 1_704_067_200_000L;
+    private static final long END = START + 24 * 3_600_000L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void parallelOrdersMatchSequentialOutput() throws IOException {
+        SyntheticDataGenerator sequential = generator(Integer.MAX_VALUE, 4_096);
+        SyntheticDataGenerator parallel = generator(1, 1_000);
+        OrderSpec spec = sequential.orderSpec(Map.of("count", 30_000, "seed", 42));
+
+        OrderColumns expected = sequential.generateOrders(spec);
+        OrderColumns actual = parallel.generateOrders(spec);
+
+        assertThat(actual.status).isEqualTo(expected.status);
+        assertThat(actual.amount).isEqualTo(expected.amount);
+        assertThat(actual.delayed).isEqualTo(expected.delayed);
+        assertThat(actual.processingHours).isEqualTo(expected.processingHours);
+        assertThat(actual.createdAt).isEqualTo(expected.createdAt);
+        assertThat(actual.shop).isEqualTo(expected.shop);
+        assertThat(actual.sku).isEqualTo(expected.sku);
+        assertThat(actual.region).isEqualTo(expected.region);
+        assertThat(actual.channel).isEqualTo(expected.channel);
+        assertThat(actual.buyer).isEqualTo(expected.buyer);
+        assertThat(actual.refundReason).isEqualTo(expected.refundReason);
+
+        // 流式导出按分块缓冲区重复填充, 与一次生成的结果逐字节一致
+        ByteArrayOutputStream inMemory = new ByteArrayOutputStream();
+        try (var json = objectMapper.getFactory().createGenerator(inMemory)) {
+            json.setRootValueSeparator(null);
+            expected.writeNdjson(json, 0, expected.size());
+        }
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        parallel.writeOrders(spec, streamed);
+        assertThat(streamed.toByteArray()).isEqualTo(inMemory.toByteArray());
+    }
+
+    @Test
+    void parallelLiveTimelineMatchesSequentialOutput() {
+        SyntheticDataGenerator sequential = generator(Integer.MAX_VALUE, 1_000);
+        SyntheticDataGenerator parallel = generator(1, 1_000);
+        LiveSpec spec = sequential.liveSpec(Map.of("seed", 7, "granularitySeconds", 10,
+                "timeRange", Map.of("startTime", START, "endTime", END)));
+
+        LiveTimeline expected = sequential.generateLive(spec);
+        LiveTimeline actual = parallel.generateLive(spec);
+
+        assertThat(actual.size()).isEqualTo(expected.size()).isGreaterThan(1_000);
+        assertThat(actual.rows()).isEqualTo(expected.rows());
+    }
+
+    @Test
+    void sameSeedGivesSameOrders() {
+        SyntheticDataGenerator generator = generator(Integer.MAX_VALUE, 4_096);
+        Map<String, Object> arguments = Map.of("count", 500, "seed", 3);
+
+        List<Map<String, Object>> first = generator.generateOrders(generator.orderSpec(arguments)).rows();
+        List<Map<String, Object>> second = generator.generateOrders(generator.orderSpec(arguments)).rows();
+        List<Map<String, Object>> other = generator.generateOrders(
+                generator.orderSpec(Map.of("count", 500, "seed", 4))).rows();
+
+        assertThat(second).isEqualTo(first);
+        assertThat(other).isNotEqualTo(first);
+    }
+
+    @Test
+    void injectedAnomaliesMatchTheGroundTruth() {
+        SyntheticDataGenerator generator = generator(Integer.MAX_VALUE, 4_096);
+        OrderSpec spec = generator.orderSpec(Map.of("count", 50_000, "seed", 11, "refundRate", 0.1,
+                "timeRange", Map.of("startTime", START, "endTime", END),
+                "anomalies", List.of(Map.of("type", "REFUND_SPIKE", "start", 0.4, "end", 0.6, "magnitude", 4.0))));
+
+        List<Map<String, Object>> truth = SyntheticDataGenerator.describeAnomalies(spec.getAnomalies(), START, END);
+        assertThat(truth).hasSize(1);
+        assertThat(truth.get(0)).containsEntry("type", "REFUND_SPIKE")
+                .containsEntry("startTime", START + (long) ((END - START) * 0.4))
+                .containsEntry("endTime", START + (long) ((END - START) * 0.6))
+                .containsEntry("magnitude", 4.0);
+
+        long windowStart = (Long) truth.get(0).get("startTime");
+        long windowEnd = (Long) truth.get(0).get("endTime");
+        OrderColumns orders = generator.generateOrders(spec);
+        int[] inside = new int[2];
+        int[] outside = new int[2];
+        for (int row = 0; row < orders.size(); row++) {
+            int[] counts = orders.createdAt(row) >= windowStart && orders.createdAt(row) < windowEnd ? inside : outside;
+            counts[0]++;
+            if (orders.statusCode(row) == OrderColumns.REFUNDED) {
+                counts[1]++;
+            }
+        }
+
+        assertThat((double) inside[1] / inside[0]).isCloseTo(0.4, within(0.02));
+        assertThat((double) outside[1] / outside[0]).isCloseTo(0.1, within(0.01));
+    }
+
+    @Test
+    void shopScopedAnomalyOnlyAffectsThatShop() {
+        SyntheticDataGenerator generator = generator(Integer.MAX_VALUE, 4_096);
+        OrderSpec spec = generator.orderSpec(Map.of("count", 20_000, "seed", 5, "shops", 10,
+                "anomalies", List.of(Map.of("type", "AMOUNT_DROP", "start", 0.0, "end", 1.0,
+                        "magnitude", 10.0, "shop", 0))));
+        OrderSpec baseline = spec.toBuilder().anomalies(List.of()).build();
+
+        OrderColumns affected = generator.generateOrders(spec);
+        OrderColumns unaffected = generator.generateOrders(baseline);
+
+        assertThat(SyntheticDataGenerator.describeAnomalies(spec.getAnomalies(), spec.getStartMillis(),
+                spec.getEndMillis()).get(0)).containsEntry("shopId", "SHOP0000");
+        for (int row = 0; row < affected.size(); row++) {
+            if (affected.shop(row) == 0) {
+                assertThat(affected.amount(row)).isLessThan(unaffected.amount(row));
+            } else {
+                assertThat(affected.amount(row)).isEqualTo(unaffected.amount(row));
+            }
+        }
+    }
+
+    @Test
+    void defaultAnomaliesCanBeDisabled() {
+        SyntheticDataGenerator generator = generator(Integer.MAX_VALUE, 4_096);
+
+        assertThat(generator.orderSpec(Map.of("seed", 1)).getAnomalies())
+                .extracting(AnomalySpec::getType)
+                .containsExactly(AnomalySpec.Type.REFUND_SPIKE, AnomalySpec.Type.DELAY_SPIKE);
+        assertThat(generator.orderSpec(Map.of("seed", 1)).getAnomalies())
+                .isEqualTo(generator.orderSpec(Map.of("seed", 1)).getAnomalies());
+        assertThat(generator.orderSpec(Map.of("seed", 1, "injectAnomalies", false)).getAnomalies()).isEmpty();
+    }
+
+    private SyntheticDataGenerator generator(int parallelThreshold, int chunkSize) {
+        SyntheticDataProperties properties = new SyntheticDataProperties();
+        properties.setParallelThreshold(parallelThreshold);
+        properties.setChunkSize(chunkSize);
+        return new SyntheticDataGenerator(properties, objectMapper);
+    }
+}
@@ -0,0 +1,43 @@
+package com.shengong.agentruntime.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Keyset 游标编解码测试
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class TaskExecutionCursorTest {
+
+    @Test
+    void roundTripsThroughOpaqueString() {
+        TaskExecutionCursor cursor = new TaskExecutionCursor(LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_000_000), 42L);
+
+        String encoded = cursor.encode();
+
+        assertThat(encoded).doesNotContain("|", "=", "+", "/");
+        assertThat(TaskExecutionCursor.decode(encoded)).isEqualTo(cursor);
+    }
+
+    @Test
+    void blankCursorMeansFirstPage() {
+        assertThat(TaskExecutionCursor.decode(null)).isNull();
+        assertThat(TaskExecutionCursor.decode(" ")).isNull();
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThatThrownBy(() -> TaskExecutionCursor.decode("not-a-cursor"))
+                .isInstanceOf(IllegalArgumentException.class);
+        String noId = Base64.getUrlEncoder().encodeToString("2024-05-01T12:30|x".getBytes());
+        assertThatThrownBy(() -> TaskExecutionCursor.decode(noId))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
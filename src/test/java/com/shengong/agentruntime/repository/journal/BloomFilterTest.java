@@ -0,0 +1,53 @@
+package com.shengong.agentruntime.repository.journal;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 段布隆过滤器测试
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class BloomFilterTest {
+
+    @Test
+    void neverMissesAddedValues() {
+        BloomFilter filter = new BloomFilter(1 << 16);
+        for (int i = 0; i < 5_000; i++) {
+            filter.add("trace-" + i);
+        }
+
+        for (int i = 0; i < 5_000; i++) {
+            assertThat(filter.mightContain("trace-" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateMatchesSegmentSizing() {
+        // 64MB 段约 6 万条记录, 每段 2^20 位
+        BloomFilter filter = new BloomFilter(1 << 20);
+        for (int i = 0; i < 60_000; i++) {
+            filter.add("trace-" + i);
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat((double) falsePositives / probes).isLessThan(0.01);
+    }
+
+    @Test
+    void nullIsNeverContained() {
+        BloomFilter filter = new BloomFilter(64);
+        filter.add(null);
+
+        assertThat(filter.mightContain(null)).isFalse();
+        assertThat(filter.mightContain("anything")).isFalse();
+    }
+}
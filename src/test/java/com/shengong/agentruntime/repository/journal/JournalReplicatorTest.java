@@ -0,0 +1,135 @@
+package com.shengong.agentruntime.repository.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.entity.TaskExecutionEntity;
+import com.shengong.agentruntime.repository.TaskExecutionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 日志写后复制测试
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class JournalReplicatorTest {
+
+    @TempDir
+    Path directory;
+
+    private final TaskExecutionRepository repository = mock(TaskExecutionRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private JournalTaskExecutionStore journal;
+
+    @BeforeEach
+    void openJournal() throws IOException {
+        journal = new JournalTaskExecutionStore(new ObjectMapper().findAndRegisterModules(),
+                directory.toString(), DataSize.ofKilobytes(64), 0.5);
+        journal.open();
+        when(repository.findByTaskIdIn(anyCollection())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void closeJournal() {
+        journal.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void upsertsByTaskIdAndDeletesTombstones() throws IOException {
+        TaskExecutionEntity first = journal.save(entity("task-1"));
+        journal.save(entity("task-2"));
+        first.setStatus("error");
+        journal.save(first);
+        journal.delete(journal.findByTaskId("task-2").orElseThrow());
+        TaskExecutionEntity existing = entity("task-1");
+        existing.setId(42L);
+        TaskExecutionEntity stale = entity("task-2");
+        stale.setId(43L);
+        when(repository.findByTaskIdIn(anyCollection())).thenReturn(List.of(existing, stale));
+
+        JournalReplicator replicator = replicator();
+        assertThat(replicator.replicate()).isEqualTo(2);
+
+        ArgumentCaptor<List<TaskExecutionEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(saved.capture());
+        assertThat(saved.getValue()).singleElement()
+                .satisfies(entity -> {
+                    assertThat(entity.getId()).isEqualTo(42L);
+                    assertThat(entity.getStatus()).isEqualTo("error");
+                });
+        verify(repository).deleteAll(List.of(stale));
+        assertThat(Files.readString(directory.resolve(JournalReplicator.POSITION_FILE))).isNotBlank();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resumesFromSavedPosition() throws IOException {
+        journal.save(entity("task-1"));
+        replicator().replicate();
+        clearInvocations(repository);
+
+        journal.save(entity("task-2"));
+        JournalReplicator restarted = replicator();
+
+        assertThat(restarted.replicate()).isEqualTo(1);
+        ArgumentCaptor<List<TaskExecutionEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(saved.capture());
+        assertThat(saved.getValue()).extracting(TaskExecutionEntity::getTaskId).containsExactly("task-2");
+    }
+
+    @Test
+    void failedBatchIsRetriedFromTheSamePosition() throws IOException {
+        journal.save(entity("task-1"));
+        when(repository.saveAll(anyList()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        JournalReplicator replicator = replicator();
+
+        assertThat(replicator.replicate()).isZero();
+        assertThat(directory.resolve(JournalReplicator.POSITION_FILE)).doesNotExist();
+
+        assertThat(replicator.replicate()).isEqualTo(1);
+        assertThat(replicator.replicate()).isZero();
+        verify(repository, times(2)).saveAll(anyList());
+    }
+
+    private JournalReplicator replicator() throws IOException {
+        JournalReplicator replicator = new JournalReplicator(journal, repository, transactionManager,
+                directory.toString(), 100);
+        replicator.open();
+        return replicator;
+    }
+
+    private static TaskExecutionEntity entity(String taskId) {
+        return TaskExecutionEntity.builder()
+                .taskId(taskId)
+                .taskType("analysis")
+                .domain("general")
+                .traceId("trace-a")
+                .status("ok")
+                .startedAt(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .build();
+    }
+}
@@ -0,0 +1,286 @@
+package com.shengong.agentruntime.repository.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.entity.TaskExecutionEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 日志存储的重放、崩溃恢复、压缩与写后复制读取测试
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class JournalTaskExecutionStoreTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    private final List<JournalTaskExecutionStore> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeStores() {
+        opened.forEach(JournalTaskExecutionStore::close);
+    }
+
+    @Test
+    void replaysRecordsAfterRestart() throws IOException {
+        JournalTaskExecutionStore store = open();
+        store.save(entity("task-1", "trace-a", "ok"));
+        TaskExecutionEntity second = store.save(entity("task-2", "trace-a", "ok"));
+        second.setStatus("error");
+        store.save(second);
+        store.delete(store.save(entity("task-3", "trace-b", "ok")));
+        close(store);
+
+        JournalTaskExecutionStore reopened = open();
+
+        assertThat(reopened.findByTaskId("task-2")).get()
+                .satisfies(entity -> assertThat(entity.getStatus()).isEqualTo("error"));
+        assertThat(reopened.findByTaskId("task-3")).isEmpty();
+        assertThat(reopened.findByTraceId("trace-a")).extracting(TaskExecutionEntity::getTaskId)
+                .containsExactlyInAnyOrder("task-1", "task-2");
+        assertThat(reopened.countByStatus("ok")).isEqualTo(1);
+        assertThat(reopened.countByStatus("error")).isEqualTo(1);
+        assertThat(reopened.save(entity("task-4", "trace-c", "ok")).getId()).isEqualTo(4L);
+    }
+
+    @Test
+    void taskIdIndexFollowsUpdatesAndDeletes() throws IOException {
+        JournalTaskExecutionStore store = open();
+        TaskExecutionEntity entity = store.save(entity("task-1", "trace-a", "running"));
+        entity.setStatus("ok");
+        store.save(entity);
+
+        assertThat(store.findByTaskId("task-1")).get()
+                .satisfies(found -> assertThat(found.getStatus()).isEqualTo("ok"));
+
+        store.delete(entity);
+        assertThat(store.findByTaskId("task-1")).isEmpty();
+        assertThat(store.findByTaskId("missing")).isEmpty();
+    }
+
+    @Test
+    void discardsTornTailAndKeepsAppending() throws IOException {
+        JournalTaskExecutionStore store = open();
+        store.save(entity("task-1", "trace-a", "ok"));
+        store.save(entity("task-2", "trace-a", "ok"));
+        store.save(entity("task-3", "trace-a", "ok"));
+        close(store);
+
+        // 模拟最后一帧只写了一半: 校验和不再匹配
+        corrupt(singleSegment(), "task-3");
+
+        JournalTaskExecutionStore recovered = open();
+        assertThat(recovered.findByTraceId("trace-a")).extracting(TaskExecutionEntity::getTaskId)
+                .containsExactlyInAnyOrder("task-1", "task-2");
+        recovered.save(entity("task-4", "trace-a", "ok"));
+        close(recovered);
+
+        JournalTaskExecutionStore reopened = open();
+        assertThat(reopened.findByTraceId("trace-a")).extracting(TaskExecutionEntity::getTaskId)
+                .containsExactlyInAnyOrder("task-1", "task-2", "task-4");
+    }
+
+    @Test
+    void findsRecordsAcrossRolledSegments() throws IOException {
+        JournalTaskExecutionStore store = open();
+        for (int i = 0; i < 600; i++) {
+            store.save(entity("task-" + i, "trace-" + (i % 7), "ok"));
+        }
+
+        assertThat(segmentCount()).isGreaterThan(2);
+        assertThat(store.findByTraceId("trace-3")).hasSize(86);
+        assertThat(store.findByTraceId("trace-unknown")).isEmpty();
+        assertThat(store.findByTaskId("task-0")).isPresent();
+        assertThat(store.findByTaskId("task-599")).isPresent();
+        assertThat(store.countByTimeRange(BASE, BASE.plusDays(1))).isEqualTo(600);
+    }
+
+    @Test
+    void compactionRelocatesLiveRecords() throws IOException {
+        JournalTaskExecutionStore store = open();
+        List<TaskExecutionEntity> saved = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            saved.add(store.save(entity("task-" + i, "trace-" + (i % 7), "ok")));
+        }
+        for (int i = 0; i < 300; i++) {
+            if (i % 10 != 0) {
+                store.delete(saved.get(i));
+            }
+        }
+        long before = segmentCount();
+
+        store.compact();
+
+        assertThat(segmentCount()).isLessThan(before);
+        assertThat(store.findByTaskId("task-10")).isPresent();
+        assertThat(store.findByTaskId("task-11")).isEmpty();
+        assertThat(store.countByStatus("ok")).isEqualTo(330);
+        close(store);
+
+        JournalTaskExecutionStore reopened = open();
+        assertThat(reopened.countByStatus("ok")).isEqualTo(330);
+        assertThat(reopened.findByTaskId("task-20")).isPresent();
+        assertThat(reopened.findByTaskId("task-21")).isEmpty();
+        assertThat(reopened.findByTaskId("task-599")).isPresent();
+    }
+
+    @Test
+    void idsAreNotReusedAfterCompactingTombstones() throws IOException {
+        JournalTaskExecutionStore store = open();
+        List<TaskExecutionEntity> saved = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            saved.add(store.save(entity("task-" + i, "trace-a", "ok")));
+        }
+        long maxId = saved.get(saved.size() - 1).getId();
+        // 最大 id 的墓碑最先写入, 随后的墓碑把它所在的段封存, 压缩时作为最早的段被丢弃
+        store.delete(saved.remove(saved.size() - 1));
+        saved.forEach(store::delete);
+
+        store.compact();
+        assertThat(segmentCount()).isEqualTo(1);
+        close(store);
+
+        JournalTaskExecutionStore reopened = open();
+        assertThat(reopened.findByTraceId("trace-a")).isEmpty();
+        assertThat(reopened.save(entity("task-new", "trace-b", "ok")).getId()).isGreaterThan(maxId);
+    }
+
+    @Test
+    void readChangesReturnsLatestVersionsInWriteOrder() throws IOException {
+        JournalTaskExecutionStore store = open();
+        TaskExecutionEntity first = store.save(entity("task-1", "trace-a", "running"));
+        store.save(entity("task-2", "trace-a", "ok"));
+        first.setStatus("ok");
+        store.save(first);
+        store.delete(store.findByTaskId("task-2").orElseThrow());
+
+        JournalTaskExecutionStore.ChangeBatch head = store.readChanges(0, 1);
+        // task-1 的第一版和已删除的 task-2 不再复制, 只复制最新版本与墓碑
+        assertThat(head.changes()).singleElement()
+                .satisfies(change -> {
+                    assertThat(change.taskId()).isEqualTo("task-1");
+                    assertThat(change.entity().getStatus()).isEqualTo("ok");
+                });
+
+        JournalTaskExecutionStore.ChangeBatch tail = store.readChanges(head.nextPosition(), 10);
+        assertThat(tail.changes()).singleElement()
+                .satisfies(change -> {
+                    assertThat(change.taskId()).isEqualTo("task-2");
+                    assertThat(change.isDelete()).isTrue();
+                });
+        assertThat(store.readChanges(tail.nextPosition(), 10).changes()).isEmpty();
+    }
+
+    @Test
+    void readChangesCrossesSegmentsAndCompactionWaitsForReplication() throws IOException {
+        JournalTaskExecutionStore store = open();
+        List<TaskExecutionEntity> saved = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            saved.add(store.save(entity("task-" + i, "trace-a", "ok")));
+        }
+        for (int i = 0; i < 300; i++) {
+            store.delete(saved.get(i));
+        }
+        store.acknowledge(0);
+        long before = segmentCount();
+
+        store.compact();
+        assertThat(segmentCount()).isEqualTo(before);
+
+        List<JournalTaskExecutionStore.Change> changes = new ArrayList<>();
+        long position = 0;
+        JournalTaskExecutionStore.ChangeBatch batch;
+        do {
+            batch = store.readChanges(position, 64);
+            changes.addAll(batch.changes());
+            position = batch.nextPosition();
+        } while (!batch.changes().isEmpty());
+
+        assertThat(changes).filteredOn(JournalTaskExecutionStore.Change::isDelete).hasSize(300);
+        assertThat(changes).filteredOn(change -> !change.isDelete()).hasSize(300);
+
+        store.acknowledge(position);
+        store.compact();
+        assertThat(segmentCount()).isLessThan(before);
+    }
+
+    private JournalTaskExecutionStore open() throws IOException {
+        JournalTaskExecutionStore store = new JournalTaskExecutionStore(new ObjectMapper().findAndRegisterModules(),
+                directory.toString(), DataSize.ofKilobytes(64), 0.5);
+        store.open();
+        opened.add(store);
+        return store;
+    }
+
+    private void close(JournalTaskExecutionStore store) {
+        store.close();
+        opened.remove(store);
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".journal")).count();
+        }
+    }
+
+    private Path singleSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".journal")).findFirst().orElseThrow();
+        }
+    }
+
+    /**
+     * 翻转 marker 所在帧的一个字节
+     */
+    private static void corrupt(Path segment, String marker) throws IOException {
+        byte[] content = Files.readAllBytes(segment);
+        byte[] needle = marker.getBytes(StandardCharsets.UTF_8);
+        int at = -1;
+        for (int i = 0; i + needle.length <= content.length && at < 0; i++) {
+            if (Arrays.equals(content, i, i + needle.length, needle, 0, needle.length)) {
+                at = i;
+            }
+        }
+        assertThat(at).isNotNegative();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) ~content[at]}), at);
+        }
+    }
+
+    private static TaskExecutionEntity entity(String taskId, String traceId, String status) {
+        return TaskExecutionEntity.builder()
+                .taskId(taskId)
+                .taskType("analysis")
+                .domain("general")
+                .agentName("agentA")
+                .traceId(traceId)
+                .status(status)
+                .userId("user-1")
+                .summary("summary of " + taskId + " ".repeat(64))
+                .payload(Map.of("query", "q-" + taskId))
+                .startedAt(BASE.plusSeconds(taskId.hashCode() & 0xffff))
+                .build();
+    }
+}
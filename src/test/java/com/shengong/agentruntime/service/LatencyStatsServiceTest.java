@@ -0,0 +1,101 @@
+package com.shengong.agentruntime.service;
+
+import com.shengong.agentruntime.entity.AgentLatencySnapshotEntity;
+import com.shengong.agentruntime.model.LatencyPercentiles;
+import com.shengong.agentruntime.repository.AgentLatencySnapshotRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 延迟分位数与快照落库测试
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class LatencyStatsServiceTest {
+
+    private final AgentLatencySnapshotRepository repository = mock(AgentLatencySnapshotRepository.class);
+    private final LatencyStatsService service =
+            new LatencyStatsService(new SimpleMeterRegistry(), provider(repository), 60_000, 60, 1, true);
+
+    @Test
+    void percentilesFromRollingBuckets() {
+        for (int latency = 1; latency <= 1000; latency++) {
+            service.record("agentA", LatencyStatsService.STAGE_EXECUTE, latency);
+        }
+        service.record("agentB", LatencyStatsService.STAGE_EXECUTE, 5);
+
+        List<LatencyPercentiles> percentiles = service.getPercentiles("agentA", 10);
+
+        assertThat(percentiles).hasSize(1);
+        LatencyPercentiles p = percentiles.get(0);
+        assertThat(p.getCount()).isEqualTo(1000);
+        assertThat(p.getP50Ms()).isCloseTo(500L, within(10L));
+        assertThat(p.getP99Ms()).isCloseTo(990L, within(20L));
+        assertThat(p.getSource()).isEqualTo("memory");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedSnapshotIsRetriedWithTheNextWindow() {
+        when(repository.saveAll(anyList()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        for (int i = 0; i < 100; i++) {
+            service.record("agentA", LatencyStatsService.STAGE_EXECUTE, 10);
+        }
+        service.rotate();
+
+        for (int i = 0; i < 50; i++) {
+            service.record("agentA", LatencyStatsService.STAGE_EXECUTE, 20);
+        }
+        service.rotate();
+
+        ArgumentCaptor<List<AgentLatencySnapshotEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(2)).saveAll(saved.capture());
+        List<AgentLatencySnapshotEntity> retried = saved.getAllValues().get(1);
+        assertThat(retried).hasSize(1);
+        assertThat(retried.get(0).getSampleCount()).isEqualTo(150);
+        assertThat(retried.get(0).getMaxMs()).isCloseTo(20L, within(1L));
+    }
+
+    @Test
+    void emptyWindowsAreNotSaved() {
+        service.rotate();
+
+        verify(repository, times(0)).saveAll(anyList());
+    }
+
+    @Test
+    void withoutRepositoryEverythingStaysInMemory() {
+        StaticListableBeanFactory empty = new StaticListableBeanFactory();
+        LatencyStatsService standalone = new LatencyStatsService(new SimpleMeterRegistry(),
+                empty.getBeanProvider(AgentLatencySnapshotRepository.class), 60_000, 60, 1, true);
+
+        standalone.record("agentA", LatencyStatsService.STAGE_EXECUTE, 10);
+        standalone.rotate();
+
+        assertThat(standalone.getPercentiles("agentA", 10_000)).singleElement()
+                .satisfies(p -> assertThat(p.getSource()).isEqualTo("memory"));
+    }
+
+    private static ObjectProvider<AgentLatencySnapshotRepository> provider(AgentLatencySnapshotRepository repository) {
+        return new StaticListableBeanFactory(Map.of("agentLatencySnapshotRepository", repository))
+                .getBeanProvider(AgentLatencySnapshotRepository.class);
+    }
+}
@@ -0,0 +1,73 @@
+package com.shengong.agentruntime.service;
+
+import com.shengong.agentruntime.core.agent.Agent;
+import com.shengong.agentruntime.model.AgentResult;
+import com.shengong.agentruntime.model.AgentTask;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 执行与持久化阶段的延迟记录测试
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class RouterAgentServiceTest {
+
+    private final TaskExecutionService taskExecutionService = mock(TaskExecutionService.class);
+    private final LatencyStatsService latencyStatsService = mock(LatencyStatsService.class);
+    private final RouterAgentService router = new RouterAgentService(mock(AgentRegistry.class),
+            taskExecutionService, latencyStatsService);
+    private final Agent agent = mock(Agent.class);
+    private final AgentTask task = new AgentTask();
+
+    @Test
+    void eachStageIsRecordedOnce() {
+        when(agent.name()).thenReturn("agentA");
+        when(agent.handle(task)).thenReturn(AgentResult.ok("done"));
+
+        AgentResult result = router.execute(agent, task);
+
+        assertThat(result.getStatus()).isEqualTo(AgentResult.ok("done").getStatus());
+        verify(latencyStatsService, times(1)).record(eq("agentA"), eq(LatencyStatsService.STAGE_EXECUTE), anyLong());
+        verify(latencyStatsService, times(1)).record(eq("agentA"), eq(LatencyStatsService.STAGE_PERSIST), anyLong());
+    }
+
+    @Test
+    void failedPersistDoesNotRecordExecuteAgain() {
+        when(agent.name()).thenReturn("agentA");
+        when(agent.handle(task)).thenReturn(AgentResult.ok("done"));
+        // 第一次写入 (成功结果) 慢且失败, 第二次写入错误结果成功
+        doAnswer(invocation -> {
+            Thread.sleep(50);
+            throw new IllegalStateException("database unavailable");
+        }).doReturn(null).when(taskExecutionService).updateTaskResult(eq(task.getTaskId()), any());
+
+        AgentResult result = router.execute(agent, task);
+
+        assertThat(result.getErrors()).anySatisfy(error -> assertThat(error).contains("database unavailable"));
+        verify(latencyStatsService, times(1)).record(eq("agentA"), eq(LatencyStatsService.STAGE_EXECUTE), anyLong());
+        verify(latencyStatsService, times(2)).record(eq("agentA"), eq(LatencyStatsService.STAGE_PERSIST), anyLong());
+    }
+
+    @Test
+    void failedHandleRecordsExecuteOnce() {
+        when(agent.name()).thenReturn("agentA");
+        when(agent.handle(task)).thenThrow(new IllegalArgumentException("bad payload"));
+
+        AgentResult result = router.execute(agent, task);
+
+        assertThat(result.getErrors()).anySatisfy(error -> assertThat(error).contains("bad payload"));
+        verify(latencyStatsService, times(1)).record(eq("agentA"), eq(LatencyStatsService.STAGE_EXECUTE), anyLong());
+        verify(latencyStatsService, times(1)).record(eq("agentA"), eq(LatencyStatsService.STAGE_PERSIST), anyLong());
+    }
+}
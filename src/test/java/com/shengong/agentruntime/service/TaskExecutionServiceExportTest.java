@@ -0,0 +1,105 @@
+package com.shengong.agentruntime.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.entity.TaskExecutionEntity;
+import com.shengong.agentruntime.repository.TaskExecutionStore;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * NDJSON 导出测试
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class TaskExecutionServiceExportTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final TaskExecutionStore store = mock(TaskExecutionStore.class);
+    private final TaskExecutionService service =
+            new TaskExecutionService(store, mock(TaskSearchService.class), objectMapper);
+
+    @Test
+    void exportsOneRecordPerLine() throws Exception {
+        when(store.streamForExport(any(), any(), any(), any(), any()))
+                .thenReturn(Stream.of(entity(1), entity(2), entity(3)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = service.exportNdjson(LocalDateTime.MIN, LocalDateTime.MAX, null, null, null, out);
+
+        List<JsonNode> lines = lines(out);
+        assertThat(count).isEqualTo(3);
+        assertThat(lines).extracting(line -> line.get("taskId").asText()).containsExactly("t1", "t2", "t3");
+    }
+
+    @Test
+    void failureMidStreamEndsWithErrorRecord() throws Exception {
+        Iterator<TaskExecutionEntity> failing = new Iterator<>() {
+            private int next = 1;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public TaskExecutionEntity next() {
+                if (next > 2) {
+                    throw new IllegalStateException("cursor closed");
+                }
+                return entity(next++);
+            }
+        };
+        when(store.streamForExport(any(), any(), any(), any(), any()))
+                .thenReturn(StreamSupport.stream(Spliterators.spliteratorUnknownSize(failing, Spliterator.ORDERED), false));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = service.exportNdjson(LocalDateTime.MIN, LocalDateTime.MAX, null, null, null, out);
+
+        List<JsonNode> lines = lines(out);
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(3);
+        JsonNode error = lines.get(2).get("error");
+        assertThat(error.get("message").asText()).isEqualTo("cursor closed");
+        assertThat(error.get("exportedCount").asLong()).isEqualTo(2);
+    }
+
+    private List<JsonNode> lines(ByteArrayOutputStream out) throws Exception {
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertThat(text).endsWith("\n");
+        return text.lines().map(line -> {
+            try {
+                return objectMapper.readTree(line);
+            } catch (Exception e) {
+                throw new AssertionError("not a JSON line: " + line, e);
+            }
+        }).toList();
+    }
+
+    private static TaskExecutionEntity entity(int n) {
+        return TaskExecutionEntity.builder()
+                .id((long) n)
+                .taskId("t" + n)
+                .taskType("analysis")
+                .domain("generic")
+                .traceId("trace" + n)
+                .status("success")
+                .startedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(n))
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.shengong.agentruntime.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shengong.agentruntime.entity.TaskExecutionEntity;
+import com.shengong.agentruntime.model.KeysetPage;
+import com.shengong.agentruntime.model.TaskExecutionCursor;
+import com.shengong.agentruntime.model.TaskExecutionSummary;
+import com.shengong.agentruntime.repository.TaskExecutionStore;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Keyset 分页测试
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class TaskExecutionServiceKeysetTest {
+
+    private final TaskExecutionStore store = mock(TaskExecutionStore.class);
+    private final TaskExecutionService service =
+            new TaskExecutionService(store, mock(TaskSearchService.class), new ObjectMapper());
+
+    @Test
+    void fetchesOneExtraRowToDetectNextPage() {
+        when(store.findSummariesByUserId(eq("u1"), isNull(), eq(4))).thenReturn(summaries(1, 4));
+
+        KeysetPage<TaskExecutionSummary> page = service.findSummariesByUserId("u1", null, 3);
+
+        assertThat(page.getItems()).extracting(TaskExecutionSummary::getId).containsExactly(1L, 2L, 3L);
+        assertThat(page.isHasMore()).isTrue();
+        TaskExecutionCursor next = TaskExecutionCursor.decode(page.getNextCursor());
+        assertThat(next.getId()).isEqualTo(3L);
+        assertThat(next.getStartedAt()).isEqualTo(startedAt(3));
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        when(store.findSummariesByUserId(eq("u1"), isNull(), eq(4))).thenReturn(summaries(1, 2));
+
+        KeysetPage<TaskExecutionSummary> page = service.findSummariesByUserId("u1", null, 3);
+
+        assertThat(page.getItems()).hasSize(2);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void pageSizeIsClamped() {
+        int limit = TaskExecutionService.MAX_PAGE_SIZE;
+        when(store.findSummariesByUserId(eq("u1"), isNull(), eq(limit + 1))).thenReturn(summaries(1, limit + 1));
+
+        KeysetPage<TaskExecutionSummary> page = service.findSummariesByUserId("u1", null, 10_000);
+
+        assertThat(page.getItems()).hasSize(limit);
+        assertThat(page.isHasMore()).isTrue();
+    }
+
+    @Test
+    void fullRecordsKeepKeysetOrderAndSkipDeletedRows() {
+        List<TaskExecutionSummary> page = summaries(1, 3);
+        // 存储层返回顺序与分页顺序不同, 且 id=2 已被删除
+        when(store.findAllById(anyList())).thenReturn(List.of(entity(3), entity(1)));
+
+        List<TaskExecutionEntity> records = service.loadFullRecords(page);
+
+        assertThat(records).extracting(TaskExecutionEntity::getId).containsExactly(1L, 3L);
+    }
+
+    private static List<TaskExecutionSummary> summaries(int from, int to) {
+        List<TaskExecutionSummary> rows = new ArrayList<>();
+        IntStream.rangeClosed(from, to).forEach(n -> {
+            TaskExecutionSummary summary = new TaskExecutionSummary();
+            summary.setId((long) n);
+            summary.setTaskId("t" + n);
+            summary.setStartedAt(startedAt(n));
+            rows.add(summary);
+        });
+        return rows;
+    }
+
+    private static TaskExecutionEntity entity(long id) {
+        return TaskExecutionEntity.builder().id(id).taskId("t" + id).build();
+    }
+
+    private static LocalDateTime startedAt(int n) {
+        return LocalDateTime.of(2024, 1, 1, 0, 0).minusMinutes(n);
+    }
+}
@@ -0,0 +1,191 @@
+package com.shengong.agentruntime.service;
+
+import com.shengong.agentruntime.entity.TaskExecutionEntity;
+import com.shengong.agentruntime.model.TaskSearchHit;
+import com.shengong.agentruntime.model.TaskSearchQuery;
+import com.shengong.agentruntime.model.TaskSearchResult;
+import com.shengong.agentruntime.repository.TaskExecutionStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 全文检索与索引重建测试
+ *
+ * @author 神工团队
+ * @since 1.2.0
+ */
+class TaskSearchServiceTest {
+
+    @TempDir
+    Path root;
+
+    private final TaskExecutionStore store = mock(TaskExecutionStore.class);
+    private TaskSearchService service;
+
+    @BeforeEach
+    void open() throws IOException {
+        service = new TaskSearchService(store, true, root.resolve("index").toString(), 16, List.of());
+        service.open();
+    }
+
+    @AfterEach
+    void close() throws IOException {
+        service.close();
+    }
+
+    @Test
+    void searchesChineseTextWithFacets() throws IOException {
+        service.index(entity(1, "订单超时分析", "agentA", "ok"));
+        service.index(entity(2, "库存同步失败", "agentB", "error"));
+        service.refresh();
+
+        TaskSearchResult result = service.search(query("订单"));
+
+        assertThat(result.getItems()).extracting(TaskSearchHit::getId).containsExactly(1L);
+        assertThat(result.getFacets().get("agentName")).containsExactly(Map.entry("agentA", 1L));
+    }
+
+    @Test
+    void oldIndexStaysSearchableWhileRebuilding() throws IOException {
+        service.index(entity(1, "旧的记录", "agentA", "ok"));
+        service.refresh();
+
+        List<Long> seenDuringRebuild = new ArrayList<>();
+        when(store.streamForExport(any(), any(), any(), any(), any())).thenAnswer(invocation ->
+                Stream.of(entity(1, "旧的记录", "agentA", "ok"), entity(2, "重建的记录", "agentA", "ok"))
+                        .peek(entity -> {
+                            service.refresh();
+                            seenDuringRebuild.add(search(query(null)).getTotal());
+                        }));
+
+        assertThat(service.rebuild()).isEqualTo(2);
+
+        assertThat(seenDuringRebuild).containsOnly(1L);
+        assertThat(service.search(query(null)).getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    void updatesDuringRebuildAreKept() throws IOException {
+        service.index(entity(1, "第一版", "agentA", "ok"));
+        service.index(entity(2, "将被删除", "agentA", "ok"));
+        service.refresh();
+
+        // 存储读到的是旧版本; 读取期间记录 1 被更新, 记录 2 被删除, 记录 3 被新增
+        when(store.streamForExport(any(), any(), any(), any(), any())).thenAnswer(invocation -> {
+            Stream<TaskExecutionEntity> rows = Stream.of(entity(1, "第一版", "agentA", "ok"),
+                    entity(2, "将被删除", "agentA", "ok"));
+            return rows.onClose(() -> {
+                service.index(entity(1, "第二版", "agentA", "ok"));
+                service.delete(entity(2, "将被删除", "agentA", "ok"));
+                service.index(entity(3, "新增记录", "agentA", "ok"));
+            });
+        });
+
+        service.rebuild();
+
+        assertThat(service.search(query(null)).getItems()).extracting(TaskSearchHit::getId)
+                .containsExactlyInAnyOrder(1L, 3L);
+        assertThat(service.search(query("第二版")).getTotal()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentWritesSurviveTheSwap() throws Exception {
+        // 存储只返回记录 1; 另一个线程在读取开始后持续写入新记录, 直到重建结束
+        CountDownLatch writing = new CountDownLatch(1);
+        AtomicBoolean rebuilding = new AtomicBoolean(true);
+        when(store.streamForExport(any(), any(), any(), any(), any())).thenAnswer(invocation ->
+                Stream.of(entity(1, "存储中的记录", "agentA", "ok")).peek(entity -> {
+                    try {
+                        writing.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+
+        AtomicLong written = new AtomicLong();
+        Thread writer = new Thread(() -> {
+            long id = 100;
+            while (rebuilding.get() || written.get() < 50) {
+                service.index(entity(id++, "重建期间写入", "agentB", "ok"));
+                written.incrementAndGet();
+                writing.countDown();
+            }
+        });
+        writer.start();
+        try {
+            service.rebuild();
+        } finally {
+            rebuilding.set(false);
+            writer.join();
+        }
+
+        service.refresh();
+        assertThat(service.search(query(null)).getTotal()).isEqualTo(1 + written.get());
+    }
+
+    @Test
+    void failedRebuildLeavesIndexUntouched() throws IOException {
+        service.index(entity(1, "保留的记录", "agentA", "ok"));
+        service.refresh();
+        when(store.streamForExport(any(), any(), any(), any(), any())).thenAnswer(invocation ->
+                Stream.of(entity(2, "半途失败", "agentA", "ok"), entity(3, "不会写入", "agentA", "ok"))
+                        .peek(entity -> {
+                            if (entity.getId() == 3) {
+                                throw new IllegalStateException("database down");
+                            }
+                        }));
+
+        assertThatThrownBy(service::rebuild).isInstanceOf(IllegalStateException.class);
+
+        service.refresh();
+        assertThat(service.search(query(null)).getItems()).extracting(TaskSearchHit::getId).containsExactly(1L);
+        assertThat(Files.exists(root.resolve("index.rebuild"))).isFalse();
+    }
+
+    private TaskSearchResult search(TaskSearchQuery query) {
+        try {
+            return service.search(query);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static TaskSearchQuery query(String q) {
+        return TaskSearchQuery.builder().q(q).size(10).build();
+    }
+
+    private static TaskExecutionEntity entity(long id, String summary, String agentName, String status) {
+        return TaskExecutionEntity.builder()
+                .id(id)
+                .taskId("task-" + id)
+                .taskType("analysis")
+                .domain("order")
+                .agentName(agentName)
+                .traceId("trace-" + id)
+                .status(status)
+                .summary(summary)
+                .startedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(id))
+                .build();
+    }
+}